@@ -0,0 +1,81 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.benchmarks;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Bucket index operations at varying bucket sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BucketStoreBenchmark {
+
+  @Param({"100", "10000", "100000"})
+  public int keys;
+
+  private StoreFixture fixture;
+  private int next;
+
+  @Setup
+  public void setup() throws IOException {
+    fixture = new StoreFixture();
+    //objects are not read by the benchmarked methods, only the bucket index is populated.
+    var bucket = fixture.bucketStore.createBucket("bucket", false);
+    for (var i = 0; i < keys; i++) {
+      bucket.addKey(StoreFixture.key(i));
+    }
+    fixture.objectMapper.writeValue(bucket.path().resolve("bucketMetadata.json").toFile(), bucket);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    fixture.delete();
+  }
+
+  /**
+   * Adds a key that already exists, the bucket size stays constant.
+   */
+  @Benchmark
+  public UUID addToBucket() {
+    return fixture.bucketStore.addToBucket(StoreFixture.key(next++ % keys), "bucket");
+  }
+
+  @Benchmark
+  public List<UUID> lookupKeysInBucket() {
+    return fixture.bucketStore.lookupKeysInBucket("prefix/0042/", "bucket");
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.benchmarks;
+
+import com.adobe.testing.s3mock.util.AwsChecksumInputStream;
+import com.adobe.testing.s3mock.util.AwsChunkedDecodingChecksumInputStream;
+import com.adobe.testing.s3mock.util.AwsChunkedDecodingInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.awssdk.auth.signer.internal.chunkedencoding.AwsS3V4ChunkSigner;
+import software.amazon.awssdk.auth.signer.internal.chunkedencoding.AwsSignedChunkedEncodingInputStream;
+import software.amazon.awssdk.core.checksums.Algorithm;
+import software.amazon.awssdk.core.checksums.SdkChecksum;
+import software.amazon.awssdk.core.internal.io.AwsUnsignedChunkedEncodingInputStream;
+
+/**
+ * Decoding of request bodies sent by the AWS SDKs: V4 signed chunks with and without a trailing
+ * checksum, and unsigned chunks with a trailing checksum.
+ * The encoded bodies are created once with the SDK's encoders.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChunkedDecodingBenchmark {
+
+  private static final String CHECKSUM_HEADER = "x-amz-checksum-sha256";
+
+  @Param({"65536", "1048576", "16777216"})
+  public int size;
+
+  private byte[] signedChunks;
+  private byte[] signedChunksWithChecksum;
+  private byte[] unsignedChunksWithChecksum;
+
+  @Setup
+  public void setup() throws IOException {
+    var content = new byte[size];
+    new Random(42).nextBytes(content);
+    signedChunks = AwsSignedChunkedEncodingInputStream.builder()
+        .inputStream(new ByteArrayInputStream(content))
+        .awsChunkSigner(signer())
+        .build()
+        .readAllBytes();
+    signedChunksWithChecksum = AwsSignedChunkedEncodingInputStream.builder()
+        .inputStream(new ByteArrayInputStream(content))
+        .sdkChecksum(SdkChecksum.forAlgorithm(Algorithm.SHA256))
+        .checksumHeaderForTrailer(CHECKSUM_HEADER)
+        .awsChunkSigner(signer())
+        .build()
+        .readAllBytes();
+    unsignedChunksWithChecksum = AwsUnsignedChunkedEncodingInputStream.builder()
+        .inputStream(new ByteArrayInputStream(content))
+        .sdkChecksum(SdkChecksum.forAlgorithm(Algorithm.SHA256))
+        .checksumHeaderForTrailer(CHECKSUM_HEADER)
+        .build()
+        .readAllBytes();
+  }
+
+  @Benchmark
+  public long awsChunkedDecodingInputStream() throws IOException {
+    return drain(new AwsChunkedDecodingInputStream(new ByteArrayInputStream(signedChunks)));
+  }
+
+  @Benchmark
+  public long awsChunkedDecodingChecksumInputStream() throws IOException {
+    return drain(new AwsChunkedDecodingChecksumInputStream(
+        new ByteArrayInputStream(signedChunksWithChecksum)));
+  }
+
+  @Benchmark
+  public long awsChecksumInputStream() throws IOException {
+    return drain(new AwsChecksumInputStream(
+        new ByteArrayInputStream(unsignedChunksWithChecksum)));
+  }
+
+  /**
+   * Reads the stream like ObjectStore does when writing the data file.
+   */
+  private static long drain(InputStream inputStream) throws IOException {
+    try (inputStream) {
+      return inputStream.transferTo(OutputStream.nullOutputStream());
+    }
+  }
+
+  private static AwsS3V4ChunkSigner signer() {
+    return new AwsS3V4ChunkSigner("signingKey".getBytes(StandardCharsets.UTF_8), "dateTime",
+        "keyPath");
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.benchmarks;
+
+import com.adobe.testing.s3mock.util.DigestUtil;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.file.PathUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * ETag digests of object files and of multipart uploads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DigestBenchmark {
+
+  private static final int PARTS = 4;
+
+  @Param({"1024", "1048576", "16777216"})
+  public int size;
+
+  private Path directory;
+  private File file;
+  private List<Path> parts;
+
+  @Setup
+  public void setup() throws IOException {
+    directory = Files.createTempDirectory("s3mockDigestBenchmark");
+    var random = new Random(42);
+    var content = new byte[size];
+    random.nextBytes(content);
+    file = Files.write(directory.resolve("binaryData"), content).toFile();
+    parts = new ArrayList<>();
+    for (var i = 1; i <= PARTS; i++) {
+      parts.add(Files.write(directory.resolve(i + ".part"), content));
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    PathUtils.deleteDirectory(directory);
+  }
+
+  @Benchmark
+  public String hexDigest() {
+    return DigestUtil.hexDigest(file);
+  }
+
+  @Benchmark
+  public String hexDigest_kms() {
+    return DigestUtil.hexDigest("arn:aws:kms:us-east-1:1234567890:key/valid-test-key-id", file);
+  }
+
+  /**
+   * Digest of a multipart upload with {@value #PARTS} parts of the benchmarked size each.
+   */
+  @Benchmark
+  public String hexDigestMultipart() {
+    return DigestUtil.hexDigestMultipart(parts);
+  }
+}
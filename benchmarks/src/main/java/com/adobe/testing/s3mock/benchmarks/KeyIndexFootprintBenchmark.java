@@ -0,0 +1,126 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.benchmarks;
+
+import com.adobe.testing.s3mock.dto.Owner;
+import com.adobe.testing.s3mock.dto.StorageClass;
+import com.adobe.testing.s3mock.store.KeyIndex;
+import com.adobe.testing.s3mock.store.ObjectListing;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Heap retained by the key index of a bucket with 1M and 10M keys, and the time to build it by
+ * adding the keys in random order.
+ * With {@code listed}, the {@link ObjectListing} the bucket keeps in memory for each listed object
+ * is added as well, which is what a bucket holds after all of its objects were listed once.
+ * The retained heap is reported as the secondary results {@code bytesPerKey} and
+ * {@code megabytes}, measured after full garbage collections.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = "-Xmx8g")
+public class KeyIndexFootprintBenchmark {
+  /**
+   * Multiplier permuting the key numbers, a prime and therefore coprime to the number of keys.
+   */
+  private static final long PERMUTATION = 2_654_435_761L;
+
+  @Param({"1000000", "10000000"})
+  public int keys;
+
+  @Param({"SKIP_LIST", "COMPACT", "RADIX"})
+  public KeyIndex.Type type;
+
+  @Param({"false", "true"})
+  public boolean listed;
+
+  /**
+   * Retained heap of the last built index.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class Footprint {
+    public long bytesPerKey;
+    public long megabytes;
+  }
+
+  @Benchmark
+  public Object[] build(Footprint footprint) {
+    var before = usedHeap();
+    var index = type.create();
+    Map<UUID, ObjectListing> listings = new ConcurrentHashMap<>();
+    for (var i = 0; i < keys; i++) {
+      var n = (int) (i * PERMUTATION % keys);
+      var id = new UUID(n, i);
+      index.put(key(n), id);
+      if (listed) {
+        listings.put(id, listing(n));
+      }
+    }
+    var retained = usedHeap() - before;
+    footprint.bytesPerKey = retained / keys;
+    footprint.megabytes = retained >> 20;
+    return new Object[] {index, listings};
+  }
+
+  /**
+   * Unique keys shaped like partitioned data sets, 61 bytes long with long common prefixes.
+   */
+  static String key(int n) {
+    return String.format("tenant-%02d/2024/%02d/%02d/%02d/partition-%05d/part-%08d.parquet",
+        n % 16, 1 + n % 12, 1 + n % 28, n % 24, n % 50_000, n);
+  }
+
+  /**
+   * Listing attributes as read from the metadata file of an object written with PutObject.
+   */
+  static ObjectListing listing(int n) {
+    return new ObjectListing(Integer.toString(1024 + n % 65_536),
+        String.format("2024-%02d-%02dT%02d:%02d:%02d.%03dZ", 1 + n % 12, 1 + n % 28, n % 24,
+            n % 60, n % 59, n % 1000),
+        String.format("\"%032x\"", (long) n * PERMUTATION),
+        StorageClass.STANDARD,
+        new Owner(Owner.DEFAULT_OWNER.id(), Owner.DEFAULT_OWNER.displayName()),
+        null);
+  }
+
+  private static long usedHeap() {
+    var memory = ManagementFactory.getMemoryMXBean();
+    for (var i = 0; i < 3; i++) {
+      System.gc();
+    }
+    return memory.getHeapMemoryUsage().getUsed();
+  }
+}
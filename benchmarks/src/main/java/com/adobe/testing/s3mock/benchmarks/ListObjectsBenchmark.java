@@ -0,0 +1,77 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.benchmarks;
+
+import com.adobe.testing.s3mock.dto.ListBucketResultV2;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * ListObjectsV2 on buckets of varying sizes, keys are spread over 100 common prefixes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListObjectsBenchmark {
+
+  @Param({"1000", "10000"})
+  public int keys;
+
+  private StoreFixture fixture;
+
+  @Setup
+  public void setup() throws IOException {
+    fixture = new StoreFixture();
+    fixture.createBucket("bucket", keys, new byte[16]);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    fixture.delete();
+  }
+
+  @Benchmark
+  public ListBucketResultV2 listObjectsV2_firstPage() {
+    return fixture.bucketService.listObjectsV2("bucket", null, null, null, null, 1000, null);
+  }
+
+  @Benchmark
+  public ListBucketResultV2 listObjectsV2_prefix() {
+    return fixture.bucketService.listObjectsV2("bucket", "prefix/0042/", null, null, null, 1000,
+        null);
+  }
+
+  @Benchmark
+  public ListBucketResultV2 listObjectsV2_delimiter() {
+    return fixture.bucketService.listObjectsV2("bucket", "prefix/", "/", null, null, 1000, null);
+  }
+}
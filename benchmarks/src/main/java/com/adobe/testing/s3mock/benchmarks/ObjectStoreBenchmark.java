@@ -0,0 +1,84 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.benchmarks;
+
+import com.adobe.testing.s3mock.store.BucketMetadata;
+import com.adobe.testing.s3mock.store.S3ObjectMetadata;
+import java.io.IOException;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Storing an object (data file, ETag digest, metadata file) and reading its metadata back.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ObjectStoreBenchmark {
+
+  @Param({"1024", "1048576"})
+  public int objectSize;
+
+  private StoreFixture fixture;
+  private BucketMetadata bucket;
+  private byte[] content;
+  private UUID id;
+
+  @Setup
+  public void setup() throws IOException {
+    fixture = new StoreFixture();
+    bucket = fixture.createBucket("bucket", 0, new byte[0]);
+    content = new byte[objectSize];
+    new Random(42).nextBytes(content);
+    id = UUID.randomUUID();
+    fixture.storeObject(bucket, id, "key", content);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    fixture.delete();
+  }
+
+  /**
+   * Overwrites the same object, the store's file system usage stays constant.
+   */
+  @Benchmark
+  public S3ObjectMetadata storeS3ObjectMetadata() {
+    return fixture.storeObject(bucket, id, "key", content);
+  }
+
+  @Benchmark
+  public S3ObjectMetadata getS3ObjectMetadata() {
+    return fixture.objectStore.getS3ObjectMetadata(bucket, id);
+  }
+}
@@ -0,0 +1,218 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.benchmarks;
+
+import com.adobe.testing.s3mock.dto.ChecksumAlgorithm;
+import com.adobe.testing.s3mock.dto.ListBucketResultV2;
+import com.adobe.testing.s3mock.dto.Owner;
+import com.adobe.testing.s3mock.dto.Prefix;
+import com.adobe.testing.s3mock.dto.S3Object;
+import com.adobe.testing.s3mock.dto.StorageClass;
+import com.adobe.testing.s3mock.dto.Tag;
+import com.adobe.testing.s3mock.store.BucketMetadata;
+import com.adobe.testing.s3mock.store.S3ObjectMetadata;
+import com.ctc.wstx.api.WstxOutputProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import com.fasterxml.jackson.dataformat.xml.deser.FromXmlParser;
+import com.fasterxml.jackson.dataformat.xml.ser.ToXmlGenerator;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Compares the generic {@link ObjectMapper} calls with pre-resolved {@link ObjectReader}s /
+ * {@link ObjectWriter}s, with and without the Blackbird module, for the types S3Mock
+ * (de-)serializes most: object metadata, bucket metadata and ListObjectsV2 responses.
+ * Run with {@code java -jar benchmarks/target/benchmarks.jar SerializationBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+  @Param({"false", "true"})
+  public boolean blackbird;
+
+  @Param({"1000"})
+  public int keys;
+
+  private ObjectMapper objectMapper;
+  private XmlMapper xmlMapper;
+  private ObjectReader objectMetadataReader;
+  private ObjectWriter objectMetadataWriter;
+  private ObjectReader bucketMetadataReader;
+  private ObjectWriter bucketMetadataWriter;
+  private ObjectWriter listingWriter;
+
+  private S3ObjectMetadata objectMetadata;
+  private byte[] objectMetadataJson;
+  private BucketMetadata bucketMetadata;
+  private byte[] bucketMetadataJson;
+  private ListBucketResultV2 listing;
+
+  @Setup
+  public void setup() throws IOException {
+    //same configuration as Spring Boot's ObjectMapper and S3Mock's XML message converter.
+    objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    xmlMapper = XmlMapper.builder()
+        .enable(ToXmlGenerator.Feature.AUTO_DETECT_XSI_TYPE)
+        .enable(FromXmlParser.Feature.AUTO_DETECT_XSI_TYPE)
+        .enable(ToXmlGenerator.Feature.WRITE_XML_DECLARATION)
+        .serializationInclusion(JsonInclude.Include.NON_EMPTY)
+        .build();
+    xmlMapper.getFactory().getXMLOutputFactory()
+        .setProperty(WstxOutputProperties.P_USE_DOUBLE_QUOTES_IN_XML_DECL, true);
+    if (blackbird) {
+      objectMapper.registerModule(new BlackbirdModule());
+      xmlMapper.registerModule(new BlackbirdModule());
+    }
+    objectMetadataReader = objectMapper.readerFor(S3ObjectMetadata.class);
+    objectMetadataWriter = objectMapper.writerFor(S3ObjectMetadata.class);
+    bucketMetadataReader = objectMapper.readerFor(BucketMetadata.class);
+    bucketMetadataWriter = objectMapper.writerFor(BucketMetadata.class);
+    listingWriter = xmlMapper.writerFor(ListBucketResultV2.class);
+
+    objectMetadata = objectMetadata("prefix/sub/key");
+    objectMetadataJson = objectMapper.writeValueAsBytes(objectMetadata);
+    bucketMetadata = bucketMetadata(keys);
+    bucketMetadataJson = objectMapper.writeValueAsBytes(bucketMetadata);
+    listing = listing(keys);
+  }
+
+  @Benchmark
+  public S3ObjectMetadata readObjectMetadata_objectMapper() throws IOException {
+    return objectMapper.readValue(objectMetadataJson, S3ObjectMetadata.class);
+  }
+
+  @Benchmark
+  public S3ObjectMetadata readObjectMetadata_objectReader() throws IOException {
+    return objectMetadataReader.readValue(objectMetadataJson);
+  }
+
+  @Benchmark
+  public byte[] writeObjectMetadata_objectMapper() throws IOException {
+    return objectMapper.writeValueAsBytes(objectMetadata);
+  }
+
+  @Benchmark
+  public byte[] writeObjectMetadata_objectWriter() throws IOException {
+    return objectMetadataWriter.writeValueAsBytes(objectMetadata);
+  }
+
+  @Benchmark
+  public BucketMetadata readBucketMetadata_objectMapper() throws IOException {
+    return objectMapper.readValue(bucketMetadataJson, BucketMetadata.class);
+  }
+
+  @Benchmark
+  public BucketMetadata readBucketMetadata_objectReader() throws IOException {
+    return bucketMetadataReader.readValue(bucketMetadataJson);
+  }
+
+  @Benchmark
+  public byte[] writeBucketMetadata_objectMapper() throws IOException {
+    return objectMapper.writeValueAsBytes(bucketMetadata);
+  }
+
+  @Benchmark
+  public byte[] writeBucketMetadata_objectWriter() throws IOException {
+    return bucketMetadataWriter.writeValueAsBytes(bucketMetadata);
+  }
+
+  @Benchmark
+  public void writeListBucketResultV2_xmlMapper() throws IOException {
+    xmlMapper.writeValue(OutputStream.nullOutputStream(), listing);
+  }
+
+  @Benchmark
+  public void writeListBucketResultV2_objectWriter() throws IOException {
+    listingWriter.writeValue(OutputStream.nullOutputStream(), listing);
+  }
+
+  static S3ObjectMetadata objectMetadata(String key) {
+    var userMetadata = new HashMap<String, String>();
+    userMetadata.put("x-amz-meta-test", "value");
+    return new S3ObjectMetadata(
+        UUID.randomUUID(),
+        key,
+        "1024",
+        "2024-01-01T00:00:00.000Z",
+        "\"d41d8cd98f00b204e9800998ecf8427e\"",
+        "application/octet-stream",
+        1704067200000L,
+        Path.of("/tmp/s3mock/bucket", UUID.randomUUID().toString(), "binaryData"),
+        userMetadata,
+        List.of(new Tag("tag", "value")),
+        null,
+        null,
+        Owner.DEFAULT_OWNER,
+        Map.of("Content-Encoding", "gzip"),
+        Map.of(),
+        ChecksumAlgorithm.SHA256,
+        "47DEQpj8HBSa+/TImW+5JCeuQeRkm5NMpJWZG3hSuFU=",
+        StorageClass.STANDARD
+    );
+  }
+
+  static BucketMetadata bucketMetadata(int keys) {
+    var bucketMetadata = new BucketMetadata("bucket", "2024-01-01T00:00:00.000Z", null, null,
+        Path.of("/tmp/s3mock/bucket"));
+    for (var i = 0; i < keys; i++) {
+      bucketMetadata.addKey(key(i));
+    }
+    return bucketMetadata;
+  }
+
+  static ListBucketResultV2 listing(int keys) {
+    var contents = new ArrayList<S3Object>(keys);
+    for (var i = 0; i < keys; i++) {
+      contents.add(S3Object.from(objectMetadata(key(i))));
+    }
+    return new ListBucketResultV2("bucket", "prefix/", keys, true, contents,
+        List.of(new Prefix("prefix/common/")), null, String.valueOf(keys), "token", null, "url");
+  }
+
+  static String key(int i) {
+    return String.format("prefix/%04d/object with spaces %d", i % 100, i);
+  }
+}
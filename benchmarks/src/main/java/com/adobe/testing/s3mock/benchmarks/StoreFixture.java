@@ -0,0 +1,109 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.benchmarks;
+
+import com.adobe.testing.s3mock.dto.Owner;
+import com.adobe.testing.s3mock.dto.StorageClass;
+import com.adobe.testing.s3mock.service.BucketService;
+import com.adobe.testing.s3mock.store.BucketMetadata;
+import com.adobe.testing.s3mock.store.BucketStore;
+import com.adobe.testing.s3mock.store.ObjectStore;
+import com.adobe.testing.s3mock.store.S3ObjectMetadata;
+import com.adobe.testing.s3mock.store.StoreMetrics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.apache.commons.io.file.PathUtils;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Stores and services on a temporary root folder, wired like StoreConfiguration and
+ * ServiceConfiguration do.
+ */
+final class StoreFixture {
+  private static final DateTimeFormatter S3_OBJECT_DATE_FORMAT = DateTimeFormatter
+      .ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'")
+      .withZone(ZoneId.of("UTC"));
+  private static final String BUCKET_META_FILE = "bucketMetadata.json";
+
+  final Path root;
+  final ObjectMapper objectMapper;
+  final BucketStore bucketStore;
+  final ObjectStore objectStore;
+  final BucketService bucketService;
+
+  StoreFixture() throws IOException {
+    root = Files.createTempDirectory("s3mockBenchmark");
+    objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    var metrics = StoreMetrics.noop();
+    bucketStore = new BucketStore(root.toFile(), false, S3_OBJECT_DATE_FORMAT, objectMapper,
+        metrics);
+    objectStore = new ObjectStore(false, S3_OBJECT_DATE_FORMAT, objectMapper, metrics);
+    bucketService = new BucketService(bucketStore, objectStore);
+  }
+
+  /**
+   * Creates a bucket with the given number of objects.
+   * Keys are registered in the bucket metadata in memory and written once, adding them one by one
+   * through {@link BucketStore#addToBucket} would rewrite the bucket metadata for every key.
+   */
+  BucketMetadata createBucket(String bucketName, int keys, byte[] content) throws IOException {
+    var bucket = bucketStore.createBucket(bucketName, false);
+    for (var i = 0; i < keys; i++) {
+      var key = key(i);
+      storeObject(bucket, bucket.addKey(key), key, content);
+    }
+    objectMapper.writeValue(bucket.path().resolve(BUCKET_META_FILE).toFile(), bucket);
+    return bucket;
+  }
+
+  S3ObjectMetadata storeObject(BucketMetadata bucket, UUID id, String key, byte[] content) {
+    return objectStore.storeS3ObjectMetadata(bucket,
+        id,
+        key,
+        "application/octet-stream",
+        Map.of(),
+        new ByteArrayInputStream(content),
+        false,
+        Map.of(),
+        Map.of(),
+        null,
+        List.of(),
+        null,
+        null,
+        Owner.DEFAULT_OWNER,
+        StorageClass.STANDARD);
+  }
+
+  void delete() throws IOException {
+    PathUtils.deleteDirectory(root);
+  }
+
+  /**
+   * Keys spread over 100 "folders", e.g. "prefix/0042/object-4242".
+   */
+  static String key(int i) {
+    return String.format("prefix/%04d/object-%d", i % 100, i);
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.benchmarks.load;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.BucketAlreadyOwnedByYouException;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+
+/**
+ * {@link LoadClient} using the AWS CRT based S3 client.
+ * The CRT native library is not a dependency of the benchmarks by default, build with
+ * {@code -Pcrt} to use this client.
+ */
+final class CrtLoadClient implements LoadClient {
+  private static final String CRT_CLASS = "software.amazon.awssdk.crt.CRT";
+
+  private final S3AsyncClient s3Client;
+
+  CrtLoadClient(URI endpoint, int concurrency) {
+    try {
+      Class.forName(CRT_CLASS);
+    } catch (ClassNotFoundException e) {
+      throw new IllegalStateException("The CRT client needs the AWS CRT library, "
+          + "build the benchmarks with -Pcrt", e);
+    }
+    s3Client = S3AsyncClient.crtBuilder()
+        .region(REGION)
+        .credentialsProvider(CREDENTIALS)
+        .endpointOverride(endpoint)
+        .forcePathStyle(true)
+        .maxConcurrency(concurrency)
+        .build();
+  }
+
+  @Override
+  public void createBucketIfMissing(String bucket) {
+    try {
+      join(s3Client.createBucket(request -> request.bucket(bucket)));
+    } catch (BucketAlreadyOwnedByYouException e) {
+      // reuse the bucket
+    }
+  }
+
+  @Override
+  public void put(String bucket, String key, byte[] payload, int length) {
+    join(s3Client.putObject(request -> request.bucket(bucket).key(key), body(payload, length)));
+  }
+
+  @Override
+  public long get(String bucket, String key) {
+    return join(s3Client.getObject(request -> request.bucket(bucket).key(key),
+        AsyncResponseTransformer.toBytes())).asByteArrayUnsafe().length;
+  }
+
+  @Override
+  public long getRange(String bucket, String key, long first, long last) {
+    return join(s3Client.getObject(request -> request.bucket(bucket).key(key)
+        .range("bytes=" + first + "-" + last), AsyncResponseTransformer.toBytes()))
+        .asByteArrayUnsafe().length;
+  }
+
+  @Override
+  public int list(String bucket, String prefix, int maxKeys) {
+    return join(s3Client.listObjectsV2(request -> request.bucket(bucket).prefix(prefix)
+        .maxKeys(maxKeys))).contents().size();
+  }
+
+  @Override
+  public void multipartUpload(String bucket, String key, byte[] payload, int partSize,
+      int parts) {
+    var uploadId = join(s3Client.createMultipartUpload(request -> request.bucket(bucket)
+        .key(key))).uploadId();
+    var completedParts = new ArrayList<CompletedPart>();
+    for (var partNumber = 1; partNumber <= parts; partNumber++) {
+      final var number = partNumber;
+      var etag = join(s3Client.uploadPart(request -> request.bucket(bucket).key(key)
+          .uploadId(uploadId).partNumber(number), body(payload, partSize))).eTag();
+      completedParts.add(CompletedPart.builder().partNumber(number).eTag(etag).build());
+    }
+    join(s3Client.completeMultipartUpload(request -> request.bucket(bucket).key(key)
+        .uploadId(uploadId).multipartUpload(upload -> upload.parts(completedParts))));
+  }
+
+  @Override
+  public void delete(String bucket, String key) {
+    join(s3Client.deleteObject(request -> request.bucket(bucket).key(key)));
+  }
+
+  @Override
+  public void close() {
+    s3Client.close();
+  }
+
+  private static AsyncRequestBody body(byte[] payload, int length) {
+    return AsyncRequestBody.fromRemainingByteBufferUnsafe(ByteBuffer.wrap(payload, 0, length));
+  }
+
+  /**
+   * Waits for the response, rethrowing the failure like the synchronous client would.
+   */
+  private static <T> T join(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.benchmarks.load;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The keys a load run works on and the size of the object currently stored under each key.
+ * Keys are "{client}/{folder}/{index}-" padded to a length drawn from the key length
+ * distribution, spread over {@link #FOLDERS} folders that are listed by prefix.
+ */
+final class KeySpace {
+  static final int FOLDERS = 100;
+  private static final int LOOKUP_ATTEMPTS = 16;
+
+  private final String prefix;
+  private final String[] keys;
+  private final AtomicLongArray sizes;
+
+  KeySpace(String prefix, int keys, WeightedChoice<Integer> keyLengths, long seed) {
+    this.prefix = prefix;
+    this.keys = new String[keys];
+    this.sizes = new AtomicLongArray(keys);
+    var random = new Random(seed);
+    for (var i = 0; i < keys; i++) {
+      var key = new StringBuilder(folder(i % FOLDERS)).append("%08d-".formatted(i));
+      var length = keyLengths.next(random);
+      while (key.length() < length) {
+        key.append((char) ('a' + random.nextInt(26)));
+      }
+      this.keys[i] = key.toString();
+    }
+  }
+
+  int size() {
+    return keys.length;
+  }
+
+  String key(int index) {
+    return keys[index];
+  }
+
+  String folder(int folder) {
+    return "%s/d%02d/".formatted(prefix, folder);
+  }
+
+  long objectSize(int index) {
+    return sizes.get(index);
+  }
+
+  void stored(int index, long size) {
+    sizes.set(index, size);
+  }
+
+  /**
+   * Claims a stored object for deletion, so that concurrent deletes do not pick the same key.
+   */
+  boolean claimForDelete(int index) {
+    return sizes.getAndSet(index, 0) > 0;
+  }
+
+  int anyIndex(Random random) {
+    return random.nextInt(keys.length);
+  }
+
+  /**
+   * Index of a key that currently has an object, or -1 if none was found after a few attempts.
+   */
+  int storedIndex(Random random) {
+    for (var attempt = 0; attempt < LOOKUP_ATTEMPTS; attempt++) {
+      var index = random.nextInt(keys.length);
+      if (sizes.get(index) > 0) {
+        return index;
+      }
+    }
+    return -1;
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.benchmarks.load;
+
+import java.net.URI;
+import java.util.List;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+
+/**
+ * The S3 requests of the {@link LoadGenerator}, executed by one of the AWS SDK clients.
+ * All methods block until the response was received completely.
+ */
+interface LoadClient extends AutoCloseable {
+  String SDK = "sdk";
+  String CRT = "crt";
+  List<String> CLIENTS = List.of(SDK, CRT);
+
+  Region REGION = Region.US_EAST_1;
+  AwsCredentialsProvider CREDENTIALS =
+      StaticCredentialsProvider.create(AwsBasicCredentials.create("foo", "bar"));
+
+  static LoadClient create(String client, URI endpoint, int concurrency) {
+    return switch (client) {
+      case SDK -> new SdkLoadClient(endpoint, concurrency);
+      case CRT -> new CrtLoadClient(endpoint, concurrency);
+      default -> throw new IllegalArgumentException("Unknown client '" + client + "'");
+    };
+  }
+
+  void createBucketIfMissing(String bucket);
+
+  void put(String bucket, String key, byte[] payload, int length);
+
+  /**
+   * Returns the number of bytes received.
+   */
+  long get(String bucket, String key);
+
+  /**
+   * Returns the number of bytes received.
+   */
+  long getRange(String bucket, String key, long first, long last);
+
+  /**
+   * Returns the number of keys received.
+   */
+  int list(String bucket, String prefix, int maxKeys);
+
+  void multipartUpload(String bucket, String key, byte[] payload, int partSize, int parts);
+
+  void delete(String bucket, String key);
+
+  @Override
+  void close();
+}
@@ -0,0 +1,220 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.benchmarks.load;
+
+import static com.adobe.testing.s3mock.S3MockApplication.PROP_HTTPS_PORT;
+import static com.adobe.testing.s3mock.S3MockApplication.PROP_HTTP_PORT;
+import static com.adobe.testing.s3mock.S3MockApplication.PROP_SILENT;
+import static com.adobe.testing.s3mock.S3MockApplication.RANDOM_PORT;
+
+import com.adobe.testing.s3mock.S3MockApplication;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * End-to-end load test: drives a mix of S3 operations through the AWS SDK clients against
+ * S3Mock and reports throughput and latency percentiles per operation.
+ * Without {@code --endpoint}, S3Mock is started in this JVM, configured through system
+ * properties as usual.
+ * See {@link LoadOptions#USAGE} for the options.
+ */
+public final class LoadGenerator {
+  private final LoadOptions options;
+  private final String client;
+  private final URI endpoint;
+  private final KeySpace keySpace;
+  private final byte[] payload;
+
+  private LoadGenerator(LoadOptions options, String client, URI endpoint) {
+    this.options = options;
+    this.client = client;
+    this.endpoint = endpoint;
+    this.keySpace = new KeySpace(client, options.keys(), options.keyLengths(), options.seed());
+    this.payload = new byte[options.maxPayloadSize()];
+    new Random(options.seed()).nextBytes(payload);
+  }
+
+  public static void main(String[] args) throws Exception {
+    if (Arrays.asList(args).contains("--help")) {
+      System.out.print(LoadOptions.USAGE);
+      return;
+    }
+    LoadOptions options;
+    try {
+      options = LoadOptions.parse(args);
+    } catch (IllegalArgumentException e) {
+      System.err.println(e.getMessage());
+      System.err.print(LoadOptions.USAGE);
+      System.exit(2);
+      return;
+    }
+
+    var s3Mock = options.endpoint() == null ? startS3Mock() : null;
+    try {
+      var endpoint = s3Mock == null ? options.endpoint() : localEndpoint(s3Mock);
+      for (var client : options.clients()) {
+        new LoadGenerator(options, client, endpoint).run();
+      }
+    } finally {
+      if (s3Mock != null) {
+        s3Mock.stop();
+      }
+    }
+    // the AWS clients may leave non-daemon threads behind
+    System.exit(0);
+  }
+
+  private static S3MockApplication startS3Mock() {
+    var properties = new HashMap<String, Object>();
+    properties.put(PROP_HTTPS_PORT, RANDOM_PORT);
+    properties.put(PROP_HTTP_PORT, RANDOM_PORT);
+    properties.put(PROP_SILENT, true);
+    return S3MockApplication.start(properties);
+  }
+
+  @SuppressWarnings("removal")
+  private static URI localEndpoint(S3MockApplication s3Mock) {
+    return URI.create("http://localhost:" + s3Mock.getHttpPort());
+  }
+
+  private void run() throws InterruptedException, ExecutionException {
+    System.out.printf("%nRunning %s client against %s: %d threads, %d s warmup, %d s recorded%n",
+        client, endpoint, options.threads(), options.warmup().toSeconds(),
+        options.duration().toSeconds());
+    try (var loadClient = LoadClient.create(client, endpoint, options.threads())) {
+      loadClient.createBucketIfMissing(options.bucket());
+      preload(loadClient);
+
+      var recorder = new LoadRecorder();
+      var recordFrom = System.nanoTime() + options.warmup().toNanos();
+      var end = recordFrom + options.duration().toNanos();
+      runWorkers(() -> {
+        var random = ThreadLocalRandom.current();
+        for (var now = System.nanoTime(); now < end; now = System.nanoTime()) {
+          var operation = options.mix().next(random);
+          try {
+            var result = execute(loadClient, operation, random);
+            if (now >= recordFrom) {
+              recorder.success(result.operation(), System.nanoTime() - now, result.bytes());
+            }
+          } catch (RuntimeException e) {
+            if (now >= recordFrom) {
+              recorder.failure(operation, e);
+            }
+          }
+        }
+      });
+      recorder.print(System.out, client, Duration.ofNanos(System.nanoTime() - recordFrom));
+    }
+  }
+
+  /**
+   * Stores the first {@code --preload} keys, so that reads have objects to work on.
+   */
+  private void preload(LoadClient loadClient) throws InterruptedException, ExecutionException {
+    var next = new AtomicInteger();
+    runWorkers(() -> {
+      var random = ThreadLocalRandom.current();
+      for (var index = next.getAndIncrement(); index < options.preload();
+          index = next.getAndIncrement()) {
+        put(loadClient, index, random);
+      }
+    });
+  }
+
+  private void runWorkers(Runnable worker) throws InterruptedException, ExecutionException {
+    var executor = Executors.newFixedThreadPool(options.threads());
+    try {
+      var futures = new ArrayList<Future<?>>();
+      for (var i = 0; i < options.threads(); i++) {
+        futures.add(executor.submit(worker));
+      }
+      for (var future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Executes the operation, reads and deletes fall back to a PUT when they find no stored
+   * object.
+   */
+  private Result execute(LoadClient loadClient, Operation operation, Random random) {
+    return switch (operation) {
+      case PUT -> put(loadClient, keySpace.anyIndex(random), random);
+      case GET -> {
+        var index = keySpace.storedIndex(random);
+        yield index < 0
+            ? put(loadClient, keySpace.anyIndex(random), random)
+            : new Result(operation, loadClient.get(options.bucket(), keySpace.key(index)));
+      }
+      case RANGE_GET -> {
+        var index = keySpace.storedIndex(random);
+        var size = index < 0 ? 0 : keySpace.objectSize(index);
+        if (size == 0) {
+          yield put(loadClient, keySpace.anyIndex(random), random);
+        }
+        var length = Math.min(options.rangeSize(), size);
+        var first = random.nextLong(size - length + 1);
+        yield new Result(operation, loadClient.getRange(options.bucket(), keySpace.key(index),
+            first, first + length - 1));
+      }
+      case LIST -> {
+        var prefix = keySpace.folder(random.nextInt(KeySpace.FOLDERS));
+        loadClient.list(options.bucket(), prefix, options.listMaxKeys());
+        yield new Result(operation, 0);
+      }
+      case MULTIPART -> {
+        var index = keySpace.anyIndex(random);
+        loadClient.multipartUpload(options.bucket(), keySpace.key(index), payload,
+            options.partSize(), options.parts());
+        var size = (long) options.partSize() * options.parts();
+        keySpace.stored(index, size);
+        yield new Result(operation, size);
+      }
+      case DELETE -> {
+        var index = keySpace.storedIndex(random);
+        if (index < 0 || !keySpace.claimForDelete(index)) {
+          yield put(loadClient, keySpace.anyIndex(random), random);
+        }
+        loadClient.delete(options.bucket(), keySpace.key(index));
+        yield new Result(operation, 0);
+      }
+    };
+  }
+
+  private Result put(LoadClient loadClient, int index, Random random) {
+    int size = options.objectSizes().next(random);
+    loadClient.put(options.bucket(), keySpace.key(index), payload, size);
+    keySpace.stored(index, size);
+    return new Result(Operation.PUT, size);
+  }
+
+  private record Result(Operation operation, long bytes) {
+  }
+}
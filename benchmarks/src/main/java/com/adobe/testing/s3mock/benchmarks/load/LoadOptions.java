@@ -0,0 +1,181 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.benchmarks.load;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Options of the {@link LoadGenerator}, given as {@code --name=value} arguments.
+ */
+record LoadOptions(
+    URI endpoint,
+    List<String> clients,
+    int threads,
+    Duration warmup,
+    Duration duration,
+    WeightedChoice<Operation> mix,
+    WeightedChoice<Integer> objectSizes,
+    WeightedChoice<Integer> keyLengths,
+    int keys,
+    int preload,
+    int partSize,
+    int parts,
+    int rangeSize,
+    int listMaxKeys,
+    String bucket,
+    long seed) {
+
+  static final String DEFAULT_MIX = "put:30,get:40,range-get:10,list:10,multipart:5,delete:5";
+  static final String DEFAULT_OBJECT_SIZES = "1KiB:60,64KiB:25,1MiB:10,8MiB:5";
+  static final String DEFAULT_KEY_LENGTHS = "32:50,128:40,1024:10";
+
+  static final String USAGE = """
+      Usage: LoadGenerator [--name=value ...]
+        --endpoint=URI         S3 endpoint to load, default: S3Mock started in this JVM
+        --clients=LIST         clients to run one after the other: sdk, crt (default: sdk)
+        --threads=N            concurrent requests (default: 16)
+        --warmup=SECONDS       unrecorded warmup (default: 5)
+        --duration=SECONDS     recorded duration (default: 30)
+        --mix=WEIGHTS          operation mix (default: %s)
+        --object-sizes=WEIGHTS object size distribution (default: %s)
+        --key-lengths=WEIGHTS  key length distribution (default: %s)
+        --keys=N               number of distinct keys (default: 10000)
+        --preload=N            objects stored before the warmup (default: 1000)
+        --part-size=SIZE       multipart upload part size (default: 5MiB)
+        --parts=N              parts per multipart upload (default: 2)
+        --range-size=SIZE      bytes per range GET (default: 64KiB)
+        --list-max-keys=N      max-keys of ListObjectsV2 (default: 1000)
+        --bucket=NAME          bucket to use, created if missing (default: load-test)
+        --seed=N               seed of the key layout (default: 42)
+      WEIGHTS are comma separated value:weight pairs, SIZE accepts the suffixes KiB, MiB and GiB.
+      """.formatted(DEFAULT_MIX, DEFAULT_OBJECT_SIZES, DEFAULT_KEY_LENGTHS);
+
+  /**
+   * Keys are "{client}/{folder}/{index}-" plus padding, see {@link KeySpace}.
+   */
+  static final int MIN_KEY_LENGTH = 24;
+  static final int MAX_KEY_LENGTH = 1024;
+
+  private static final List<String> NAMES = List.of("endpoint", "clients", "threads", "warmup",
+      "duration", "mix", "object-sizes", "key-lengths", "keys", "preload", "part-size", "parts",
+      "range-size", "list-max-keys", "bucket", "seed");
+  private static final Pattern SIZE = Pattern.compile("(\\d+)\\s*(B|KiB|MiB|GiB)?");
+
+  static LoadOptions parse(String... args) {
+    var values = new HashMap<String, String>();
+    for (var arg : args) {
+      var separator = arg.indexOf('=');
+      if (!arg.startsWith("--") || separator < 0) {
+        throw new IllegalArgumentException("Expected --name=value, got '" + arg + "'");
+      }
+      var name = arg.substring(2, separator);
+      if (!NAMES.contains(name)) {
+        throw new IllegalArgumentException("Unknown option '--" + name + "'");
+      }
+      values.put(name, arg.substring(separator + 1));
+    }
+    var options = new LoadOptions(
+        values.containsKey("endpoint") ? URI.create(values.get("endpoint")) : null,
+        List.of(values.getOrDefault("clients", "sdk").split(",")),
+        positive(values, "threads", 16),
+        Duration.ofSeconds(nonNegative(values, "warmup", 5)),
+        Duration.ofSeconds(positive(values, "duration", 30)),
+        WeightedChoice.parse(values.getOrDefault("mix", DEFAULT_MIX), Operation::fromLabel),
+        WeightedChoice.parse(values.getOrDefault("object-sizes", DEFAULT_OBJECT_SIZES),
+            LoadOptions::size),
+        WeightedChoice.parse(values.getOrDefault("key-lengths", DEFAULT_KEY_LENGTHS),
+            LoadOptions::keyLength),
+        positive(values, "keys", 10_000),
+        nonNegative(values, "preload", 1_000),
+        size(values.getOrDefault("part-size", "5MiB")),
+        positive(values, "parts", 2),
+        size(values.getOrDefault("range-size", "64KiB")),
+        positive(values, "list-max-keys", 1_000),
+        values.getOrDefault("bucket", "load-test"),
+        Long.parseLong(values.getOrDefault("seed", "42")));
+    for (var client : options.clients) {
+      if (!LoadClient.CLIENTS.contains(client)) {
+        throw new IllegalArgumentException("Unknown client '" + client + "', expected one of "
+            + LoadClient.CLIENTS);
+      }
+    }
+    if (options.preload > options.keys) {
+      throw new IllegalArgumentException("--preload must not exceed --keys");
+    }
+    return options;
+  }
+
+  /**
+   * Size of the payload buffer shared by all uploads.
+   */
+  int maxPayloadSize() {
+    var max = partSize;
+    for (var size : objectSizes.values()) {
+      max = Math.max(max, size);
+    }
+    return max;
+  }
+
+  static int size(String value) {
+    var matcher = SIZE.matcher(value.trim());
+    if (!matcher.matches()) {
+      throw new IllegalArgumentException("Invalid size '" + value + "'");
+    }
+    var unit = matcher.group(2) == null ? "B" : matcher.group(2);
+    var multiplier = switch (unit) {
+      case "KiB" -> 1L << 10;
+      case "MiB" -> 1L << 20;
+      case "GiB" -> 1L << 30;
+      default -> 1L;
+    };
+    var size = Long.parseLong(matcher.group(1)) * multiplier;
+    if (size <= 0 || size > Integer.MAX_VALUE - 8) {
+      throw new IllegalArgumentException("Size out of range: '" + value + "'");
+    }
+    return (int) size;
+  }
+
+  private static int keyLength(String value) {
+    var length = Integer.parseInt(value);
+    if (length < MIN_KEY_LENGTH || length > MAX_KEY_LENGTH) {
+      throw new IllegalArgumentException("Key lengths must be between " + MIN_KEY_LENGTH
+          + " and " + MAX_KEY_LENGTH + ", got " + length);
+    }
+    return length;
+  }
+
+  private static int positive(Map<String, String> values, String name, int defaultValue) {
+    var value = nonNegative(values, name, defaultValue);
+    if (value == 0) {
+      throw new IllegalArgumentException("--" + name + " must be positive");
+    }
+    return value;
+  }
+
+  private static int nonNegative(Map<String, String> values, String name, int defaultValue) {
+    var value = values.containsKey(name) ? Integer.parseInt(values.get(name)) : defaultValue;
+    if (value < 0) {
+      throw new IllegalArgumentException("--" + name + " must not be negative");
+    }
+    return value;
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.benchmarks.load;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+/**
+ * Latencies, transferred bytes and errors of one load run, per {@link Operation}.
+ * Percentiles are computed over the whole run, not over a sliding window.
+ */
+final class LoadRecorder {
+  private static final double[] PERCENTILES = {0.5, 0.99, 0.999};
+  private static final String ALL = "all";
+  private static final double MIB = 1024 * 1024;
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final Map<Operation, Timer> timers = new EnumMap<>(Operation.class);
+  private final Map<Operation, LongAdder> bytes = new EnumMap<>(Operation.class);
+  private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+  private final Map<String, LongAdder> errorsByCode = new ConcurrentHashMap<>();
+  private final Timer all;
+
+  LoadRecorder() {
+    for (var operation : Operation.values()) {
+      timers.put(operation, timer(operation.label()));
+      bytes.put(operation, new LongAdder());
+      errors.put(operation, new LongAdder());
+    }
+    all = timer(ALL);
+  }
+
+  void success(Operation operation, long nanos, long transferred) {
+    timers.get(operation).record(nanos, TimeUnit.NANOSECONDS);
+    all.record(nanos, TimeUnit.NANOSECONDS);
+    bytes.get(operation).add(transferred);
+  }
+
+  void failure(Operation operation, RuntimeException e) {
+    errors.get(operation).increment();
+    errorsByCode.computeIfAbsent(operation.label() + ": " + code(e), code -> new LongAdder())
+        .increment();
+  }
+
+  void print(PrintStream out, String client, Duration elapsed) {
+    var seconds = elapsed.toNanos() / 1e9;
+    out.printf("%nClient %s, %.1f s recorded%n", client, seconds);
+    out.printf("%-10s %10s %8s %10s %9s %9s %9s %9s%n",
+        "operation", "ops", "errors", "ops/s", "MiB/s", "p50 ms", "p99 ms", "p99.9 ms");
+    var totalBytes = 0L;
+    var totalErrors = 0L;
+    for (var operation : Operation.values()) {
+      var operationBytes = bytes.get(operation).sum();
+      var operationErrors = errors.get(operation).sum();
+      totalBytes += operationBytes;
+      totalErrors += operationErrors;
+      if (timers.get(operation).count() > 0 || operationErrors > 0) {
+        printRow(out, operation.label(), timers.get(operation), operationErrors, operationBytes,
+            seconds);
+      }
+    }
+    printRow(out, ALL, all, totalErrors, totalBytes, seconds);
+    new TreeMap<>(errorsByCode).forEach((code, count) ->
+        out.printf("  error %s: %d%n", code, count.sum()));
+  }
+
+  private static void printRow(PrintStream out, String name, Timer timer, long errors,
+      long transferred, double seconds) {
+    var percentiles = timer.takeSnapshot().percentileValues();
+    out.printf("%-10s %10d %8d %10.1f %9.1f %9.3f %9.3f %9.3f%n",
+        name, timer.count(), errors, timer.count() / seconds, transferred / MIB / seconds,
+        millis(percentiles, 0), millis(percentiles, 1), millis(percentiles, 2));
+  }
+
+  private static double millis(ValueAtPercentile[] percentiles, int index) {
+    return percentiles.length > index ? percentiles[index].value(TimeUnit.MILLISECONDS) : 0;
+  }
+
+  private Timer timer(String operation) {
+    return Timer.builder("load.operation")
+        .tag("operation", operation)
+        .publishPercentiles(PERCENTILES)
+        .percentilePrecision(3)
+        // a single histogram for the whole run
+        .distributionStatisticExpiry(Duration.ofDays(1))
+        .distributionStatisticBufferLength(1)
+        .register(registry);
+  }
+
+  private static String code(RuntimeException e) {
+    if (e instanceof S3Exception s3Exception) {
+      var code = s3Exception.awsErrorDetails() == null
+          ? null : s3Exception.awsErrorDetails().errorCode();
+      return (code == null ? "" : code + " ") + "(" + s3Exception.statusCode() + ")";
+    }
+    return e.getClass().getSimpleName();
+  }
+}
@@ -0,0 +1,49 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.benchmarks.load;
+
+import java.util.Arrays;
+
+/**
+ * S3 operations driven by the {@link LoadGenerator}.
+ */
+enum Operation {
+  PUT("put"),
+  GET("get"),
+  RANGE_GET("range-get"),
+  LIST("list"),
+  MULTIPART("multipart"),
+  DELETE("delete");
+
+  private final String label;
+
+  Operation(String label) {
+    this.label = label;
+  }
+
+  String label() {
+    return label;
+  }
+
+  static Operation fromLabel(String label) {
+    return Arrays.stream(values())
+        .filter(operation -> operation.label.equals(label))
+        .findFirst()
+        .orElseThrow(() -> new IllegalArgumentException("Unknown operation '" + label
+            + "', expected one of " + Arrays.stream(values()).map(Operation::label).toList()));
+  }
+}
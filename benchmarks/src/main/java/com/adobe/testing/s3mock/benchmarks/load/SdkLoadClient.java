@@ -0,0 +1,122 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.benchmarks.load;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.ArrayList;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.BucketAlreadyOwnedByYouException;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+
+/**
+ * {@link LoadClient} using the synchronous AWS SDK v2 client with the Apache HTTP client.
+ */
+final class SdkLoadClient implements LoadClient {
+  private final S3Client s3Client;
+
+  SdkLoadClient(URI endpoint, int concurrency) {
+    s3Client = S3Client.builder()
+        .region(REGION)
+        .credentialsProvider(CREDENTIALS)
+        .endpointOverride(endpoint)
+        .forcePathStyle(true)
+        .httpClientBuilder(ApacheHttpClient.builder().maxConnections(concurrency))
+        .build();
+  }
+
+  @Override
+  public void createBucketIfMissing(String bucket) {
+    try {
+      s3Client.createBucket(request -> request.bucket(bucket));
+    } catch (BucketAlreadyOwnedByYouException e) {
+      // reuse the bucket
+    }
+  }
+
+  @Override
+  public void put(String bucket, String key, byte[] payload, int length) {
+    s3Client.putObject(request -> request.bucket(bucket).key(key), body(payload, length));
+  }
+
+  @Override
+  public long get(String bucket, String key) {
+    return drain(s3Client.getObject(request -> request.bucket(bucket).key(key)));
+  }
+
+  @Override
+  public long getRange(String bucket, String key, long first, long last) {
+    return drain(s3Client.getObject(request -> request.bucket(bucket).key(key)
+        .range("bytes=" + first + "-" + last)));
+  }
+
+  @Override
+  public int list(String bucket, String prefix, int maxKeys) {
+    return s3Client.listObjectsV2(request -> request.bucket(bucket).prefix(prefix)
+        .maxKeys(maxKeys)).contents().size();
+  }
+
+  @Override
+  public void multipartUpload(String bucket, String key, byte[] payload, int partSize,
+      int parts) {
+    var uploadId = s3Client.createMultipartUpload(request -> request.bucket(bucket).key(key))
+        .uploadId();
+    var completedParts = new ArrayList<CompletedPart>();
+    for (var partNumber = 1; partNumber <= parts; partNumber++) {
+      final var number = partNumber;
+      var etag = s3Client.uploadPart(request -> request.bucket(bucket).key(key)
+          .uploadId(uploadId).partNumber(number), body(payload, partSize)).eTag();
+      completedParts.add(CompletedPart.builder().partNumber(number).eTag(etag).build());
+    }
+    s3Client.completeMultipartUpload(request -> request.bucket(bucket).key(key)
+        .uploadId(uploadId).multipartUpload(upload -> upload.parts(completedParts)));
+  }
+
+  @Override
+  public void delete(String bucket, String key) {
+    s3Client.deleteObject(request -> request.bucket(bucket).key(key));
+  }
+
+  @Override
+  public void close() {
+    s3Client.close();
+  }
+
+  /**
+   * Streams from the shared payload instead of copying it, like {@link RequestBody#fromBytes}
+   * would.
+   */
+  private static RequestBody body(byte[] payload, int length) {
+    return RequestBody.fromContentProvider(() -> new ByteArrayInputStream(payload, 0, length),
+        length, "application/octet-stream");
+  }
+
+  private static long drain(ResponseInputStream<GetObjectResponse> response) {
+    try (response) {
+      return response.transferTo(OutputStream.nullOutputStream());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
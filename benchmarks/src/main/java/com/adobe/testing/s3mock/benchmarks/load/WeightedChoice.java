@@ -0,0 +1,75 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.benchmarks.load;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Picks values at random, proportionally to their weights.
+ * Parsed from specifications like {@code "put:30,get:70"}, a value without weight has weight 1.
+ */
+final class WeightedChoice<T> {
+  private final List<T> values;
+  private final long[] cumulativeWeights;
+
+  private WeightedChoice(List<T> values, long[] cumulativeWeights) {
+    this.values = values;
+    this.cumulativeWeights = cumulativeWeights;
+  }
+
+  static <T> WeightedChoice<T> parse(String specification, Function<String, T> parser) {
+    var values = new ArrayList<T>();
+    var weights = new ArrayList<Long>();
+    for (var entry : specification.split(",")) {
+      var separator = entry.lastIndexOf(':');
+      var value = separator < 0 ? entry : entry.substring(0, separator);
+      var weight = separator < 0 ? 1L : Long.parseLong(entry.substring(separator + 1).trim());
+      if (weight < 0) {
+        throw new IllegalArgumentException("Negative weight in '" + specification + "'");
+      }
+      if (weight > 0) {
+        values.add(parser.apply(value.trim()));
+        weights.add(weight);
+      }
+    }
+    if (values.isEmpty()) {
+      throw new IllegalArgumentException("No value with positive weight in '" + specification
+          + "'");
+    }
+    var cumulativeWeights = new long[weights.size()];
+    var sum = 0L;
+    for (var i = 0; i < cumulativeWeights.length; i++) {
+      sum += weights.get(i);
+      cumulativeWeights[i] = sum;
+    }
+    return new WeightedChoice<>(List.copyOf(values), cumulativeWeights);
+  }
+
+  T next(Random random) {
+    var target = random.nextLong(cumulativeWeights[cumulativeWeights.length - 1]);
+    var index = Arrays.binarySearch(cumulativeWeights, target + 1);
+    return values.get(index < 0 ? -index - 1 : index);
+  }
+
+  List<T> values() {
+    return values;
+  }
+}
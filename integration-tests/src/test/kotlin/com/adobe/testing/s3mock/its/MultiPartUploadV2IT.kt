@@ -34,9 +34,12 @@ import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest
 import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload
 import software.amazon.awssdk.services.s3.model.CompletedPart
 import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest
+import software.amazon.awssdk.services.s3.model.Delete
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest
 import software.amazon.awssdk.services.s3.model.GetObjectRequest
 import software.amazon.awssdk.services.s3.model.ListMultipartUploadsRequest
 import software.amazon.awssdk.services.s3.model.ListPartsRequest
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier
 import software.amazon.awssdk.services.s3.model.PutObjectRequest
 import software.amazon.awssdk.services.s3.model.S3Exception
 import software.amazon.awssdk.services.s3.model.UploadPartCopyRequest
@@ -254,6 +257,52 @@ internal class MultiPartUploadV2IT : S3TestBase() {
       .isEqualTo("${serviceEndpoint}/$bucketName/src%2Ftest%2Fresources%2FsampleFile.txt")
   }
 
+  @Test
+  @S3VerifiedTodo
+  fun testMultipartUpload_deleteObjectsWhileInProgress(testInfo: TestInfo) {
+    val bucketName = givenBucketV2(testInfo)
+    val uploadId = s3ClientV2
+      .createMultipartUpload(
+        CreateMultipartUploadRequest.builder().bucket(bucketName).key(UPLOAD_FILE_NAME).build()
+      ).uploadId()
+    val randomBytes = randomBytes()
+    val partETag = uploadPart(bucketName, UPLOAD_FILE_NAME, uploadId, 1, randomBytes)
+
+    // the key of the upload is not an object yet, deleting it must not touch the upload.
+    s3ClientV2.deleteObjects(
+      DeleteObjectsRequest
+        .builder()
+        .bucket(bucketName)
+        .delete(Delete.builder().objects(ObjectIdentifier.builder().key(UPLOAD_FILE_NAME).build()).build())
+        .build()
+    )
+
+    s3ClientV2.completeMultipartUpload(
+      CompleteMultipartUploadRequest
+        .builder()
+        .bucket(bucketName)
+        .key(UPLOAD_FILE_NAME)
+        .uploadId(uploadId)
+        .multipartUpload(
+          CompletedMultipartUpload
+            .builder()
+            .parts(CompletedPart.builder().eTag(partETag).partNumber(1).build())
+            .build()
+        )
+        .build()
+    )
+
+    s3ClientV2.getObject(
+      GetObjectRequest
+        .builder()
+        .bucket(bucketName)
+        .key(UPLOAD_FILE_NAME)
+        .build()
+    ).use {
+      assertThat(readStreamIntoByteArray(it.buffered())).isEqualTo(randomBytes)
+    }
+  }
+
   @Test
   @S3VerifiedSuccess(year = 2022)
   fun testInitiateMultipartAndRetrieveParts(testInfo: TestInfo) {
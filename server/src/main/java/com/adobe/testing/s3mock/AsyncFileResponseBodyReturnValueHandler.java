@@ -0,0 +1,160 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.LongConsumer;
+import org.apache.commons.io.IOUtils;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.NonNull;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBodyReturnValueHandler;
+
+/**
+ * Writes {@link FileResponseBody}s with non-blocking servlet I/O.
+ * Spring's {@link StreamingResponseBodyReturnValueHandler} writes the body on a task executor
+ * thread, which is blocked for as long as the client needs to receive the data. This handler
+ * registers a {@link WriteListener} instead, data is only written when the container signals that
+ * the client can accept more.
+ * All other return values are passed to the decorated
+ * {@link StreamingResponseBodyReturnValueHandler}.
+ */
+class AsyncFileResponseBodyReturnValueHandler implements HandlerMethodReturnValueHandler {
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final HandlerMethodReturnValueHandler delegate;
+
+  AsyncFileResponseBodyReturnValueHandler(HandlerMethodReturnValueHandler delegate) {
+    this.delegate = delegate;
+  }
+
+  /**
+   * Replaces the {@link StreamingResponseBodyReturnValueHandler} in the given list of handlers.
+   */
+  static List<HandlerMethodReturnValueHandler> decorate(
+      List<HandlerMethodReturnValueHandler> handlers) {
+    return handlers
+        .stream()
+        .map(handler -> handler instanceof StreamingResponseBodyReturnValueHandler
+            ? new AsyncFileResponseBodyReturnValueHandler(handler)
+            : handler)
+        .toList();
+  }
+
+  @Override
+  public boolean supportsReturnType(@NonNull MethodParameter returnType) {
+    return delegate.supportsReturnType(returnType);
+  }
+
+  @Override
+  public void handleReturnValue(Object returnValue, @NonNull MethodParameter returnType,
+      @NonNull ModelAndViewContainer mavContainer, @NonNull NativeWebRequest webRequest)
+      throws Exception {
+    if (!(returnValue instanceof ResponseEntity<?> responseEntity)
+        || !(responseEntity.getBody() instanceof FileResponseBody body)) {
+      delegate.handleReturnValue(returnValue, returnType, mavContainer, webRequest);
+      return;
+    }
+
+    var request = webRequest.getNativeRequest(HttpServletRequest.class);
+    var response = webRequest.getNativeResponse(HttpServletResponse.class);
+    if (request == null || response == null || !request.isAsyncSupported()) {
+      delegate.handleReturnValue(returnValue, returnType, mavContainer, webRequest);
+      return;
+    }
+
+    response.setStatus(responseEntity.getStatusCode().value());
+    responseEntity.getHeaders().forEach((name, values) ->
+        values.forEach(value -> response.addHeader(name, value)));
+    ShallowEtagHeaderFilter.disableContentCaching(request);
+
+    var channel = FileChannel.open(body.path(), StandardOpenOption.READ);
+    //no timeout, the transfer takes as long as the client needs to receive the data.
+    var deferredResult = new DeferredResult<Void>(0L);
+    WebAsyncUtils.getAsyncManager(webRequest)
+        .startDeferredResultProcessing(deferredResult, mavContainer);
+    var outputStream = response.getOutputStream();
+    outputStream.setWriteListener(
+        new FileWriteListener(outputStream, channel, body, deferredResult));
+  }
+
+  /**
+   * Copies the next chunk of the file to the response whenever the container signals that data
+   * can be written without blocking.
+   */
+  private static final class FileWriteListener implements WriteListener {
+    private final ServletOutputStream outputStream;
+    private final FileChannel channel;
+    private final DeferredResult<Void> deferredResult;
+    private final LongConsumer dataRead;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private long position;
+    private long remaining;
+
+    private FileWriteListener(ServletOutputStream outputStream, FileChannel channel,
+        FileResponseBody body, DeferredResult<Void> deferredResult) {
+      this.outputStream = outputStream;
+      this.channel = channel;
+      this.deferredResult = deferredResult;
+      this.dataRead = body.dataRead();
+      this.position = body.offset();
+      this.remaining = body.length();
+    }
+
+    @Override
+    public void onWritePossible() throws IOException {
+      while (outputStream.isReady()) {
+        if (remaining <= 0) {
+          IOUtils.closeQuietly(channel);
+          deferredResult.setResult(null);
+          return;
+        }
+        buffer.clear();
+        buffer.limit((int) Math.min(remaining, buffer.capacity()));
+        var read = channel.read(buffer, position);
+        if (read < 0) {
+          throw new IllegalStateException("Could not read exact byte range");
+        }
+        dataRead.accept(read);
+        outputStream.write(buffer.array(), 0, read);
+        position += read;
+        remaining -= read;
+      }
+    }
+
+    @Override
+    public void onError(Throwable t) {
+      IOUtils.closeQuietly(channel);
+      deferredResult.setErrorResult(t);
+    }
+  }
+}
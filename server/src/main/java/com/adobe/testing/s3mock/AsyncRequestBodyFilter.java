@@ -0,0 +1,388 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package com.adobe.testing.s3mock;
+
+import static org.springframework.http.HttpHeaders.TRANSFER_ENCODING;
+
+import com.adobe.testing.s3mock.util.SpooledInputStream;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.function.IOSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.web.servlet.filter.OrderedFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpMethod;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * A Filter that receives PUT request bodies (PutObject, UploadPart) with non-blocking servlet I/O.
+ * The body is read through a {@link ReadListener} while no request thread is held, so slow
+ * clients do not occupy a thread no matter how large their upload is.
+ * Bodies with a known Content-Length of at most {@link #IN_MEMORY_THRESHOLD} bytes are kept in
+ * memory. Larger and chunked bodies are written to a spool file in the {@value #FOLDER} folder of
+ * the root folder, on the same file system as the objects. The request body then implements
+ * {@link SpooledInputStream}, so the stores move the spool file into place instead of writing the
+ * data a second time.
+ * Once the body was received completely, the request is dispatched again and the controllers read
+ * the buffered body as usual.
+ * Must be the last filter in the chain, all filters ordered after this one would not see the
+ * initial request dispatch.
+ */
+class AsyncRequestBodyFilter extends OncePerRequestFilter implements OrderedFilter {
+
+  private static final Logger LOG = LoggerFactory.getLogger(AsyncRequestBodyFilter.class);
+
+  private static final String BODY_ATTRIBUTE = AsyncRequestBodyFilter.class.getName() + ".BODY";
+
+  static final String FOLDER = ".spool";
+
+  static final int IN_MEMORY_THRESHOLD = 1024 * 1024;
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final Path spoolFolder;
+
+  /**
+   * Creates the spool folder, spool files left by a previous run are deleted.
+   *
+   * @param rootFolder the root folder of the stores.
+   */
+  AsyncRequestBodyFilter(Path rootFolder) {
+    this.spoolFolder = rootFolder.resolve(FOLDER);
+    try {
+      if (Files.exists(spoolFolder)) {
+        FileUtils.cleanDirectory(spoolFolder.toFile());
+      }
+      Files.createDirectories(spoolFolder);
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not create spool folder " + spoolFolder, e);
+    }
+  }
+
+  @Override
+  public int getOrder() {
+    return Ordered.LOWEST_PRECEDENCE;
+  }
+
+  @Override
+  protected boolean shouldNotFilterAsyncDispatch() {
+    return false;
+  }
+
+  @Override
+  protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+    if (request.getDispatcherType() == DispatcherType.ASYNC) {
+      return request.getAttribute(BODY_ATTRIBUTE) == null;
+    }
+    return !HttpMethod.PUT.matches(request.getMethod())
+        || !request.isAsyncSupported()
+        || request.getContentLengthLong() <= 0 && request.getHeader(TRANSFER_ENCODING) == null;
+  }
+
+  @Override
+  protected void doFilterInternal(@NonNull HttpServletRequest request,
+      @NonNull HttpServletResponse response,
+      @NonNull FilterChain filterChain) throws ServletException, IOException {
+    if (request.getDispatcherType() == DispatcherType.ASYNC) {
+      var body = (Body) request.getAttribute(BODY_ATTRIBUTE);
+      request.removeAttribute(BODY_ATTRIBUTE);
+      var bufferedRequest = new BufferedBodyRequest(request, body);
+      try {
+        filterChain.doFilter(bufferedRequest, response);
+      } finally {
+        bufferedRequest.release();
+      }
+      return;
+    }
+
+    var contentLength = request.getContentLengthLong();
+    var body = contentLength > 0 && contentLength <= IN_MEMORY_THRESHOLD
+        ? new MemoryBody((int) contentLength)
+        : new SpoolBody(Files.createTempFile(spoolFolder, "body", ""));
+    var asyncContext = request.startAsync(request, response);
+    //the client decides how fast the body arrives, no thread is blocked meanwhile.
+    asyncContext.setTimeout(0);
+    var inputStream = request.getInputStream();
+    inputStream.setReadListener(new BodyReadListener(asyncContext, inputStream, body));
+  }
+
+  /**
+   * A request body while it is received and afterwards.
+   */
+  private interface Body {
+    void write(byte[] bytes, int length) throws IOException;
+
+    /**
+     * Called once all bytes were written.
+     */
+    void complete() throws IOException;
+
+    ServletInputStream open();
+
+    /**
+     * Frees the resources of the body, it cannot be read afterwards.
+     */
+    void release();
+  }
+
+  private static final class MemoryBody implements Body {
+    private final byte[] bytes;
+    private int position;
+
+    private MemoryBody(int length) {
+      this.bytes = new byte[length];
+    }
+
+    @Override
+    public void write(byte[] buffer, int length) throws IOException {
+      if (length > bytes.length - position) {
+        throw new IOException("Request body is longer than " + bytes.length + " bytes.");
+      }
+      System.arraycopy(buffer, 0, bytes, position, length);
+      position += length;
+    }
+
+    @Override
+    public void complete() throws IOException {
+      if (position < bytes.length) {
+        throw new IOException("Request body ended after " + position + " of " + bytes.length
+            + " bytes.");
+      }
+    }
+
+    @Override
+    public ServletInputStream open() {
+      return new BufferedBodyInputStream(() -> new ByteArrayInputStream(bytes));
+    }
+
+    @Override
+    public void release() {
+      //nothing to free, the array is garbage collected with the request.
+    }
+  }
+
+  private static final class SpoolBody implements Body {
+    private final Path file;
+    private final FileChannel channel;
+
+    private SpoolBody(Path file) throws IOException {
+      this.file = file;
+      this.channel = FileChannel.open(file, StandardOpenOption.WRITE);
+    }
+
+    @Override
+    public void write(byte[] buffer, int length) throws IOException {
+      var byteBuffer = ByteBuffer.wrap(buffer, 0, length);
+      while (byteBuffer.hasRemaining()) {
+        channel.write(byteBuffer);
+      }
+    }
+
+    @Override
+    public void complete() throws IOException {
+      channel.close();
+    }
+
+    @Override
+    public ServletInputStream open() {
+      return new SpooledBodyInputStream(file);
+    }
+
+    @Override
+    public void release() {
+      IOUtils.closeQuietly(channel);
+      try {
+        //the file is gone if a store moved it into place.
+        Files.deleteIfExists(file);
+      } catch (IOException e) {
+        LOG.warn("Could not delete spooled request body {}.", file, e);
+      }
+    }
+  }
+
+  /**
+   * Copies all available bytes into the body whenever the container signals that data can be
+   * read without blocking.
+   */
+  private static final class BodyReadListener implements ReadListener {
+    private final AsyncContext asyncContext;
+    private final ServletInputStream inputStream;
+    private final Body body;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+
+    private BodyReadListener(AsyncContext asyncContext, ServletInputStream inputStream,
+        Body body) {
+      this.asyncContext = asyncContext;
+      this.inputStream = inputStream;
+      this.body = body;
+    }
+
+    @Override
+    public void onDataAvailable() throws IOException {
+      while (inputStream.isReady() && !inputStream.isFinished()) {
+        var read = inputStream.read(buffer);
+        if (read < 0) {
+          return;
+        }
+        body.write(buffer, read);
+      }
+    }
+
+    @Override
+    public void onAllDataRead() throws IOException {
+      try {
+        body.complete();
+      } catch (IOException e) {
+        onError(e);
+        return;
+      }
+      asyncContext.getRequest().setAttribute(BODY_ATTRIBUTE, body);
+      asyncContext.dispatch();
+    }
+
+    @Override
+    public void onError(Throwable t) {
+      LOG.info("Could not read request body.", t);
+      body.release();
+      var response = (HttpServletResponse) asyncContext.getResponse();
+      if (!response.isCommitted()) {
+        response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+      }
+      asyncContext.complete();
+    }
+  }
+
+  /**
+   * Exposes the buffered body as the request's {@link ServletInputStream}.
+   */
+  private static final class BufferedBodyRequest extends HttpServletRequestWrapper {
+    private final Body body;
+    private ServletInputStream inputStream;
+
+    private BufferedBodyRequest(HttpServletRequest request, Body body) {
+      super(request);
+      this.body = body;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() {
+      if (inputStream == null) {
+        inputStream = body.open();
+      }
+      return inputStream;
+    }
+
+    private void release() {
+      IOUtils.closeQuietly(inputStream);
+      body.release();
+    }
+  }
+
+  /**
+   * Reads the buffered body, it is only opened when it is read.
+   */
+  private static class BufferedBodyInputStream extends ServletInputStream {
+    private final IOSupplier<InputStream> opener;
+    private InputStream delegate;
+    private boolean finished;
+
+    private BufferedBodyInputStream(IOSupplier<InputStream> opener) {
+      this.opener = opener;
+    }
+
+    private InputStream delegate() throws IOException {
+      if (delegate == null) {
+        delegate = opener.get();
+      }
+      return delegate;
+    }
+
+    @Override
+    public int read() throws IOException {
+      var read = delegate().read();
+      finished = read < 0;
+      return read;
+    }
+
+    @Override
+    public int read(@NonNull byte[] b, int off, int len) throws IOException {
+      var read = delegate().read(b, off, len);
+      finished = read < 0;
+      return read;
+    }
+
+    @Override
+    public boolean isFinished() {
+      return finished;
+    }
+
+    @Override
+    public boolean isReady() {
+      return true;
+    }
+
+    @Override
+    public void setReadListener(ReadListener readListener) {
+      throw new IllegalStateException("Body has already been read.");
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (delegate != null) {
+        delegate.close();
+      }
+    }
+  }
+
+  /**
+   * Reads a spooled body. Stores that do not need to read the stream move the spool file instead.
+   */
+  private static final class SpooledBodyInputStream extends BufferedBodyInputStream
+      implements SpooledInputStream {
+    private final Path spoolFile;
+
+    private SpooledBodyInputStream(Path spoolFile) {
+      super(() -> Files.newInputStream(spoolFile));
+      this.spoolFile = spoolFile;
+    }
+
+    @Override
+    public Path spoolFile() {
+      return spoolFile;
+    }
+  }
+}
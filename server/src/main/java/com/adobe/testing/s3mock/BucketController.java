@@ -23,6 +23,7 @@ import static com.adobe.testing.s3mock.util.AwsHttpParameters.KEY_MARKER;
 import static com.adobe.testing.s3mock.util.AwsHttpParameters.LIFECYCLE;
 import static com.adobe.testing.s3mock.util.AwsHttpParameters.LIST_TYPE_V2;
 import static com.adobe.testing.s3mock.util.AwsHttpParameters.LOCATION;
+import static com.adobe.testing.s3mock.util.AwsHttpParameters.MAX_BUCKETS;
 import static com.adobe.testing.s3mock.util.AwsHttpParameters.MAX_KEYS;
 import static com.adobe.testing.s3mock.util.AwsHttpParameters.NOT_LIFECYCLE;
 import static com.adobe.testing.s3mock.util.AwsHttpParameters.NOT_LIST_TYPE;
@@ -81,14 +82,20 @@ public class BucketController {
    * List all existing buckets.
    * <a href="https://docs.aws.amazon.com/AmazonS3/latest/API/API_ListBuckets.html">API Reference</a>
    *
+   * @param maxBuckets {@link Integer} maximum number of buckets to list, all if not set
+   * @param continuationToken {@link String} pagination token returned by previous request
+   *
    * @return List of all Buckets
    */
   @GetMapping(
       value = "/",
       produces = APPLICATION_XML_VALUE
   )
-  public ResponseEntity<ListAllMyBucketsResult> listBuckets() {
-    var listAllMyBucketsResult = bucketService.listBuckets();
+  public ResponseEntity<ListAllMyBucketsResult> listBuckets(
+      @RequestParam(name = MAX_BUCKETS, required = false) Integer maxBuckets,
+      @RequestParam(name = CONTINUATION_TOKEN, required = false) String continuationToken) {
+    bucketService.verifyMaxBuckets(maxBuckets);
+    var listAllMyBucketsResult = bucketService.listBuckets(maxBuckets, continuationToken);
     return ResponseEntity.ok(listAllMyBucketsResult);
   }
 
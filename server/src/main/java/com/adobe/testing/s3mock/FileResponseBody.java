@@ -0,0 +1,66 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.LongConsumer;
+import org.springframework.lang.NonNull;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Response body that streams {@code length} bytes of a file, starting at {@code offset}.
+ * Written with blocking I/O by Spring's default handling of {@link StreamingResponseBody}, or with
+ * non-blocking I/O by {@link AsyncFileResponseBodyReturnValueHandler} if enabled.
+ * The number of bytes is passed to {@code dataRead} before they are written to the client, so it
+ * is recorded by the time the client received the body.
+ */
+record FileResponseBody(Path path, long offset, long length, LongConsumer dataRead)
+    implements StreamingResponseBody {
+
+  static FileResponseBody of(Path path, LongConsumer dataRead) {
+    return new FileResponseBody(path, 0, path.toFile().length(), dataRead);
+  }
+
+  @Override
+  public void writeTo(@NonNull OutputStream outputStream) throws IOException {
+    try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      var target = Channels.newChannel(new FilterOutputStream(outputStream) {
+        @Override
+        public void write(@NonNull byte[] b, int off, int len) throws IOException {
+          dataRead.accept(len);
+          out.write(b, off, len);
+        }
+      });
+      var position = offset;
+      var remaining = length;
+      while (remaining > 0) {
+        var transferred = channel.transferTo(position, remaining, target);
+        if (transferred <= 0) {
+          throw new IllegalStateException("Could not read exact byte range");
+        }
+        position += transferred;
+        remaining -= transferred;
+      }
+    }
+  }
+}
@@ -32,6 +32,8 @@ import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.web.servlet.filter.OrderedFilter;
+import org.springframework.core.Ordered;
 import org.springframework.http.converter.xml.MappingJackson2XmlHttpMessageConverter;
 import org.springframework.lang.NonNull;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -40,7 +42,7 @@ import org.springframework.web.filter.OncePerRequestFilter;
  * A Filter that validates KMS keys of incoming Requests. If Keys can not be found in Keystore the
  * Request will be denied immediately.
  */
-class KmsValidationFilter extends OncePerRequestFilter {
+class KmsValidationFilter extends OncePerRequestFilter implements OrderedFilter {
 
   private static final Logger LOG = LoggerFactory.getLogger(KmsValidationFilter.class);
 
@@ -61,6 +63,15 @@ class KmsValidationFilter extends OncePerRequestFilter {
     this.messageConverter = messageConverter;
   }
 
+  /**
+   * Runs before {@link AsyncRequestBodyFilter}, requests with invalid keys are rejected before
+   * their body is read.
+   */
+  @Override
+  public int getOrder() {
+    return Ordered.LOWEST_PRECEDENCE - 1;
+  }
+
   @Override
   protected void doFilterInternal(@NonNull HttpServletRequest request,
       @NonNull HttpServletResponse response,
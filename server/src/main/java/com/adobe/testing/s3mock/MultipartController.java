@@ -25,10 +25,13 @@ import static com.adobe.testing.s3mock.util.AwsHttpHeaders.X_AMZ_COPY_SOURCE_IF_
 import static com.adobe.testing.s3mock.util.AwsHttpHeaders.X_AMZ_COPY_SOURCE_IF_NONE_MATCH;
 import static com.adobe.testing.s3mock.util.AwsHttpHeaders.X_AMZ_COPY_SOURCE_RANGE;
 import static com.adobe.testing.s3mock.util.AwsHttpHeaders.X_AMZ_STORAGE_CLASS;
+import static com.adobe.testing.s3mock.util.AwsHttpParameters.KEY_MARKER;
+import static com.adobe.testing.s3mock.util.AwsHttpParameters.MAX_UPLOADS;
 import static com.adobe.testing.s3mock.util.AwsHttpParameters.NOT_LIFECYCLE;
 import static com.adobe.testing.s3mock.util.AwsHttpParameters.PART_NUMBER;
 import static com.adobe.testing.s3mock.util.AwsHttpParameters.UPLOADS;
 import static com.adobe.testing.s3mock.util.AwsHttpParameters.UPLOAD_ID;
+import static com.adobe.testing.s3mock.util.AwsHttpParameters.UPLOAD_ID_MARKER;
 import static com.adobe.testing.s3mock.util.HeaderUtil.checksumAlgorithmFrom;
 import static com.adobe.testing.s3mock.util.HeaderUtil.checksumFrom;
 import static com.adobe.testing.s3mock.util.HeaderUtil.encryptionHeadersFrom;
@@ -97,10 +100,13 @@ public class MultipartController {
    * Lists all in-progress multipart uploads.
    * <a href="https://docs.aws.amazon.com/AmazonS3/latest/API/API_ListMultipartUploads.html">API Reference</a>
    *
-   * <p>Not yet supported request parameters: delimiter, encoding-type, max-uploads, key-marker,
-   * upload-id-marker.</p>
+   * <p>Not yet supported request parameters: delimiter, encoding-type.</p>
    *
    * @param bucketName the Bucket in which to store the file in.
+   * @param prefix only list uploads of keys starting with this prefix.
+   * @param keyMarker list uploads after this key.
+   * @param uploadIdMarker together with keyMarker, list uploads of keyMarker after this uploadId.
+   * @param maxUploads the maximum number of uploads in the response, capped at 1000.
    *
    * @return the {@link ListMultipartUploadsResult}
    */
@@ -118,10 +124,16 @@ public class MultipartController {
   )
   public ResponseEntity<ListMultipartUploadsResult> listMultipartUploads(
       @PathVariable String bucketName,
-      @RequestParam(required = false) String prefix) {
+      @RequestParam(required = false) String prefix,
+      @RequestParam(name = KEY_MARKER, required = false) String keyMarker,
+      @RequestParam(name = UPLOAD_ID_MARKER, required = false) String uploadIdMarker,
+      @RequestParam(name = MAX_UPLOADS, defaultValue = "1000", required = false)
+      Integer maxUploads) {
     bucketService.verifyBucketExists(bucketName);
+    multipartService.verifyMaxUploads(maxUploads);
 
-    return ResponseEntity.ok(multipartService.listMultipartUploads(bucketName, prefix));
+    return ResponseEntity.ok(multipartService.listMultipartUploads(bucketName, prefix, keyMarker,
+        uploadIdMarker, maxUploads));
   }
 
   //================================================================================================
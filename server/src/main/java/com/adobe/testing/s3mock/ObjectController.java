@@ -81,17 +81,13 @@ import com.adobe.testing.s3mock.dto.Tagging;
 import com.adobe.testing.s3mock.service.BucketService;
 import com.adobe.testing.s3mock.service.ObjectService;
 import com.adobe.testing.s3mock.store.S3ObjectMetadata;
+import com.adobe.testing.s3mock.store.StoreMetrics;
 import com.adobe.testing.s3mock.util.AwsHttpHeaders.MetadataDirective;
 import com.adobe.testing.s3mock.util.CannedAclUtil;
-import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
-import java.nio.file.Files;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import org.apache.commons.io.IOUtils;
-import org.apache.commons.io.input.BoundedInputStream;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpRange;
 import org.springframework.http.ResponseEntity;
@@ -121,10 +117,13 @@ public class ObjectController {
 
   private final BucketService bucketService;
   private final ObjectService objectService;
+  private final StoreMetrics storeMetrics;
 
-  public ObjectController(BucketService bucketService, ObjectService objectService) {
+  public ObjectController(BucketService bucketService, ObjectService objectService,
+      StoreMetrics storeMetrics) {
     this.bucketService = bucketService;
     this.objectService = objectService;
+    this.storeMetrics = storeMetrics;
   }
 
   //================================================================================================
@@ -281,7 +280,7 @@ public class ObjectController {
         .contentLength(Long.parseLong(s3ObjectMetadata.size()))
         .contentType(mediaTypeFrom(s3ObjectMetadata.contentType()))
         .headers(headers -> headers.setAll(overrideHeadersFrom(queryParams)))
-        .body(outputStream -> Files.copy(s3ObjectMetadata.dataPath(), outputStream));
+        .body(FileResponseBody.of(s3ObjectMetadata.dataPath(), storeMetrics::dataRead));
   }
 
   /**
@@ -730,20 +729,7 @@ public class ObjectController {
         .contentType(mediaTypeFrom(s3ObjectMetadata.contentType()))
         .lastModified(s3ObjectMetadata.lastModified())
         .contentLength(bytesToRead)
-        .body(outputStream ->
-            extractBytesToOutputStream(range, s3ObjectMetadata, outputStream, fileSize, bytesToRead)
-        );
-  }
-
-  private static void extractBytesToOutputStream(HttpRange range, S3ObjectMetadata s3ObjectMetadata,
-      OutputStream outputStream, long fileSize, long bytesToRead) throws IOException {
-    try (var fis = Files.newInputStream(s3ObjectMetadata.dataPath())) {
-      var skip = fis.skip(range.getRangeStart(fileSize));
-      if (skip == range.getRangeStart(fileSize)) {
-        IOUtils.copy(new BoundedInputStream(fis, bytesToRead), outputStream);
-      } else {
-        throw new IllegalStateException("Could not skip exact byte range");
-      }
-    }
+        .body(new FileResponseBody(s3ObjectMetadata.dataPath(), range.getRangeStart(fileSize),
+            bytesToRead, storeMetrics::dataRead));
   }
 }
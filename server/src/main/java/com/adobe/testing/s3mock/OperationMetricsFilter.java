@@ -0,0 +1,250 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.util.Set;
+import org.springframework.boot.web.servlet.filter.OrderedFilter;
+import org.springframework.core.Ordered;
+import org.springframework.lang.NonNull;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * A Filter that records Micrometer metrics for every S3 operation:
+ * <ul>
+ *   <li>{@value #OPERATION_TIMER}: latency histogram, tagged by operation and HTTP status.</li>
+ *   <li>{@value #BYTES_RECEIVED} / {@value #BYTES_SENT}: request body sizes as announced by the
+ *   Content-Length header and response body bytes written, tagged by operation.</li>
+ *   <li>{@value #ERRORS}: error responses, tagged by operation and S3 error code.</li>
+ * </ul>
+ * The operation name is derived from the controller method that handled the request, e.g.
+ * "ListObjectsV2" for {@link BucketController#listObjectsV2}.
+ * Requests that complete asynchronously (e.g. GetObject streaming the object) are recorded once
+ * the response is complete.
+ */
+class OperationMetricsFilter extends OncePerRequestFilter implements OrderedFilter {
+
+  static final String OPERATION_TIMER = "s3mock.operation";
+  static final String BYTES_RECEIVED = "s3mock.bytes.received";
+  static final String BYTES_SENT = "s3mock.bytes.sent";
+  static final String ERRORS = "s3mock.errors";
+
+  /**
+   * Request attribute holding the S3 error code of the response, set by the exception handlers.
+   */
+  static final String ERROR_CODE_ATTRIBUTE =
+      OperationMetricsFilter.class.getName() + ".ERROR_CODE";
+
+  private static final Set<Class<?>> CONTROLLERS =
+      Set.of(BucketController.class, ObjectController.class, MultipartController.class);
+
+  private final MeterRegistry registry;
+
+  OperationMetricsFilter(MeterRegistry registry) {
+    this.registry = registry;
+  }
+
+  @Override
+  public int getOrder() {
+    return Ordered.HIGHEST_PRECEDENCE;
+  }
+
+  @Override
+  protected void doFilterInternal(@NonNull HttpServletRequest request,
+      @NonNull HttpServletResponse response,
+      @NonNull FilterChain filterChain) throws ServletException, IOException {
+    var sample = Timer.start(registry);
+    var countingResponse = new CountingResponse(response);
+    try {
+      filterChain.doFilter(request, countingResponse);
+    } finally {
+      if (request.isAsyncStarted()) {
+        request.getAsyncContext()
+            .addListener(new CompletionListener(sample, request, countingResponse));
+      } else {
+        record(sample, request, countingResponse);
+      }
+    }
+  }
+
+  private void record(Timer.Sample sample, HttpServletRequest request,
+      CountingResponse response) {
+    var operation = operation(request);
+    if (operation == null) {
+      //not an S3 operation, e.g. actuator endpoints or the favicon.
+      return;
+    }
+    sample.stop(Timer.builder(OPERATION_TIMER)
+        .description("Time taken to handle an S3 operation")
+        .tag("operation", operation)
+        .tag("status", String.valueOf(response.getStatus()))
+        .publishPercentileHistogram()
+        .register(registry));
+
+    var received = request.getContentLengthLong();
+    if (received > 0) {
+      bytes(BYTES_RECEIVED, operation).increment(received);
+    }
+    var sent = response.getBytesWritten();
+    if (sent > 0) {
+      bytes(BYTES_SENT, operation).increment(sent);
+    }
+
+    var errorCode = (String) request.getAttribute(ERROR_CODE_ATTRIBUTE);
+    if (errorCode != null) {
+      Counter.builder(ERRORS)
+          .description("Error responses of S3 operations")
+          .tag("operation", operation)
+          .tag("code", errorCode)
+          .register(registry)
+          .increment();
+    }
+  }
+
+  private Counter bytes(String name, String operation) {
+    return Counter.builder(name)
+        .baseUnit("bytes")
+        .tag("operation", operation)
+        .register(registry);
+  }
+
+  private static String operation(HttpServletRequest request) {
+    if (request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE)
+        instanceof HandlerMethod handlerMethod
+        && CONTROLLERS.stream().anyMatch(c -> c.isAssignableFrom(handlerMethod.getBeanType()))) {
+      return StringUtils.capitalize(handlerMethod.getMethod().getName());
+    }
+    return null;
+  }
+
+  /**
+   * Records the metrics once an asynchronously handled request completed. Re-registers itself if
+   * the request is put into asynchronous mode again, e.g. by {@link AsyncRequestBodyFilter}
+   * followed by an asynchronous response.
+   */
+  private final class CompletionListener implements AsyncListener {
+    private final Timer.Sample sample;
+    private final HttpServletRequest request;
+    private final CountingResponse response;
+
+    private CompletionListener(Timer.Sample sample, HttpServletRequest request,
+        CountingResponse response) {
+      this.sample = sample;
+      this.request = request;
+      this.response = response;
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+      record(sample, request, response);
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {
+      //onComplete follows.
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+      //onComplete follows.
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {
+      event.getAsyncContext().addListener(this);
+    }
+  }
+
+  /**
+   * Counts the bytes written to the response body.
+   */
+  private static final class CountingResponse extends HttpServletResponseWrapper {
+    private CountingOutputStream outputStream;
+
+    private CountingResponse(HttpServletResponse response) {
+      super(response);
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+      if (outputStream == null) {
+        outputStream = new CountingOutputStream(super.getOutputStream());
+      }
+      return outputStream;
+    }
+
+    private long getBytesWritten() {
+      return outputStream == null ? 0 : outputStream.count;
+    }
+  }
+
+  private static final class CountingOutputStream extends ServletOutputStream {
+    private final ServletOutputStream delegate;
+    private long count;
+
+    private CountingOutputStream(ServletOutputStream delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      delegate.write(b);
+      count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      delegate.write(b, off, len);
+      count += len;
+    }
+
+    @Override
+    public void flush() throws IOException {
+      delegate.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+      delegate.close();
+    }
+
+    @Override
+    public boolean isReady() {
+      return delegate.isReady();
+    }
+
+    @Override
+    public void setWriteListener(WriteListener writeListener) {
+      delegate.setWriteListener(writeListener);
+    }
+  }
+}
@@ -89,9 +89,18 @@ public class S3Exception extends RuntimeException {
   public static final S3Exception INVALID_REQUEST_MAXKEYS =
       new S3Exception(BAD_REQUEST.value(), INVALID_REQUEST,
           "maxKeys should be non-negative");
+  public static final S3Exception INVALID_REQUEST_MAX_BUCKETS =
+      new S3Exception(BAD_REQUEST.value(), "InvalidArgument",
+          "Argument max-buckets must be an integer between 1 and 10000");
+  public static final S3Exception INVALID_REQUEST_MAX_UPLOADS =
+      new S3Exception(BAD_REQUEST.value(), "InvalidArgument",
+          "Argument max-uploads must be an integer between 0 and 2147483647");
   public static final S3Exception INVALID_REQUEST_ENCODINGTYPE =
       new S3Exception(BAD_REQUEST.value(), INVALID_REQUEST,
           "encodingtype can only be none or 'url'");
+  public static final S3Exception INVALID_CONTINUATION_TOKEN =
+      new S3Exception(BAD_REQUEST.value(), "InvalidArgument",
+          "The continuation token provided is incorrect");
 
   public static final S3Exception BAD_REQUEST_MD5 =
       new S3Exception(BAD_REQUEST.value(), "BadRequest",
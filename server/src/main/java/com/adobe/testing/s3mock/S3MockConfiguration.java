@@ -23,24 +23,36 @@ import com.adobe.testing.s3mock.service.BucketService;
 import com.adobe.testing.s3mock.service.MultipartService;
 import com.adobe.testing.s3mock.service.ObjectService;
 import com.adobe.testing.s3mock.store.KmsKeyStore;
+import com.adobe.testing.s3mock.store.StoreMetrics;
 import com.ctc.wstx.api.WstxOutputProperties;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.dataformat.xml.XmlMapper;
 import com.fasterxml.jackson.dataformat.xml.deser.FromXmlParser;
 import com.fasterxml.jackson.dataformat.xml.ser.ToXmlGenerator;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.Filter;
 import jakarta.servlet.http.HttpServletRequest;
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Objects;
 import org.eclipse.jetty.http.UriCompliance;
+import org.eclipse.jetty.http2.server.AbstractHTTP2ServerConnectionFactory;
+import org.eclipse.jetty.http2.server.HTTP2CServerConnectionFactory;
 import org.eclipse.jetty.server.Connector;
+import org.eclipse.jetty.server.HttpConfiguration;
 import org.eclipse.jetty.server.HttpConnectionFactory;
 import org.eclipse.jetty.server.SecureRequestCustomizer;
 import org.eclipse.jetty.server.Server;
 import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.util.VirtualThreads;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.eclipse.jetty.util.thread.ThreadPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcRegistrations;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.web.embedded.jetty.JettyServletWebServerFactory;
 import org.springframework.boot.web.servlet.filter.OrderedFormContentFilter;
@@ -48,6 +60,7 @@ import org.springframework.boot.web.servlet.server.ServletWebServerFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -56,15 +69,25 @@ import org.springframework.lang.NonNull;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.filter.CommonsRequestLoggingFilter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.ContentNegotiationConfigurer;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
 @Configuration
 @EnableConfigurationProperties(S3MockProperties.class)
 public class S3MockConfiguration implements WebMvcConfigurer {
+  private static final Logger LOG = LoggerFactory.getLogger(S3MockConfiguration.class);
+  private final S3MockProperties properties;
+  private final boolean virtualThreads;
   private ServerConnector httpServerConnector;
 
+  public S3MockConfiguration(S3MockProperties properties) {
+    this.properties = properties;
+    this.virtualThreads = useVirtualThreads(properties);
+  }
+
   /**
    * Create a ServletWebServerFactory bean reconfigured for an additional HTTP port.
    *
@@ -73,8 +96,13 @@ public class S3MockConfiguration implements WebMvcConfigurer {
   @Bean
   ServletWebServerFactory webServerFactory(S3MockProperties properties) {
     var factory = new JettyServletWebServerFactory();
+    if (virtualThreads) {
+      factory.setThreadPool(createVirtualThreadPool());
+    }
     factory.addServerCustomizers(
-        server -> server.addConnector(createHttpConnector(server, properties.httpPort())),
+        server -> server.addConnector(
+            createHttpConnector(server, properties.httpPort(), isHttp2Enabled(factory))),
+        server -> configureHttp2(server, properties),
         server -> Arrays.stream(server.getConnectors())
             .filter(ServerConnector.class::isInstance)
             .forEach(
@@ -95,22 +123,131 @@ public class S3MockConfiguration implements WebMvcConfigurer {
     return factory;
   }
 
-  private Connector createHttpConnector(final Server server, int httpPort) {
-    httpServerConnector = new ServerConnector(server);
+  private Connector createHttpConnector(final Server server, int httpPort, boolean http2) {
+    if (http2) {
+      //HTTP/1.1 stays the default protocol, clients can upgrade to h2c or use prior knowledge.
+      var httpConfiguration = new HttpConfiguration();
+      httpServerConnector = new ServerConnector(server,
+          new HttpConnectionFactory(httpConfiguration),
+          new HTTP2CServerConnectionFactory(httpConfiguration));
+    } else {
+      httpServerConnector = new ServerConnector(server);
+    }
     httpServerConnector.setPort(httpPort);
     return httpServerConnector;
   }
 
+  /**
+   * HTTP/2 is enabled by Spring Boot's "server.http2.enabled" property, which also configures h2
+   * with ALPN on the HTTPS port.
+   */
+  private static boolean isHttp2Enabled(JettyServletWebServerFactory factory) {
+    return factory.getHttp2() != null && factory.getHttp2().isEnabled();
+  }
+
+  /**
+   * Applies stream concurrency and flow control settings to the HTTP/2 connection factories of
+   * all connectors.
+   */
+  private static void configureHttp2(Server server, S3MockProperties properties) {
+    Arrays.stream(server.getConnectors())
+        .flatMap(connector -> connector.getConnectionFactories().stream())
+        .filter(AbstractHTTP2ServerConnectionFactory.class::isInstance)
+        .map(AbstractHTTP2ServerConnectionFactory.class::cast)
+        .forEach(cf -> {
+          cf.setMaxConcurrentStreams(properties.http2MaxConcurrentStreams());
+          cf.setInitialStreamRecvWindow(properties.http2InitialStreamRecvWindow());
+          cf.setInitialSessionRecvWindow(properties.http2InitialSessionRecvWindow());
+        });
+  }
+
   ServerConnector getHttpServerConnector() {
     return httpServerConnector;
   }
 
+  /**
+   * Creates a Jetty ThreadPool that dispatches request handling to virtual threads.
+   * Jetty keeps a small number of platform threads for selecting and accepting connections, all
+   * blocking work like servlet dispatch runs on virtual threads.
+   */
+  private static ThreadPool createVirtualThreadPool() {
+    var threadPool = new QueuedThreadPool();
+    threadPool.setVirtualThreadsExecutor(VirtualThreads.getNamedVirtualThreadsExecutor("s3mock-"));
+    return threadPool;
+  }
+
+  private static boolean useVirtualThreads(S3MockProperties properties) {
+    if (!properties.virtualThreads()) {
+      return false;
+    }
+    if (!VirtualThreads.areSupported()) {
+      LOG.warn("Virtual threads were requested but are not supported by this JVM (JDK {}), "
+          + "falling back to platform threads.", Runtime.version().feature());
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Runs asynchronous request processing, e.g. writing
+   * {@link org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody}s of
+   * GetObject, on virtual threads if enabled.
+   * Spring's default executor is a bounded pool, large downloads to slow clients would queue behind
+   * each other.
+   */
+  @Override
+  public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+    if (virtualThreads) {
+      configurer.setTaskExecutor(new VirtualThreadTaskExecutor("s3mock-async-"));
+    }
+  }
+
   @Bean
   Filter kmsFilter(final KmsKeyStore kmsKeyStore,
       MappingJackson2XmlHttpMessageConverter messageConverter) {
     return new KmsValidationFilter(kmsKeyStore, messageConverter);
   }
 
+  /**
+   * Records latency, throughput and error metrics of all S3 operations, see
+   * {@link OperationMetricsFilter}.
+   */
+  @Bean
+  Filter operationMetricsFilter(MeterRegistry meterRegistry) {
+    return new OperationMetricsFilter(meterRegistry);
+  }
+
+  @Bean
+  @ConditionalOnProperty(prefix = "com.adobe.testing.s3mock", name = "non-blocking-io",
+      havingValue = "true")
+  Filter asyncRequestBodyFilter(File rootFolder) {
+    return new AsyncRequestBodyFilter(rootFolder.toPath());
+  }
+
+  /**
+   * Writes GetObject response bodies with non-blocking I/O if enabled, see
+   * {@link AsyncFileResponseBodyReturnValueHandler}.
+   */
+  @Bean
+  WebMvcRegistrations webMvcRegistrations() {
+    return new WebMvcRegistrations() {
+      @Override
+      public RequestMappingHandlerAdapter getRequestMappingHandlerAdapter() {
+        if (!properties.nonBlockingIo()) {
+          return null;
+        }
+        return new RequestMappingHandlerAdapter() {
+          @Override
+          public void afterPropertiesSet() {
+            super.afterPropertiesSet();
+            setReturnValueHandlers(
+                AsyncFileResponseBodyReturnValueHandler.decorate(getReturnValueHandlers()));
+          }
+        };
+      }
+    };
+  }
+
   @Override
   public void configureContentNegotiation(final ContentNegotiationConfigurer configurer) {
     configurer
@@ -151,10 +288,24 @@ public class S3MockConfiguration implements WebMvcConfigurer {
     xmlMapper.enable(ToXmlGenerator.Feature.WRITE_XML_DECLARATION);
     xmlMapper.getFactory().getXMLOutputFactory()
         .setProperty(WstxOutputProperties.P_USE_DOUBLE_QUOTES_IN_XML_DECL, true);
+    if (properties.jacksonBlackbird()) {
+      xmlMapper.registerModule(new BlackbirdModule());
+    }
 
     return xmlConverter;
   }
 
+  /**
+   * Registered with Spring Boot's JSON ObjectMapper, which (de-)serializes the metadata files
+   * in the stores.
+   */
+  @Bean
+  @ConditionalOnProperty(prefix = "com.adobe.testing.s3mock", name = "jackson-blackbird",
+      havingValue = "true")
+  BlackbirdModule blackbirdModule() {
+    return new BlackbirdModule();
+  }
+
   @Bean
   OrderedFormContentFilter httpPutFormContentFilter() {
     return new OrderedFormContentFilter() {
@@ -171,8 +322,9 @@ public class S3MockConfiguration implements WebMvcConfigurer {
   }
 
   @Bean
-  ObjectController fileStoreController(ObjectService objectService, BucketService bucketService) {
-    return new ObjectController(bucketService, objectService);
+  ObjectController fileStoreController(ObjectService objectService, BucketService bucketService,
+      StoreMetrics storeMetrics) {
+    return new ObjectController(bucketService, objectService, storeMetrics);
   }
 
   @Bean
@@ -225,13 +377,16 @@ public class S3MockConfiguration implements WebMvcConfigurer {
      * Handles the given {@link S3Exception}.
      *
      * @param s3Exception {@link S3Exception} to be handled.
+     * @param request the request that caused the exception.
      *
      * @return A {@link ResponseEntity} representing the handled {@link S3Exception}.
      */
     @ExceptionHandler(S3Exception.class)
-    public ResponseEntity<ErrorResponse> handleS3Exception(final S3Exception s3Exception) {
+    public ResponseEntity<ErrorResponse> handleS3Exception(final S3Exception s3Exception,
+        final HttpServletRequest request) {
       LOG.debug("Responding with status {}: {}", s3Exception.getStatus(), s3Exception.getMessage(),
           s3Exception);
+      request.setAttribute(OperationMetricsFilter.ERROR_CODE_ATTRIBUTE, s3Exception.getCode());
 
       var errorResponse = new ErrorResponse(
           s3Exception.getCode(),
@@ -262,13 +417,16 @@ public class S3MockConfiguration implements WebMvcConfigurer {
      * Handles the given {@link IllegalStateException}.
      *
      * @param exception {@link IllegalStateException} to be handled.
+     * @param request the request that caused the exception.
      *
      * @return A {@link ResponseEntity} representing the handled {@link IllegalStateException}.
      */
     @ExceptionHandler(IllegalStateException.class)
-    public ResponseEntity<ErrorResponse> handleS3Exception(IllegalStateException exception) {
+    public ResponseEntity<ErrorResponse> handleS3Exception(IllegalStateException exception,
+        HttpServletRequest request) {
       LOG.debug("Responding with status {}: {}", INTERNAL_SERVER_ERROR, exception.getMessage(),
           exception);
+      request.setAttribute(OperationMetricsFilter.ERROR_CODE_ATTRIBUTE, "InternalError");
 
       var errorResponse = new ErrorResponse(
           "InternalError",
@@ -16,6 +16,7 @@
 
 package com.adobe.testing.s3mock;
 
+import java.time.Duration;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.bind.DefaultValue;
 import software.amazon.awssdk.regions.Region;
@@ -36,7 +37,61 @@ public record S3MockProperties(
 
     // Region is S3Mock is supposed to mock.
     // Must be an official AWS region string like "us-east-1"
-    Region region
+    Region region,
+
+    // Run request handling and asynchronous response writing on virtual threads.
+    // Requires a JVM that supports virtual threads (JDK 21+), S3Mock falls back to the
+    // default thread pool otherwise.
+    // Defaults to false.
+    boolean virtualThreads,
+
+    // Read PutObject / UploadPart request bodies and write GetObject response bodies with
+    // non-blocking servlet I/O, so slow clients do not occupy a request thread while their
+    // data is in transit.
+    // Defaults to false.
+    boolean nonBlockingIo,
+
+    // HTTP/2 is enabled with Spring Boot's "server.http2.enabled", on the HTTPS port with ALPN
+    // (h2) and on the HTTP port in cleartext (h2c).
+    // Maximum number of concurrent streams per HTTP/2 connection.
+    // Defaults to 128.
+    @DefaultValue("128")
+    int http2MaxConcurrentStreams,
+
+    // Initial HTTP/2 flow control window in bytes of a single stream.
+    // Defaults to 1MiB.
+    @DefaultValue("1048576")
+    int http2InitialStreamRecvWindow,
+
+    // Initial HTTP/2 flow control window in bytes of a connection, shared by all its streams.
+    // Defaults to 8MiB.
+    @DefaultValue("8388608")
+    int http2InitialSessionRecvWindow,
+
+    // Register Jackson's Blackbird module, which replaces reflection with generated accessors when
+    // (de-)serializing metadata files and XML requests / responses.
+    // Defaults to false.
+    boolean jacksonBlackbird,
+
+    // Secret used to sign ListObjectsV2 continuation tokens with an HMAC, so they cannot be forged
+    // by clients. Tokens do not depend on any state of the S3Mock instance that created them:
+    // all instances configured with the same secret can continue each other's listings.
+    // Defaults to "", tokens are not signed.
+    @DefaultValue("")
+    String continuationTokenSecret,
+
+    // Interval in which the lifecycle configurations of buckets are enforced: objects expire and
+    // incomplete multipart uploads are aborted once a rule of their bucket is due.
+    // Set to a positive interval like 1m to enforce them.
+    // Defaults to 0, lifecycle configurations are stored but not enforced.
+    @DefaultValue("0")
+    Duration lifecycleInterval,
+
+    // Maximum number of objects expired and multipart uploads aborted per second by lifecycle
+    // rules, zero for no limit.
+    // Defaults to 100.
+    @DefaultValue("100")
+    int lifecycleRate
 ) {
 
 }
@@ -30,6 +30,8 @@ public record ListAllMyBucketsResult(
     Owner owner,
     @JsonProperty("Buckets")
     Buckets buckets,
+    @JsonProperty("ContinuationToken")
+    String continuationToken,
     //workaround for adding xmlns attribute to root element only.
     @JacksonXmlProperty(isAttribute = true, localName = "xmlns")
     String xmlns
@@ -40,7 +42,11 @@ public record ListAllMyBucketsResult(
     }
   }
 
+  public ListAllMyBucketsResult(Owner owner, Buckets buckets, String continuationToken) {
+    this(owner, buckets, continuationToken, null);
+  }
+
   public ListAllMyBucketsResult(Owner owner, Buckets buckets) {
-    this(owner, buckets, null);
+    this(owner, buckets, null, null);
   }
 }
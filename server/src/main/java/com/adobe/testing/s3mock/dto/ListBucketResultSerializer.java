@@ -0,0 +1,44 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import java.io.IOException;
+
+/**
+ * Writes {@link ListBucketResult}, see {@link ListingSerializer}.
+ */
+public class ListBucketResultSerializer extends ListingSerializer<ListBucketResult> {
+  @Override
+  public void serialize(ListBucketResult value, JsonGenerator gen,
+      SerializerProvider serializers) throws IOException {
+    final var urlEncoded = isUrlEncoded(value.encodingType());
+    gen.writeStartObject(value);
+    writeXmlns(gen, value.xmlns());
+    writeString(gen, "Name", value.name());
+    writeString(gen, "Prefix", encode(value.prefix(), urlEncoded));
+    writeString(gen, "Marker", encode(value.marker(), urlEncoded));
+    gen.writeNumberField("MaxKeys", value.maxKeys());
+    gen.writeBooleanField("IsTruncated", value.isTruncated());
+    writeString(gen, "EncodingType", value.encodingType());
+    writeString(gen, "NextMarker", encode(value.nextMarker(), urlEncoded));
+    writeContents(gen, value.contents(), urlEncoded);
+    writeCommonPrefixes(gen, value.commonPrefixes(), urlEncoded);
+    gen.writeEndObject();
+  }
+}
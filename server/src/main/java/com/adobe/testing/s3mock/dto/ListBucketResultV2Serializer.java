@@ -0,0 +1,46 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import java.io.IOException;
+
+/**
+ * Writes {@link ListBucketResultV2}, see {@link ListingSerializer}.
+ */
+public class ListBucketResultV2Serializer extends ListingSerializer<ListBucketResultV2> {
+  @Override
+  public void serialize(ListBucketResultV2 value, JsonGenerator gen,
+      SerializerProvider serializers) throws IOException {
+    final var urlEncoded = isUrlEncoded(value.encodingType());
+    gen.writeStartObject(value);
+    writeXmlns(gen, value.xmlns());
+    writeString(gen, "Name", value.name());
+    writeString(gen, "Prefix", encode(value.prefix(), urlEncoded));
+    gen.writeNumberField("MaxKeys", value.maxKeys());
+    gen.writeBooleanField("IsTruncated", value.isTruncated());
+    writeContents(gen, value.contents(), urlEncoded);
+    writeCommonPrefixes(gen, value.commonPrefixes(), urlEncoded);
+    writeString(gen, "ContinuationToken", value.continuationToken());
+    writeString(gen, "KeyCount", value.keyCount());
+    writeString(gen, "NextContinuationToken", value.nextContinuationToken());
+    writeString(gen, "StartAfter", encode(value.startAfter(), urlEncoded));
+    writeString(gen, "EncodingType", value.encodingType());
+    gen.writeEndObject();
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import java.io.IOException;
+
+/**
+ * Writes {@link ListVersionsResult}, see {@link ListingSerializer}.
+ */
+public class ListVersionsResultSerializer extends ListingSerializer<ListVersionsResult> {
+  @Override
+  public void serialize(ListVersionsResult value, JsonGenerator gen,
+      SerializerProvider serializers) throws IOException {
+    final var urlEncoded = isUrlEncoded(value.encodingType());
+    gen.writeStartObject(value);
+    writeString(gen, "Name", value.name());
+    writeString(gen, "Prefix", encode(value.prefix(), urlEncoded));
+    gen.writeNumberField("MaxKeys", value.maxKeys());
+    gen.writeBooleanField("IsTruncated", value.isTruncated());
+    writeCommonPrefixes(gen, value.commonPrefixes(), urlEncoded);
+    writeString(gen, "Delimiter", encode(value.delimiter(), urlEncoded));
+    writeString(gen, "EncodingType", value.encodingType());
+    writeString(gen, "KeyMarker", encode(value.keyMarker(), urlEncoded));
+    writeString(gen, "VersionIdMarker", value.versionIdMarker());
+    writeString(gen, "NextKeyMarker", encode(value.nextKeyMarker(), urlEncoded));
+    writeString(gen, "NextVersionIdMarker", value.nextVersionIdMarker());
+    if (value.objectVersions() != null) {
+      for (var version : value.objectVersions()) {
+        gen.writeFieldName("Version");
+        gen.writeStartObject();
+        writeString(gen, "Key", encode(version.key(), urlEncoded));
+        writeString(gen, "LastModified", version.lastModified());
+        writeString(gen, "ETag", version.etag());
+        writeString(gen, "Size", version.size());
+        writeValue(gen, "StorageClass", version.storageClass());
+        writeOwner(gen, version.owner());
+        writeValue(gen, "ChecksumAlgorithm", version.checksumAlgorithm());
+        writeValue(gen, "IsLatest", version.isLatest());
+        writeString(gen, "VersionId", version.versionId());
+        gen.writeEndObject();
+      }
+    }
+    if (value.deleteMarkers() != null) {
+      for (var deleteMarker : value.deleteMarkers()) {
+        gen.writeFieldName("DeleteMarker");
+        gen.writeStartObject();
+        writeValue(gen, "IsLatest", deleteMarker.isLatest());
+        writeString(gen, "Key", encode(deleteMarker.key(), urlEncoded));
+        writeString(gen, "LastModified", deleteMarker.lastModified());
+        writeOwner(gen, deleteMarker.owner());
+        writeString(gen, "VersionId", deleteMarker.versionId());
+        gen.writeEndObject();
+      }
+    }
+    gen.writeEndObject();
+  }
+}
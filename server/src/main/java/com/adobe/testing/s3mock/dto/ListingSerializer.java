@@ -0,0 +1,109 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.dto;
+
+import static software.amazon.awssdk.utils.http.SdkHttpUtils.urlEncodeIgnoreSlashes;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.dataformat.xml.ser.ToXmlGenerator;
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Base for the serializers of object listings.
+ * Listings are written element by element to the generator, keys are URL-encoded while they are
+ * written if requested by the client, no encoded copies of the listed objects are created.
+ * Empty values are omitted, like with {@code JsonInclude.Include.NON_EMPTY} for all other DTOs.
+ */
+abstract class ListingSerializer<T> extends JsonSerializer<T> {
+
+  private static final String ENCODING_TYPE_URL = "url";
+
+  static boolean isUrlEncoded(String encodingType) {
+    return Objects.equals(ENCODING_TYPE_URL, encodingType);
+  }
+
+  static String encode(String value, boolean urlEncoded) {
+    return urlEncoded && value != null ? urlEncodeIgnoreSlashes(value) : value;
+  }
+
+  static void writeXmlns(JsonGenerator gen, String xmlns) throws IOException {
+    if (gen instanceof ToXmlGenerator xmlGenerator) {
+      //workaround for adding xmlns attribute to root element only.
+      xmlGenerator.setNextIsAttribute(true);
+      writeString(gen, "xmlns", xmlns);
+      xmlGenerator.setNextIsAttribute(false);
+    }
+  }
+
+  static void writeString(JsonGenerator gen, String name, String value) throws IOException {
+    if (value != null && !value.isEmpty()) {
+      gen.writeStringField(name, value);
+    }
+  }
+
+  static void writeValue(JsonGenerator gen, String name, Object value) throws IOException {
+    if (value != null) {
+      writeString(gen, name, value.toString());
+    }
+  }
+
+  static void writeCommonPrefixes(JsonGenerator gen, List<Prefix> commonPrefixes,
+      boolean urlEncoded) throws IOException {
+    if (commonPrefixes == null) {
+      return;
+    }
+    for (var commonPrefix : commonPrefixes) {
+      gen.writeFieldName("CommonPrefixes");
+      gen.writeStartObject();
+      writeString(gen, "Prefix", encode(commonPrefix.prefix(), urlEncoded));
+      gen.writeEndObject();
+    }
+  }
+
+  static void writeContents(JsonGenerator gen, List<S3Object> contents, boolean urlEncoded)
+      throws IOException {
+    if (contents == null) {
+      return;
+    }
+    for (var s3Object : contents) {
+      gen.writeFieldName("Contents");
+      gen.writeStartObject();
+      writeString(gen, "Key", encode(s3Object.key(), urlEncoded));
+      writeString(gen, "LastModified", s3Object.lastModified());
+      writeString(gen, "ETag", s3Object.etag());
+      writeString(gen, "Size", s3Object.size());
+      writeValue(gen, "StorageClass", s3Object.storageClass());
+      writeOwner(gen, s3Object.owner());
+      writeValue(gen, "ChecksumAlgorithm", s3Object.checksumAlgorithm());
+      gen.writeEndObject();
+    }
+  }
+
+  static void writeOwner(JsonGenerator gen, Owner owner) throws IOException {
+    if (owner == null) {
+      return;
+    }
+    gen.writeFieldName("Owner");
+    gen.writeStartObject();
+    writeString(gen, "ID", owner.id());
+    writeString(gen, "DisplayName", owner.displayName());
+    gen.writeEndObject();
+  }
+}
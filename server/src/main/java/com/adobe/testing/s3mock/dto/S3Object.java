@@ -18,6 +18,7 @@ package com.adobe.testing.s3mock.dto;
 
 import static com.adobe.testing.s3mock.util.EtagUtil.normalizeEtag;
 
+import com.adobe.testing.s3mock.store.ObjectListing;
 import com.adobe.testing.s3mock.store.S3ObjectMetadata;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
@@ -55,4 +56,14 @@ public record S3Object(
         s3ObjectMetadata.owner(),
         s3ObjectMetadata.checksumAlgorithm());
   }
+
+  public static S3Object from(String key, ObjectListing objectListing) {
+    return new S3Object(key,
+        objectListing.modificationDate(),
+        objectListing.etag(),
+        objectListing.size(),
+        objectListing.storageClass(),
+        objectListing.owner(),
+        objectListing.checksumAlgorithm());
+  }
 }
@@ -21,13 +21,13 @@ import static com.adobe.testing.s3mock.S3Exception.BUCKET_NOT_EMPTY;
 import static com.adobe.testing.s3mock.S3Exception.INVALID_BUCKET_NAME;
 import static com.adobe.testing.s3mock.S3Exception.INVALID_REQUEST_ENCODINGTYPE;
 import static com.adobe.testing.s3mock.S3Exception.INVALID_REQUEST_MAXKEYS;
+import static com.adobe.testing.s3mock.S3Exception.INVALID_REQUEST_MAX_BUCKETS;
 import static com.adobe.testing.s3mock.S3Exception.NOT_FOUND_BUCKET_OBJECT_LOCK;
 import static com.adobe.testing.s3mock.S3Exception.NO_SUCH_BUCKET;
 import static com.adobe.testing.s3mock.S3Exception.NO_SUCH_LIFECYCLE_CONFIGURATION;
 import static com.adobe.testing.s3mock.dto.Owner.DEFAULT_OWNER;
 import static org.apache.commons.lang3.StringUtils.isEmpty;
 import static org.apache.commons.lang3.StringUtils.isNotEmpty;
-import static software.amazon.awssdk.utils.http.SdkHttpUtils.urlEncodeIgnoreSlashes;
 
 import com.adobe.testing.s3mock.dto.Bucket;
 import com.adobe.testing.s3mock.dto.BucketLifecycleConfiguration;
@@ -40,26 +40,39 @@ import com.adobe.testing.s3mock.dto.ObjectLockConfiguration;
 import com.adobe.testing.s3mock.dto.ObjectVersion;
 import com.adobe.testing.s3mock.dto.Prefix;
 import com.adobe.testing.s3mock.dto.S3Object;
+import com.adobe.testing.s3mock.store.BucketMetadata;
 import com.adobe.testing.s3mock.store.BucketStore;
 import com.adobe.testing.s3mock.store.ObjectStore;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.function.UnaryOperator;
-import software.amazon.awssdk.utils.http.SdkHttpUtils;
 
 public class BucketService {
-  private final Map<String, String> listObjectsPagingStateCache = new ConcurrentHashMap<>();
+  /**
+   * Maximum number of entries whose objects are looked up at once while listing.
+   */
+  private static final int MAX_BATCH = 1000;
+  static final int MAX_BUCKETS = 10_000;
+  /**
+   * Continuation tokens of ListBuckets are bound to the empty bucket name, which no bucket can
+   * have, so they cannot be used to list objects.
+   */
+  private static final String LIST_BUCKETS_SCOPE = "";
   private final BucketStore bucketStore;
   private final ObjectStore objectStore;
+  private final ContinuationTokens continuationTokens;
 
   public BucketService(BucketStore bucketStore, ObjectStore objectStore) {
+    this(bucketStore, objectStore, new ContinuationTokens(null));
+  }
+
+  BucketService(BucketStore bucketStore, ObjectStore objectStore,
+      ContinuationTokens continuationTokens) {
     this.bucketStore = bucketStore;
     this.objectStore = objectStore;
+    this.continuationTokens = continuationTokens;
   }
 
   public boolean isBucketEmpty(String bucketName) {
@@ -71,13 +84,32 @@ public class BucketService {
   }
 
   public ListAllMyBucketsResult listBuckets() {
-    var buckets = bucketStore
-        .listBuckets()
-        .stream()
-        .filter(Objects::nonNull)
-        .map(Bucket::from)
-        .toList();
-    return new ListAllMyBucketsResult(DEFAULT_OWNER, new Buckets(buckets));
+    return listBuckets(null, null);
+  }
+
+  /**
+   * Lists the buckets sorted by name, one page of {@code maxBuckets} buckets if given.
+   * Buckets are listed from the catalog of the {@link BucketStore}, no files are read.
+   * <a href="https://docs.aws.amazon.com/AmazonS3/latest/API/API_ListBuckets.html">API Reference</a>
+   *
+   * @param maxBuckets the maximum number of buckets to list, all buckets if {@code null}.
+   * @param continuationToken the token returned with the previous page, or {@code null}.
+   */
+  public ListAllMyBucketsResult listBuckets(Integer maxBuckets, String continuationToken) {
+    var startAfter = continuationToken != null
+        ? continuationTokens.decode(LIST_BUCKETS_SCOPE, continuationToken)
+        : null;
+    //one more bucket than requested tells if there is another page
+    var limit = maxBuckets != null ? maxBuckets + 1 : Integer.MAX_VALUE;
+    var buckets = bucketStore.listBuckets(startAfter, limit);
+    var nextContinuationToken = (String) null;
+    if (buckets.size() == limit) {
+      buckets = buckets.subList(0, maxBuckets);
+      nextContinuationToken = continuationTokens.encode(LIST_BUCKETS_SCOPE,
+          buckets.get(buckets.size() - 1).name());
+    }
+    return new ListAllMyBucketsResult(DEFAULT_OWNER,
+        new Buckets(buckets.stream().map(Bucket::from).toList()), nextContinuationToken);
   }
 
   /**
@@ -200,56 +232,28 @@ public class BucketService {
       Integer maxKeys,
       String continuationToken) {
 
-    var contents = getS3Objects(bucketName, prefix);
-    var nextContinuationToken = (String) null;
-    var isTruncated = false;
-
     /*
       Start-after is valid only in first request.
       If the response is truncated,
       you can specify this parameter along with the continuation-token parameter,
       and then Amazon S3 ignores this parameter.
      */
-    if (continuationToken != null) {
-      var continueAfter = listObjectsPagingStateCache.get(continuationToken);
-      contents = filterObjectsBy(contents, continueAfter);
-      listObjectsPagingStateCache.remove(continuationToken);
-    } else {
-      contents = filterObjectsBy(contents, startAfter);
-    }
+    var continueAfter = continuationToken != null
+        ? continuationTokens.decode(bucketName, continuationToken)
+        : startAfter;
+    var page = listPage(bucketName, prefix, delimiter, continueAfter, maxKeys);
 
-    var commonPrefixes = collapseCommonPrefixes(prefix, delimiter, contents);
-    contents = filterObjectsBy(contents, commonPrefixes);
-
-    if (contents.size() > maxKeys) {
-      isTruncated = true;
-      nextContinuationToken = UUID.randomUUID().toString();
-      contents = contents.subList(0, maxKeys);
-      listObjectsPagingStateCache.put(nextContinuationToken,
-          contents.get(maxKeys - 1).key());
-    }
-
-    var returnPrefix = prefix;
-    var returnStartAfter = startAfter;
-    var returnCommonPrefixes = commonPrefixes;
-
-    if (Objects.equals("url", encodingType)) {
-      contents = apply(contents, object -> new S3Object(urlEncodeIgnoreSlashes(object.key()),
-          object.lastModified(),
-          object.etag(),
-          object.size(),
-          object.storageClass(),
-          object.owner(),
-          object.checksumAlgorithm()));
-      returnPrefix = urlEncodeIgnoreSlashes(prefix);
-      returnStartAfter = urlEncodeIgnoreSlashes(startAfter);
-      returnCommonPrefixes = apply(commonPrefixes, SdkHttpUtils::urlEncodeIgnoreSlashes);
+    var nextContinuationToken = (String) null;
+    if (page.isTruncated() && page.last() != null) {
+      nextContinuationToken = continuationTokens.encode(bucketName, page.last());
     }
 
-    return new ListBucketResultV2(bucketName, returnPrefix, maxKeys,
-        isTruncated, contents, returnCommonPrefixes.stream().map(Prefix::new).toList(),
-        continuationToken, String.valueOf(contents.size()),
-        nextContinuationToken, returnStartAfter, encodingType);
+    //keys are URL-encoded while the result is written, see ListBucketResultV2Serializer
+    return new ListBucketResultV2(bucketName, prefix, maxKeys,
+        page.isTruncated(), page.contents(),
+        page.commonPrefixes().stream().map(Prefix::new).toList(),
+        continuationToken, String.valueOf(page.contents().size()),
+        nextContinuationToken, startAfter, encodingType);
   }
 
   @Deprecated(since = "2.12.2", forRemoval = true)
@@ -259,40 +263,90 @@ public class BucketService {
     verifyMaxKeys(maxKeys);
     verifyEncodingType(encodingType);
 
-    var contents = getS3Objects(bucketName, prefix);
-    contents = filterObjectsBy(contents, marker);
+    var page = listPage(bucketName, prefix, delimiter, marker, maxKeys);
+    var nextMarker = page.isTruncated() ? page.last() : null;
 
-    var isTruncated = false;
-    var nextMarker = (String) null;
+    //keys are URL-encoded while the result is written, see ListBucketResultSerializer
+    return new ListBucketResult(bucketName, prefix, marker, maxKeys, page.isTruncated(),
+        encodingType, nextMarker, page.contents(),
+        page.commonPrefixes().stream().map(Prefix::new).toList());
+  }
 
-    var commonPrefixes = collapseCommonPrefixes(prefix, delimiter, contents);
-    contents = filterObjectsBy(contents, commonPrefixes);
-    if (maxKeys < contents.size()) {
-      contents = contents.subList(0, maxKeys);
-      isTruncated = true;
-      if (maxKeys > 0) {
-        nextMarker = contents.get(maxKeys - 1).key();
+  /**
+   * Lists one page of a bucket by iterating its sorted keys, starting after {@code startAfter}.
+   * Objects and common prefixes both count towards {@code maxKeys}, the iteration stops as soon
+   * as one more entry is found. The objects are listed from the attributes kept with the key
+   * index, the metadata files of objects not kept in memory are read concurrently.
+   * The keys collapsed into a common prefix are contiguous in the index, the iteration seeks past
+   * all of them at once instead of visiting each key.
+   * <a href="https://docs.aws.amazon.com/AmazonS3/latest/API/API_ListObjectsV2.html">API Reference</a>
+   *
+   * @param startAfter the last key or common prefix of the previous page, or {@code null}.
+   */
+  ListPage listPage(String bucketName, String prefix, String delimiter, String startAfter,
+      int maxKeys) {
+    var bucketMetadata = bucketStore.getBucketMetadata(bucketName);
+    var normalizedPrefix = prefix == null ? "" : prefix;
+    var normalizedStartAfter = isEmpty(startAfter) ? null : startAfter;
+    var contents = new ArrayList<S3Object>();
+    var commonPrefixes = new ArrayList<String>();
+    var last = (String) null;
+    var keys = bucketMetadata.keys(prefix, normalizedStartAfter);
+    var entry = keys.firstEntry();
+    while (entry != null) {
+      //collect the remaining entries of the page, then get the listings of their objects at once
+      var batch = new ArrayList<ListEntry>();
+      var batchSize = Math.min(maxKeys - contents.size() - commonPrefixes.size(), MAX_BATCH) + 1;
+      while (entry != null && batch.size() < batchSize) {
+        var key = entry.getKey();
+        var commonPrefix = commonPrefix(normalizedPrefix, delimiter, key);
+        if (commonPrefix == null) {
+          batch.add(new ListEntry(key, entry.getValue(), null));
+          entry = keys.higherEntry(key);
+          continue;
+        }
+        //a prefix sorting before the start was already returned on the previous page
+        if (normalizedStartAfter == null || commonPrefix.compareTo(normalizedStartAfter) > 0) {
+          batch.add(new ListEntry(key, null, commonPrefix));
+        }
+        var afterCommonPrefix = BucketMetadata.prefixUpperBound(commonPrefix);
+        entry = afterCommonPrefix == null ? null : keys.ceilingEntry(afterCommonPrefix);
+      }
+      var objectListings = objectStore.getObjectListings(bucketMetadata,
+          batch.stream().map(ListEntry::id).filter(Objects::nonNull).toList());
+      for (var listEntry : batch) {
+        var objectListing = listEntry.id() == null ? null : objectListings.get(listEntry.id());
+        if (listEntry.commonPrefix() == null && objectListing == null) {
+          continue;
+        }
+        if (contents.size() + commonPrefixes.size() == maxKeys) {
+          return new ListPage(contents, commonPrefixes, true, last);
+        }
+        if (objectListing != null) {
+          contents.add(S3Object.from(listEntry.key(), objectListing));
+          last = listEntry.key();
+        } else {
+          commonPrefixes.add(listEntry.commonPrefix());
+          last = listEntry.commonPrefix();
+        }
       }
     }
+    return new ListPage(contents, commonPrefixes, false, last);
+  }
 
-    var returnPrefix = prefix;
-    var returnCommonPrefixes = commonPrefixes;
-
-    if (Objects.equals("url", encodingType)) {
-      contents = apply(contents, object -> new S3Object(urlEncodeIgnoreSlashes(object.key()),
-          object.lastModified(),
-          object.etag(),
-          object.size(),
-          object.storageClass(),
-          object.owner(),
-          object.checksumAlgorithm()));
-      returnPrefix = urlEncodeIgnoreSlashes(prefix);
-      returnCommonPrefixes = apply(commonPrefixes, SdkHttpUtils::urlEncodeIgnoreSlashes);
-    }
+  /**
+   * An object or, if {@code commonPrefix} is set, a common prefix found while listing.
+   */
+  private record ListEntry(String key, UUID id, String commonPrefix) {
+  }
 
-    return new ListBucketResult(bucketName, returnPrefix, marker, maxKeys, isTruncated,
-        encodingType, nextMarker, contents,
-        returnCommonPrefixes.stream().map(Prefix::new).toList());
+  /**
+   * One page of a listing.
+   *
+   * @param last the last key or common prefix on this page, where the next page starts after.
+   */
+  record ListPage(List<S3Object> contents, List<String> commonPrefixes, boolean isTruncated,
+                  String last) {
   }
 
   public void verifyBucketExists(String bucketName) {
@@ -309,9 +363,11 @@ public class BucketService {
 
   /**
    * <a href="https://docs.aws.amazon.com/AmazonS3/latest/userguide/bucketnamingrules.html">API Reference Bucket Naming</a>.
+   * Names must not start with a dot, like in S3: folders of the root folder starting with a dot
+   * are reserved for the stores, like the trash.
    */
   public void verifyBucketNameIsAllowed(String bucketName) {
-    if (!bucketName.matches("[a-z0-9.-]+")) {
+    if (!bucketName.matches("[a-z0-9-][a-z0-9.-]*")) {
       throw INVALID_BUCKET_NAME;
     }
   }
@@ -330,6 +386,12 @@ public class BucketService {
     }
   }
 
+  public void verifyMaxBuckets(Integer maxBuckets) {
+    if (maxBuckets != null && (maxBuckets < 1 || maxBuckets > MAX_BUCKETS)) {
+      throw INVALID_REQUEST_MAX_BUCKETS;
+    }
+  }
+
   public void verifyMaxKeys(Integer maxKeys) {
     if (maxKeys < 0) {
       throw INVALID_REQUEST_MAXKEYS;
@@ -344,69 +406,23 @@ public class BucketService {
 
 
   /**
-   * Collapse all bucket elements with keys starting with some prefix up to the given delimiter into
-   * one prefix entry. Collapsed elements are removed from the contents list.
+   * Returns the common prefix a key is collapsed into: the key up to and including the first
+   * occurrence of the delimiter after the query prefix, or {@code null} if the key is not
+   * collapsed.
    * <a href="https://docs.aws.amazon.com/AmazonS3/latest/API/API_ListObjectsV2.html">API Reference</a>
    *
-   * @param queryPrefix the key prefix as specified in the list request
+   * @param queryPrefix the key prefix as specified in the list request, never {@code null}
    * @param delimiter the delimiter used to separate a prefix from the rest of the object name
-   * @param s3Objects the list of objects to use for collapsing the prefixes
+   * @param key the key of an object starting with the query prefix
    */
-  static List<String> collapseCommonPrefixes(String queryPrefix, String delimiter,
-      List<S3Object> s3Objects) {
-    var commonPrefixes = new ArrayList<String>();
+  static String commonPrefix(String queryPrefix, String delimiter, String key) {
     if (isEmpty(delimiter)) {
-      return commonPrefixes;
-    }
-
-    var normalizedQueryPrefix = queryPrefix == null ? "" : queryPrefix;
-
-    for (var c : s3Objects) {
-      var key = c.key();
-      if (key.startsWith(normalizedQueryPrefix)) {
-        int delimiterIndex = key.indexOf(delimiter, normalizedQueryPrefix.length());
-        if (delimiterIndex > 0) {
-          var commonPrefix = key.substring(0, delimiterIndex + delimiter.length());
-          if (!commonPrefixes.contains(commonPrefix)) {
-            commonPrefixes.add(commonPrefix);
-          }
-        }
-      }
-    }
-    return commonPrefixes;
-  }
-
-  private static <T> List<T> apply(List<T> contents, UnaryOperator<T> extractor) {
-    return contents
-        .stream()
-        .map(extractor)
-        .toList();
-  }
-
-  static List<S3Object> filterObjectsBy(List<S3Object> s3Objects,
-      String startAfter) {
-    if (isNotEmpty(startAfter)) {
-      return s3Objects
-          .stream()
-          .filter(p -> p.key().compareTo(startAfter) > 0)
-          .toList();
-    } else {
-      return s3Objects;
+      return null;
     }
-  }
-
-  static List<S3Object> filterObjectsBy(List<S3Object> s3Objects,
-      List<String> commonPrefixes) {
-    if (commonPrefixes != null && !commonPrefixes.isEmpty()) {
-      return s3Objects
-          .stream()
-          .filter(c -> commonPrefixes
-              .stream()
-              .noneMatch(p -> c.key().startsWith(p))
-          )
-          .toList();
-    } else {
-      return s3Objects;
+    int delimiterIndex = key.indexOf(delimiter, queryPrefix.length());
+    if (delimiterIndex > 0) {
+      return key.substring(0, delimiterIndex + delimiter.length());
     }
+    return null;
   }
 }
@@ -0,0 +1,116 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.service;
+
+import static com.adobe.testing.s3mock.S3Exception.INVALID_CONTINUATION_TOKEN;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Encodes the position a listing continues from into an opaque continuation token.
+ * Tokens carry all state themselves, nothing is kept in memory: they survive restarts and can be
+ * continued by any S3Mock instance sharing the same secret.
+ * If a secret is configured, tokens are protected by an HMAC over the bucket name and position,
+ * so clients cannot forge them or use them for a different bucket.
+ *
+ * <p>Token layout, URL-safe Base64 without padding:
+ * {@code version (1 byte) | mac length (1 byte) | mac | UTF-8 position}.
+ */
+final class ContinuationTokens {
+  private static final byte VERSION = 1;
+  private static final String MAC_ALGORITHM = "HmacSHA256";
+  /**
+   * The HMAC is truncated to 128 bits to keep tokens short.
+   */
+  private static final int MAC_LENGTH = 16;
+  private static final int HEADER_LENGTH = 2;
+
+  private final SecretKeySpec secret;
+
+  /**
+   * Creates the tokens.
+   *
+   * @param secret the secret used to sign tokens, tokens are not signed if empty or
+   *     {@code null}.
+   */
+  ContinuationTokens(String secret) {
+    this.secret = secret == null || secret.isEmpty()
+        ? null
+        : new SecretKeySpec(secret.getBytes(UTF_8), MAC_ALGORITHM);
+  }
+
+  /**
+   * Creates the token continuing a listing of the bucket after the given position.
+   */
+  String encode(String bucketName, String continueAfter) {
+    var position = continueAfter.getBytes(UTF_8);
+    var mac = secret == null ? new byte[0] : mac(bucketName, position);
+    var token = ByteBuffer.allocate(HEADER_LENGTH + mac.length + position.length)
+        .put(VERSION)
+        .put((byte) mac.length)
+        .put(mac)
+        .put(position);
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(token.array());
+  }
+
+  /**
+   * Returns the position a listing of the bucket continues after.
+   *
+   * @throws com.adobe.testing.s3mock.S3Exception if the token is malformed, was created by an
+   *     incompatible version or its HMAC does not match.
+   */
+  String decode(String bucketName, String continuationToken) {
+    byte[] token;
+    try {
+      token = Base64.getUrlDecoder().decode(continuationToken);
+    } catch (IllegalArgumentException e) {
+      throw INVALID_CONTINUATION_TOKEN;
+    }
+    if (token.length < HEADER_LENGTH || token[0] != VERSION || token[1] < 0
+        || token.length < HEADER_LENGTH + token[1]) {
+      throw INVALID_CONTINUATION_TOKEN;
+    }
+    var macEnd = HEADER_LENGTH + token[1];
+    var position = Arrays.copyOfRange(token, macEnd, token.length);
+    if (secret != null) {
+      var mac = Arrays.copyOfRange(token, HEADER_LENGTH, macEnd);
+      if (!MessageDigest.isEqual(mac, mac(bucketName, position))) {
+        throw INVALID_CONTINUATION_TOKEN;
+      }
+    }
+    return new String(position, UTF_8);
+  }
+
+  private byte[] mac(String bucketName, byte[] position) {
+    try {
+      var mac = Mac.getInstance(MAC_ALGORITHM);
+      mac.init(secret);
+      mac.update(bucketName.getBytes(UTF_8));
+      mac.update((byte) 0);
+      return Arrays.copyOf(mac.doFinal(position), MAC_LENGTH);
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("Could not compute continuation token HMAC", e);
+    }
+  }
+}
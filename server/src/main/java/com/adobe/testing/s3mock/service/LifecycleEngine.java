@@ -0,0 +1,459 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.service;
+
+import com.adobe.testing.s3mock.dto.BucketLifecycleConfiguration;
+import com.adobe.testing.s3mock.dto.LifecycleExpiration;
+import com.adobe.testing.s3mock.dto.LifecycleRule;
+import com.adobe.testing.s3mock.dto.LifecycleRuleFilter;
+import com.adobe.testing.s3mock.dto.MultipartUpload;
+import com.adobe.testing.s3mock.dto.Tag;
+import com.adobe.testing.s3mock.store.BucketMetadata;
+import com.adobe.testing.s3mock.store.BucketStore;
+import com.adobe.testing.s3mock.store.MultipartStore;
+import com.adobe.testing.s3mock.store.ObjectStore;
+import com.adobe.testing.s3mock.store.S3ObjectMetadata;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+
+/**
+ * Enforces the lifecycle configurations of buckets in the background: objects expire and
+ * incomplete multipart uploads are aborted once a rule of their bucket is due.
+ * Buckets are not rescanned periodically. Objects and uploads are kept as candidates in an index
+ * ordered by the time they are due, each run only visits the candidates due by then. Objects are
+ * scheduled when their metadata is written and uploads when they are initiated, both only for
+ * rules that apply to them. The keys and uploads of a bucket are only scanned when its lifecycle
+ * configuration changes.
+ * Before acting on a candidate, it is checked against the current rules and metadata, objects
+ * overwritten in the meantime are rescheduled instead of expired.
+ * Rules are due as in S3: a number of days after creation / initiation, rounded up to the next
+ * midnight UTC, or at a fixed date. S3Mock keeps neither noncurrent versions nor delete markers,
+ * so noncurrent version expirations and ExpiredObjectDeleteMarker have nothing to act on.
+ * Transitions are not applied.
+ */
+public class LifecycleEngine implements DisposableBean {
+  private static final Logger LOG = LoggerFactory.getLogger(LifecycleEngine.class);
+  static final String OBJECTS_EXPIRED = "s3mock.lifecycle.objects.expired";
+  static final String UPLOADS_ABORTED = "s3mock.lifecycle.uploads.aborted";
+  static final String CANDIDATES = "s3mock.lifecycle.candidates";
+  static final String DELAY = "s3mock.lifecycle.delay";
+  private static final long DAY = TimeUnit.DAYS.toMillis(1);
+  private static final Comparator<Candidate> DUE_ORDER = Comparator
+      .comparingLong(Candidate::due)
+      .thenComparing(candidate -> candidate.target().bucketName())
+      .thenComparing(candidate -> candidate.target().key())
+      .thenComparing(candidate -> candidate.target().upload());
+
+  private final BucketStore bucketStore;
+  private final ObjectStore objectStore;
+  private final MultipartStore multipartStore;
+  private final ObjectService objectService;
+  private final MultipartService multipartService;
+  private final Clock clock;
+  private final long nanosPerAction;
+  /**
+   * The candidates ordered by the time they are due.
+   */
+  private final NavigableSet<Candidate> candidates = new TreeSet<>(DUE_ORDER);
+  /**
+   * The time each target of {@link #candidates} is due, a target is only scheduled once.
+   */
+  private final Map<Target, Long> scheduled = new HashMap<>();
+  /**
+   * The lifecycle configurations the buckets were last scanned for, only accessed by runs.
+   */
+  private final Map<String, BucketLifecycleConfiguration> configurations = new HashMap<>();
+  private final Counter objectsExpired;
+  private final Counter uploadsAborted;
+  private final Timer delay;
+  private final ScheduledExecutorService executor;
+  /**
+   * The earliest time the next object is expired or upload is aborted, only accessed by runs.
+   */
+  private long nextAction = System.nanoTime();
+
+  /**
+   * Creates the engine and schedules its runs.
+   *
+   * @param interval time between two runs, if zero or negative lifecycle configurations are not
+   *     enforced.
+   * @param actionsPerSecond maximum number of objects expired and uploads aborted per second,
+   *     zero or negative for no limit.
+   */
+  public LifecycleEngine(BucketStore bucketStore, ObjectStore objectStore,
+      MultipartStore multipartStore, ObjectService objectService,
+      MultipartService multipartService, MeterRegistry registry, Clock clock, Duration interval,
+      int actionsPerSecond) {
+    this.bucketStore = bucketStore;
+    this.objectStore = objectStore;
+    this.multipartStore = multipartStore;
+    this.objectService = objectService;
+    this.multipartService = multipartService;
+    this.clock = clock;
+    this.nanosPerAction =
+        actionsPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / actionsPerSecond : 0;
+    this.objectsExpired = Counter.builder(OBJECTS_EXPIRED)
+        .description("Objects deleted by lifecycle expiration rules")
+        .register(registry);
+    this.uploadsAborted = Counter.builder(UPLOADS_ABORTED)
+        .description("Multipart uploads aborted by lifecycle rules")
+        .register(registry);
+    this.delay = Timer.builder(DELAY)
+        .description("Time between a lifecycle rule being due and its enforcement")
+        .register(registry);
+    Gauge.builder(CANDIDATES, this, LifecycleEngine::pending)
+        .description("Objects and multipart uploads scheduled for lifecycle rules")
+        .register(registry);
+    if (interval.isZero() || interval.isNegative()) {
+      this.executor = null;
+    } else {
+      objectStore.setObjectListener(this::objectWritten);
+      multipartStore.setUploadListener(this::uploadInitiated);
+      this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        var thread = new Thread(runnable, "s3mock-lifecycle");
+        thread.setDaemon(true);
+        return thread;
+      });
+      this.executor.scheduleWithFixedDelay(this::run, interval.toMillis(), interval.toMillis(),
+          TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Scans the buckets whose lifecycle configuration changed since the last run, then expires the
+   * objects and aborts the uploads that are due.
+   */
+  void run() {
+    try {
+      scanChangedConfigurations();
+      enforceDue();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (RuntimeException e) {
+      LOG.warn("Could not enforce bucket lifecycle configurations", e);
+    }
+  }
+
+  /**
+   * Schedules a written object for the expiration rules of its bucket that apply to it.
+   * Called while the object is locked, see {@link ObjectStore#setObjectListener}.
+   */
+  void objectWritten(BucketMetadata bucket, S3ObjectMetadata object) {
+    for (var rule : enabledRules(bucket.bucketLifecycleConfiguration())) {
+      if (expires(rule) && matches(rule.filter(), object)) {
+        schedule(new Target(bucket.name(), object.key(), false),
+            expirationDue(rule.expiration(), object::lastModified));
+      }
+    }
+  }
+
+  /**
+   * Schedules an initiated multipart upload for the AbortIncompleteMultipartUpload rules of its
+   * bucket matching its key, see {@link MultipartStore#setUploadListener}.
+   */
+  void uploadInitiated(String bucketName, MultipartUpload upload) {
+    var bucket = bucketStore.getBucketMetadata(bucketName);
+    if (bucket == null) {
+      return;
+    }
+    for (var rule : enabledRules(bucket.bucketLifecycleConfiguration())) {
+      if (abortsUploads(rule) && upload.key().startsWith(prefix(rule.filter()))) {
+        schedule(new Target(bucketName, upload.key(), true),
+            dueAfterDays(upload.initiated().getTime(),
+                rule.abortIncompleteMultipartUpload().daysAfterInitiation()));
+      }
+    }
+  }
+
+  /**
+   * The number of objects and uploads scheduled.
+   */
+  synchronized int pending() {
+    return candidates.size();
+  }
+
+  @Override
+  public void destroy() throws InterruptedException {
+    if (executor != null) {
+      executor.shutdownNow();
+      executor.awaitTermination(1, TimeUnit.MINUTES);
+    }
+  }
+
+  /**
+   * The time an object or upload created at {@code created} is due for a rule applying after
+   * {@code days}: S3 adds the days and rounds up to the next midnight UTC.
+   */
+  static long dueAfterDays(long created, int days) {
+    return Math.floorDiv(created + days * DAY + DAY - 1, DAY) * DAY;
+  }
+
+  private void scanChangedConfigurations() {
+    var buckets = bucketStore.listBuckets();
+    configurations.keySet().retainAll(buckets.stream()
+        .map(BucketMetadata::name)
+        .collect(Collectors.toSet()));
+    for (var bucket : buckets) {
+      var configuration = bucket.bucketLifecycleConfiguration();
+      if (Objects.equals(configuration, configurations.get(bucket.name()))) {
+        continue;
+      }
+      if (configuration == null) {
+        configurations.remove(bucket.name());
+      } else {
+        configurations.put(bucket.name(), configuration);
+        scan(bucket, configuration);
+      }
+    }
+  }
+
+  /**
+   * Schedules all keys and uploads of a bucket for the rules of its lifecycle configuration.
+   */
+  private void scan(BucketMetadata bucket, BucketLifecycleConfiguration configuration) {
+    var now = clock.millis();
+    for (var rule : enabledRules(configuration)) {
+      var prefix = prefix(rule.filter());
+      if (expires(rule)) {
+        var keys = bucket.keys(prefix, null);
+        for (var entry = keys.firstEntry(); entry != null;
+            entry = keys.higherEntry(entry.getKey())) {
+          var id = entry.getValue();
+          schedule(new Target(bucket.name(), entry.getKey(), false),
+              expirationDue(rule.expiration(), () -> created(bucket, id, now)));
+        }
+      }
+      if (abortsUploads(rule)) {
+        for (var upload : multipartStore.listMultipartUploads(bucket.name(), prefix)) {
+          schedule(new Target(bucket.name(), upload.key(), true),
+              dueAfterDays(upload.initiated().getTime(),
+                  rule.abortIncompleteMultipartUpload().daysAfterInitiation()));
+        }
+      }
+    }
+  }
+
+  private void enforceDue() throws InterruptedException {
+    Candidate candidate;
+    while ((candidate = pollDue(clock.millis())) != null) {
+      try {
+        if (candidate.target().upload()) {
+          abortUploads(candidate.target());
+        } else {
+          expireObject(candidate.target());
+        }
+      } catch (RuntimeException e) {
+        LOG.warn("Could not enforce bucket lifecycle configuration for {}", candidate.target(), e);
+      }
+    }
+  }
+
+  private void expireObject(Target target) throws InterruptedException {
+    var bucket = bucketStore.getBucketMetadata(target.bucketName());
+    var id = bucket == null ? null : bucket.getID(target.key());
+    if (id == null) {
+      return;
+    }
+    var object = objectStore.getS3ObjectMetadata(bucket, id);
+    if (object == null) {
+      //still being uploaded, scheduled again once the upload is completed
+      return;
+    }
+    var now = clock.millis();
+    var due = Long.MAX_VALUE;
+    for (var rule : enabledRules(bucket.bucketLifecycleConfiguration())) {
+      if (expires(rule) && matches(rule.filter(), object)) {
+        due = Math.min(due, expirationDue(rule.expiration(), object::lastModified));
+      }
+    }
+    if (due == Long.MAX_VALUE) {
+      return;
+    }
+    if (due > now) {
+      schedule(target, due);
+      return;
+    }
+    throttle();
+    if (objectService.deleteObject(target.bucketName(), target.key())) {
+      objectsExpired.increment();
+      delay.record(clock.millis() - due, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private void abortUploads(Target target) throws InterruptedException {
+    var bucket = bucketStore.getBucketMetadata(target.bucketName());
+    if (bucket == null) {
+      return;
+    }
+    var days = enabledRules(bucket.bucketLifecycleConfiguration())
+        .stream()
+        .filter(rule -> abortsUploads(rule) && target.key().startsWith(prefix(rule.filter())))
+        .mapToInt(rule -> rule.abortIncompleteMultipartUpload().daysAfterInitiation())
+        .min();
+    if (days.isEmpty()) {
+      return;
+    }
+    var next = Long.MAX_VALUE;
+    for (var upload : multipartStore.listMultipartUploads(target.bucketName(), target.key())) {
+      if (!upload.key().equals(target.key())) {
+        continue;
+      }
+      var due = dueAfterDays(upload.initiated().getTime(), days.getAsInt());
+      if (due > clock.millis()) {
+        next = Math.min(next, due);
+        continue;
+      }
+      throttle();
+      multipartService.abortMultipartUpload(target.bucketName(), target.key(),
+          upload.uploadId());
+      uploadsAborted.increment();
+      delay.record(clock.millis() - due, TimeUnit.MILLISECONDS);
+    }
+    if (next != Long.MAX_VALUE) {
+      schedule(target, next);
+    }
+  }
+
+  /**
+   * The time an object expires, {@code created} is only called for rules with days.
+   */
+  private static long expirationDue(LifecycleExpiration expiration, LongSupplier created) {
+    if (expiration.date() != null) {
+      return expiration.date().toEpochMilli();
+    }
+    return dueAfterDays(created.getAsLong(), expiration.days());
+  }
+
+  private long created(BucketMetadata bucket, UUID id, long now) {
+    var listing = objectStore.getObjectListing(bucket, id);
+    return listing == null ? now : Instant.parse(listing.modificationDate()).toEpochMilli();
+  }
+
+  private synchronized void schedule(Target target, long due) {
+    var current = scheduled.get(target);
+    if (current != null) {
+      if (current <= due) {
+        //checked earlier, rescheduled then if not due yet
+        return;
+      }
+      candidates.remove(new Candidate(current, target));
+    }
+    scheduled.put(target, due);
+    candidates.add(new Candidate(due, target));
+  }
+
+  private synchronized Candidate pollDue(long now) {
+    if (candidates.isEmpty() || candidates.first().due() > now) {
+      return null;
+    }
+    var candidate = candidates.pollFirst();
+    scheduled.remove(candidate.target());
+    return candidate;
+  }
+
+  private void throttle() throws InterruptedException {
+    if (nanosPerAction == 0) {
+      return;
+    }
+    var now = System.nanoTime();
+    var wait = nextAction - now;
+    if (wait > 0) {
+      TimeUnit.NANOSECONDS.sleep(wait);
+    }
+    nextAction = Math.max(nextAction, now) + nanosPerAction;
+  }
+
+  private static List<LifecycleRule> enabledRules(BucketLifecycleConfiguration configuration) {
+    if (configuration == null || configuration.rules() == null) {
+      return List.of();
+    }
+    return configuration.rules()
+        .stream()
+        .filter(rule -> rule.status() == LifecycleRule.Status.ENABLED)
+        .toList();
+  }
+
+  private static boolean expires(LifecycleRule rule) {
+    var expiration = rule.expiration();
+    return expiration != null && (expiration.date() != null || expiration.days() != null);
+  }
+
+  private static boolean abortsUploads(LifecycleRule rule) {
+    var abort = rule.abortIncompleteMultipartUpload();
+    return abort != null && abort.daysAfterInitiation() != null;
+  }
+
+  private static String prefix(LifecycleRuleFilter filter) {
+    String prefix = null;
+    if (filter != null) {
+      prefix = filter.and() != null ? filter.and().prefix() : filter.prefix();
+    }
+    return prefix == null ? "" : prefix;
+  }
+
+  private static boolean matches(LifecycleRuleFilter filter, S3ObjectMetadata object) {
+    if (filter == null) {
+      return true;
+    }
+    var and = filter.and();
+    if (and != null) {
+      return matches(object, and.prefix(), and.objectSizeGreaterThan(),
+          and.objectSizeLessThan(), and.tags());
+    }
+    return matches(object, filter.prefix(), filter.objectSizeGreaterThan(),
+        filter.objectSizeLessThan(), filter.tags());
+  }
+
+  private static boolean matches(S3ObjectMetadata object, String prefix, Long sizeGreaterThan,
+      Long sizeLessThan, List<Tag> tags) {
+    var size = Long.parseLong(object.size());
+    return (prefix == null || object.key().startsWith(prefix))
+        && (sizeGreaterThan == null || size > sizeGreaterThan)
+        && (sizeLessThan == null || size < sizeLessThan)
+        && (tags == null || object.tags() != null && object.tags().containsAll(tags));
+  }
+
+  /**
+   * An object of a bucket or the incomplete multipart uploads of a key.
+   */
+  record Target(String bucketName, String key, boolean upload) {
+  }
+
+  private record Candidate(long due, Target target) {
+  }
+}
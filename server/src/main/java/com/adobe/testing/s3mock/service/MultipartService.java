@@ -20,6 +20,7 @@ import static com.adobe.testing.s3mock.S3Exception.ENTITY_TOO_SMALL;
 import static com.adobe.testing.s3mock.S3Exception.INVALID_PART;
 import static com.adobe.testing.s3mock.S3Exception.INVALID_PART_NUMBER;
 import static com.adobe.testing.s3mock.S3Exception.INVALID_PART_ORDER;
+import static com.adobe.testing.s3mock.S3Exception.INVALID_REQUEST_MAX_UPLOADS;
 import static com.adobe.testing.s3mock.S3Exception.NO_SUCH_UPLOAD_MULTIPART;
 
 import com.adobe.testing.s3mock.S3Exception;
@@ -50,6 +51,7 @@ public class MultipartService {
 
   private static final Logger LOG = LoggerFactory.getLogger(MultipartService.class);
   static final Long MINIMUM_PART_SIZE = 5L * 1024L * 1024L;
+  static final int MAX_UPLOADS = 1000;
   private final BucketStore bucketStore;
   private final MultipartStore multipartStore;
 
@@ -246,24 +248,45 @@ public class MultipartService {
   }
 
   /**
-   * Lists all not-yet completed parts of multipart uploads in a bucket.
+   * Lists not-yet completed multipart uploads in a bucket, ordered by key and uploadId.
    *
    * @param bucketName the bucket to use as a filter
    * @param prefix the prefix use as a filter
+   * @param keyMarker list uploads after this key
+   * @param uploadIdMarker together with keyMarker, list uploads of keyMarker after this uploadId
+   * @param maxUploads the maximum number of uploads to return, capped at 1000
    *
-   * @return the list of not-yet completed multipart uploads.
+   * @return the page of not-yet completed multipart uploads.
    */
-  public ListMultipartUploadsResult listMultipartUploads(String bucketName, String prefix) {
-    var multipartUploads = multipartStore.listMultipartUploads(bucketName, prefix);
-
-    // the result contains all uploads, use some common value as default
-    var maxUploads = Math.max(1000, multipartUploads.size());
-    // delimiter / prefix search not supported
-    return new ListMultipartUploadsResult(bucketName, null, null, prefix, null,
-        maxUploads, false, null, null, multipartUploads,
+  public ListMultipartUploadsResult listMultipartUploads(String bucketName, String prefix,
+      String keyMarker, String uploadIdMarker, int maxUploads) {
+    var limit = Math.min(maxUploads, MAX_UPLOADS);
+    // fetch one more than requested to learn whether the listing is truncated
+    var multipartUploads = multipartStore.listMultipartUploads(bucketName, prefix, keyMarker,
+        uploadIdMarker, limit + 1);
+    var isTruncated = multipartUploads.size() > limit;
+    String nextKeyMarker = null;
+    String nextUploadIdMarker = null;
+    if (isTruncated) {
+      multipartUploads = multipartUploads.subList(0, limit);
+      if (limit > 0) {
+        var last = multipartUploads.get(limit - 1);
+        nextKeyMarker = last.key();
+        nextUploadIdMarker = last.uploadId();
+      }
+    }
+    // delimiter search not supported
+    return new ListMultipartUploadsResult(bucketName, keyMarker, null, prefix, uploadIdMarker,
+        limit, isTruncated, nextKeyMarker, nextUploadIdMarker, multipartUploads,
         Collections.emptyList());
   }
 
+  public void verifyMaxUploads(Integer maxUploads) {
+    if (maxUploads < 0) {
+      throw INVALID_REQUEST_MAX_UPLOADS;
+    }
+  }
+
   public void verifyPartNumberLimits(String partNumberString) {
     int partNumber;
     try {
@@ -43,13 +43,17 @@ import com.adobe.testing.s3mock.store.ObjectStore;
 import com.adobe.testing.s3mock.store.S3ObjectMetadata;
 import com.adobe.testing.s3mock.util.AwsChunkedDecodingInputStream;
 import com.adobe.testing.s3mock.util.DigestUtil;
+import com.adobe.testing.s3mock.util.SpooledInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -143,21 +147,51 @@ public class ObjectService {
         checksumAlgorithm, checksum, owner, storageClass);
   }
 
+  /**
+   * Deletes a batch of objects: their folders are deleted concurrently, then all their keys are
+   * removed from the bucket at once, writing the bucket metadata file once.
+   * The result lists the objects in the order of the request, in quiet mode only the errors.
+   *
+   * @param bucketName bucket containing the objects.
+   * @param delete the objects to be deleted.
+   *
+   * @return the deleted objects and errors.
+   */
   public DeleteResult deleteObjects(String bucketName, Delete delete) {
+    var bucketMetadata = bucketStore.getBucketMetadata(bucketName);
+    var objects = delete.objectsToDelete();
+    var ids = new LinkedHashMap<String, UUID>();
+    for (var object : objects) {
+      var id = bucketMetadata.getID(object.key());
+      if (id != null) {
+        ids.put(object.key(), id);
+      }
+    }
+    var deletedObjects = objectStore.deleteObjects(bucketMetadata, List.copyOf(ids.values()));
+    var failures = deletedObjects.failures();
+    failures.values().forEach(e -> LOG.error("Object could not be deleted!", e));
+    //keys without object metadata, e.g. of a multipart upload in progress, are kept.
+    var deleted = Set.copyOf(deletedObjects.deleted());
+    var deletedKeys = ids.entrySet().stream()
+        .filter(entry -> deleted.contains(entry.getValue()))
+        .map(Map.Entry::getKey)
+        .toList();
+    bucketStore.removeFromBucket(deletedKeys, bucketName);
+
     var response = new DeleteResult(new ArrayList<>(), new ArrayList<>());
-    for (var object : delete.objectsToDelete()) {
-      try {
-        // ignore result of delete object.
-        deleteObject(bucketName, object.key());
-        // add deleted object even if it does not exist S3 does the same.
-        response.addDeletedObject(DeletedS3Object.from(object));
-      } catch (IllegalStateException e) {
+    for (var object : objects) {
+      var id = ids.get(object.key());
+      if (id == null || !failures.containsKey(id)) {
+        if (!delete.quiet()) {
+          // add deleted object even if it does not exist S3 does the same.
+          response.addDeletedObject(DeletedS3Object.from(object));
+        }
+      } else {
         response.addError(
             new com.adobe.testing.s3mock.dto.Error("InternalError",
                 object.key(),
                 "We encountered an internal error. Please try again.",
                 object.versionId()));
-        LOG.error("Object could not be deleted!", e);
       }
     }
     return response;
@@ -259,6 +293,16 @@ public class ObjectService {
   public InputStream verifyMd5(InputStream inputStream, String contentMd5,
       String sha256Header) {
     try {
+      if (inputStream instanceof SpooledInputStream spooled) {
+        //the body was already received into a file, check it without copying it again.
+        var spoolFile = spooled.spoolFile();
+        try (var stream = isV4ChunkedWithSigningEnabled(sha256Header)
+            ? new AwsChunkedDecodingInputStream(Files.newInputStream(spoolFile))
+            : Files.newInputStream(spoolFile)) {
+          verifyMd5(stream, contentMd5);
+        }
+        return inputStream;
+      }
       var tempFile = Files.createTempFile("md5Check", "");
       inputStream.transferTo(Files.newOutputStream(tempFile));
 
@@ -16,18 +16,27 @@
 
 package com.adobe.testing.s3mock.service;
 
+import com.adobe.testing.s3mock.S3MockProperties;
 import com.adobe.testing.s3mock.store.BucketStore;
 import com.adobe.testing.s3mock.store.MultipartStore;
 import com.adobe.testing.s3mock.store.ObjectStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import java.time.Clock;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
+@EnableConfigurationProperties(S3MockProperties.class)
 public class ServiceConfiguration {
 
   @Bean
-  BucketService bucketService(BucketStore bucketStore, ObjectStore objectStore) {
-    return new BucketService(bucketStore, objectStore);
+  BucketService bucketService(BucketStore bucketStore, ObjectStore objectStore,
+      S3MockProperties properties) {
+    return new BucketService(bucketStore, objectStore,
+        new ContinuationTokens(properties.continuationTokenSecret()));
   }
 
   @Bean
@@ -39,4 +48,14 @@ public class ServiceConfiguration {
   MultipartService multipartService(BucketStore bucketStore, MultipartStore multipartStore) {
     return new MultipartService(bucketStore, multipartStore);
   }
+
+  @Bean
+  LifecycleEngine lifecycleEngine(BucketStore bucketStore, ObjectStore objectStore,
+      MultipartStore multipartStore, ObjectService objectService,
+      MultipartService multipartService, ObjectProvider<MeterRegistry> meterRegistry,
+      S3MockProperties properties) {
+    return new LifecycleEngine(bucketStore, objectStore, multipartStore, objectService,
+        multipartService, meterRegistry.getIfAvailable(CompositeMeterRegistry::new),
+        Clock.systemUTC(), properties.lifecycleInterval(), properties.lifecycleRate());
+  }
 }
@@ -0,0 +1,228 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.store;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.adobe.testing.s3mock.dto.ChecksumAlgorithm;
+import com.adobe.testing.s3mock.dto.Owner;
+import com.adobe.testing.s3mock.dto.StorageClass;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Binary snapshot of the bucket metadata of all buckets, written to the root folder.
+ * Restoring a bucket from the snapshot avoids parsing its bucketMetadata.json, which holds all
+ * keys of the bucket, at startup.
+ * Each bucket is stored with the size and modification time its bucketMetadata.json had when
+ * the bucket was captured. A bucket is only restored if the file still has both, so buckets
+ * changed after the snapshot are read from their file instead.
+ *
+ * <p>Format: magic, version, number of buckets, then per bucket its file size and modification
+ * time, the bucket metadata without keys as JSON and per key its UTF-8 bytes, the two longs of
+ * its UUID and its {@link ObjectListing} if known, terminated by -1. Byte arrays are prefixed
+ * with their length, strings are written as UTF-8 byte arrays, -1 is written for {@code null}.
+ * Version 1 snapshots carry no listing attributes.</p>
+ */
+final class BucketIndexSnapshot {
+  static final String FILE_NAME = ".s3mock-bucket-index";
+  private static final int MAGIC = 0x53334d42;
+  private static final int VERSION = 2;
+  private static final int VERSION_WITHOUT_LISTINGS = 1;
+  private static final int BUFFER_SIZE = 1 << 16;
+  private static final int END_OF_KEYS = -1;
+
+  private final Path file;
+  private final ObjectReader headerReader;
+  private final ObjectWriter headerWriter;
+  private final KeyIndex.Type keyIndexType;
+
+  BucketIndexSnapshot(Path rootFolder, ObjectMapper objectMapper, KeyIndex.Type keyIndexType) {
+    this.file = rootFolder.resolve(FILE_NAME);
+    this.headerReader = objectMapper.readerFor(BucketMetadata.class);
+    this.headerWriter = objectMapper.writerFor(BucketMetadata.class);
+    this.keyIndexType = keyIndexType;
+  }
+
+  /**
+   * A captured bucket.
+   *
+   * @param bucketMetadata the bucket metadata.
+   * @param fileSize size of the bucketMetadata.json when the bucket was captured.
+   * @param fileModified modification time of the bucketMetadata.json in milliseconds when the
+   *     bucket was captured, or -1 if the bucket must not be restored from the snapshot.
+   */
+  record Entry(BucketMetadata bucketMetadata, long fileSize, long fileModified) {
+
+    boolean matches(long size, long modified) {
+      return fileModified >= 0 && fileSize == size && fileModified == modified;
+    }
+  }
+
+  Path file() {
+    return file;
+  }
+
+  /**
+   * Writes the snapshot to a temporary file first, then replaces the previous snapshot with it.
+   */
+  void write(Collection<Entry> entries) throws IOException {
+    var temp = file.resolveSibling(FILE_NAME + ".tmp");
+    try (var out = new DataOutputStream(
+        new BufferedOutputStream(Files.newOutputStream(temp), BUFFER_SIZE))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(entries.size());
+      for (var entry : entries) {
+        var bucketMetadata = entry.bucketMetadata();
+        out.writeLong(entry.fileSize());
+        out.writeLong(entry.fileModified());
+        writeBytes(out, headerWriter.writeValueAsBytes(new BucketMetadata(bucketMetadata.name(),
+            bucketMetadata.creationDate(), bucketMetadata.objectLockConfiguration(),
+            bucketMetadata.bucketLifecycleConfiguration(), bucketMetadata.path())));
+        // keys may change while they are written, the file stamp then no longer matches
+        for (var object : bucketMetadata.objects().entrySet()) {
+          var id = object.getValue();
+          writeBytes(out, object.getKey().getBytes(UTF_8));
+          out.writeLong(id.getMostSignificantBits());
+          out.writeLong(id.getLeastSignificantBits());
+          writeListing(out, bucketMetadata.listings().get(id));
+        }
+        out.writeInt(END_OF_KEYS);
+      }
+    }
+    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Reads the snapshot.
+   *
+   * @return the captured buckets by name, empty if there is no snapshot.
+   *
+   * @throws IOException if the snapshot cannot be read or has an unknown format.
+   */
+  Map<String, Entry> read() throws IOException {
+    if (!Files.exists(file)) {
+      return Map.of();
+    }
+    try (var in = new DataInputStream(
+        new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE))) {
+      var magic = in.readInt();
+      var version = in.readInt();
+      if (magic != MAGIC || version != VERSION && version != VERSION_WITHOUT_LISTINGS) {
+        throw new IOException("Unknown format of bucket index snapshot " + file);
+      }
+      var buckets = in.readInt();
+      var entries = new HashMap<String, Entry>(buckets * 2);
+      for (var i = 0; i < buckets; i++) {
+        var fileSize = in.readLong();
+        var fileModified = in.readLong();
+        BucketMetadata header = headerReader.readValue(readBytes(in, in.readInt()));
+        //keys were written in index order, the builder appends them
+        var objects = keyIndexType.builder();
+        var listings = new ConcurrentHashMap<UUID, ObjectListing>();
+        for (var length = in.readInt(); length != END_OF_KEYS; length = in.readInt()) {
+          var key = new String(readBytes(in, length), UTF_8);
+          var id = new UUID(in.readLong(), in.readLong());
+          objects.put(key, id);
+          var objectListing = version == VERSION_WITHOUT_LISTINGS ? null : readListing(in);
+          if (objectListing != null) {
+            listings.put(id, objectListing);
+          }
+        }
+        entries.put(header.name(), new Entry(new BucketMetadata(header.name(),
+            header.creationDate(), header.objectLockConfiguration(),
+            header.bucketLifecycleConfiguration(), header.path(), objects.build(), listings),
+            fileSize, fileModified));
+      }
+      return entries;
+    }
+  }
+
+  private static void writeListing(DataOutputStream out, ObjectListing objectListing)
+      throws IOException {
+    out.writeBoolean(objectListing != null);
+    if (objectListing == null) {
+      return;
+    }
+    writeString(out, objectListing.size());
+    writeString(out, objectListing.modificationDate());
+    writeString(out, objectListing.etag());
+    writeString(out, objectListing.storageClass() == null
+        ? null : objectListing.storageClass().name());
+    var owner = objectListing.owner();
+    writeString(out, owner == null ? null : owner.id());
+    writeString(out, owner == null ? null : owner.displayName());
+    writeString(out, objectListing.checksumAlgorithm() == null
+        ? null : objectListing.checksumAlgorithm().name());
+  }
+
+  private static ObjectListing readListing(DataInputStream in) throws IOException {
+    if (!in.readBoolean()) {
+      return null;
+    }
+    var size = readString(in);
+    var modificationDate = readString(in);
+    var etag = readString(in);
+    var storageClass = readString(in);
+    var ownerId = readString(in);
+    var ownerDisplayName = readString(in);
+    var checksumAlgorithm = readString(in);
+    return new ObjectListing(size, modificationDate, etag,
+        storageClass == null ? null : StorageClass.valueOf(storageClass),
+        ownerId == null && ownerDisplayName == null ? null : new Owner(ownerId, ownerDisplayName),
+        checksumAlgorithm == null ? null : ChecksumAlgorithm.valueOf(checksumAlgorithm));
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    if (value == null) {
+      out.writeInt(-1);
+    } else {
+      writeBytes(out, value.getBytes(UTF_8));
+    }
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    var length = in.readInt();
+    return length < 0 ? null : new String(readBytes(in, length), UTF_8);
+  }
+
+  private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static byte[] readBytes(DataInputStream in, int length) throws IOException {
+    var bytes = new byte[length];
+    in.readFully(bytes);
+    return bytes;
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.store;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+
+/**
+ * Writes a {@link BucketIndexSnapshot} of the {@link BucketStore} periodically and on shutdown.
+ */
+class BucketIndexSnapshotter implements DisposableBean {
+  private static final Logger LOG = LoggerFactory.getLogger(BucketIndexSnapshotter.class);
+
+  private final BucketStore bucketStore;
+  private final boolean enabled;
+  private final ScheduledExecutorService executor;
+
+  /**
+   * Creates the snapshotter.
+   *
+   * @param enabled if {@code false}, no snapshots are written.
+   * @param interval time between two snapshots, if zero or negative a snapshot is only written on
+   *     shutdown.
+   */
+  BucketIndexSnapshotter(BucketStore bucketStore, boolean enabled, Duration interval) {
+    this.bucketStore = bucketStore;
+    this.enabled = enabled;
+    if (!enabled || interval.isZero() || interval.isNegative()) {
+      this.executor = null;
+    } else {
+      this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        var thread = new Thread(runnable, "s3mock-bucket-index-snapshot");
+        thread.setDaemon(true);
+        return thread;
+      });
+      this.executor.scheduleWithFixedDelay(this::writeSnapshot, interval.toMillis(),
+          interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+  }
+
+  void writeSnapshot() {
+    try {
+      bucketStore.writeSnapshot();
+    } catch (IOException | RuntimeException e) {
+      LOG.warn("Could not write bucket index snapshot", e);
+    }
+  }
+
+  @Override
+  public void destroy() throws InterruptedException {
+    if (executor != null) {
+      executor.shutdown();
+      executor.awaitTermination(1, TimeUnit.MINUTES);
+    }
+    if (enabled) {
+      writeSnapshot();
+    }
+  }
+}
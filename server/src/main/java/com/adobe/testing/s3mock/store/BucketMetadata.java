@@ -18,13 +18,21 @@ package com.adobe.testing.s3mock.store;
 
 import com.adobe.testing.s3mock.dto.BucketLifecycleConfiguration;
 import com.adobe.testing.s3mock.dto.ObjectLockConfiguration;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import java.nio.file.Path;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Represents a bucket in S3, used to serialize and deserialize all metadata locally.
+ * Instances are kept in memory by the {@link BucketStore} and shared between requests, the keys
+ * are therefore held in a concurrent {@link KeyIndex}, sorted so that listings can page through
+ * them.
+ * Next to the keys, the attributes needed to list each object are kept by object ID in
+ * {@link #listings()}. They are not written to the bucket metadata file, objects missing there
+ * are read from their metadata file once.
  */
 public record BucketMetadata(
     String name,
@@ -32,9 +40,35 @@ public record BucketMetadata(
     ObjectLockConfiguration objectLockConfiguration,
     BucketLifecycleConfiguration bucketLifecycleConfiguration,
     Path path,
-    Map<String, UUID> objects
+    @JsonDeserialize(using = KeyIndexDeserializer.class)
+    Map<String, UUID> objects,
+    @JsonIgnore
+    Map<UUID, ObjectListing> listings
 ) {
 
+  public BucketMetadata {
+    if (!(objects instanceof KeyIndex)) {
+      objects = objects == null ? KeyIndex.Type.SKIP_LIST.create()
+          : KeyIndex.Type.SKIP_LIST.copyOf(objects);
+    }
+    if (listings == null) {
+      listings = new ConcurrentHashMap<>();
+    }
+  }
+
+  public BucketMetadata(String name, String creationDate,
+      ObjectLockConfiguration objectLockConfiguration,
+      BucketLifecycleConfiguration bucketLifecycleConfiguration,
+      Path path, Map<String, UUID> objects) {
+    this(name,
+        creationDate,
+        objectLockConfiguration,
+        bucketLifecycleConfiguration,
+        path,
+        objects,
+        null);
+  }
+
   public BucketMetadata(String name, String creationDate,
       ObjectLockConfiguration objectLockConfiguration,
       BucketLifecycleConfiguration bucketLifecycleConfiguration,
@@ -44,19 +78,20 @@ public record BucketMetadata(
         objectLockConfiguration,
         bucketLifecycleConfiguration,
         path,
-        new HashMap<>());
+        null,
+        null);
   }
 
   public BucketMetadata withObjectLockConfiguration(
       ObjectLockConfiguration objectLockConfiguration) {
     return new BucketMetadata(name(), creationDate(), objectLockConfiguration,
-        bucketLifecycleConfiguration(), path());
+        bucketLifecycleConfiguration(), path(), objects(), listings());
   }
 
   public BucketMetadata withBucketLifecycleConfiguration(
       BucketLifecycleConfiguration bucketLifecycleConfiguration) {
     return new BucketMetadata(name(), creationDate(), objectLockConfiguration(),
-        bucketLifecycleConfiguration, path());
+        bucketLifecycleConfiguration, path(), objects(), listings());
   }
 
   public boolean doesKeyExist(String key) {
@@ -75,10 +110,39 @@ public record BucketMetadata(
 
   public boolean removeKey(String key) {
     var removed = this.objects.remove(key);
+    if (removed != null) {
+      this.listings.remove(removed);
+    }
     return removed != null;
   }
 
   public UUID getID(String key) {
     return this.objects.get(key);
   }
+
+  /**
+   * Returns a live, sorted view of the keys starting with {@code prefix} that sort after
+   * {@code startAfter}.
+   * Locating the first key costs O(log N), iterating the view does not copy any keys.
+   *
+   * @param prefix only keys starting with this prefix are included, all keys if {@code null}.
+   * @param startAfter only keys sorting after this key are included, all keys if {@code null}.
+   */
+  public KeyIndex.Range keys(String prefix, String startAfter) {
+    return ((KeyIndex) this.objects).range(prefix, startAfter);
+  }
+
+  /**
+   * The smallest string sorting after all strings starting with {@code prefix}, {@code null} if
+   * there is none.
+   */
+  public static String prefixUpperBound(String prefix) {
+    for (var i = prefix.length() - 1; i >= 0; i--) {
+      var c = prefix.charAt(i);
+      if (c != Character.MAX_VALUE) {
+        return prefix.substring(0, i) + (char) (c + 1);
+      }
+    }
+    return null;
+  }
 }
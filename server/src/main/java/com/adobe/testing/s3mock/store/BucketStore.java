@@ -20,9 +20,11 @@ import com.adobe.testing.s3mock.dto.BucketLifecycleConfiguration;
 import com.adobe.testing.s3mock.dto.ObjectLockConfiguration;
 import com.adobe.testing.s3mock.dto.ObjectLockEnabled;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.UncheckedIOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
@@ -31,7 +33,10 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import org.apache.commons.io.FileUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -45,34 +50,83 @@ public class BucketStore {
   private static final Logger LOG = LoggerFactory.getLogger(BucketStore.class);
   static final String BUCKET_META_FILE = "bucketMetadata.json";
   /**
-   * This map stores one lock object per Bucket name.
-   * Any method modifying the underlying file must aquire the lock object before the modification.
+   * Buckets whose metadata file was modified this shortly before they were captured for a
+   * snapshot are not restored from it: a later modification might not change the file's
+   * modification time on file systems with coarse timestamps.
    */
-  private final Map<String, Object> lockStore = new ConcurrentHashMap<>();
+  private static final long SNAPSHOT_RACY_MILLIS = 2_000;
+  /**
+   * One lock per Bucket name.
+   * Any method modifying the underlying file must acquire the lock before the modification.
+   */
+  private final KeyLocks<String> locks;
+  /**
+   * The catalog of all buckets: their metadata by name, sorted for listings and written through
+   * to the metadata files.
+   * Existence checks and bucket listings are answered from memory, the metadata files are only
+   * read when loading the buckets of an existing root folder.
+   */
+  private final ConcurrentNavigableMap<String, BucketMetadata> buckets =
+      new ConcurrentSkipListMap<>();
   private final File rootFolder;
   private final boolean retainFilesOnExit;
   private final DateTimeFormatter s3ObjectDateFormat;
-  private final ObjectMapper objectMapper;
+  private final ObjectReader metadataReader;
+  private final ObjectWriter metadataWriter;
+  private final StoreMetrics metrics;
+  private final BucketIndexSnapshot snapshot;
+  private final KeyIndex.Type keyIndexType;
+  private final Trash trash;
+
+  public BucketStore(File rootFolder, boolean retainFilesOnExit,
+      DateTimeFormatter s3ObjectDateFormat, ObjectMapper objectMapper, StoreMetrics metrics) {
+    this(rootFolder, retainFilesOnExit, s3ObjectDateFormat, objectMapper, metrics,
+        KeyIndex.Type.SKIP_LIST);
+  }
 
   public BucketStore(File rootFolder, boolean retainFilesOnExit,
-      DateTimeFormatter s3ObjectDateFormat, ObjectMapper objectMapper) {
+      DateTimeFormatter s3ObjectDateFormat, ObjectMapper objectMapper, StoreMetrics metrics,
+      KeyIndex.Type keyIndexType) {
+    this(rootFolder, retainFilesOnExit, s3ObjectDateFormat, objectMapper, metrics, keyIndexType,
+        Trash.immediate(metrics));
+  }
+
+  public BucketStore(File rootFolder, boolean retainFilesOnExit,
+      DateTimeFormatter s3ObjectDateFormat, ObjectMapper objectMapper, StoreMetrics metrics,
+      KeyIndex.Type keyIndexType, Trash trash) {
     this.rootFolder = rootFolder;
     this.retainFilesOnExit = retainFilesOnExit;
     this.s3ObjectDateFormat = s3ObjectDateFormat;
-    this.objectMapper = objectMapper;
+    this.metadataReader = objectMapper.readerFor(BucketMetadata.class)
+        .withAttribute(KeyIndex.Type.class, keyIndexType);
+    this.metadataWriter = objectMapper.writerFor(BucketMetadata.class);
+    this.metrics = metrics;
+    this.locks = new KeyLocks<>("bucket", metrics);
+    this.snapshot = new BucketIndexSnapshot(rootFolder.toPath(), objectMapper, keyIndexType);
+    this.keyIndexType = keyIndexType;
+    this.trash = trash;
   }
 
   /**
    * Lists all BucketMetadata managed by this store.
    *
-   * @return List of all BucketMetadata.
+   * @return List of all BucketMetadata, sorted by name.
    */
   public List<BucketMetadata> listBuckets() {
-    return findBucketPaths()
-        .stream()
-        .map(path -> path.getFileName().toString())
-        .map(this::getBucketMetadata)
-        .toList();
+    return List.copyOf(buckets.values());
+  }
+
+  /**
+   * Lists the BucketMetadata of at most {@code limit} buckets sorting after {@code startAfter}.
+   *
+   * @param startAfter only buckets sorting after this name are listed, all if {@code null}.
+   * @param limit the maximum number of buckets to list.
+   *
+   * @return List of BucketMetadata, sorted by name.
+   */
+  public List<BucketMetadata> listBuckets(String startAfter, int limit) {
+    var tail = startAfter == null ? buckets : buckets.tailMap(startAfter, false);
+    return tail.values().stream().limit(limit).toList();
   }
 
   /**
@@ -83,17 +137,7 @@ public class BucketStore {
    * @return the BucketMetadata or null if not found
    */
   public BucketMetadata getBucketMetadata(String bucketName) {
-    try {
-      var metaFilePath = getMetaFilePath(bucketName);
-      if (!metaFilePath.toFile().exists()) {
-        return null;
-      }
-      synchronized (lockStore.get(bucketName)) {
-        return objectMapper.readValue(metaFilePath.toFile(), BucketMetadata.class);
-      }
-    } catch (final IOException e) {
-      throw new IllegalStateException("Could not read bucket metadata-file " + bucketName, e);
-    }
+    return buckets.get(bucketName);
   }
 
   /**
@@ -104,7 +148,7 @@ public class BucketStore {
    * @return UUID assigned to key
    */
   public synchronized UUID addToBucket(String key, String bucketName) {
-    synchronized (lockStore.get(bucketName)) {
+    try (var lock = locks.lock(bucketName)) {
       var bucketMetadata = getBucketMetadata(bucketName);
       var uuid = bucketMetadata.addKey(key);
       writeToDisk(bucketMetadata);
@@ -121,14 +165,8 @@ public class BucketStore {
    */
   public List<UUID> lookupKeysInBucket(String prefix, String bucketName) {
     var bucketMetadata = getBucketMetadata(bucketName);
-    var normalizedPrefix = prefix == null ? "" : prefix;
-    synchronized (lockStore.get(bucketName)) {
-      return bucketMetadata.objects()
-          .entrySet()
-          .stream()
-          .filter(entry -> entry.getKey().startsWith(normalizedPrefix))
-          .map(Map.Entry::getValue)
-          .toList();
+    try (var lock = locks.lock(bucketName)) {
+      return bucketMetadata.keys(prefix, null).ids();
     }
   }
 
@@ -140,7 +178,7 @@ public class BucketStore {
    * @return true if key existed and was removed
    */
   public synchronized boolean removeFromBucket(String key, String bucketName) {
-    synchronized (lockStore.get(bucketName)) {
+    try (var lock = locks.lock(bucketName)) {
       var bucketMetadata = getBucketMetadata(bucketName);
       var removed = bucketMetadata.removeKey(key);
       writeToDisk(bucketMetadata);
@@ -149,21 +187,21 @@ public class BucketStore {
   }
 
   /**
-   * Searches for folders in the rootFolder.
+   * Removes keys from a bucket in one modification, the bucket metadata file is written once.
    *
-   * @return List of found Folders.
+   * @param keys       the keys to remove
+   * @param bucketName name of the bucket to be retrieved
+   * @return the keys that existed and were removed
    */
-  private List<Path> findBucketPaths() {
-    var bucketPaths = new ArrayList<Path>();
-    try (var stream = Files.newDirectoryStream(rootFolder.toPath(), Files::isDirectory)) {
-      for (var path : stream) {
-        bucketPaths.add(path);
+  public synchronized List<String> removeFromBucket(List<String> keys, String bucketName) {
+    try (var lock = locks.lock(bucketName)) {
+      var bucketMetadata = getBucketMetadata(bucketName);
+      var removed = keys.stream().filter(bucketMetadata::removeKey).toList();
+      if (!removed.isEmpty()) {
+        writeToDisk(bucketMetadata);
       }
-    } catch (final IOException e) {
-      throw new IllegalStateException("Could not Iterate over Bucket-Folders.", e);
+      return removed;
     }
-
-    return bucketPaths;
   }
 
   /**
@@ -181,8 +219,8 @@ public class BucketStore {
     if (bucketMetadata != null) {
       throw new IllegalStateException("Bucket already exists.");
     }
-    lockStore.putIfAbsent(bucketName, new Object());
-    synchronized (lockStore.get(bucketName)) {
+    locks.create(bucketName);
+    try (var lock = locks.lock(bucketName)) {
       var bucketFolder = createBucketFolder(bucketName);
 
       var newBucketMetadata = new BucketMetadata(
@@ -191,7 +229,8 @@ public class BucketStore {
           objectLockEnabled
               ? new ObjectLockConfiguration(ObjectLockEnabled.ENABLED, null) : null,
           null,
-          bucketFolder.toPath()
+          bucketFolder.toPath(),
+          keyIndexType.create()
       );
       writeToDisk(newBucketMetadata);
       return newBucketMetadata;
@@ -208,7 +247,7 @@ public class BucketStore {
    * @return true if Bucket exists
    */
   public boolean doesBucketExist(String bucketName) {
-    return getBucketMetadata(bucketName) != null;
+    return buckets.containsKey(bucketName);
   }
 
   public boolean isObjectLockEnabled(String bucketName) {
@@ -221,14 +260,14 @@ public class BucketStore {
 
   public void storeObjectLockConfiguration(BucketMetadata metadata,
       ObjectLockConfiguration configuration) {
-    synchronized (lockStore.get(metadata.name())) {
+    try (var lock = locks.lock(metadata.name())) {
       writeToDisk(metadata.withObjectLockConfiguration(configuration));
     }
   }
 
   public void storeBucketLifecycleConfiguration(BucketMetadata metadata,
       BucketLifecycleConfiguration configuration) {
-    synchronized (lockStore.get(metadata.name())) {
+    try (var lock = locks.lock(metadata.name())) {
       writeToDisk(metadata.withBucketLifecycleConfiguration(configuration));
     }
   }
@@ -260,14 +299,15 @@ public class BucketStore {
    */
   public boolean deleteBucket(String bucketName) {
     try {
-      synchronized (lockStore.get(bucketName)) {
+      try (var lock = locks.lock(bucketName)) {
         var bucketMetadata = getBucketMetadata(bucketName);
         if (bucketMetadata != null && bucketMetadata.objects().isEmpty()) {
           //TODO: this currently does not work, since we store objects below their prefixes, which
           // are not deleted when deleting the object, leaving empty directories in the S3Mock
           // filesystem should be: return Files.deleteIfExists(bucket.getPath())
-          FileUtils.deleteDirectory(bucketMetadata.path().toFile());
-          lockStore.remove(bucketName);
+          trash.delete(bucketMetadata.path(), "bucket");
+          buckets.remove(bucketName);
+          locks.remove(bucketName);
           return true;
         } else {
           return false;
@@ -278,21 +318,100 @@ public class BucketStore {
     }
   }
 
-  List<UUID> loadBuckets(List<String> bucketNames) {
-    var objectIds = new ArrayList<UUID>();
-    for (String bucketName : bucketNames) {
-      LOG.info("Loading existing bucket {}.", bucketName);
-      lockStore.putIfAbsent(bucketName, new Object());
-      synchronized (lockStore.get(bucketName)) {
-        var bucketMetadata = getBucketMetadata(bucketName);
-        var objects = bucketMetadata.objects();
-        for (Map.Entry<String, UUID> objectEntry : objects.entrySet()) {
-          objectIds.add(objectEntry.getValue());
-          LOG.info("Loading existing bucket {} key {}", bucketName, objectEntry.getKey());
+  /**
+   * Registers the buckets of an existing root folder.
+   * Buckets are restored from the {@link BucketIndexSnapshot} if their metadata file did not
+   * change since they were captured, the others are read from their metadata files in parallel.
+   * Their keys are known from the bucket metadata, objects are read on first access.
+   */
+  void loadBuckets(List<String> bucketNames) {
+    var start = System.nanoTime();
+    var captured = bucketNames.isEmpty() ? Map.<String, BucketIndexSnapshot.Entry>of()
+        : readSnapshot();
+    var restored = new LongAdder();
+    bucketNames.parallelStream().forEach(bucketName -> {
+      locks.create(bucketName);
+      var entry = captured.get(bucketName);
+      if (entry != null && entry.matches(fileSize(bucketName), fileModified(bucketName))) {
+        buckets.put(bucketName, entry.bucketMetadata());
+        restored.increment();
+      }
+      var bucketMetadata = loadBucketMetadata(bucketName);
+      LOG.debug("Loaded existing bucket {} with {} keys.", bucketName,
+          bucketMetadata.objects().size());
+    });
+    LOG.info("Loaded {} existing buckets in {} ms, {} restored from snapshot.",
+        bucketNames.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+        restored.sum());
+  }
+
+  /**
+   * Writes a {@link BucketIndexSnapshot} of all buckets.
+   */
+  void writeSnapshot() throws IOException {
+    var start = System.nanoTime();
+    var entries = captureBuckets();
+    snapshot.write(entries);
+    LOG.info("Wrote snapshot of {} buckets to {} in {} ms.", entries.size(), snapshot.file(),
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+  }
+
+  private Map<String, BucketIndexSnapshot.Entry> readSnapshot() {
+    try {
+      return snapshot.read();
+    } catch (IOException | RuntimeException e) {
+      LOG.warn("Could not read bucket index snapshot {}, reading bucket metadata files instead.",
+          snapshot.file(), e);
+      return Map.of();
+    }
+  }
+
+  /**
+   * Captures all buckets for a {@link BucketIndexSnapshot}.
+   * The metadata file of each bucket is inspected under the bucket's lock, a later modification
+   * of the bucket changes the file and invalidates the captured bucket.
+   */
+  private List<BucketIndexSnapshot.Entry> captureBuckets() {
+    var entries = new ArrayList<BucketIndexSnapshot.Entry>();
+    for (var bucketName : buckets.keySet()) {
+      try (var lock = locks.lockIfPresent(bucketName)) {
+        var bucketMetadata = lock == null ? null : buckets.get(bucketName);
+        if (bucketMetadata == null) {
+          //bucket was deleted in the meantime
+          continue;
         }
+        var modified = fileModified(bucketName);
+        var racy = System.currentTimeMillis() - modified < SNAPSHOT_RACY_MILLIS;
+        entries.add(new BucketIndexSnapshot.Entry(bucketMetadata, fileSize(bucketName),
+            racy ? -1 : modified));
       }
     }
-    return objectIds;
+    return entries;
+  }
+
+  private BucketMetadata loadBucketMetadata(String bucketName) {
+    try (var lock = locks.lock(bucketName)) {
+      return buckets.computeIfAbsent(bucketName,
+          name -> readMetadata(getMetaFilePath(name)));
+    } catch (final UncheckedIOException e) {
+      throw new IllegalStateException("Could not read bucket metadata-file " + bucketName, e);
+    }
+  }
+
+  private long fileSize(String bucketName) {
+    return getMetaFilePath(bucketName).toFile().length();
+  }
+
+  private long fileModified(String bucketName) {
+    return getMetaFilePath(bucketName).toFile().lastModified();
+  }
+
+  private BucketMetadata readMetadata(Path metaFilePath) {
+    try {
+      return metrics.readMetadata("bucket", () -> metadataReader.readValue(metaFilePath.toFile()));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
   }
 
   private void writeToDisk(BucketMetadata bucketMetadata) {
@@ -301,8 +420,10 @@ public class BucketStore {
       if (!retainFilesOnExit) {
         metaFile.deleteOnExit();
       }
-      synchronized (lockStore.get(bucketMetadata.name())) {
-        objectMapper.writeValue(metaFile, bucketMetadata);
+      try (var lock = locks.lock(bucketMetadata.name())) {
+        metrics.writeMetadata("bucket",
+            () -> metadataWriter.writeValue(metaFile, bucketMetadata));
+        buckets.put(bucketMetadata.name(), bucketMetadata);
       }
     } catch (IOException e) {
       throw new IllegalStateException("Could not write bucket metadata-file", e);
@@ -317,6 +438,7 @@ public class BucketStore {
     try {
       var bucketFolder = getBucketFolderPath(bucketName).toFile();
       FileUtils.forceMkdir(bucketFolder);
+      metrics.directoryCreated("bucket");
       if (!retainFilesOnExit) {
         bucketFolder.deleteOnExit();
       }
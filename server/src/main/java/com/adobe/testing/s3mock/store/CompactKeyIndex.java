@@ -0,0 +1,464 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.store;
+
+import static com.adobe.testing.s3mock.store.KeyIndex.utf16Order;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Memory-compact {@link KeyIndex}.
+ * Most keys are held in an immutable, sorted {@link Segment}: their UTF-8 bytes back to back in
+ * one array with an int offset per key, and the object IDs as two longs per key in a second
+ * array, about 20 bytes per key on top of the key bytes.
+ * Keys written since the segment was built are held in a small {@link ConcurrentSkipListMap}, the
+ * delta, removed keys of the segment as {@link #REMOVED} there. Once the delta grows beyond
+ * {@link #deltaLimit(int)}, segment and delta are merged into a new segment, the cost of the
+ * merge is spread over the writes that filled the delta.
+ * Readers see an immutable segment and the delta it belongs to, writes are synchronized.
+ */
+final class CompactKeyIndex extends KeyIndex {
+  /**
+   * Marks a key of the segment as removed in the delta, compared by identity.
+   */
+  private static final UUID REMOVED = new UUID(0, 0);
+  private static final int MIN_DELTA = 1 << 10;
+  private static final int MAX_DELTA = 1 << 16;
+
+  private volatile State state;
+  private volatile int size;
+
+  private CompactKeyIndex(Segment segment) {
+    this.state = new State(segment, new ConcurrentSkipListMap<>());
+    this.size = segment.size;
+  }
+
+  static Builder builder() {
+    return new Builder();
+  }
+
+  private record State(Segment segment, ConcurrentSkipListMap<String, UUID> delta) {
+  }
+
+  @Override
+  public UUID get(Object key) {
+    if (!(key instanceof String string)) {
+      return null;
+    }
+    var current = state;
+    var id = current.delta.get(string);
+    if (id != null) {
+      return id == REMOVED ? null : id;
+    }
+    var index = current.segment.find(string.getBytes(UTF_8));
+    return index >= 0 ? current.segment.id(index) : null;
+  }
+
+  @Override
+  public synchronized UUID put(String key, UUID id) {
+    var previous = get(key);
+    state.delta.put(key, id);
+    if (previous == null) {
+      size++;
+    }
+    compactIfNeeded();
+    return previous;
+  }
+
+  @Override
+  public synchronized UUID remove(Object key) {
+    var previous = get(key);
+    if (previous == null) {
+      return null;
+    }
+    var string = (String) key;
+    var current = state;
+    if (current.segment.find(string.getBytes(UTF_8)) >= 0) {
+      current.delta.put(string, REMOVED);
+    } else {
+      current.delta.remove(string);
+    }
+    size--;
+    compactIfNeeded();
+    return previous;
+  }
+
+  @Override
+  public synchronized void clear() {
+    state = new State(Segment.EMPTY, new ConcurrentSkipListMap<>());
+    size = 0;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public Set<Map.Entry<String, UUID>> entrySet() {
+    return new AbstractSet<>() {
+      @Override
+      public Iterator<Map.Entry<String, UUID>> iterator() {
+        return new EntryIterator(state);
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  @Override
+  public Map.Entry<String, UUID> ceilingEntry(String key) {
+    return entry(key, true);
+  }
+
+  @Override
+  public Map.Entry<String, UUID> higherEntry(String key) {
+    return entry(key, false);
+  }
+
+  private Map.Entry<String, UUID> entry(String key, boolean inclusive) {
+    var current = state;
+    var segment = current.segment;
+    var index = segment.ceiling(key.getBytes(UTF_8), inclusive);
+    var delta = inclusive ? current.delta.ceilingEntry(key) : current.delta.higherEntry(key);
+    while (true) {
+      var segmentKey = index < segment.size ? segment.key(index) : null;
+      if (delta == null) {
+        return segmentKey == null ? null : new SimpleImmutableEntry<>(segmentKey,
+            segment.id(index));
+      }
+      var compared = segmentKey == null ? -1 : delta.getKey().compareTo(segmentKey);
+      if (compared > 0) {
+        return new SimpleImmutableEntry<>(segmentKey, segment.id(index));
+      }
+      if (delta.getValue() != REMOVED) {
+        return delta;
+      }
+      if (compared == 0) {
+        index++;
+      }
+      delta = current.delta.higherEntry(delta.getKey());
+    }
+  }
+
+  private void compactIfNeeded() {
+    var current = state;
+    if (current.delta.size() > deltaLimit(current.segment.size)) {
+      state = new State(merge(current.segment, current.delta), new ConcurrentSkipListMap<>());
+    }
+  }
+
+  /**
+   * The delta may grow to an eighth of the segment, so a key is copied about eight times on
+   * average until the index reaches its size, within bounds that keep merges of small indexes
+   * rare and the delta of large indexes small.
+   */
+  private static int deltaLimit(int segmentSize) {
+    return Math.min(MAX_DELTA, Math.max(MIN_DELTA, segmentSize >> 3));
+  }
+
+  /**
+   * Merges the delta into the segment. The size of the result is computed upfront, so its arrays
+   * are allocated once with their final length and not copied again.
+   */
+  private static Segment merge(Segment segment, Map<String, UUID> delta) {
+    var deltaKeys = new byte[delta.size()][];
+    var keyBytes = (long) segment.offsets[segment.size];
+    var size = segment.size;
+    var i = 0;
+    for (var entry : delta.entrySet()) {
+      var key = entry.getKey().getBytes(UTF_8);
+      deltaKeys[i++] = key;
+      var index = segment.find(key);
+      if (index >= 0) {
+        keyBytes -= segment.offsets[index + 1] - segment.offsets[index];
+        size--;
+      }
+      if (entry.getValue() != REMOVED) {
+        keyBytes += key.length;
+        size++;
+      }
+    }
+    var builder = new Builder(keyBytes, size);
+    var index = 0;
+    i = 0;
+    for (var entry : delta.entrySet()) {
+      var key = deltaKeys[i++];
+      while (index < segment.size && segment.compare(index, key) < 0) {
+        builder.append(segment, index++);
+      }
+      if (index < segment.size && segment.compare(index, key) == 0) {
+        index++;
+      }
+      if (entry.getValue() != REMOVED) {
+        builder.append(key, 0, key.length, entry.getValue());
+      }
+    }
+    while (index < segment.size) {
+      builder.append(segment, index++);
+    }
+    return builder.segment();
+  }
+
+  /**
+   * Sorted keys and their object IDs, immutable once built.
+   */
+  static final class Segment {
+    static final Segment EMPTY = new Segment(new byte[0], new int[1], new long[0], 0);
+
+    private final byte[] keys;
+    private final int[] offsets;
+    private final long[] ids;
+    private final int size;
+
+    private Segment(byte[] keys, int[] offsets, long[] ids, int size) {
+      this.keys = keys;
+      this.offsets = offsets;
+      this.ids = ids;
+      this.size = size;
+    }
+
+    String key(int index) {
+      return new String(keys, offsets[index], offsets[index + 1] - offsets[index], UTF_8);
+    }
+
+    UUID id(int index) {
+      return new UUID(ids[2 * index], ids[2 * index + 1]);
+    }
+
+    /**
+     * Binary search for the UTF-8 bytes of a key.
+     *
+     * @return the index of the key, or {@code -(insertion point) - 1}.
+     */
+    int find(byte[] key) {
+      var low = 0;
+      var high = size - 1;
+      while (low <= high) {
+        var mid = (low + high) >>> 1;
+        var compared = compare(mid, key);
+        if (compared < 0) {
+          low = mid + 1;
+        } else if (compared > 0) {
+          high = mid - 1;
+        } else {
+          return mid;
+        }
+      }
+      return -(low + 1);
+    }
+
+    /**
+     * The index of the least key greater than (or equal to) the given key, {@link #size} if
+     * there is none.
+     */
+    int ceiling(byte[] key, boolean inclusive) {
+      var index = find(key);
+      if (index < 0) {
+        return -index - 1;
+      }
+      return inclusive ? index : index + 1;
+    }
+
+    /**
+     * Compares the key at {@code index} to the UTF-8 bytes of a key in the order of
+     * {@link String#compareTo(String)}.
+     */
+    int compare(int index, byte[] key) {
+      var from = offsets[index];
+      var length = offsets[index + 1] - from;
+      var common = Math.min(length, key.length);
+      for (var i = 0; i < common; i++) {
+        var a = keys[from + i] & 0xff;
+        var b = key[i] & 0xff;
+        if (a != b) {
+          return utf16Order(a) - utf16Order(b);
+        }
+      }
+      return length - key.length;
+    }
+  }
+
+  /**
+   * Builds a segment from keys added in sorted order, keys added out of order are sorted when
+   * the index is built.
+   */
+  static final class Builder implements KeyIndex.Builder {
+    private byte[] keys;
+    private int[] offsets;
+    private long[] ids;
+    private int size;
+    private String last;
+    private TreeMap<String, UUID> unsorted;
+
+    Builder() {
+      this(1 << 10, 1 << 5);
+    }
+
+    /**
+     * Creates a builder with room for the given number of keys and key bytes, segments of
+     * exactly this size are built without copying.
+     */
+    private Builder(long keyBytes, int keys) {
+      if (keyBytes > Integer.MAX_VALUE - 8) {
+        throw new IllegalStateException("Keys of a bucket exceed 2 GB");
+      }
+      this.keys = new byte[(int) keyBytes];
+      this.offsets = new int[keys + 1];
+      this.ids = new long[2 * keys];
+    }
+
+    @Override
+    public void put(String key, UUID id) {
+      if (last == null || key.compareTo(last) > 0) {
+        var bytes = key.getBytes(UTF_8);
+        append(bytes, 0, bytes.length, id);
+        last = key;
+      } else if (key.equals(last)) {
+        ids[2 * (size - 1)] = id.getMostSignificantBits();
+        ids[2 * (size - 1) + 1] = id.getLeastSignificantBits();
+      } else {
+        if (unsorted == null) {
+          unsorted = new TreeMap<>();
+        }
+        unsorted.put(key, id);
+      }
+    }
+
+    @Override
+    public KeyIndex build() {
+      var segment = segment();
+      if (unsorted != null) {
+        segment = merge(segment, unsorted);
+      }
+      return new CompactKeyIndex(segment);
+    }
+
+    void append(Segment segment, int index) {
+      var from = segment.offsets[index];
+      append(segment.keys, from, segment.offsets[index + 1] - from,
+          segment.ids[2 * index], segment.ids[2 * index + 1]);
+    }
+
+    void append(byte[] key, int from, int length, UUID id) {
+      append(key, from, length, id.getMostSignificantBits(), id.getLeastSignificantBits());
+    }
+
+    private void append(byte[] key, int from, int length, long msb, long lsb) {
+      var end = offsets[size];
+      if (keys.length - end < length) {
+        var required = (long) end + length;
+        if (required > Integer.MAX_VALUE - 8) {
+          throw new IllegalStateException("Keys of a bucket exceed 2 GB");
+        }
+        keys = Arrays.copyOf(keys, (int) Math.min(Integer.MAX_VALUE - 8,
+            Math.max(required, 2L * keys.length)));
+      }
+      if (offsets.length == size + 1) {
+        offsets = Arrays.copyOf(offsets, Math.max(2 * size, 1 << 5) + 1);
+        ids = Arrays.copyOf(ids, 2 * (offsets.length - 1));
+      }
+      System.arraycopy(key, from, keys, end, length);
+      offsets[size + 1] = end + length;
+      ids[2 * size] = msb;
+      ids[2 * size + 1] = lsb;
+      size++;
+    }
+
+    Segment segment() {
+      var end = offsets[size];
+      return new Segment(keys.length == end ? keys : Arrays.copyOf(keys, end),
+          offsets.length == size + 1 ? offsets : Arrays.copyOf(offsets, size + 1),
+          ids.length == 2 * size ? ids : Arrays.copyOf(ids, 2 * size), size);
+    }
+  }
+
+  /**
+   * Iterates segment and delta of one state in key order, weakly consistent like the iterators
+   * of the concurrent collections.
+   */
+  private static final class EntryIterator implements Iterator<Map.Entry<String, UUID>> {
+    private final Segment segment;
+    private final Iterator<Map.Entry<String, UUID>> deltas;
+    private Map.Entry<String, UUID> delta;
+    private int index;
+    private Map.Entry<String, UUID> next;
+
+    EntryIterator(State state) {
+      this.segment = state.segment;
+      this.deltas = state.delta.entrySet().iterator();
+      this.delta = deltas.hasNext() ? deltas.next() : null;
+      advance();
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next != null;
+    }
+
+    @Override
+    public Map.Entry<String, UUID> next() {
+      if (next == null) {
+        throw new NoSuchElementException();
+      }
+      var result = next;
+      advance();
+      return result;
+    }
+
+    private void advance() {
+      next = null;
+      while (next == null) {
+        var segmentKey = index < segment.size ? segment.key(index) : null;
+        if (delta == null && segmentKey == null) {
+          return;
+        }
+        var compared = delta == null ? 1 : segmentKey == null ? -1
+            : delta.getKey().compareTo(segmentKey);
+        if (compared > 0) {
+          next = new SimpleImmutableEntry<>(segmentKey, segment.id(index++));
+          return;
+        }
+        if (compared == 0) {
+          index++;
+        }
+        if (delta.getValue() != REMOVED) {
+          next = delta;
+        }
+        delta = deltas.hasNext() ? deltas.next() : null;
+      }
+    }
+  }
+}
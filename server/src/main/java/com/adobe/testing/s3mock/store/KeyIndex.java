@@ -0,0 +1,195 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.store;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Sorted index of the keys of a bucket and the IDs of their objects, see
+ * {@link BucketMetadata#objects()}.
+ * Keys are sorted by {@link String#compareTo(String)}. Reads may run concurrently with writes,
+ * writes to one index are serialized by the caller, see {@link BucketStore}.
+ * The index is a {@link Map} so it is serialized to the bucket metadata file like any map.
+ */
+public abstract class KeyIndex extends AbstractMap<String, UUID> {
+
+  /**
+   * Available index implementations.
+   */
+  public enum Type {
+    /**
+     * Keys in a {@link java.util.concurrent.ConcurrentSkipListMap}: fastest writes, but every
+     * key costs a map node, a String and a UUID object.
+     */
+    SKIP_LIST,
+    /**
+     * Keys as UTF-8 bytes in one array, object IDs as two longs each, see
+     * {@link CompactKeyIndex}: a fraction of the memory, slower writes.
+     */
+    COMPACT,
+    /**
+     * Keys in a radix tree sharing common prefixes, see {@link RadixKeyIndex}: least memory for
+     * hierarchical keys, counts keys with a prefix in O(depth).
+     */
+    RADIX;
+
+    public KeyIndex create() {
+      return builder().build();
+    }
+
+    public KeyIndex copyOf(Map<String, UUID> keys) {
+      var builder = builder();
+      keys.forEach(builder::put);
+      return builder.build();
+    }
+
+    /**
+     * A builder for bulk loading an index, most efficient if keys are put in sorted order.
+     */
+    public Builder builder() {
+      return switch (this) {
+        case SKIP_LIST -> SkipListKeyIndex.builder();
+        case COMPACT -> CompactKeyIndex.builder();
+        case RADIX -> RadixKeyIndex.builder();
+      };
+    }
+  }
+
+  /**
+   * Builds an index, the last ID put for a key wins.
+   */
+  public interface Builder {
+    void put(String key, UUID id);
+
+    KeyIndex build();
+  }
+
+  /**
+   * The entry with the least key greater than or equal to the given key, {@code null} if there
+   * is none.
+   */
+  public abstract Map.Entry<String, UUID> ceilingEntry(String key);
+
+  /**
+   * The entry with the least key strictly greater than the given key, {@code null} if there is
+   * none.
+   */
+  public abstract Map.Entry<String, UUID> higherEntry(String key);
+
+  @Override
+  public boolean containsKey(Object key) {
+    return get(key) != null;
+  }
+
+  /**
+   * The number of keys starting with {@code prefix}.
+   * Iterates the keys with the prefix, implementations may count faster.
+   */
+  public int count(String prefix) {
+    var count = 0;
+    var range = range(prefix, null);
+    for (var entry = range.firstEntry(); entry != null; entry = range.higherEntry(entry.getKey())) {
+      count++;
+    }
+    return count;
+  }
+
+  /**
+   * Orders a byte of UTF-8 encoded keys so that comparing the bytes at the first difference of two
+   * keys orders them like {@link String#compareTo(String)}.
+   * UTF-8 bytes sort like code points, Strings like UTF-16 chars. Both agree except for U+E000
+   * to U+FFFF, which sort after the surrogate pairs of supplementary code points as chars. Their
+   * lead bytes 0xEE and 0xEF are therefore moved after the lead bytes of supplementary code
+   * points, 0xF0 to 0xF4. Bytes at the first difference are at the same position of a code
+   * point, so lead bytes are only compared to lead bytes.
+   *
+   * @param b the unsigned value of the byte.
+   */
+  static int utf16Order(int b) {
+    return b == 0xEE || b == 0xEF ? b + 7 : b;
+  }
+
+  /**
+   * The keys starting with {@code prefix} that sort after {@code startAfter}.
+   *
+   * @param prefix only keys starting with this prefix are included, all keys if {@code null}.
+   * @param startAfter only keys sorting after this key are included, all keys if {@code null}.
+   */
+  public Range range(String prefix, String startAfter) {
+    var from = prefix == null ? "" : prefix;
+    var fromInclusive = true;
+    if (startAfter != null && startAfter.compareTo(from) >= 0) {
+      from = startAfter;
+      fromInclusive = false;
+    }
+    return new Range(this, prefix == null ? "" : prefix, from, fromInclusive);
+  }
+
+  /**
+   * A live view of the keys starting with a prefix, from a start key on.
+   * Locating a key costs O(log N), iterating does not copy any keys.
+   */
+  public static final class Range {
+    private final KeyIndex index;
+    private final String prefix;
+    private final String from;
+    private final boolean fromInclusive;
+
+    private Range(KeyIndex index, String prefix, String from, boolean fromInclusive) {
+      this.index = index;
+      this.prefix = prefix;
+      this.from = from;
+      this.fromInclusive = fromInclusive;
+    }
+
+    public Map.Entry<String, UUID> firstEntry() {
+      return within(fromInclusive ? index.ceilingEntry(from) : index.higherEntry(from));
+    }
+
+    /**
+     * The entry of the range with the least key greater than or equal to the given key, which
+     * must not sort before the start of the range.
+     */
+    public Map.Entry<String, UUID> ceilingEntry(String key) {
+      return within(index.ceilingEntry(key));
+    }
+
+    /**
+     * The entry of the range with the least key strictly greater than the given key, which must
+     * not sort before the start of the range.
+     */
+    public Map.Entry<String, UUID> higherEntry(String key) {
+      return within(index.higherEntry(key));
+    }
+
+    public List<UUID> ids() {
+      var ids = new ArrayList<UUID>();
+      for (var entry = firstEntry(); entry != null; entry = higherEntry(entry.getKey())) {
+        ids.add(entry.getValue());
+      }
+      return ids;
+    }
+
+    private Map.Entry<String, UUID> within(Map.Entry<String, UUID> entry) {
+      return entry == null || !entry.getKey().startsWith(prefix) ? null : entry;
+    }
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.store;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Reads the keys of a bucket metadata file directly into a {@link KeyIndex}, without building an
+ * intermediate map.
+ * The type of the index is read from the {@link KeyIndex.Type} attribute of the reader, see
+ * {@link com.fasterxml.jackson.databind.ObjectReader#withAttribute(Object, Object)}, and
+ * defaults to {@link KeyIndex.Type#SKIP_LIST}.
+ */
+class KeyIndexDeserializer extends StdDeserializer<Map<String, UUID>> {
+
+  KeyIndexDeserializer() {
+    super(Map.class);
+  }
+
+  @Override
+  public Map<String, UUID> deserialize(JsonParser parser, DeserializationContext context)
+      throws IOException {
+    var builder = type(context).builder();
+    var token = parser.currentToken();
+    if (token == JsonToken.START_OBJECT) {
+      token = parser.nextToken();
+    }
+    for (; token == JsonToken.FIELD_NAME; token = parser.nextToken()) {
+      var key = parser.currentName();
+      parser.nextToken();
+      builder.put(key, UUID.fromString(parser.getValueAsString()));
+    }
+    if (token != JsonToken.END_OBJECT) {
+      return (Map<String, UUID>) context.handleUnexpectedToken(Map.class, parser);
+    }
+    return builder.build();
+  }
+
+  @Override
+  public Map<String, UUID> getNullValue(DeserializationContext context) {
+    return type(context).create();
+  }
+
+  private static KeyIndex.Type type(DeserializationContext context) {
+    var type = (KeyIndex.Type) context.getAttribute(KeyIndex.Type.class);
+    return type == null ? KeyIndex.Type.SKIP_LIST : type;
+  }
+}
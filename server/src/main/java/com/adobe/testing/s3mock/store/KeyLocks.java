@@ -0,0 +1,149 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.store;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Holds one lock per key, e.g. per object ID or bucket name.
+ * Any method modifying the files of a key must hold its lock during the modification.
+ * Locks are reentrant. The time spent waiting for a lock held by another thread is recorded in
+ * {@link StoreMetrics}.
+ * A removed lock is only dropped when its holder releases it. Threads that were waiting for it
+ * acquire it after that, notice the removal and retry with the current lock of the key, so at
+ * most one thread holds the lock of a key at any time.
+ *
+ * @param <K> the type of keys.
+ */
+class KeyLocks<K> {
+  private final Map<K, KeyLock> locks = new ConcurrentHashMap<>();
+  private final String store;
+  private final StoreMetrics metrics;
+  private final boolean createOnDemand;
+
+  /**
+   * Creates the locks of a store.
+   *
+   * @param store name of the store, used to tag the recorded metrics.
+   * @param metrics metrics to record lock waits in.
+   */
+  KeyLocks(String store, StoreMetrics metrics) {
+    this(store, metrics, false);
+  }
+
+  /**
+   * Creates the locks of a store.
+   *
+   * @param store name of the store, used to tag the recorded metrics.
+   * @param metrics metrics to record lock waits in.
+   * @param createOnDemand if {@code true}, a key's lock is created when it is first acquired
+   *     instead of by {@link #create}, so that existing keys need not be registered upfront.
+   */
+  KeyLocks(String store, StoreMetrics metrics, boolean createOnDemand) {
+    this.store = store;
+    this.metrics = metrics;
+    this.createOnDemand = createOnDemand;
+  }
+
+  void create(K key) {
+    locks.compute(key, (k, lock) -> lock == null || lock.removed ? new KeyLock() : lock);
+  }
+
+  /**
+   * Removes the lock of the given key, which the calling thread must hold. The lock is dropped
+   * when the calling thread releases it.
+   */
+  void remove(K key) {
+    var lock = locks.get(key);
+    if (lock == null || !lock.isHeldByCurrentThread()) {
+      throw new IllegalStateException("Lock of " + key + " is not held by the current thread");
+    }
+    lock.removed = true;
+  }
+
+  /**
+   * Acquires the lock of the given key, which must have been created before unless locks are
+   * created on demand.
+   * Use in a try-with-resources statement to release the lock again.
+   */
+  Lock lock(K key) {
+    while (true) {
+      var lock = createOnDemand
+          ? locks.computeIfAbsent(key, k -> new KeyLock())
+          : locks.get(key);
+      var held = acquire(key, lock);
+      if (held != null) {
+        return held;
+      }
+    }
+  }
+
+  /**
+   * Acquires the lock of the given key like {@link #lock}, if it exists.
+   *
+   * @return the held lock, or {@code null} if the key has no lock, e.g. because it was removed.
+   */
+  Lock lockIfPresent(K key) {
+    var lock = locks.get(key);
+    return lock == null ? null : acquire(key, lock);
+  }
+
+  /**
+   * Acquires a lock.
+   *
+   * @return the held lock, or {@code null} if it was removed while waiting for it.
+   */
+  private Lock acquire(K key, KeyLock lock) {
+    if (lock.tryLock()) {
+      if (lock.getHoldCount() == 1) {
+        metrics.lockAcquired(store, key, 0);
+      }
+    } else {
+      var start = System.nanoTime();
+      lock.lock();
+      metrics.lockAcquired(store, key, System.nanoTime() - start);
+    }
+    if (lock.removed && lock.getHoldCount() == 1) {
+      lock.unlock();
+      return null;
+    }
+    return () -> {
+      if (lock.removed && lock.getHoldCount() == 1) {
+        locks.remove(key, lock);
+      }
+      lock.unlock();
+    };
+  }
+
+  private static final class KeyLock extends ReentrantLock {
+    /**
+     * Set by {@link #remove} while the lock is held, the lock is not handed out again afterwards.
+     */
+    private volatile boolean removed;
+  }
+
+  /**
+   * A held lock, closing it releases the lock.
+   */
+  @FunctionalInterface
+  interface Lock extends AutoCloseable {
+    @Override
+    void close();
+  }
+}
@@ -30,6 +30,7 @@ import com.adobe.testing.s3mock.dto.MultipartUpload;
 import com.adobe.testing.s3mock.dto.Owner;
 import com.adobe.testing.s3mock.dto.Part;
 import com.adobe.testing.s3mock.dto.StorageClass;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -43,8 +44,11 @@ import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.stream.StreamSupport;
 import org.apache.commons.io.FileUtils;
@@ -61,13 +65,75 @@ public class MultipartStore {
   private static final Logger LOG = LoggerFactory.getLogger(MultipartStore.class);
   private static final String PART_SUFFIX = ".part";
   private final Map<String, MultipartUploadInfo> uploadIdToInfo = new ConcurrentHashMap<>();
+  /**
+   * In-progress uploads per bucket, ordered by key and uploadId as returned by
+   * ListMultipartUploads.
+   */
+  private final Map<String, NavigableMap<UploadKey, MultipartUpload>> bucketToUploads =
+      new ConcurrentHashMap<>();
 
   private final boolean retainFilesOnExit;
   private final ObjectStore objectStore;
+  private final StoreMetrics metrics;
+  private final MultipartUploadManifest manifest;
+  private final Trash trash;
+  /**
+   * Notified with the bucket name and the upload whenever a multipart upload is prepared.
+   */
+  private volatile BiConsumer<String, MultipartUpload> uploadListener = (bucket, upload) -> { };
 
-  public MultipartStore(boolean retainFilesOnExit, ObjectStore objectStore) {
+  public MultipartStore(boolean retainFilesOnExit, ObjectStore objectStore,
+      StoreMetrics metrics, ObjectMapper objectMapper) {
+    this(retainFilesOnExit, objectStore, metrics, objectMapper, Trash.immediate(metrics));
+  }
+
+  public MultipartStore(boolean retainFilesOnExit, ObjectStore objectStore,
+      StoreMetrics metrics, ObjectMapper objectMapper, Trash trash) {
     this.retainFilesOnExit = retainFilesOnExit;
     this.objectStore = objectStore;
+    this.metrics = metrics;
+    this.manifest = new MultipartUploadManifest(objectMapper);
+    this.trash = trash;
+  }
+
+  /**
+   * Recovers the in-progress uploads of a bucket from their manifests, so uploads of a retained
+   * root folder can be continued after a restart.
+   * Part files that were not written completely before the restart are deleted, clients upload
+   * them again.
+   *
+   * @param bucket the bucket to recover the uploads of.
+   */
+  public void loadMultipartUploads(BucketMetadata bucket) {
+    for (var entry : manifest.read(bucket)) {
+      var uploadId = entry.info().upload().uploadId();
+      var partsFolder = getPartsFolderPath(bucket, entry.id(), uploadId);
+      try {
+        if (!Files.isDirectory(partsFolder)) {
+          LOG.warn("Removing manifest of multipart upload without parts folder. bucket={}, "
+              + "uploadId={}", bucket.name(), uploadId);
+          manifest.delete(bucket, uploadId);
+          continue;
+        }
+        try (var parts = newDirectoryStream(partsFolder, "*" + PART_SUFFIX)) {
+          for (var part : parts) {
+            var name = part.getFileName().toString();
+            var size = entry.partSizes().get(
+                Integer.parseInt(name.substring(0, name.length() - PART_SUFFIX.length())));
+            if (size == null || size != Files.size(part)) {
+              LOG.warn("Removing incompletely written part {} of multipart upload. bucket={}, "
+                  + "uploadId={}", name, bucket.name(), uploadId);
+              Files.delete(part);
+            }
+          }
+        }
+      } catch (IOException | NumberFormatException e) {
+        LOG.warn("Could not recover multipart upload. bucket={}, uploadId={}", bucket.name(),
+            uploadId, e);
+        continue;
+      }
+      addUpload(entry.info());
+    }
   }
 
   /**
@@ -105,7 +171,7 @@ public class MultipartStore {
           "Directories for storing multipart uploads couldn't be created.");
     }
     var upload = new MultipartUpload(key, uploadId, owner, initiator, storageClass, new Date());
-    uploadIdToInfo.put(uploadId, new MultipartUploadInfo(upload,
+    var uploadInfo = new MultipartUploadInfo(upload,
         contentType,
         userMetadata,
         storeHeaders,
@@ -113,12 +179,31 @@ public class MultipartStore {
         bucket.name(),
         storageClass,
         checksum,
-        checksumAlgorithm)
-    );
+        checksumAlgorithm);
+    //uploads are only recovered from a retained root folder
+    if (retainFilesOnExit) {
+      try {
+        manifest.create(bucket, id, uploadInfo);
+      } catch (IOException e) {
+        throw new IllegalStateException(String.format(
+            "Could not write multipart upload manifest. bucket=%s, key=%s, id=%s, uploadId=%s",
+            bucket, key, id, uploadId), e);
+      }
+    }
+    addUpload(uploadInfo);
+    uploadListener.accept(bucket.name(), upload);
 
     return upload;
   }
 
+  /**
+   * Sets the listener notified with the bucket name and the upload whenever a multipart upload
+   * is prepared. Uploads recovered at startup are not notified.
+   */
+  public void setUploadListener(BiConsumer<String, MultipartUpload> uploadListener) {
+    this.uploadListener = uploadListener;
+  }
+
   /**
    * Lists all not-yet completed parts of multipart uploads in a bucket.
    *
@@ -128,12 +213,57 @@ public class MultipartStore {
    * @return the list of not-yet completed multipart uploads.
    */
   public List<MultipartUpload> listMultipartUploads(String bucketName, String prefix) {
-    return uploadIdToInfo.values()
-        .stream()
-        .filter(info -> bucketName == null || bucketName.equals(info.bucket()))
-        .map(MultipartUploadInfo::upload)
-        .filter(upload -> isBlank(prefix) || upload.key().startsWith(prefix))
-        .toList();
+    if (bucketName == null) {
+      return uploadIdToInfo.values()
+          .stream()
+          .map(MultipartUploadInfo::upload)
+          .filter(upload -> isBlank(prefix) || upload.key().startsWith(prefix))
+          .toList();
+    }
+    return listMultipartUploads(bucketName, prefix, null, null, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Lists not-yet completed multipart uploads in a bucket, ordered by key and uploadId.
+   * Seeks directly to the first upload after the markers and stops after {@code limit} uploads,
+   * so the cost is independent of the number of uploads outside the requested page.
+   *
+   * @param bucketName the bucket to list
+   * @param prefix the prefix use as a filter
+   * @param keyMarker list uploads after this key, may be null
+   * @param uploadIdMarker together with keyMarker, list uploads of keyMarker after this
+   *     uploadId, may be null
+   * @param limit the maximum number of uploads to return
+   *
+   * @return the list of not-yet completed multipart uploads.
+   */
+  public List<MultipartUpload> listMultipartUploads(String bucketName, String prefix,
+      String keyMarker, String uploadIdMarker, int limit) {
+    var uploads = bucketToUploads.get(bucketName);
+    if (uploads == null || limit <= 0) {
+      return Collections.emptyList();
+    }
+    UploadKey from = isBlank(prefix) ? null : new UploadKey(prefix, "");
+    var inclusive = true;
+    if (!isBlank(keyMarker)) {
+      var after = new UploadKey(keyMarker, isBlank(uploadIdMarker) ? null : uploadIdMarker);
+      if (from == null || after.compareTo(from) >= 0) {
+        from = after;
+        inclusive = false;
+      }
+    }
+    var view = from == null ? uploads : uploads.tailMap(from, inclusive);
+    var result = new ArrayList<MultipartUpload>();
+    for (var upload : view.values()) {
+      if (!isBlank(prefix) && !upload.key().startsWith(prefix)) {
+        break;
+      }
+      result.add(upload);
+      if (result.size() == limit) {
+        break;
+      }
+    }
+    return result;
   }
 
   /**
@@ -143,13 +273,11 @@ public class MultipartStore {
    * @return the multipart upload, if it exists, throws IllegalArgumentException otherwise.
    */
   public MultipartUpload getMultipartUpload(String uploadId) {
-    return uploadIdToInfo.values()
-        .stream()
-        .map(MultipartUploadInfo::upload)
-        .filter(upload -> uploadId.equals(upload.uploadId()))
-        .findFirst()
-        .orElseThrow(() -> new IllegalArgumentException("No MultipartUpload found with uploadId: "
-            + uploadId));
+    var uploadInfo = uploadIdToInfo.get(uploadId);
+    if (uploadInfo == null) {
+      throw new IllegalArgumentException("No MultipartUpload found with uploadId: " + uploadId);
+    }
+    return uploadInfo.upload();
   }
 
   /**
@@ -162,14 +290,14 @@ public class MultipartStore {
   public void abortMultipartUpload(BucketMetadata bucket, UUID id, String uploadId) {
     synchronizedUpload(uploadId, uploadInfo -> {
       try {
-        var partFolder = getPartsFolderPath(bucket, id, uploadId).toFile();
-        FileUtils.deleteDirectory(partFolder);
+        manifest.delete(bucket, uploadId);
+        trash.delete(getPartsFolderPath(bucket, id, uploadId), "multipart");
 
         //TODO: should be in ObjectStore, we must synchronize on Object ID as well.
         var dataFile = objectStore.getDataFilePath(bucket, id).toFile();
         FileUtils.deleteQuietly(dataFile);
 
-        uploadIdToInfo.remove(uploadId);
+        removeUpload(uploadId);
         return null;
       } catch (IOException e) {
         throw new IllegalStateException(String.format(
@@ -202,8 +330,10 @@ public class MultipartStore {
         objectStore.wrapStream(inputStream, useV4ChunkedWithSigningFormat, false),
         getPartPath(bucket, id, uploadId, partNumber)
     );
+    recordPart(bucket, uploadId, partNumber, file.length());
 
-    return hexDigest(encryptionHeaders.get(X_AMZ_SERVER_SIDE_ENCRYPTION_AWS_KMS_KEY_ID), file);
+    return metrics.digest(
+        () -> hexDigest(encryptionHeaders.get(X_AMZ_SERVER_SIDE_ENCRYPTION_AWS_KMS_KEY_ID), file));
   }
 
   /**
@@ -230,8 +360,8 @@ public class MultipartStore {
               .toList();
 
       try (var inputStream = toInputStream(partsPaths)) {
-        var etag = hexDigestMultipart(partsPaths);
-        objectStore.storeS3ObjectMetadata(bucket,
+        var etag = metrics.digest(() -> hexDigestMultipart(partsPaths));
+        var s3ObjectMetadata = objectStore.storeS3ObjectMetadata(bucket,
             id,
             key,
             uploadInfo.contentType(),
@@ -247,8 +377,10 @@ public class MultipartStore {
             uploadInfo.upload().owner(),
             uploadInfo.storageClass()
         );
-        uploadIdToInfo.remove(uploadId);
-        FileUtils.deleteDirectory(partFolder.toFile());
+        metrics.dataRead(Long.parseLong(s3ObjectMetadata.size()));
+        removeUpload(uploadId);
+        manifest.delete(bucket, uploadId);
+        trash.delete(partFolder, "multipart");
         return etag;
       } catch (IOException e) {
         throw new IllegalStateException(String.format(
@@ -274,7 +406,7 @@ public class MultipartStore {
             String name = path.getFileName().toString();
             String prefix = name.substring(0, name.indexOf('.'));
             int partNumber = Integer.parseInt(prefix);
-            String partMd5 = hexDigest(path.toFile());
+            String partMd5 = metrics.digest(() -> hexDigest(path.toFile()));
             Date lastModified = new Date(path.toFile().lastModified());
 
             return new Part(partNumber, partMd5, lastModified, path.toFile().length());
@@ -312,8 +444,10 @@ public class MultipartStore {
 
     verifyMultipartUploadPreparation(destinationBucket, destinationId, uploadId);
 
-    return copyPartToFile(bucket, id, copyRange,
-        createPartFile(destinationBucket, destinationId, uploadId, partNumber));
+    var partFile = createPartFile(destinationBucket, destinationId, uploadId, partNumber);
+    var etag = copyPartToFile(bucket, id, copyRange, partFile);
+    recordPart(destinationBucket, uploadId, partNumber, partFile.length());
+    return etag;
   }
 
   /**
@@ -370,7 +504,9 @@ public class MultipartStore {
         var targetStream = newOutputStream(partFile.toPath())) {
       var skip = sourceStream.skip(from);
       if (skip == from) {
-        IOUtils.copy(new BoundedInputStream(sourceStream, len), targetStream);
+        var copied = IOUtils.copyLarge(new BoundedInputStream(sourceStream, len), targetStream);
+        metrics.dataRead(copied);
+        metrics.dataWritten(copied);
       } else {
         throw new IllegalStateException("Could not skip exact byte range");
       }
@@ -378,7 +514,7 @@ public class MultipartStore {
       throw new IllegalStateException(String.format("Could not copy object. "
           + "bucket=%s, id=%s, range=%s, partFile=%s", bucket, id, copyRange, partFile), e);
     }
-    return hexDigest(partFile);
+    return metrics.digest(() -> hexDigest(partFile));
   }
 
   private File createPartFile(BucketMetadata bucket,
@@ -426,8 +562,11 @@ public class MultipartStore {
   private boolean createPartsFolder(BucketMetadata bucket, UUID id, String uploadId) {
     var partsFolder = getPartsFolderPath(bucket, id, uploadId).toFile();
     var created = partsFolder.mkdirs();
-    if (created && !retainFilesOnExit) {
-      partsFolder.deleteOnExit();
+    if (created) {
+      metrics.directoryCreated("multipart");
+      if (!retainFilesOnExit) {
+        partsFolder.deleteOnExit();
+      }
     }
     return created;
   }
@@ -440,4 +579,53 @@ public class MultipartStore {
     return Paths.get(getPartsFolderPath(bucket, id, uploadId).toString(),
         partNumber + PART_SUFFIX);
   }
+
+  private void addUpload(MultipartUploadInfo uploadInfo) {
+    var upload = uploadInfo.upload();
+    bucketToUploads.computeIfAbsent(uploadInfo.bucket(), name -> new ConcurrentSkipListMap<>())
+        .put(new UploadKey(upload.key(), upload.uploadId()), upload);
+    uploadIdToInfo.put(upload.uploadId(), uploadInfo);
+  }
+
+  /**
+   * Records a completely written part in the manifest of the upload.
+   */
+  private void recordPart(BucketMetadata bucket, String uploadId, String partNumber, long size) {
+    if (!retainFilesOnExit) {
+      return;
+    }
+    synchronizedUpload(uploadId, uploadInfo -> {
+      try {
+        manifest.appendPart(bucket, uploadId, Integer.parseInt(partNumber), size);
+        return null;
+      } catch (IOException e) {
+        throw new IllegalStateException(String.format(
+            "Could not record part in multipart upload manifest. bucket=%s, uploadId=%s, "
+                + "partNumber=%s", bucket, uploadId, partNumber), e);
+      }
+    });
+  }
+
+  private void removeUpload(String uploadId) {
+    var uploadInfo = uploadIdToInfo.remove(uploadId);
+    if (uploadInfo != null) {
+      var uploads = bucketToUploads.get(uploadInfo.bucket());
+      if (uploads != null) {
+        uploads.remove(new UploadKey(uploadInfo.upload().key(), uploadId));
+      }
+    }
+  }
+
+  /**
+   * Sort key of an upload in a bucket. A null uploadId sorts after all uploads of the key.
+   */
+  private record UploadKey(String key, String uploadId) implements Comparable<UploadKey> {
+    private static final Comparator<UploadKey> ORDER = Comparator.comparing(UploadKey::key)
+        .thenComparing(UploadKey::uploadId, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    @Override
+    public int compareTo(UploadKey other) {
+      return ORDER.compare(this, other);
+    }
+  }
 }
@@ -0,0 +1,169 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.store;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only manifests of in-progress multipart uploads, one file per upload in the folder
+ * {@value #FOLDER_NAME} of the bucket.
+ * The manifests allow continuing the uploads of a retained root folder after a restart.
+ *
+ * <p>Format: JSON lines. The first line holds the object ID and the {@link MultipartUploadInfo},
+ * every following line a part that was written completely, with its number and size.
+ * A part written again is appended again, the last line of a part number wins.
+ * An incomplete last line, left by a crash while appending, is removed when reading.</p>
+ */
+final class MultipartUploadManifest {
+  private static final Logger LOG = LoggerFactory.getLogger(MultipartUploadManifest.class);
+  static final String FOLDER_NAME = ".uploads";
+  private static final String SUFFIX = ".manifest";
+
+  private final ObjectReader headerReader;
+  private final ObjectWriter headerWriter;
+  private final ObjectReader partReader;
+  private final ObjectWriter partWriter;
+
+  MultipartUploadManifest(ObjectMapper objectMapper) {
+    this.headerReader = objectMapper.readerFor(Header.class);
+    this.headerWriter = objectMapper.writerFor(Header.class);
+    this.partReader = objectMapper.readerFor(PartEntry.class);
+    this.partWriter = objectMapper.writerFor(PartEntry.class);
+  }
+
+  record Header(UUID id, MultipartUploadInfo info) {
+  }
+
+  record PartEntry(int partNumber, long size) {
+  }
+
+  /**
+   * A recovered upload.
+   *
+   * @param id the ID of the object the upload is for.
+   * @param info the upload.
+   * @param partSizes sizes of the completely written parts by part number.
+   */
+  record Entry(UUID id, MultipartUploadInfo info, Map<Integer, Long> partSizes) {
+  }
+
+  /**
+   * Creates the manifest of a new upload.
+   */
+  void create(BucketMetadata bucket, UUID id, MultipartUploadInfo info) throws IOException {
+    var folder = Files.createDirectories(bucket.path().resolve(FOLDER_NAME));
+    Files.write(folder.resolve(info.upload().uploadId() + SUFFIX),
+        line(headerWriter.writeValueAsBytes(new Header(id, info))), CREATE_NEW, WRITE);
+  }
+
+  /**
+   * Records a completely written part.
+   *
+   * @throws NoSuchFileException if the manifest was deleted, i.e. the upload is gone.
+   */
+  void appendPart(BucketMetadata bucket, String uploadId, int partNumber, long size)
+      throws IOException {
+    Files.write(file(bucket, uploadId),
+        line(partWriter.writeValueAsBytes(new PartEntry(partNumber, size))), APPEND);
+  }
+
+  void delete(BucketMetadata bucket, String uploadId) throws IOException {
+    Files.deleteIfExists(file(bucket, uploadId));
+  }
+
+  /**
+   * Reads the manifests of all uploads of the bucket.
+   * Manifests that cannot be read are skipped.
+   *
+   * @return the recovered uploads.
+   */
+  List<Entry> read(BucketMetadata bucket) {
+    var folder = bucket.path().resolve(FOLDER_NAME);
+    var entries = new ArrayList<Entry>();
+    if (!Files.isDirectory(folder)) {
+      return entries;
+    }
+    try (var files = Files.newDirectoryStream(folder, "*" + SUFFIX)) {
+      for (var file : files) {
+        try {
+          entries.add(read(file));
+        } catch (IOException e) {
+          LOG.warn("Could not read multipart upload manifest {}", file, e);
+        }
+      }
+    } catch (IOException e) {
+      LOG.warn("Could not list multipart upload manifests of bucket {}", bucket.name(), e);
+    }
+    return entries;
+  }
+
+  private Entry read(Path file) throws IOException {
+    var bytes = Files.readAllBytes(file);
+    var complete = bytes.length;
+    while (complete > 0 && bytes[complete - 1] != '\n') {
+      complete--;
+    }
+    if (complete < bytes.length) {
+      // the next part would be appended to the incomplete line
+      LOG.warn("Truncating incomplete last line of multipart upload manifest {}", file);
+      try (var channel = FileChannel.open(file, WRITE)) {
+        channel.truncate(complete);
+      }
+    }
+    var lines = new String(bytes, 0, complete, UTF_8).lines().toList();
+    if (lines.isEmpty()) {
+      throw new IOException("Empty multipart upload manifest " + file);
+    }
+    Header header = headerReader.readValue(lines.get(0));
+    var partSizes = new HashMap<Integer, Long>();
+    for (var i = 1; i < lines.size(); i++) {
+      PartEntry part = partReader.readValue(lines.get(i));
+      partSizes.put(part.partNumber(), part.size());
+    }
+    return new Entry(header.id(), header.info(), partSizes);
+  }
+
+  private static Path file(BucketMetadata bucket, String uploadId) {
+    return bucket.path().resolve(FOLDER_NAME).resolve(uploadId + SUFFIX);
+  }
+
+  private static byte[] line(byte[] json) {
+    var line = new byte[json.length + 1];
+    System.arraycopy(json, 0, line, 0, json.length);
+    line[json.length] = '\n';
+    return line;
+  }
+}
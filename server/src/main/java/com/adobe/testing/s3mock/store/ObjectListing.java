@@ -0,0 +1,201 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.store;
+
+import static com.adobe.testing.s3mock.store.StoreConfiguration.S3_OBJECT_DATE_FORMAT;
+
+import com.adobe.testing.s3mock.dto.ChecksumAlgorithm;
+import com.adobe.testing.s3mock.dto.Owner;
+import com.adobe.testing.s3mock.dto.StorageClass;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.HexFormat;
+import java.util.Objects;
+
+/**
+ * The attributes of an object needed to list it.
+ * Kept in memory next to the key index of the bucket, see {@link BucketMetadata#listings()}, so
+ * listing objects does not read their metadata files.
+ * One is held per listed object, the attributes are therefore stored compactly: size and
+ * modification date as longs, MD5 ETags as two longs and the default owners as shared instances.
+ * Values that cannot be stored compactly, e.g. ETags of multipart uploads, are kept as strings.
+ */
+public final class ObjectListing {
+  private static final HexFormat HEX = HexFormat.of();
+  private static final int MD5_ETAG_LENGTH = 34;
+
+  private final long size;
+  private final long modified;
+  private final long etagHigh;
+  private final long etagLow;
+  /**
+   * Size, modification date and ETag as given if they are not stored compactly, else
+   * {@code null}.
+   */
+  private final String sizeText;
+  private final String modificationDateText;
+  private final String etagText;
+  private final StorageClass storageClass;
+  private final Owner owner;
+  private final ChecksumAlgorithm checksumAlgorithm;
+
+  public ObjectListing(String size, String modificationDate, String etag,
+      StorageClass storageClass, Owner owner, ChecksumAlgorithm checksumAlgorithm) {
+    this.size = parseSize(size);
+    this.sizeText = this.size < 0 ? size : null;
+    this.modified = parseModificationDate(modificationDate);
+    this.modificationDateText = this.modified == Long.MIN_VALUE ? modificationDate : null;
+    if (isMd5Etag(etag)) {
+      this.etagHigh = HEX.fromHexDigitsToLong(etag, 1, 17);
+      this.etagLow = HEX.fromHexDigitsToLong(etag, 17, 33);
+      this.etagText = null;
+    } else {
+      this.etagHigh = 0;
+      this.etagLow = 0;
+      this.etagText = etag;
+    }
+    this.storageClass = storageClass;
+    this.owner = shared(owner);
+    this.checksumAlgorithm = checksumAlgorithm;
+  }
+
+  public static ObjectListing from(S3ObjectMetadata s3ObjectMetadata) {
+    return new ObjectListing(s3ObjectMetadata.size(),
+        s3ObjectMetadata.modificationDate(),
+        s3ObjectMetadata.etag(),
+        s3ObjectMetadata.storageClass(),
+        s3ObjectMetadata.owner(),
+        s3ObjectMetadata.checksumAlgorithm());
+  }
+
+  public String size() {
+    return size < 0 ? sizeText : Long.toString(size);
+  }
+
+  public String modificationDate() {
+    return modified == Long.MIN_VALUE
+        ? modificationDateText : S3_OBJECT_DATE_FORMAT.format(Instant.ofEpochMilli(modified));
+  }
+
+  public String etag() {
+    return etagText != null
+        ? etagText : '"' + HEX.toHexDigits(etagHigh) + HEX.toHexDigits(etagLow) + '"';
+  }
+
+  public StorageClass storageClass() {
+    return storageClass;
+  }
+
+  public Owner owner() {
+    return owner;
+  }
+
+  public ChecksumAlgorithm checksumAlgorithm() {
+    return checksumAlgorithm;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof ObjectListing other
+        && size == other.size
+        && modified == other.modified
+        && etagHigh == other.etagHigh
+        && etagLow == other.etagLow
+        && Objects.equals(sizeText, other.sizeText)
+        && Objects.equals(modificationDateText, other.modificationDateText)
+        && Objects.equals(etagText, other.etagText)
+        && storageClass == other.storageClass
+        && Objects.equals(owner, other.owner)
+        && checksumAlgorithm == other.checksumAlgorithm;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(size, modified, etagHigh, etagLow, sizeText, modificationDateText,
+        etagText, storageClass, owner, checksumAlgorithm);
+  }
+
+  @Override
+  public String toString() {
+    return "ObjectListing[size=" + size() + ", modificationDate=" + modificationDate()
+        + ", etag=" + etag() + ", storageClass=" + storageClass + ", owner=" + owner
+        + ", checksumAlgorithm=" + checksumAlgorithm + "]";
+  }
+
+  /**
+   * The size as a number, -1 if it is not a number that formats back to the given string.
+   */
+  private static long parseSize(String size) {
+    if (size == null || size.isEmpty() || size.length() > 18
+        || size.length() > 1 && size.charAt(0) == '0') {
+      return -1;
+    }
+    for (var i = 0; i < size.length(); i++) {
+      if (size.charAt(i) < '0' || size.charAt(i) > '9') {
+        return -1;
+      }
+    }
+    return Long.parseLong(size);
+  }
+
+  /**
+   * The modification date in milliseconds, {@link Long#MIN_VALUE} if it is not a date that
+   * formats back to the given string.
+   */
+  private static long parseModificationDate(String modificationDate) {
+    if (modificationDate == null) {
+      return Long.MIN_VALUE;
+    }
+    try {
+      var millis = Instant.parse(modificationDate).toEpochMilli();
+      return S3_OBJECT_DATE_FORMAT.format(Instant.ofEpochMilli(millis)).equals(modificationDate)
+          ? millis : Long.MIN_VALUE;
+    } catch (DateTimeParseException | ArithmeticException e) {
+      return Long.MIN_VALUE;
+    }
+  }
+
+  /**
+   * Whether the ETag is a quoted MD5 digest in lower case hex, as computed by the stores.
+   */
+  private static boolean isMd5Etag(String etag) {
+    if (etag == null || etag.length() != MD5_ETAG_LENGTH
+        || etag.charAt(0) != '"' || etag.charAt(MD5_ETAG_LENGTH - 1) != '"') {
+      return false;
+    }
+    for (var i = 1; i < MD5_ETAG_LENGTH - 1; i++) {
+      var c = etag.charAt(i);
+      if (!(c >= '0' && c <= '9' || c >= 'a' && c <= 'f')) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Replaces copies of the default owners with the shared instances.
+   */
+  private static Owner shared(Owner owner) {
+    if (Owner.DEFAULT_OWNER.equals(owner)) {
+      return Owner.DEFAULT_OWNER;
+    }
+    if (Owner.DEFAULT_OWNER_BUCKET.equals(owner)) {
+      return Owner.DEFAULT_OWNER_BUCKET;
+    }
+    return owner;
+  }
+}
@@ -33,22 +33,27 @@ import com.adobe.testing.s3mock.dto.Tag;
 import com.adobe.testing.s3mock.util.AwsChecksumInputStream;
 import com.adobe.testing.s3mock.util.AwsChunkedDecodingChecksumInputStream;
 import com.adobe.testing.s3mock.util.AwsChunkedDecodingInputStream;
+import com.adobe.testing.s3mock.util.SpooledInputStream;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.time.Instant;
 import java.time.format.DateTimeFormatter;
-import java.util.Collection;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
 import org.apache.commons.io.FileUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -63,21 +68,68 @@ public class ObjectStore {
   private static final String DATA_FILE = "binaryData";
 
   /**
-   * This map stores one lock object per S3Object ID.
-   * Any method modifying the underlying file must acquire the lock object before the modification.
+   * One lock per S3Object ID, created when first acquired so that existing objects need not be
+   * registered at startup.
+   * Any method modifying the underlying file must acquire the lock before the modification.
    */
-  private final Map<UUID, Object> lockStore = new ConcurrentHashMap<>();
+  private final KeyLocks<UUID> locks;
 
   private final boolean retainFilesOnExit;
   private final DateTimeFormatter s3ObjectDateFormat;
 
-  private final ObjectMapper objectMapper;
+  /**
+   * Readers and writers are resolved once, the type's (de-)serializers are then looked up only
+   * when first used instead of on every call.
+   */
+  private final ObjectReader metadataReader;
+  private final ObjectWriter metadataWriter;
+  private final ObjectReader aclReader;
+  private final ObjectWriter aclWriter;
+
+  private final StoreMetrics metrics;
+  private final ParallelIo parallelIo;
+  private final Trash trash;
+  /**
+   * Notified with the bucket and the new metadata whenever the metadata of an object is written.
+   */
+  private volatile BiConsumer<BucketMetadata, S3ObjectMetadata> objectListener =
+      (bucket, s3ObjectMetadata) -> { };
+
+  public ObjectStore(boolean retainFilesOnExit,
+      DateTimeFormatter s3ObjectDateFormat, ObjectMapper objectMapper, StoreMetrics metrics) {
+    this(retainFilesOnExit, s3ObjectDateFormat, objectMapper, metrics, ParallelIo.sequential());
+  }
+
+  public ObjectStore(boolean retainFilesOnExit,
+      DateTimeFormatter s3ObjectDateFormat, ObjectMapper objectMapper, StoreMetrics metrics,
+      ParallelIo parallelIo) {
+    this(retainFilesOnExit, s3ObjectDateFormat, objectMapper, metrics, parallelIo,
+        Trash.immediate(metrics));
+  }
 
   public ObjectStore(boolean retainFilesOnExit,
-      DateTimeFormatter s3ObjectDateFormat, ObjectMapper objectMapper) {
+      DateTimeFormatter s3ObjectDateFormat, ObjectMapper objectMapper, StoreMetrics metrics,
+      ParallelIo parallelIo, Trash trash) {
     this.retainFilesOnExit = retainFilesOnExit;
     this.s3ObjectDateFormat = s3ObjectDateFormat;
-    this.objectMapper = objectMapper;
+    this.metadataReader = objectMapper.readerFor(S3ObjectMetadata.class);
+    this.metadataWriter = objectMapper.writerFor(S3ObjectMetadata.class);
+    this.aclReader = objectMapper.readerFor(AccessControlPolicy.class);
+    this.aclWriter = objectMapper.writerFor(AccessControlPolicy.class);
+    this.metrics = metrics;
+    this.locks = new KeyLocks<>("object", metrics, true);
+    this.parallelIo = parallelIo;
+    this.trash = trash;
+  }
+
+  /**
+   * Sets the listener notified with the bucket and the new metadata whenever the metadata of an
+   * object is written: objects stored, copied or completed from multipart uploads, and changes
+   * of tags, legal holds and retentions. The listener is called while the object is locked and
+   * must not block.
+   */
+  public void setObjectListener(BiConsumer<BucketMetadata, S3ObjectMetadata> objectListener) {
+    this.objectListener = objectListener;
   }
 
   /**
@@ -112,8 +164,7 @@ public class ObjectStore {
       String checksum,
       Owner owner,
       StorageClass storageClass) {
-    lockStore.putIfAbsent(id, new Object());
-    synchronized (lockStore.get(id)) {
+    try (var lock = locks.lock(id)) {
       createObjectRootFolder(bucket, id);
       var checksumEmbedded = checksumAlgorithm != null && checksum == null;
       var inputStream = wrapStream(dataStream, useV4ChunkedWithSigningFormat, checksumEmbedded);
@@ -129,8 +180,8 @@ public class ObjectStore {
           s3ObjectDateFormat.format(now),
           etag != null
               ? etag
-              : hexDigest(encryptionHeaders.get(X_AMZ_SERVER_SIDE_ENCRYPTION_AWS_KMS_KEY_ID),
-                  dataFile),
+              : metrics.digest(() -> hexDigest(
+                  encryptionHeaders.get(X_AMZ_SERVER_SIDE_ENCRYPTION_AWS_KMS_KEY_ID), dataFile)),
           contentType,
           now.toEpochMilli(),
           dataFile.toPath(),
@@ -164,7 +215,7 @@ public class ObjectStore {
    * @param tags List of tagSet objects.
    */
   public void storeObjectTags(BucketMetadata bucket, UUID id, List<Tag> tags) {
-    synchronized (lockStore.get(id)) {
+    try (var lock = locks.lock(id)) {
       var s3ObjectMetadata = getS3ObjectMetadata(bucket, id);
       writeMetafile(bucket, new S3ObjectMetadata(
           s3ObjectMetadata.id(),
@@ -197,7 +248,7 @@ public class ObjectStore {
    * @param legalHold the legal hold.
    */
   public void storeLegalHold(BucketMetadata bucket, UUID id, LegalHold legalHold) {
-    synchronized (lockStore.get(id)) {
+    try (var lock = locks.lock(id)) {
       var s3ObjectMetadata = getS3ObjectMetadata(bucket, id);
       writeMetafile(bucket, new S3ObjectMetadata(
           s3ObjectMetadata.id(),
@@ -250,7 +301,7 @@ public class ObjectStore {
    * @param retention the retention.
    */
   public void storeRetention(BucketMetadata bucket, UUID id, Retention retention) {
-    synchronized (lockStore.get(id)) {
+    try (var lock = locks.lock(id)) {
       var s3ObjectMetadata = getS3ObjectMetadata(bucket, id);
       writeMetafile(bucket, new S3ObjectMetadata(
           s3ObjectMetadata.id(),
@@ -287,9 +338,10 @@ public class ObjectStore {
     var metaPath = getMetaFilePath(bucket, id);
 
     if (Files.exists(metaPath)) {
-      synchronized (lockStore.get(id)) {
+      try (var lock = locks.lock(id)) {
         try {
-          return objectMapper.readValue(metaPath.toFile(), S3ObjectMetadata.class);
+          return metrics.readMetadata("object",
+              () -> metadataReader.readValue(metaPath.toFile()));
         } catch (IOException e) {
           throw new IllegalArgumentException("Could not read object metadata-file " + id, e);
         }
@@ -298,6 +350,68 @@ public class ObjectStore {
     return null;
   }
 
+  /**
+   * Retrieves the attributes needed to list an object.
+   * They are kept in memory with the bucket, the metadata file is only read if the object was not
+   * written or listed since the bucket was loaded.
+   *
+   * @param bucket Bucket the object is stored in.
+   * @param id ID of the object key.
+   *
+   * @return ObjectListing or null if not found
+   */
+  public ObjectListing getObjectListing(BucketMetadata bucket, UUID id) {
+    var objectListing = bucket.listings().get(id);
+    if (objectListing != null) {
+      return objectListing;
+    }
+    var s3ObjectMetadata = getS3ObjectMetadata(bucket, id);
+    if (s3ObjectMetadata == null) {
+      return null;
+    }
+    objectListing = ObjectListing.from(s3ObjectMetadata);
+    try (var lock = locks.lock(id)) {
+      //deletes remove the listing under the lock, a deleted object must not be added again
+      if (!Files.exists(getMetaFilePath(bucket, id))) {
+        return null;
+      }
+      //a concurrent write may already have put newer attributes
+      var existing = bucket.listings().putIfAbsent(id, objectListing);
+      return existing != null ? existing : objectListing;
+    }
+  }
+
+  /**
+   * Retrieves the attributes needed to list several objects, see
+   * {@link #getObjectListing(BucketMetadata, UUID)}.
+   * Metadata files of objects not kept in memory are read concurrently on the {@link ParallelIo}
+   * pool.
+   *
+   * @param bucket Bucket the objects are stored in.
+   * @param ids IDs of the object keys.
+   *
+   * @return ObjectListings by ID, objects that were not found are missing.
+   */
+  public Map<UUID, ObjectListing> getObjectListings(BucketMetadata bucket, List<UUID> ids) {
+    var objectListings = new HashMap<UUID, ObjectListing>(ids.size() * 2);
+    var missing = new ArrayList<UUID>();
+    for (var id : ids) {
+      var objectListing = bucket.listings().get(id);
+      if (objectListing != null) {
+        objectListings.put(id, objectListing);
+      } else {
+        missing.add(id);
+      }
+    }
+    var read = parallelIo.map(missing, id -> getObjectListing(bucket, id));
+    for (var i = 0; i < missing.size(); i++) {
+      if (read.get(i) != null) {
+        objectListings.put(missing.get(i), read.get(i));
+      }
+    }
+    return objectListings;
+  }
+
   /**
    * Copies an object to another bucket and encrypted object.
    *
@@ -321,7 +435,7 @@ public class ObjectStore {
     if (sourceObject == null) {
       return null;
     }
-    synchronized (lockStore.get(sourceId)) {
+    try (var lock = locks.lock(sourceId)) {
       try (var inputStream = Files.newInputStream(sourceObject.dataPath())) {
         var copiedObject = storeS3ObjectMetadata(destinationBucket,
             destinationId,
@@ -340,6 +454,7 @@ public class ObjectStore {
             sourceObject.owner(),
             sourceObject.storageClass()
         );
+        metrics.dataRead(Long.parseLong(copiedObject.size()));
         return new CopyObjectResult(copiedObject.modificationDate(), copiedObject.etag());
       } catch (IOException e) {
         throw new IllegalStateException("Could not write object binary-file.", e);
@@ -393,37 +508,72 @@ public class ObjectStore {
    * @return true if deletion succeeded.
    */
   public boolean deleteObject(BucketMetadata bucket, UUID id) {
-    var s3ObjectMetadata = getS3ObjectMetadata(bucket, id);
-    if (s3ObjectMetadata != null) {
-      synchronized (lockStore.get(id)) {
-        try {
-          FileUtils.deleteDirectory(getObjectFolderPath(bucket, id).toFile());
-        } catch (IOException e) {
-          throw new IllegalStateException("Could not delete object-directory " + id, e);
+    try {
+      if (!deleteObjectFolder(bucket, id)) {
+        return false;
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not delete object-directory " + id, e);
+    }
+    touchBucketMetaFile(bucket);
+    return true;
+  }
+
+  /**
+   * Removes objects from a bucket, their folders are moved to the {@link Trash} concurrently on
+   * the {@link ParallelIo}. The bucket metadata file is touched once for all objects.
+   *
+   * @param bucket bucket containing the objects.
+   * @param ids objects to be deleted. Objects without metadata are skipped, like in
+   *     {@link #deleteObject(BucketMetadata, UUID)}: their key may belong to a multipart upload
+   *     in progress, whose parts are stored in the object's folder.
+   *
+   * @return the objects that were deleted and the objects whose folder could not be deleted.
+   */
+  public DeletedObjects deleteObjects(BucketMetadata bucket, List<UUID> ids) {
+    var deletedIds = ConcurrentHashMap.<UUID>newKeySet();
+    var failures = parallelIo.map(ids, id -> {
+      try {
+        if (deleteObjectFolder(bucket, id)) {
+          deletedIds.add(id);
         }
-        lockStore.remove(id);
-        return true;
+        return (IllegalStateException) null;
+      } catch (IOException e) {
+        return new IllegalStateException("Could not delete object-directory " + id, e);
+      }
+    });
+    touchBucketMetaFile(bucket);
+    var failed = new HashMap<UUID, IllegalStateException>();
+    for (var i = 0; i < ids.size(); i++) {
+      if (failures.get(i) != null) {
+        failed.put(ids.get(i), failures.get(i));
       }
-    } else {
-      return false;
     }
+    return new DeletedObjects(ids.stream().filter(deletedIds::contains).toList(), failed);
   }
 
-  void loadObjects(BucketMetadata bucketMetadata, Collection<UUID> ids) {
-    var loaded = 0;
-    for (var id : ids) {
-      lockStore.putIfAbsent(id, new Object());
-      var s3ObjectMetadata = getS3ObjectMetadata(bucketMetadata, id);
-      if (s3ObjectMetadata != null) {
-        loaded++;
+  /**
+   * Moves the folder of an object to the {@link Trash} and drops its listing, while holding the
+   * lock of the object. The lock is removed, it is created again if the ID is used later on.
+   *
+   * @return false if the object has no metadata, its folder is left alone then.
+   */
+  private boolean deleteObjectFolder(BucketMetadata bucket, UUID id) throws IOException {
+    try (var lock = locks.lock(id)) {
+      if (!Files.exists(getMetaFilePath(bucket, id))) {
+        return false;
       }
+      trash.delete(getObjectFolderPath(bucket, id), "object");
+      bucket.listings().remove(id);
+      locks.remove(id);
+      return true;
     }
-    LOG.info("Loaded {}/{} objects for bucket {}", loaded, ids.size(), bucketMetadata.name());
   }
 
   /**
    * Stores the content of an InputStream in a File.
-   * Creates the File if it does not exist.
+   * Creates the File if it does not exist. The spool file of a {@link SpooledInputStream} is
+   * moved to the File instead of copying its content.
    *
    * @param inputStream the Stream to be saved.
    * @param filePath Path where the stream should be saved.
@@ -437,9 +587,16 @@ public class ObjectStore {
         targetFile.deleteOnExit();
       }
 
+      if (inputStream instanceof SpooledInputStream spooled) {
+        try (inputStream) {
+          Files.move(spooled.spoolFile(), filePath, StandardCopyOption.REPLACE_EXISTING);
+        }
+        metrics.dataWritten(targetFile.length());
+        return targetFile;
+      }
       try (var is = inputStream;
           var os = newOutputStream(targetFile.toPath())) {
-        is.transferTo(os);
+        metrics.dataWritten(is.transferTo(os));
       }
     } catch (IOException e) {
       throw new IllegalStateException("Could not write object binary-file.", e);
@@ -467,8 +624,11 @@ public class ObjectStore {
    */
   private void createObjectRootFolder(BucketMetadata bucket, UUID id) {
     var objectRootFolder = getObjectFolderPath(bucket, id).toFile();
-    if (objectRootFolder.mkdirs() && !retainFilesOnExit) {
-      objectRootFolder.deleteOnExit();
+    if (objectRootFolder.mkdirs()) {
+      metrics.directoryCreated("object");
+      if (!retainFilesOnExit) {
+        objectRootFolder.deleteOnExit();
+      }
     }
   }
 
@@ -492,27 +652,42 @@ public class ObjectStore {
   private void writeMetafile(BucketMetadata bucket, S3ObjectMetadata s3ObjectMetadata) {
     var id = s3ObjectMetadata.id();
     try {
-      synchronized (lockStore.get(id)) {
+      try (var lock = locks.lock(id)) {
         var metaFile = getMetaFilePath(bucket, id).toFile();
         if (!retainFilesOnExit) {
           metaFile.deleteOnExit();
         }
-        objectMapper.writeValue(metaFile, s3ObjectMetadata);
+        metrics.writeMetadata("object",
+            () -> metadataWriter.writeValue(metaFile, s3ObjectMetadata));
+        bucket.listings().put(id, ObjectListing.from(s3ObjectMetadata));
+        touchBucketMetaFile(bucket);
+        objectListener.accept(bucket, s3ObjectMetadata);
       }
     } catch (IOException e) {
       throw new IllegalStateException("Could not write object metadata-file " + id, e);
     }
   }
 
+  /**
+   * Updates the modification time of the bucket metadata file after the listing attributes of
+   * one of its objects changed, which invalidates the bucket in earlier snapshots, see
+   * {@link BucketIndexSnapshot}.
+   */
+  private void touchBucketMetaFile(BucketMetadata bucket) {
+    var bucketMetaFile = bucket.path().resolve(BucketStore.BUCKET_META_FILE).toFile();
+    if (!bucketMetaFile.setLastModified(System.currentTimeMillis())) {
+      LOG.debug("Could not update modification time of {}", bucketMetaFile);
+    }
+  }
+
   private AccessControlPolicy readAclFile(BucketMetadata bucket, UUID id) {
     try {
-      synchronized (lockStore.get(id)) {
+      try (var lock = locks.lock(id)) {
         var aclFile = getAclFilePath(bucket, id).toFile();
         if (!aclFile.exists()) {
           return null;
         }
-        var toDeserialize = FileUtils.readFileToString(aclFile, Charset.defaultCharset());
-        return objectMapper.readValue(toDeserialize, AccessControlPolicy.class);
+        return metrics.readMetadata("acl", () -> aclReader.readValue(aclFile));
       }
     } catch (IOException e) {
       throw new IllegalStateException("Could not read object acl-file " + id, e);
@@ -521,15 +696,24 @@ public class ObjectStore {
 
   private void writeAclFile(BucketMetadata bucket, UUID id, AccessControlPolicy policy) {
     try {
-      synchronized (lockStore.get(id)) {
+      try (var lock = locks.lock(id)) {
         var aclFile = getAclFilePath(bucket, id).toFile();
         if (!retainFilesOnExit) {
           aclFile.deleteOnExit();
         }
-        FileUtils.write(aclFile, objectMapper.writeValueAsString(policy), Charset.defaultCharset());
+        metrics.writeMetadata("acl", () -> aclWriter.writeValue(aclFile, policy));
       }
     } catch (IOException e) {
       throw new IllegalStateException("Could not write object acl-file " + id, e);
     }
   }
+
+  /**
+   * Result of {@link #deleteObjects(BucketMetadata, List)}.
+   *
+   * @param deleted objects that were deleted, in the order of the request.
+   * @param failures objects whose folder could not be deleted, with the reason.
+   */
+  public record DeletedObjects(List<UUID> deleted, Map<UUID, IllegalStateException> failures) {
+  }
 }
@@ -0,0 +1,138 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.store;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Dedicated pool for file system I/O that is spread over many small files, like reading the
+ * metadata of all objects of a listing.
+ * Its size is meant to match the number of requests the disk serves concurrently, not the number
+ * of CPU cores: reading one metadata file is mostly waiting for the disk.
+ * Work is split into at most {@link #parallelism()} chunks, one of them runs on the calling thread.
+ */
+public final class ParallelIo implements AutoCloseable {
+  private final int parallelism;
+  private final ExecutorService executor;
+
+  /**
+   * Creates the pool.
+   *
+   * @param parallelism maximum number of files accessed concurrently for one call, 1 to access
+   *     files on the calling thread only.
+   */
+  public ParallelIo(int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+    }
+    this.parallelism = parallelism;
+    if (parallelism == 1) {
+      this.executor = null;
+    } else {
+      var threads = new AtomicInteger();
+      this.executor = Executors.newFixedThreadPool(parallelism - 1, runnable -> {
+        var thread = new Thread(runnable, "s3mock-io-" + threads.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+  }
+
+  /**
+   * Accesses all files on the calling thread.
+   */
+  public static ParallelIo sequential() {
+    return new ParallelIo(1);
+  }
+
+  public int parallelism() {
+    return parallelism;
+  }
+
+  /**
+   * Applies the function to all items concurrently.
+   *
+   * @return the results in the order of the items.
+   *
+   * @throws RuntimeException the first exception the function threw, after all chunks completed.
+   */
+  public <T, R> List<R> map(List<T> items, Function<? super T, ? extends R> function) {
+    var results = new Object[items.size()];
+    var chunks = Math.min(parallelism, items.size());
+    if (chunks <= 1) {
+      mapChunk(items, function, results, 0, items.size());
+      return toList(results);
+    }
+    var chunkSize = (items.size() + chunks - 1) / chunks;
+    var futures = new ArrayList<Future<?>>(chunks - 1);
+    for (var from = chunkSize; from < items.size(); from += chunkSize) {
+      var start = from;
+      var end = Math.min(from + chunkSize, items.size());
+      futures.add(executor.submit(() -> mapChunk(items, function, results, start, end)));
+    }
+    var failure = (RuntimeException) null;
+    try {
+      mapChunk(items, function, results, 0, chunkSize);
+    } catch (RuntimeException e) {
+      failure = e;
+    }
+    for (var future : futures) {
+      try {
+        future.get();
+      } catch (ExecutionException e) {
+        if (failure == null) {
+          failure = e.getCause() instanceof RuntimeException cause
+              ? cause : new IllegalStateException(e.getCause());
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while waiting for file system I/O", e);
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+    return toList(results);
+  }
+
+  @Override
+  public void close() {
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+  }
+
+  private static <T, R> void mapChunk(List<T> items, Function<? super T, ? extends R> function,
+      Object[] results, int from, int to) {
+    for (var i = from; i < to; i++) {
+      results[i] = function.apply(items.get(i));
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <R> List<R> toList(Object[] results) {
+    return (List<R>) Arrays.asList(results);
+  }
+}
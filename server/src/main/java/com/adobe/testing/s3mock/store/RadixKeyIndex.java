@@ -0,0 +1,542 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.store;
+
+import static com.adobe.testing.s3mock.store.KeyIndex.utf16Order;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * {@link KeyIndex} in a radix tree over the UTF-8 bytes of the keys.
+ * Keys sharing a prefix, like {@code tenant/2024/05/17/partition-00042/part-0001.parquet}, share
+ * the nodes of the prefix, each node holds the bytes of its edge, the object ID if a key ends at
+ * the node, and its children ordered like {@link String#compareTo(String)}.
+ * Every node knows the number of keys below it, so counting the keys with a prefix costs
+ * O(depth), and locating a key or skipping all keys of a prefix visits only the nodes on the way.
+ *
+ * <p>Nodes are immutable: a write copies the nodes on the path to the changed key and publishes
+ * the new root, readers see the tree as it was when they started. Writes are synchronized.</p>
+ */
+final class RadixKeyIndex extends KeyIndex {
+  private static final byte[] NO_BYTES = new byte[0];
+
+  private volatile Node root = new Inner(NO_BYTES, false, 0, 0, Node.NO_CHILDREN);
+  /**
+   * The ID replaced or removed by the current write.
+   */
+  private UUID previous;
+
+  static KeyIndex.Builder builder() {
+    var index = new RadixKeyIndex();
+    return new KeyIndex.Builder() {
+      @Override
+      public void put(String key, UUID id) {
+        index.put(key, id);
+      }
+
+      @Override
+      public KeyIndex build() {
+        return index;
+      }
+    };
+  }
+
+  @Override
+  public UUID get(Object key) {
+    if (!(key instanceof String string)) {
+      return null;
+    }
+    var bytes = string.getBytes(UTF_8);
+    var node = root;
+    var pos = 0;
+    while (pos < bytes.length) {
+      var children = node.children();
+      var index = childIndex(children, bytes[pos]);
+      if (index < 0 || !startsWith(bytes, pos, children[index].label)) {
+        return null;
+      }
+      node = children[index];
+      pos += node.label.length;
+    }
+    return node.hasId() ? node.id() : null;
+  }
+
+  @Override
+  public synchronized UUID put(String key, UUID id) {
+    previous = null;
+    root = insert(root, key.getBytes(UTF_8), 0, id.getMostSignificantBits(),
+        id.getLeastSignificantBits());
+    return previous;
+  }
+
+  @Override
+  public synchronized UUID remove(Object key) {
+    if (!(key instanceof String string)) {
+      return null;
+    }
+    previous = null;
+    root = delete(root, string.getBytes(UTF_8), 0, true);
+    return previous;
+  }
+
+  @Override
+  public synchronized void clear() {
+    root = new Inner(NO_BYTES, false, 0, 0, Node.NO_CHILDREN);
+  }
+
+  @Override
+  public int size() {
+    return root.count();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return root.count() == 0;
+  }
+
+  /**
+   * Counts the keys starting with {@code prefix} in O(depth).
+   */
+  @Override
+  public int count(String prefix) {
+    var bytes = prefix == null ? NO_BYTES : prefix.getBytes(UTF_8);
+    var node = root;
+    var pos = 0;
+    while (pos < bytes.length) {
+      var children = node.children();
+      var index = childIndex(children, bytes[pos]);
+      if (index < 0) {
+        return 0;
+      }
+      var child = children[index];
+      var common = commonPrefix(child.label, bytes, pos);
+      if (pos + common == bytes.length) {
+        //the prefix ends within or at the end of the edge, all keys below start with it
+        return child.count();
+      }
+      if (common < child.label.length) {
+        return 0;
+      }
+      node = child;
+      pos += common;
+    }
+    return node.count();
+  }
+
+  @Override
+  public Set<Map.Entry<String, UUID>> entrySet() {
+    return new AbstractSet<>() {
+      @Override
+      public Iterator<Map.Entry<String, UUID>> iterator() {
+        return new EntryIterator(root);
+      }
+
+      @Override
+      public int size() {
+        return RadixKeyIndex.this.size();
+      }
+    };
+  }
+
+  @Override
+  public Map.Entry<String, UUID> ceilingEntry(String key) {
+    return ceiling(root, key.getBytes(UTF_8), 0, true, new PathBuffer());
+  }
+
+  @Override
+  public Map.Entry<String, UUID> higherEntry(String key) {
+    return ceiling(root, key.getBytes(UTF_8), 0, false, new PathBuffer());
+  }
+
+  /**
+   * Finds the least key greater than (or equal to) {@code key} below {@code node}, whose path
+   * matches the first {@code pos} bytes of the key.
+   */
+  private static Map.Entry<String, UUID> ceiling(Node node, byte[] key, int pos,
+      boolean inclusive, PathBuffer path) {
+    var children = node.children();
+    if (pos == key.length) {
+      if (inclusive && node.hasId()) {
+        return path.entry(node);
+      }
+      //all keys below are longer and therefore greater
+      return children.length == 0 ? null : first(children[0], path);
+    }
+    var b = utf16Order(key[pos] & 0xff);
+    var length = path.length;
+    for (var i = lowerBound(children, b); i < children.length; i++) {
+      var child = children[i];
+      if (utf16Order(child.label[0] & 0xff) == b) {
+        var common = commonPrefix(child.label, key, pos);
+        if (common == child.label.length) {
+          path.append(child.label);
+          var found = ceiling(child, key, pos + common, inclusive, path);
+          if (found != null) {
+            return found;
+          }
+          path.length = length;
+          continue;
+        }
+        if (pos + common < key.length
+            && utf16Order(child.label[common] & 0xff) < utf16Order(key[pos + common] & 0xff)) {
+          //all keys below sort before the key
+          continue;
+        }
+      }
+      //all keys below sort after the key
+      return first(child, path);
+    }
+    return null;
+  }
+
+  /**
+   * The least key below and including {@code node}, whose edge is not yet part of the path.
+   */
+  private static Map.Entry<String, UUID> first(Node node, PathBuffer path) {
+    path.append(node.label);
+    while (!node.hasId()) {
+      node = node.children()[0];
+      path.append(node.label);
+    }
+    return path.entry(node);
+  }
+
+  private Node insert(Node node, byte[] key, int pos, long msb, long lsb) {
+    if (pos == key.length) {
+      if (node.hasId()) {
+        previous = node.id();
+      }
+      return node instanceof Inner ? new Inner(node.label, true, msb, lsb, node.children())
+          : new Node(node.label, msb, lsb);
+    }
+    var children = node.children();
+    var index = childIndex(children, key[pos]);
+    if (index < 0) {
+      var leaf = new Node(Arrays.copyOfRange(key, pos, key.length), msb, lsb);
+      children = insertAt(children, -index - 1, leaf);
+    } else {
+      var child = children[index];
+      var common = commonPrefix(child.label, key, pos);
+      children = replaceAt(children, index, common == child.label.length
+          ? insert(child, key, pos + common, msb, lsb)
+          : split(child, common, key, pos, msb, lsb));
+    }
+    return new Inner(node.label, node.hasId(), node.msb, node.lsb, children);
+  }
+
+  /**
+   * Splits the edge of {@code child} after {@code common} bytes, where the key diverges or ends.
+   */
+  private static Node split(Node child, int common, byte[] key, int pos, long msb, long lsb) {
+    var head = Arrays.copyOfRange(child.label, 0, common);
+    var tail = child.withLabel(Arrays.copyOfRange(child.label, common, child.label.length));
+    if (pos + common == key.length) {
+      return new Inner(head, true, msb, lsb, new Node[] {tail});
+    }
+    var leaf = new Node(Arrays.copyOfRange(key, pos + common, key.length), msb, lsb);
+    var children = utf16Order(tail.label[0] & 0xff) < utf16Order(leaf.label[0] & 0xff)
+        ? new Node[] {tail, leaf} : new Node[] {leaf, tail};
+    return new Inner(head, false, 0, 0, children);
+  }
+
+  /**
+   * Removes the key below {@code node}.
+   *
+   * @return the new node, {@code null} if no key is left below it, or {@code node} itself if the
+   *     key was not found.
+   */
+  private Node delete(Node node, byte[] key, int pos, boolean isRoot) {
+    if (pos == key.length) {
+      if (!node.hasId()) {
+        return node;
+      }
+      previous = node.id();
+      return compress(node.label, false, 0, 0, node.children(), isRoot);
+    }
+    var children = node.children();
+    var index = childIndex(children, key[pos]);
+    if (index < 0 || !startsWith(key, pos, children[index].label)) {
+      return node;
+    }
+    var child = children[index];
+    var changed = delete(child, key, pos + child.label.length, false);
+    if (changed == child) {
+      return node;
+    }
+    children = changed == null ? removeAt(children, index) : replaceAt(children, index, changed);
+    return compress(node.label, node.hasId(), node.msb, node.lsb, children, isRoot);
+  }
+
+  /**
+   * Creates the smallest node for the given content: nodes without key and children are
+   * dropped, nodes without key and a single child are merged with the child.
+   */
+  private static Node compress(byte[] label, boolean hasId, long msb, long lsb, Node[] children,
+      boolean isRoot) {
+    if (isRoot) {
+      return new Inner(label, hasId, msb, lsb, children);
+    }
+    if (children.length == 0) {
+      return hasId ? new Node(label, msb, lsb) : null;
+    }
+    if (!hasId && children.length == 1) {
+      var child = children[0];
+      var merged = Arrays.copyOf(label, label.length + child.label.length);
+      System.arraycopy(child.label, 0, merged, label.length, child.label.length);
+      return child.withLabel(merged);
+    }
+    return new Inner(label, hasId, msb, lsb, children);
+  }
+
+  /**
+   * Binary search for the child whose edge starts with {@code b}.
+   *
+   * @return the index of the child, or {@code -(insertion point) - 1}.
+   */
+  private static int childIndex(Node[] children, byte b) {
+    var order = utf16Order(b & 0xff);
+    var index = lowerBound(children, order);
+    return index < children.length && utf16Order(children[index].label[0] & 0xff) == order
+        ? index : -(index + 1);
+  }
+
+  /**
+   * The index of the first child whose edge starts with a byte ordered at or after {@code order}.
+   */
+  private static int lowerBound(Node[] children, int order) {
+    var low = 0;
+    var high = children.length;
+    while (low < high) {
+      var mid = (low + high) >>> 1;
+      if (utf16Order(children[mid].label[0] & 0xff) < order) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  private static int commonPrefix(byte[] label, byte[] key, int pos) {
+    var max = Math.min(label.length, key.length - pos);
+    var i = 0;
+    while (i < max && label[i] == key[pos + i]) {
+      i++;
+    }
+    return i;
+  }
+
+  private static boolean startsWith(byte[] key, int pos, byte[] label) {
+    return key.length - pos >= label.length
+        && Arrays.equals(key, pos, pos + label.length, label, 0, label.length);
+  }
+
+  private static Node[] insertAt(Node[] children, int index, Node child) {
+    var result = new Node[children.length + 1];
+    System.arraycopy(children, 0, result, 0, index);
+    result[index] = child;
+    System.arraycopy(children, index, result, index + 1, children.length - index);
+    return result;
+  }
+
+  private static Node[] replaceAt(Node[] children, int index, Node child) {
+    var result = children.clone();
+    result[index] = child;
+    return result;
+  }
+
+  private static Node[] removeAt(Node[] children, int index) {
+    var result = new Node[children.length - 1];
+    System.arraycopy(children, 0, result, 0, index);
+    System.arraycopy(children, index + 1, result, index, result.length - index);
+    return result;
+  }
+
+  /**
+   * A node with a key and without children, the most common node. Holds its edge and the
+   * object ID as two longs.
+   */
+  private static class Node {
+    static final Node[] NO_CHILDREN = new Node[0];
+
+    final byte[] label;
+    final long msb;
+    final long lsb;
+
+    Node(byte[] label, long msb, long lsb) {
+      this.label = label;
+      this.msb = msb;
+      this.lsb = lsb;
+    }
+
+    boolean hasId() {
+      return true;
+    }
+
+    UUID id() {
+      return new UUID(msb, lsb);
+    }
+
+    Node[] children() {
+      return NO_CHILDREN;
+    }
+
+    int count() {
+      return 1;
+    }
+
+    Node withLabel(byte[] label) {
+      return new Node(label, msb, lsb);
+    }
+  }
+
+  /**
+   * A node with children, and possibly a key.
+   */
+  private static final class Inner extends Node {
+    private final boolean hasId;
+    private final Node[] children;
+    private final int count;
+
+    Inner(byte[] label, boolean hasId, long msb, long lsb, Node[] children) {
+      super(label, msb, lsb);
+      this.hasId = hasId;
+      this.children = children;
+      var sum = hasId ? 1 : 0;
+      for (var child : children) {
+        sum += child.count();
+      }
+      this.count = sum;
+    }
+
+    @Override
+    boolean hasId() {
+      return hasId;
+    }
+
+    @Override
+    Node[] children() {
+      return children;
+    }
+
+    @Override
+    int count() {
+      return count;
+    }
+
+    @Override
+    Node withLabel(byte[] label) {
+      return new Inner(label, hasId, msb, lsb, children);
+    }
+  }
+
+  /**
+   * The UTF-8 bytes of the path from the root to a node.
+   */
+  private static final class PathBuffer {
+    private byte[] bytes = new byte[64];
+    private int length;
+
+    void append(byte[] label) {
+      if (bytes.length - length < label.length) {
+        bytes = Arrays.copyOf(bytes, Math.max(2 * bytes.length, length + label.length));
+      }
+      System.arraycopy(label, 0, bytes, length, label.length);
+      length += label.length;
+    }
+
+    Map.Entry<String, UUID> entry(Node node) {
+      return new SimpleImmutableEntry<>(new String(bytes, 0, length, UTF_8), node.id());
+    }
+  }
+
+  /**
+   * Iterates the tree as it was when the iterator was created, depth first in key order.
+   */
+  private static final class EntryIterator implements Iterator<Map.Entry<String, UUID>> {
+    private final ArrayDeque<Frame> stack = new ArrayDeque<>();
+    private final PathBuffer path = new PathBuffer();
+    private Map.Entry<String, UUID> next;
+
+    /**
+     * A node on the current path, the index of its next child to visit, -1 if its own key was
+     * not visited yet, and the length of the path up to and including its edge.
+     */
+    private static final class Frame {
+      private final Node node;
+      private final int pathLength;
+      private int next = -1;
+
+      Frame(Node node, int pathLength) {
+        this.node = node;
+        this.pathLength = pathLength;
+      }
+    }
+
+    EntryIterator(Node root) {
+      stack.push(new Frame(root, 0));
+      advance();
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next != null;
+    }
+
+    @Override
+    public Map.Entry<String, UUID> next() {
+      if (next == null) {
+        throw new NoSuchElementException();
+      }
+      var result = next;
+      advance();
+      return result;
+    }
+
+    private void advance() {
+      next = null;
+      while (!stack.isEmpty()) {
+        var frame = stack.peek();
+        path.length = frame.pathLength;
+        if (frame.next < 0) {
+          frame.next = 0;
+          if (frame.node.hasId()) {
+            next = path.entry(frame.node);
+            return;
+          }
+        }
+        var children = frame.node.children();
+        if (frame.next < children.length) {
+          var child = children[frame.next++];
+          path.append(child.label);
+          stack.push(new Frame(child, path.length));
+        } else {
+          stack.pop();
+        }
+      }
+    }
+  }
+}
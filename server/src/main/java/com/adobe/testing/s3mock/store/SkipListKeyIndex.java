@@ -0,0 +1,93 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.store;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * {@link KeyIndex} backed by a {@link ConcurrentSkipListMap}.
+ */
+final class SkipListKeyIndex extends KeyIndex {
+  private final ConcurrentSkipListMap<String, UUID> keys;
+
+  private SkipListKeyIndex(ConcurrentSkipListMap<String, UUID> keys) {
+    this.keys = keys;
+  }
+
+  static KeyIndex.Builder builder() {
+    var keys = new ConcurrentSkipListMap<String, UUID>();
+    return new KeyIndex.Builder() {
+      @Override
+      public void put(String key, UUID id) {
+        keys.put(key, id);
+      }
+
+      @Override
+      public KeyIndex build() {
+        return new SkipListKeyIndex(keys);
+      }
+    };
+  }
+
+  @Override
+  public UUID get(Object key) {
+    return keys.get(key);
+  }
+
+  @Override
+  public UUID put(String key, UUID id) {
+    return keys.put(key, id);
+  }
+
+  @Override
+  public UUID remove(Object key) {
+    return keys.remove(key);
+  }
+
+  @Override
+  public int size() {
+    return keys.size();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return keys.isEmpty();
+  }
+
+  @Override
+  public void clear() {
+    keys.clear();
+  }
+
+  @Override
+  public Set<Map.Entry<String, UUID>> entrySet() {
+    return keys.entrySet();
+  }
+
+  @Override
+  public Map.Entry<String, UUID> ceilingEntry(String key) {
+    return keys.ceilingEntry(key);
+  }
+
+  @Override
+  public Map.Entry<String, UUID> higherEntry(String key) {
+    return keys.higherEntry(key);
+  }
+}
@@ -19,9 +19,11 @@ package com.adobe.testing.s3mock.store;
 import static com.adobe.testing.s3mock.store.BucketStore.BUCKET_META_FILE;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
@@ -29,6 +31,7 @@ import java.util.List;
 import org.apache.commons.io.FileUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -44,23 +47,37 @@ public class StoreConfiguration {
 
   @Bean
   ObjectStore objectStore(StoreProperties properties, List<String> bucketNames,
-                          BucketStore bucketStore, ObjectMapper objectMapper) {
+                          BucketStore bucketStore, ObjectMapper objectMapper,
+                          StoreMetrics storeMetrics, ParallelIo parallelIo, Trash trash) {
     var objectStore = new ObjectStore(properties.retainFilesOnExit(),
-        S3_OBJECT_DATE_FORMAT, objectMapper);
-    for (var bucketName : bucketNames) {
-      var bucketMetadata = bucketStore.getBucketMetadata(bucketName);
-      if (bucketMetadata != null) {
-        objectStore.loadObjects(bucketMetadata, bucketMetadata.objects().values());
-      }
+        S3_OBJECT_DATE_FORMAT, objectMapper, storeMetrics, parallelIo, trash);
+    //objects are loaded on first access, verifying them takes long for large root folders
+    if (properties.verifyObjectsOnStartup() && !bucketNames.isEmpty()) {
+      var verifier = new StoreVerifier(bucketStore, objectStore, parallelIo.parallelism());
+      var verification = new Thread(() -> verifier.verify(bucketNames),
+          "s3mock-object-verification");
+      verification.setDaemon(true);
+      verification.start();
     }
     return objectStore;
   }
 
+  @Bean
+  ParallelIo parallelIo(StoreProperties properties) {
+    return new ParallelIo(properties.effectiveIoParallelism());
+  }
+
+  @Bean
+  Trash trash(StoreProperties properties, File rootFolder, StoreMetrics storeMetrics) {
+    return new Trash(rootFolder.toPath(), properties.retainFilesOnExit(), storeMetrics,
+        properties.trashReclaimRate());
+  }
+
   @Bean
   BucketStore bucketStore(StoreProperties properties, File rootFolder, List<String> bucketNames,
-                          ObjectMapper objectMapper) {
+                          ObjectMapper objectMapper, StoreMetrics storeMetrics, Trash trash) {
     var bucketStore = new BucketStore(rootFolder, properties.retainFilesOnExit(),
-        S3_OBJECT_DATE_FORMAT, objectMapper);
+        S3_OBJECT_DATE_FORMAT, objectMapper, storeMetrics, properties.keyIndex(), trash);
     //load existing buckets first
     bucketStore.loadBuckets(bucketNames);
 
@@ -83,30 +100,66 @@ public class StoreConfiguration {
     return bucketStore;
   }
 
+  @Bean
+  BucketIndexSnapshotter bucketIndexSnapshotter(StoreProperties properties,
+      BucketStore bucketStore) {
+    //snapshots are restored at the next startup, only useful if files are retained
+    return new BucketIndexSnapshotter(bucketStore, properties.retainFilesOnExit(),
+        properties.snapshotInterval());
+  }
+
   @Bean
   List<String> bucketNames(File rootFolder) {
-    var bucketNames = new ArrayList<String>();
-    try (var paths = Files.newDirectoryStream(rootFolder.toPath())) {
-      paths.forEach(
-          path -> {
-            var resolved = path.resolve(BUCKET_META_FILE);
-            if (resolved.toFile().exists()) {
-              bucketNames.add(path.getFileName().toString());
-            } else {
-              LOG.warn("Found bucket folder {} without {}", path, BUCKET_META_FILE);
-            }
-          }
-      );
+    var paths = new ArrayList<Path>();
+    //folders starting with a dot, like the trash, cannot be buckets
+    try (var directoryStream = Files.newDirectoryStream(rootFolder.toPath(),
+        path -> Files.isDirectory(path) && !path.getFileName().toString().startsWith("."))) {
+      directoryStream.forEach(paths::add);
     } catch (IOException e) {
       throw new IllegalStateException("Could not load buckets from data directory "
           + rootFolder, e);
     }
-    return bucketNames;
+    //checking the bucket folders in parallel speeds up startup on slow (network) volumes
+    return paths.parallelStream()
+        .filter(path -> {
+          var exists = Files.exists(path.resolve(BUCKET_META_FILE));
+          if (!exists) {
+            LOG.warn("Found bucket folder {} without {}", path, BUCKET_META_FILE);
+          }
+          return exists;
+        })
+        .map(path -> path.getFileName().toString())
+        .toList();
+  }
+
+  @Bean
+  MultipartStore multipartStore(StoreProperties properties, ObjectStore objectStore,
+                                StoreMetrics storeMetrics, ObjectMapper objectMapper,
+                                BucketStore bucketStore, List<String> bucketNames,
+                                Trash trash) {
+    var multipartStore = new MultipartStore(properties.retainFilesOnExit(), objectStore,
+        storeMetrics, objectMapper, trash);
+    //uploads in progress before a restart can be continued if files are retained
+    if (properties.retainFilesOnExit()) {
+      bucketNames.forEach(name ->
+          multipartStore.loadMultipartUploads(bucketStore.getBucketMetadata(name)));
+    }
+    return multipartStore;
+  }
+
+  /**
+   * Metrics of the stores' file system access, published to the application's
+   * {@link MeterRegistry} if there is one.
+   */
+  @Bean
+  StoreMetrics storeMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+    var registry = meterRegistry.getIfAvailable();
+    return registry != null ? new StoreMetrics(registry) : StoreMetrics.noop();
   }
 
   @Bean
-  MultipartStore multipartStore(StoreProperties properties, ObjectStore objectStore) {
-    return new MultipartStore(properties.retainFilesOnExit(), objectStore);
+  StoreLocksEndpoint storeLocksEndpoint(StoreMetrics storeMetrics) {
+    return new StoreLocksEndpoint(storeMetrics);
   }
 
   @Bean
@@ -0,0 +1,45 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.store;
+
+import com.adobe.testing.s3mock.store.StoreMetrics.ContendedKey;
+import java.util.List;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+
+/**
+ * Actuator endpoint listing the most contended store locks, e.g. object IDs that HEAD requests
+ * had to wait for while an upload to the same object was written.
+ * Exposed as "/actuator/storelocks", the number of keys can be limited with "?limit=".
+ */
+@Endpoint(id = "storelocks")
+public class StoreLocksEndpoint {
+
+  static final int DEFAULT_LIMIT = 20;
+
+  private final StoreMetrics storeMetrics;
+
+  public StoreLocksEndpoint(StoreMetrics storeMetrics) {
+    this.storeMetrics = storeMetrics;
+  }
+
+  @ReadOperation
+  public List<ContendedKey> contendedKeys(@Nullable Integer limit) {
+    return storeMetrics.contendedKeys(limit != null ? limit : DEFAULT_LIMIT);
+  }
+}
@@ -0,0 +1,259 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.store;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Records metrics of the stores' file system access: metadata (de-)serialization, object data
+ * bytes, digest computation, directory creation / deletion, files reclaimed from the
+ * {@link Trash} and the time spent waiting for per-key locks.
+ * Lock waits are additionally tracked per key, {@link #contendedKeys(int)} returns the keys
+ * threads waited for the longest.
+ */
+public class StoreMetrics {
+
+  static final String METADATA_READ = "s3mock.store.metadata.read";
+  static final String METADATA_WRITE = "s3mock.store.metadata.write";
+  static final String DATA_READ = "s3mock.store.data.read";
+  static final String DATA_WRITTEN = "s3mock.store.data.written";
+  static final String DIGEST = "s3mock.store.digest";
+  static final String LOCK_WAIT = "s3mock.store.lock.wait";
+  static final String DIRECTORIES_CREATED = "s3mock.store.directories.created";
+  static final String DIRECTORIES_DELETED = "s3mock.store.directories.deleted";
+  static final String TRASH_RECLAIMED = "s3mock.store.trash.reclaimed";
+
+  /**
+   * Upper bound of keys tracked for {@link #contendedKeys(int)}, keys contended after the limit was
+   * reached are only recorded in the {@value #LOCK_WAIT} timer.
+   */
+  static final int MAX_CONTENDED_KEYS = 10_000;
+
+  private final MeterRegistry registry;
+  private final Map<String, Timer> metadataReadTimers = new ConcurrentHashMap<>();
+  private final Map<String, Timer> metadataWriteTimers = new ConcurrentHashMap<>();
+  private final Map<String, Timer> lockWaitTimers = new ConcurrentHashMap<>();
+  private final Map<String, Counter> directoriesCreated = new ConcurrentHashMap<>();
+  private final Map<String, Counter> directoriesDeleted = new ConcurrentHashMap<>();
+  private final Map<Contention, ContentionStats> contendedKeys = new ConcurrentHashMap<>();
+  private final Counter dataRead;
+  private final Counter dataWritten;
+  private final Timer digest;
+  private final Counter trashReclaimed;
+
+  public StoreMetrics(MeterRegistry registry) {
+    this.registry = registry;
+    this.dataRead = Counter.builder(DATA_READ)
+        .description("Object data read from the stores, including data sent to clients")
+        .baseUnit("bytes")
+        .register(registry);
+    this.dataWritten = Counter.builder(DATA_WRITTEN)
+        .description("Object data written by the stores")
+        .baseUnit("bytes")
+        .register(registry);
+    this.digest = Timer.builder(DIGEST)
+        .description("Time taken to compute digests of object data")
+        .register(registry);
+    this.trashReclaimed = Counter.builder(TRASH_RECLAIMED)
+        .description("Files of deleted folders removed from the trash by the reclaimer")
+        .baseUnit("files")
+        .register(registry);
+  }
+
+  /**
+   * Metrics that are not published anywhere, used if no {@link MeterRegistry} is available.
+   */
+  public static StoreMetrics noop() {
+    return new StoreMetrics(new CompositeMeterRegistry());
+  }
+
+  /**
+   * Reads and deserializes a metadata file.
+   *
+   * @param type the type of metadata, e.g. "object" or "bucket".
+   */
+  <T> T readMetadata(String type, IoSupplier<T> read) throws IOException {
+    return record(metadataReadTimers.computeIfAbsent(type,
+        t -> metadataTimer(METADATA_READ, "Time taken to read and parse metadata files", t)), read);
+  }
+
+  /**
+   * Serializes and writes a metadata file.
+   *
+   * @param type the type of metadata, e.g. "object" or "bucket".
+   */
+  void writeMetadata(String type, IoRunnable write) throws IOException {
+    record(metadataWriteTimers.computeIfAbsent(type,
+        t -> metadataTimer(METADATA_WRITE, "Time taken to serialize and write metadata files", t)),
+        () -> {
+          write.run();
+          return null;
+        });
+  }
+
+  <T> T digest(Supplier<T> digest) {
+    return this.digest.record(digest);
+  }
+
+  /**
+   * Records object data read from the stores, by copies or when it is streamed to a client.
+   */
+  public void dataRead(long bytes) {
+    dataRead.increment(bytes);
+  }
+
+  void dataWritten(long bytes) {
+    dataWritten.increment(bytes);
+  }
+
+  void directoryCreated(String store) {
+    directoriesCreated.computeIfAbsent(store,
+        s -> directoryCounter(DIRECTORIES_CREATED, "Directories created by the stores", s))
+        .increment();
+  }
+
+  void directoryDeleted(String store) {
+    directoriesDeleted.computeIfAbsent(store,
+        s -> directoryCounter(DIRECTORIES_DELETED, "Directories deleted by the stores", s))
+        .increment();
+  }
+
+  void trashReclaimed() {
+    trashReclaimed.increment();
+  }
+
+  /**
+   * Records a lock acquisition, see {@link KeyLocks}.
+   *
+   * @param store the store owning the lock, e.g. "object" or "bucket".
+   * @param key the locked key.
+   * @param waitNanos the time spent waiting for another thread to release the lock.
+   */
+  void lockAcquired(String store, Object key, long waitNanos) {
+    lockWaitTimers.computeIfAbsent(store, s -> Timer.builder(LOCK_WAIT)
+            .description("Time spent waiting for store locks held by other threads")
+            .tag("store", s)
+            .publishPercentileHistogram()
+            .register(registry))
+        .record(waitNanos, TimeUnit.NANOSECONDS);
+    if (waitNanos == 0) {
+      return;
+    }
+    var contention = new Contention(store, String.valueOf(key));
+    var stats = contendedKeys.get(contention);
+    if (stats == null) {
+      if (contendedKeys.size() >= MAX_CONTENDED_KEYS) {
+        return;
+      }
+      stats = contendedKeys.computeIfAbsent(contention, c -> new ContentionStats());
+    }
+    stats.record(waitNanos);
+  }
+
+  /**
+   * Returns the keys threads waited for the longest in total, most contended first.
+   *
+   * @param limit maximum number of keys to return.
+   */
+  public List<ContendedKey> contendedKeys(int limit) {
+    return contendedKeys.entrySet()
+        .stream()
+        .map(entry -> entry.getValue().toContendedKey(entry.getKey()))
+        .sorted(Comparator.comparing(ContendedKey::totalWait).reversed())
+        .limit(limit)
+        .toList();
+  }
+
+  private Timer metadataTimer(String name, String description, String type) {
+    return Timer.builder(name)
+        .description(description)
+        .tag("type", type)
+        .register(registry);
+  }
+
+  private Counter directoryCounter(String name, String description, String store) {
+    return Counter.builder(name)
+        .description(description)
+        .tag("store", store)
+        .register(registry);
+  }
+
+  private static <T> T record(Timer timer, IoSupplier<T> supplier) throws IOException {
+    var start = System.nanoTime();
+    try {
+      return supplier.get();
+    } finally {
+      timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  @FunctionalInterface
+  interface IoSupplier<T> {
+    T get() throws IOException;
+  }
+
+  @FunctionalInterface
+  interface IoRunnable {
+    void run() throws IOException;
+  }
+
+  /**
+   * Lock waits for a single key.
+   *
+   * @param store the store owning the lock, e.g. "object" or "bucket".
+   * @param key the locked key, e.g. the object ID or bucket name.
+   * @param waits number of times a thread had to wait for the lock.
+   * @param totalWait accumulated time threads waited for the lock.
+   * @param maxWait longest time a thread waited for the lock.
+   */
+  public record ContendedKey(String store, String key, long waits, Duration totalWait,
+                             Duration maxWait) {
+  }
+
+  private record Contention(String store, String key) {
+  }
+
+  private static final class ContentionStats {
+    private final LongAdder waits = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+
+    private void record(long waitNanos) {
+      waits.increment();
+      totalWaitNanos.add(waitNanos);
+      maxWaitNanos.accumulate(waitNanos);
+    }
+
+    private ContendedKey toContendedKey(Contention contention) {
+      return new ContendedKey(contention.store(), contention.key(), waits.sum(),
+          Duration.ofNanos(totalWaitNanos.sum()), Duration.ofNanos(maxWaitNanos.get()));
+    }
+  }
+}
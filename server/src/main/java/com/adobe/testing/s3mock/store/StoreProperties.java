@@ -16,6 +16,7 @@
 
 package com.adobe.testing.s3mock.store;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Set;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -32,7 +33,37 @@ public record StoreProperties(
     Set<String> validKmsKeys,
     // A comma separated list of buckets that are to be created at startup.
     @DefaultValue
-    List<String> initialBuckets
+    List<String> initialBuckets,
+    // True to read the metadata of all objects of an existing root folder in the background
+    // after startup, logging missing or unreadable objects. Objects are loaded on first access.
+    boolean verifyObjectsOnStartup,
+    // With retainFilesOnExit, the interval in which a snapshot of all buckets' keys is written
+    // in addition to the one written on shutdown, restored at startup. Zero to disable.
+    @DefaultValue("5m")
+    Duration snapshotInterval,
+    // Maximum number of metadata files read or objects deleted concurrently by one request, for
+    // listings of objects not kept in memory, DeleteObjects and verifyObjectsOnStartup.
+    // Zero to use twice the number of CPU cores, at least 4.
+    int ioParallelism,
+    // The index holding the keys of each bucket in memory: skip-list, compact for a fraction
+    // of the memory at the cost of slower writes, or radix to share common key prefixes.
+    @DefaultValue("skip-list")
+    KeyIndex.Type keyIndex,
+    // Deleted objects, multipart uploads and buckets are moved to a trash folder in the root
+    // folder and deleted in the background, deleting at most this many files per second.
+    // Zero for no limit.
+    @DefaultValue("1000")
+    int trashReclaimRate
 ) {
 
+  /**
+   * The configured {@link #ioParallelism()} or, if not configured, twice the number of CPU cores,
+   * at least 4: the threads mostly wait for the disk.
+   */
+  int effectiveIoParallelism() {
+    return ioParallelism > 0
+        ? ioParallelism
+        : Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+  }
+
 }
@@ -0,0 +1,231 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.store;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Verifies the buckets and objects of an existing root folder.
+ * Buckets and shards of their objects are verified in parallel on a {@link ForkJoinPool},
+ * progress is logged periodically, inconsistencies are logged and counted:
+ * <ul>
+ *   <li>keys in the bucket metadata whose object metadata is missing or unreadable,</li>
+ *   <li>object folders that no key in the bucket metadata refers to.</li>
+ * </ul>
+ * Keys of in-progress multipart uploads have no object metadata until the upload is completed,
+ * they are recognized by the parts folder of the upload in their object folder and counted
+ * separately. The {@link MultipartStore} does not exist yet when the verification starts.
+ */
+class StoreVerifier {
+  private static final Logger LOG = LoggerFactory.getLogger(StoreVerifier.class);
+  private static final int SHARD_SIZE = 1_000;
+  private static final long PROGRESS_INTERVAL_NANOS = Duration.ofSeconds(10).toNanos();
+
+  private final BucketStore bucketStore;
+  private final ObjectStore objectStore;
+  private final int parallelism;
+
+  /**
+   * Creates a verifier.
+   *
+   * @param parallelism number of threads reading metadata files.
+   */
+  StoreVerifier(BucketStore bucketStore, ObjectStore objectStore, int parallelism) {
+    this.bucketStore = bucketStore;
+    this.objectStore = objectStore;
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * Verifies the given buckets, blocking until all are verified.
+   */
+  Summary verify(List<String> bucketNames) {
+    var start = System.nanoTime();
+    var run = new Run(start);
+    var pool = new ForkJoinPool(parallelism, StoreVerifier::newThread, null, false);
+    try {
+      pool.submit(() -> ForkJoinTask.invokeAll(bucketNames.stream()
+              .map(bucketName -> ForkJoinTask.adapt(() -> verifyBucket(bucketName, run)))
+              .toList()))
+          .join();
+    } finally {
+      pool.shutdown();
+    }
+    var summary = run.summary(Duration.ofNanos(System.nanoTime() - start));
+    if (summary.inconsistencies() > 0) {
+      LOG.warn("Verified store with inconsistencies: {}", summary);
+    } else {
+      LOG.info("Verified store: {}", summary);
+    }
+    return summary;
+  }
+
+  private void verifyBucket(String bucketName, Run run) {
+    BucketMetadata bucketMetadata;
+    try {
+      bucketMetadata = bucketStore.getBucketMetadata(bucketName);
+    } catch (RuntimeException e) {
+      //e.g. the bucket was deleted in the meantime
+      LOG.warn("Could not verify bucket {}", bucketName, e);
+      return;
+    }
+    if (bucketMetadata == null) {
+      return;
+    }
+    var ids = List.copyOf(bucketMetadata.objects().values());
+    run.buckets.increment();
+    run.objects.add(ids.size());
+
+    var tasks = new ArrayList<ForkJoinTask<?>>();
+    tasks.add(ForkJoinTask.adapt(() -> findOrphanFolders(bucketMetadata, ids, run)));
+    for (var from = 0; from < ids.size(); from += SHARD_SIZE) {
+      var shard = ids.subList(from, Math.min(from + SHARD_SIZE, ids.size()));
+      tasks.add(ForkJoinTask.adapt(() -> verifyObjects(bucketMetadata, shard, run)));
+    }
+    ForkJoinTask.invokeAll(tasks);
+  }
+
+  private void verifyObjects(BucketMetadata bucketMetadata, List<UUID> ids, Run run) {
+    for (var id : ids) {
+      try {
+        if (objectStore.getS3ObjectMetadata(bucketMetadata, id) != null) {
+          run.verified.increment();
+        } else if (hasUpload(bucketMetadata, id)) {
+          run.uploads.increment();
+        } else if (objectStore.getS3ObjectMetadata(bucketMetadata, id) != null) {
+          //the upload was completed in the meantime
+          run.verified.increment();
+        } else {
+          run.missingMetadata.increment();
+          LOG.warn("Missing metadata of object {} in bucket {}", id, bucketMetadata.name());
+        }
+      } catch (IllegalArgumentException e) {
+        run.unreadableMetadata.increment();
+        LOG.warn("Unreadable metadata of object {} in bucket {}", id, bucketMetadata.name(), e);
+      }
+    }
+    run.progress();
+  }
+
+  /**
+   * Whether the object folder contains the parts folder of a multipart upload.
+   */
+  private static boolean hasUpload(BucketMetadata bucketMetadata, UUID id) {
+    try (var folders = Files.newDirectoryStream(bucketMetadata.path().resolve(id.toString()),
+        Files::isDirectory)) {
+      return folders.iterator().hasNext();
+    } catch (IOException e) {
+      //e.g. no object folder
+      return false;
+    }
+  }
+
+  private void findOrphanFolders(BucketMetadata bucketMetadata, List<UUID> ids, Run run) {
+    var known = new HashSet<>(ids);
+    try (var paths = Files.newDirectoryStream(bucketMetadata.path(), Files::isDirectory)) {
+      for (var path : paths) {
+        var id = objectId(path);
+        if (id != null && !known.contains(id)) {
+          run.orphanFolders.increment();
+          LOG.warn("Orphan object folder {} in bucket {}", path, bucketMetadata.name());
+        }
+      }
+    } catch (IOException e) {
+      LOG.warn("Could not list folders of bucket {}", bucketMetadata.name(), e);
+    }
+  }
+
+  private static UUID objectId(Path path) {
+    try {
+      return UUID.fromString(path.getFileName().toString());
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  private static ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+    var thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+    thread.setName("s3mock-verification-" + thread.getPoolIndex());
+    return thread;
+  }
+
+  /**
+   * Counters of one verification.
+   */
+  private static final class Run {
+    private final LongAdder buckets = new LongAdder();
+    private final LongAdder objects = new LongAdder();
+    private final LongAdder verified = new LongAdder();
+    private final LongAdder uploads = new LongAdder();
+    private final LongAdder missingMetadata = new LongAdder();
+    private final LongAdder unreadableMetadata = new LongAdder();
+    private final LongAdder orphanFolders = new LongAdder();
+    private final AtomicLong nextProgress;
+
+    private Run(long start) {
+      nextProgress = new AtomicLong(start + PROGRESS_INTERVAL_NANOS);
+    }
+
+    private void progress() {
+      var now = System.nanoTime();
+      var next = nextProgress.get();
+      if (now >= next && nextProgress.compareAndSet(next, now + PROGRESS_INTERVAL_NANOS)) {
+        LOG.info("Verifying store: {}/{} objects of {} buckets verified", verified.sum(),
+            objects.sum(), buckets.sum());
+      }
+    }
+
+    private Summary summary(Duration duration) {
+      return new Summary(buckets.sum(), objects.sum(), verified.sum(), uploads.sum(),
+          missingMetadata.sum(), unreadableMetadata.sum(), orphanFolders.sum(), duration);
+    }
+  }
+
+  /**
+   * Result of a verification.
+   *
+   * @param buckets number of verified buckets.
+   * @param objects number of keys in the bucket metadata.
+   * @param verified number of keys with readable object metadata.
+   * @param uploads number of keys of in-progress multipart uploads, without object metadata.
+   * @param missingMetadata number of keys without object metadata.
+   * @param unreadableMetadata number of keys whose object metadata could not be read.
+   * @param orphanFolders number of object folders no key refers to.
+   * @param duration time the verification took.
+   */
+  record Summary(long buckets, long objects, long verified, long uploads, long missingMetadata,
+                 long unreadableMetadata, long orphanFolders, Duration duration) {
+
+    long inconsistencies() {
+      return missingMetadata + unreadableMetadata + orphanFolders;
+    }
+  }
+}
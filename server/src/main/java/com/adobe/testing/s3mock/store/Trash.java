@@ -0,0 +1,204 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.store;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.FileSystemException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Deletes folders of objects, multipart uploads and buckets in constant time, independent of
+ * the number and size of the files in them: folders are renamed into the trash folder
+ * {@value #FOLDER} of the root folder and deleted by a background reclaimer.
+ * The reclaimer deletes at most a configured number of files per second, so reclaiming large
+ * folders does not compete with requests for the disk.
+ * Folders left in the trash by a previous run are reclaimed after startup.
+ */
+public final class Trash implements AutoCloseable {
+  private static final Logger LOG = LoggerFactory.getLogger(Trash.class);
+  static final String FOLDER = ".trash";
+
+  private final Path folder;
+  private final boolean retainFilesOnExit;
+  private final StoreMetrics metrics;
+  private final long nanosPerFile;
+  private final BlockingQueue<Path> pending = new LinkedBlockingQueue<>();
+  private final Thread reclaimer;
+  /**
+   * The earliest time the reclaimer deletes the next file, only accessed by the reclaimer.
+   */
+  private long nextDeletion = System.nanoTime();
+
+  /**
+   * Creates the trash folder and starts the reclaimer.
+   *
+   * @param rootFolder the root folder the trash folder is created in, folders moved to the trash
+   *     must be on the same file system.
+   * @param filesPerSecond maximum number of files the reclaimer deletes per second, zero or
+   *     negative for no limit.
+   */
+  public Trash(Path rootFolder, boolean retainFilesOnExit, StoreMetrics metrics,
+      int filesPerSecond) {
+    this.folder = rootFolder.resolve(FOLDER);
+    this.retainFilesOnExit = retainFilesOnExit;
+    this.metrics = metrics;
+    this.nanosPerFile = filesPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / filesPerSecond : 0;
+    try {
+      Files.createDirectories(folder);
+      try (var leftovers = Files.newDirectoryStream(folder)) {
+        leftovers.forEach(pending::add);
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not create trash folder " + folder, e);
+    }
+    if (!retainFilesOnExit) {
+      folder.toFile().deleteOnExit();
+    }
+    this.reclaimer = new Thread(this::reclaim, "s3mock-trash-reclaimer");
+    this.reclaimer.setDaemon(true);
+    this.reclaimer.start();
+  }
+
+  private Trash(StoreMetrics metrics) {
+    this.folder = null;
+    this.retainFilesOnExit = true;
+    this.metrics = metrics;
+    this.nanosPerFile = 0;
+    this.reclaimer = null;
+  }
+
+  /**
+   * Deletes folders right away, on the calling thread.
+   */
+  public static Trash immediate(StoreMetrics metrics) {
+    return new Trash(metrics);
+  }
+
+  /**
+   * Deletes a folder and all of its contents.
+   * The folder is moved to the trash and deleted in the background. If it cannot be moved, e.g.
+   * because it is on a different file system or a file in it is open on Windows, it is deleted
+   * right away.
+   *
+   * @param directory the folder to delete, nothing happens if it does not exist.
+   * @param store the store the folder belongs to, e.g. "object" or "bucket".
+   */
+  void delete(Path directory, String store) throws IOException {
+    if (!Files.exists(directory)) {
+      return;
+    }
+    if (folder == null) {
+      FileUtils.deleteDirectory(directory.toFile());
+    } else {
+      var trashed = folder.resolve(UUID.randomUUID().toString());
+      try {
+        Files.move(directory, trashed, StandardCopyOption.ATOMIC_MOVE);
+        pending.add(trashed);
+      } catch (NoSuchFileException e) {
+        //deleted concurrently
+        return;
+      } catch (FileSystemException e) {
+        FileUtils.deleteDirectory(directory.toFile());
+      }
+    }
+    metrics.directoryDeleted(store);
+  }
+
+  @Override
+  public void close() throws InterruptedException {
+    if (reclaimer == null) {
+      return;
+    }
+    reclaimer.interrupt();
+    reclaimer.join(TimeUnit.SECONDS.toMillis(10));
+    if (!retainFilesOnExit) {
+      //the files in the trash moved out of the folders deleted on exit
+      FileUtils.deleteQuietly(folder.toFile());
+    }
+  }
+
+  private void reclaim() {
+    try {
+      while (true) {
+        var trashed = pending.take();
+        try {
+          deleteThrottled(trashed);
+        } catch (InterruptedIOException e) {
+          return;
+        } catch (IOException e) {
+          LOG.warn("Could not reclaim {}, retrying after the next restart.", trashed, e);
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void deleteThrottled(Path trashed) throws IOException {
+    Files.walkFileTree(trashed, new SimpleFileVisitor<>() {
+      @Override
+      public FileVisitResult visitFile(Path file, BasicFileAttributes attributes)
+          throws IOException {
+        throttle();
+        Files.delete(file);
+        metrics.trashReclaimed();
+        return FileVisitResult.CONTINUE;
+      }
+
+      @Override
+      public FileVisitResult postVisitDirectory(Path directory, IOException e)
+          throws IOException {
+        if (e != null) {
+          throw e;
+        }
+        Files.delete(directory);
+        return FileVisitResult.CONTINUE;
+      }
+    });
+  }
+
+  private void throttle() throws InterruptedIOException {
+    if (nanosPerFile == 0) {
+      return;
+    }
+    var now = System.nanoTime();
+    var wait = nextDeletion - now;
+    if (wait > 0) {
+      try {
+        TimeUnit.NANOSECONDS.sleep(wait);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while reclaiming trash");
+      }
+    }
+    nextDeletion = Math.max(nextDeletion - now, 0) + now + nanosPerFile;
+  }
+}
@@ -34,7 +34,9 @@ public class AwsHttpParameters {
   public static final String VERSIONS = "versions";
   public static final String NOT_VERSIONS = "!versions";
   public static final String NOT_LIST_TYPE = "!list-type";
+  public static final String MAX_BUCKETS = "max-buckets";
   public static final String MAX_KEYS = "max-keys";
+  public static final String MAX_UPLOADS = "max-uploads";
   public static final String PART_NUMBER = "partNumber";
   public static final String START_AFTER = "start-after";
   public static final String TAGGING = "tagging";
@@ -43,6 +45,7 @@ public class AwsHttpParameters {
   public static final String NOT_UPLOADS = NOT + UPLOADS;
 
   public static final String UPLOAD_ID = "uploadId";
+  public static final String UPLOAD_ID_MARKER = "upload-id-marker";
   public static final String NOT_UPLOAD_ID = NOT + UPLOAD_ID;
 
   public static final String LEGAL_HOLD = "legal-hold";
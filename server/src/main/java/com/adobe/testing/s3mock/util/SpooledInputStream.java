@@ -0,0 +1,34 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package com.adobe.testing.s3mock.util;
+
+import java.nio.file.Path;
+
+/**
+ * Implemented by InputStreams whose data was received completely into a file before it is read,
+ * like request bodies received with non-blocking I/O.
+ * Consumers may read the file directly, or move it instead of copying the stream into another
+ * file. The stream must not be read anymore once the file was moved.
+ */
+public interface SpooledInputStream {
+
+  /**
+   * The file holding the complete data of the stream.
+   */
+  Path spoolFile();
+}
@@ -95,7 +95,7 @@ class BucketControllerTest extends BaseControllerTest {
       new Bucket(Paths.get("/tmp/foo/2"), "test-bucket1", Instant.now().toString())
     );
     var expected = new ListAllMyBucketsResult(TEST_OWNER, new Buckets(bucketList));
-    when(bucketService.listBuckets()).thenReturn(expected);
+    when(bucketService.listBuckets(null, null)).thenReturn(expected);
 
     var headers = new HttpHeaders();
     headers.setAccept(List.of(APPLICATION_XML));
@@ -113,7 +113,7 @@ class BucketControllerTest extends BaseControllerTest {
   @Test
   void testListBuckets_Empty() throws Exception {
     var expected = new ListAllMyBucketsResult(TEST_OWNER, new Buckets(Collections.emptyList()));
-    when(bucketService.listBuckets()).thenReturn(expected);
+    when(bucketService.listBuckets(null, null)).thenReturn(expected);
 
     var headers = new HttpHeaders();
     headers.setAccept(List.of(APPLICATION_XML));
@@ -128,6 +128,26 @@ class BucketControllerTest extends BaseControllerTest {
     assertThat(response.getBody()).isEqualTo(MAPPER.writeValueAsString(expected));
   }
 
+  @Test
+  void testListBuckets_Page() throws Exception {
+    var expected = new ListAllMyBucketsResult(TEST_OWNER, new Buckets(List.of(TEST_BUCKET)),
+        "next-token");
+    when(bucketService.listBuckets(1, "token")).thenReturn(expected);
+
+    var headers = new HttpHeaders();
+    headers.setAccept(List.of(APPLICATION_XML));
+    headers.setContentType(APPLICATION_XML);
+    var response = restTemplate.exchange(
+        "/?max-buckets=1&continuation-token=token",
+        HttpMethod.GET,
+        new HttpEntity<>(headers),
+        String.class
+    );
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(response.getBody()).isEqualTo(MAPPER.writeValueAsString(expected));
+    assertThat(response.getBody()).contains("<ContinuationToken>next-token</ContinuationToken>");
+  }
+
   @Test
   void testHeadBucket_Ok() {
     when(bucketService.doesBucketExist(TEST_BUCKET_NAME)).thenReturn(true);
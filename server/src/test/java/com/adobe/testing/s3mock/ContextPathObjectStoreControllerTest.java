@@ -69,7 +69,7 @@ class ContextPathObjectStoreControllerTest extends BaseControllerTest {
     );
     var expected =
         new ListAllMyBucketsResult(TEST_OWNER, new Buckets(bucketList));
-    when(bucketService.listBuckets()).thenReturn(expected);
+    when(bucketService.listBuckets(null, null)).thenReturn(expected);
 
     var headers = new HttpHeaders();
     headers.setAccept(List.of(APPLICATION_XML));
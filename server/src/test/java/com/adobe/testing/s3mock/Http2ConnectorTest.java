@@ -0,0 +1,124 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.adobe.testing.s3mock.store.KmsKeyStore;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.cert.X509Certificate;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509ExtendedTrustManager;
+import org.eclipse.jetty.http2.server.HTTP2CServerConnectionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+
+@MockBean(classes = {KmsKeyStore.class,
+    ObjectController.class,
+    BucketController.class,
+    MultipartController.class
+})
+@SpringBootTest(properties = {"server.http2.enabled=true",
+    "server.ssl.key-store=" + S3MockApplication.DEFAULT_SERVER_SSL_KEY_STORE,
+    "server.ssl.key-store-password=" + S3MockApplication.DEFAULT_SERVER_SSL_KEY_STORE_PASSWORD,
+    "server.ssl.key-alias=" + S3MockApplication.DEFAULT_SERVER_SSL_KEY_ALIAS,
+    "server.ssl.key-password=" + S3MockApplication.DEFAULT_SERVER_SSL_KEY_PASSWORD,
+    "com.adobe.testing.s3mock.http2MaxConcurrentStreams=42"},
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class Http2ConnectorTest {
+  @LocalServerPort
+  private int port;
+  @Autowired
+  private S3MockConfiguration configuration;
+
+  @Test
+  void testH2_httpsConnector() throws Exception {
+    var response = getFavicon(URI.create("https://localhost:" + port + "/favicon.ico"));
+
+    assertThat(response.statusCode()).isEqualTo(HttpStatus.OK.value());
+    assertThat(response.version()).isEqualTo(HttpClient.Version.HTTP_2);
+  }
+
+  @Test
+  void testH2c_httpConnector() throws Exception {
+    var connector = configuration.getHttpServerConnector();
+    assertThat(connector.getConnectionFactory(HTTP2CServerConnectionFactory.class))
+        .extracting(HTTP2CServerConnectionFactory::getMaxConcurrentStreams)
+        .isEqualTo(42);
+
+    var response = getFavicon(
+        URI.create("http://localhost:" + connector.getLocalPort() + "/favicon.ico"));
+
+    assertThat(response.statusCode()).isEqualTo(HttpStatus.OK.value());
+    assertThat(response.version()).isEqualTo(HttpClient.Version.HTTP_2);
+  }
+
+  private static HttpResponse<Void> getFavicon(URI uri) throws Exception {
+    var sslContext = SSLContext.getInstance("TLS");
+    sslContext.init(null, new TrustManager[] {new TrustAllManager()}, null);
+    var client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_2)
+        .sslContext(sslContext)
+        .build();
+    return client.send(HttpRequest.newBuilder(uri).build(),
+        HttpResponse.BodyHandlers.discarding());
+  }
+
+  /**
+   * S3Mock uses a self-signed certificate.
+   */
+  private static class TrustAllManager extends X509ExtendedTrustManager {
+    @Override
+    public void checkClientTrusted(X509Certificate[] chain, String authType) {
+    }
+
+    @Override
+    public void checkClientTrusted(X509Certificate[] chain, String authType, Socket socket) {
+    }
+
+    @Override
+    public void checkClientTrusted(X509Certificate[] chain, String authType, SSLEngine engine) {
+    }
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] chain, String authType) {
+    }
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] chain, String authType, Socket socket) {
+    }
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] chain, String authType, SSLEngine engine) {
+    }
+
+    @Override
+    public X509Certificate[] getAcceptedIssuers() {
+      return new X509Certificate[0];
+    }
+  }
+}
@@ -0,0 +1,275 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.when;
+import static org.springframework.http.MediaType.APPLICATION_OCTET_STREAM;
+import static org.springframework.http.MediaType.APPLICATION_XML;
+
+import com.adobe.testing.s3mock.dto.Bucket;
+import com.adobe.testing.s3mock.dto.StorageClass;
+import com.adobe.testing.s3mock.service.BucketService;
+import com.adobe.testing.s3mock.service.MultipartService;
+import com.adobe.testing.s3mock.service.ObjectService;
+import com.adobe.testing.s3mock.store.KmsKeyStore;
+import com.adobe.testing.s3mock.store.S3ObjectMetadata;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.MockBeans;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.web.embedded.jetty.JettyWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+
+@MockBeans({@MockBean(classes = {KmsKeyStore.class, MultipartService.class,
+    BucketController.class, MultipartController.class})})
+@SpringBootTest(properties = {"com.adobe.testing.s3mock.nonBlockingIo=true"},
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class NonBlockingIoObjectControllerTest extends BaseControllerTest {
+  private static final String TEST_BUCKET_NAME = "test-bucket";
+  private static final Bucket TEST_BUCKET =
+      new Bucket(Paths.get("/tmp/foo/1"), TEST_BUCKET_NAME, Instant.now().toString());
+  //larger than the in-memory threshold, request bodies are spooled to a file.
+  private static final int CONTENT_SIZE = AsyncRequestBodyFilter.IN_MEMORY_THRESHOLD * 2 + 17;
+  private static final int SLOW_UPLOADS = 16;
+
+  @MockBean
+  private ObjectService objectService;
+  @MockBean
+  private BucketService bucketService;
+  @Autowired
+  private TestRestTemplate restTemplate;
+  @Autowired
+  private ServletWebServerApplicationContext context;
+  @Autowired
+  private MeterRegistry meterRegistry;
+  @LocalServerPort
+  private int port;
+
+  //small bodies are kept in memory by the AsyncRequestBodyFilter, larger ones are spooled.
+  @ParameterizedTest
+  @ValueSource(ints = {AsyncRequestBodyFilter.IN_MEMORY_THRESHOLD, CONTENT_SIZE})
+  void testPutObject_Ok(int size, @TempDir Path tempDir) throws Exception {
+    givenBucket();
+    var key = "largeFile";
+    var received = new AtomicReference<byte[]>();
+    when(objectService.verifyMd5(any(InputStream.class), isNull(), isNull()))
+        .thenAnswer(invocation -> {
+          received.set(invocation.getArgument(0, InputStream.class).readAllBytes());
+          return null;
+        });
+    when(objectService.putS3Object(any(), any(), any(), any(), any(), any(Boolean.class), any(),
+        any(), any(), any(), any(), any(), any()))
+        .thenReturn(s3ObjectMetadata(key, tempDir.resolve(key)));
+
+    var headers = new HttpHeaders();
+    headers.setAccept(List.of(APPLICATION_XML));
+    headers.setContentType(APPLICATION_OCTET_STREAM);
+    var content = randomBytes(size);
+    var response = restTemplate.exchange("/test-bucket/" + key,
+        HttpMethod.PUT,
+        new HttpEntity<>(content, headers),
+        String.class
+    );
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(received.get()).isEqualTo(content);
+  }
+
+  @ParameterizedTest
+  @ValueSource(booleans = {false, true})
+  void testPutObject_slowUploadsDoNotOccupyThreads(boolean chunked, @TempDir Path tempDir)
+      throws Exception {
+    givenBucket();
+    var key = "largeFile";
+    when(objectService.verifyMd5(any(InputStream.class), isNull(), isNull()))
+        .thenAnswer(invocation -> invocation.getArgument(0, InputStream.class));
+    when(objectService.putS3Object(any(), any(), any(), any(), any(), any(Boolean.class), any(),
+        any(), any(), any(), any(), any(), any()))
+        .thenAnswer(invocation -> {
+          invocation.getArgument(4, InputStream.class).transferTo(OutputStream.nullOutputStream());
+          return s3ObjectMetadata(key, tempDir.resolve(key));
+        });
+    var threadPool = ((JettyWebServer) context.getWebServer()).getServer().getThreadPool();
+    var busyThreads = ((QueuedThreadPool) threadPool).getBusyThreads();
+    var content = randomBytes(CONTENT_SIZE);
+    var half = CONTENT_SIZE / 2;
+
+    var sockets = new ArrayList<Socket>();
+    try {
+      for (var i = 0; i < SLOW_UPLOADS; i++) {
+        var socket = new Socket("localhost", port);
+        sockets.add(socket);
+        var out = socket.getOutputStream();
+        out.write(("PUT /test-bucket/" + key + " HTTP/1.1\r\n"
+            + "Host: localhost\r\n"
+            + "Content-Type: application/octet-stream\r\n"
+            + (chunked
+                ? "Transfer-Encoding: chunked\r\n"
+                : "Content-Length: " + CONTENT_SIZE + "\r\n")
+            + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        writeBody(out, content, 0, half, chunked);
+      }
+      //the clients stall halfway, their uploads must not hold a request thread meanwhile.
+      Thread.sleep(500);
+      assertThat(((QueuedThreadPool) threadPool).getBusyThreads())
+          .isLessThan(busyThreads + SLOW_UPLOADS / 2);
+
+      for (var socket : sockets) {
+        var out = socket.getOutputStream();
+        writeBody(out, content, half, CONTENT_SIZE, chunked);
+        if (chunked) {
+          out.write("0\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+        }
+        out.flush();
+      }
+      for (var socket : sockets) {
+        var reader = new BufferedReader(
+            new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+        assertThat(reader.readLine()).isEqualTo("HTTP/1.1 200 OK");
+      }
+    } finally {
+      for (var socket : sockets) {
+        socket.close();
+      }
+    }
+  }
+
+  private static void writeBody(OutputStream out, byte[] content, int from, int to,
+      boolean chunked) throws IOException {
+    if (chunked) {
+      out.write((Integer.toHexString(to - from) + "\r\n").getBytes(StandardCharsets.US_ASCII));
+    }
+    out.write(content, from, to - from);
+    if (chunked) {
+      out.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+    }
+    out.flush();
+  }
+
+  @Test
+  void testGetObject_Ok(@TempDir Path tempDir) throws Exception {
+    givenBucket();
+    var key = "largeFile";
+    var content = randomBytes(CONTENT_SIZE);
+    var dataPath = Files.write(tempDir.resolve(key), content);
+    when(objectService.verifyObjectExists(TEST_BUCKET_NAME, key))
+        .thenReturn(s3ObjectMetadata(key, dataPath));
+    var dataRead = meterRegistry.counter("s3mock.store.data.read");
+    var before = dataRead.count();
+
+    var response = restTemplate.exchange("/test-bucket/" + key,
+        HttpMethod.GET,
+        new HttpEntity<>(new HttpHeaders()),
+        byte[].class
+    );
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(response.getHeaders().getETag()).isEqualTo("\"etag\"");
+    assertThat(response.getBody()).isEqualTo(content);
+    assertThat(dataRead.count() - before).isEqualTo(CONTENT_SIZE);
+  }
+
+  @Test
+  void testGetObject_Range_Ok(@TempDir Path tempDir) throws Exception {
+    givenBucket();
+    var key = "largeFile";
+    var content = randomBytes(CONTENT_SIZE);
+    var dataPath = Files.write(tempDir.resolve(key), content);
+    when(objectService.verifyObjectExists(TEST_BUCKET_NAME, key))
+        .thenReturn(s3ObjectMetadata(key, dataPath));
+    var headers = new HttpHeaders();
+    headers.setRange(List.of(HttpRange.createByteRange(100, 1_500_099)));
+    var dataRead = meterRegistry.counter("s3mock.store.data.read");
+    var before = dataRead.count();
+    var response = restTemplate.exchange("/test-bucket/" + key,
+        HttpMethod.GET,
+        new HttpEntity<>(headers),
+        byte[].class
+    );
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PARTIAL_CONTENT);
+    assertThat(response.getBody()).isEqualTo(Arrays.copyOfRange(content, 100, 1_500_100));
+    assertThat(dataRead.count() - before).isEqualTo(1_500_000);
+  }
+
+  void givenBucket() {
+    when(bucketService.getBucket(TEST_BUCKET_NAME)).thenReturn(TEST_BUCKET);
+    when(bucketService.doesBucketExist(TEST_BUCKET_NAME)).thenReturn(true);
+  }
+
+  private static byte[] randomBytes(int size) {
+    var content = new byte[size];
+    new Random().nextBytes(content);
+    return content;
+  }
+
+  private static S3ObjectMetadata s3ObjectMetadata(String key, Path dataPath) {
+    return new S3ObjectMetadata(
+        UUID.randomUUID(),
+        key,
+        Integer.toString(CONTENT_SIZE),
+        "1234",
+        "\"etag\"",
+        null,
+        1L,
+        dataPath,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        StorageClass.STANDARD
+    );
+  }
+}
@@ -55,6 +55,7 @@ import com.adobe.testing.s3mock.store.KmsKeyStore;
 import com.adobe.testing.s3mock.store.S3ObjectMetadata;
 import com.adobe.testing.s3mock.util.DigestUtil;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.io.File;
 import java.io.InputStream;
 import java.nio.file.Path;
@@ -76,6 +77,7 @@ import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.web.util.UriComponentsBuilder;
@@ -95,6 +97,8 @@ class ObjectControllerTest extends BaseControllerTest {
   private BucketService bucketService;
   @Autowired
   private TestRestTemplate restTemplate;
+  @Autowired
+  private MeterRegistry meterRegistry;
 
   @Test
   void testPutObject_Ok() throws Exception {
@@ -271,6 +275,32 @@ class ObjectControllerTest extends BaseControllerTest {
         .containsExactly(encryptionKey);
   }
 
+  @Test
+  void testGetObject_countsDataRead() {
+    givenBucket();
+    var key = "name";
+    var testFile = new File(UPLOAD_FILE_NAME);
+    var s3ObjectMetadata = s3ObjectMetadata(key, "digest");
+    when(objectService.verifyObjectExists(TEST_BUCKET_NAME, key))
+        .thenReturn(new S3ObjectMetadata(s3ObjectMetadata.id(), key,
+            Long.toString(testFile.length()), s3ObjectMetadata.modificationDate(),
+            s3ObjectMetadata.etag(), null, 1L, testFile.toPath(), null, null, null, null, null,
+            null, null, null, null, StorageClass.STANDARD));
+    var dataRead = meterRegistry.counter("s3mock.store.data.read");
+    var before = dataRead.count();
+
+    var response = restTemplate.getForEntity("/test-bucket/" + key, byte[].class);
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(dataRead.count() - before).isEqualTo(testFile.length());
+
+    var headers = new HttpHeaders();
+    headers.setRange(List.of(HttpRange.createByteRange(1, 4)));
+    response = restTemplate.exchange("/test-bucket/" + key, HttpMethod.GET,
+        new HttpEntity<>(headers), byte[].class);
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PARTIAL_CONTENT);
+    assertThat(dataRead.count() - before).isEqualTo(testFile.length() + 4);
+  }
+
   @Test
   void testHeadObject_Encrypted_Ok() {
     givenBucket();
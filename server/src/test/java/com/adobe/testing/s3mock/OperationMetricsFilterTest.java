@@ -0,0 +1,132 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock;
+
+import static com.adobe.testing.s3mock.S3Exception.NO_SUCH_BUCKET;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.when;
+import static org.springframework.http.MediaType.APPLICATION_XML;
+
+import com.adobe.testing.s3mock.dto.Buckets;
+import com.adobe.testing.s3mock.dto.ListAllMyBucketsResult;
+import com.adobe.testing.s3mock.dto.Owner;
+import com.adobe.testing.s3mock.service.BucketService;
+import com.adobe.testing.s3mock.service.MultipartService;
+import com.adobe.testing.s3mock.service.ObjectService;
+import com.adobe.testing.s3mock.store.KmsKeyStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+
+@MockBean(classes = {KmsKeyStore.class, ObjectService.class,
+    MultipartService.class, ObjectController.class, MultipartController.class})
+@AutoConfigureObservability(tracing = false)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class OperationMetricsFilterTest extends BaseControllerTest {
+
+  @MockBean
+  private BucketService bucketService;
+
+  @Autowired
+  private TestRestTemplate restTemplate;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Test
+  void testOperationMetrics_Ok() {
+    when(bucketService.listBuckets(null, null)).thenReturn(
+        new ListAllMyBucketsResult(new Owner("123", "s3-mock-file-store"),
+            new Buckets(Collections.emptyList())));
+    var timerCount = timerCount("ListBuckets", "200");
+    var bytesSent = counterCount(OperationMetricsFilter.BYTES_SENT, "operation", "ListBuckets");
+
+    var response = restTemplate.exchange(
+        "/",
+        HttpMethod.GET,
+        new HttpEntity<>(xmlHeaders()),
+        String.class
+    );
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+    assertThat(timerCount("ListBuckets", "200")).isEqualTo(timerCount + 1);
+    assertThat(counterCount(OperationMetricsFilter.BYTES_SENT, "operation", "ListBuckets"))
+        .isEqualTo(bytesSent + response.getBody().length());
+  }
+
+  @Test
+  void testOperationMetrics_Error() {
+    doThrow(NO_SUCH_BUCKET).when(bucketService).verifyBucketExists(anyString());
+    var errors = counterCount(OperationMetricsFilter.ERRORS,
+        "operation", "ListObjects", "code", "NoSuchBucket");
+
+    var response = restTemplate.exchange(
+        "/test-bucket",
+        HttpMethod.GET,
+        new HttpEntity<>(xmlHeaders()),
+        String.class
+    );
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+
+    assertThat(counterCount(OperationMetricsFilter.ERRORS,
+        "operation", "ListObjects", "code", "NoSuchBucket"))
+        .isEqualTo(errors + 1);
+    assertThat(timerCount("ListObjects", "404")).isPositive();
+  }
+
+  @Test
+  void testPrometheusEndpoint() {
+    restTemplate.exchange("/", HttpMethod.GET, new HttpEntity<>(xmlHeaders()), String.class);
+
+    var response = restTemplate.getForEntity("/actuator/prometheus", String.class);
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(response.getBody())
+        .contains("s3mock_operation_seconds_bucket{operation=\"ListBuckets\"");
+  }
+
+  private long timerCount(String operation, String status) {
+    var timer = meterRegistry.find(OperationMetricsFilter.OPERATION_TIMER)
+        .tags("operation", operation, "status", status)
+        .timer();
+    return timer == null ? 0 : timer.count();
+  }
+
+  private double counterCount(String name, String... tags) {
+    var counter = meterRegistry.find(name).tags(tags).counter();
+    return counter == null ? 0 : counter.count();
+  }
+
+  private static HttpHeaders xmlHeaders() {
+    var headers = new HttpHeaders();
+    headers.setAccept(List.of(APPLICATION_XML));
+    headers.setContentType(APPLICATION_XML);
+    return headers;
+  }
+}
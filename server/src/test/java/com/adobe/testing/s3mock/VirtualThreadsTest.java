@@ -0,0 +1,161 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock;
+
+import static org.assertj.core.api.Assertions.as;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.InstanceOfAssertFactories.STRING;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.adobe.testing.s3mock.dto.Bucket;
+import com.adobe.testing.s3mock.dto.StorageClass;
+import com.adobe.testing.s3mock.service.BucketService;
+import com.adobe.testing.s3mock.service.MultipartService;
+import com.adobe.testing.s3mock.service.ObjectService;
+import com.adobe.testing.s3mock.store.KmsKeyStore;
+import com.adobe.testing.s3mock.store.S3ObjectMetadata;
+import com.adobe.testing.s3mock.store.StoreMetrics;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import org.eclipse.jetty.util.VirtualThreads;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.embedded.jetty.JettyServletWebServerFactory;
+import org.springframework.boot.web.embedded.jetty.JettyWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+
+@MockBean(classes = {KmsKeyStore.class,
+    MultipartService.class,
+    BucketController.class,
+    MultipartController.class
+})
+@SpringBootTest(properties = {"com.adobe.testing.s3mock.virtualThreads=true"},
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class VirtualThreadsTest {
+  private static final String TEST_BUCKET_NAME = "test-bucket";
+  private static final Bucket TEST_BUCKET =
+      new Bucket(Paths.get("/tmp/foo/1"), TEST_BUCKET_NAME, Instant.now().toString());
+
+  @MockBean
+  private ObjectService objectService;
+  @MockBean
+  private BucketService bucketService;
+  @SpyBean
+  private StoreMetrics storeMetrics;
+  @Autowired
+  private TestRestTemplate restTemplate;
+  @Autowired
+  private ServletWebServerApplicationContext context;
+  @Autowired
+  private S3MockProperties properties;
+
+  @Test
+  void testGetObject_runsOnVirtualThreads(@TempDir Path tempDir) throws Exception {
+    assumeTrue(VirtualThreads.areSupported(), "virtual threads are not supported by this JVM");
+    var key = "key";
+    var dataPath = Files.write(tempDir.resolve(key), new byte[] {1, 2, 3});
+    var requestThread = new AtomicReference<ThreadInfo>();
+    var bodyThread = new AtomicReference<ThreadInfo>();
+    when(bucketService.getBucket(TEST_BUCKET_NAME)).thenReturn(TEST_BUCKET);
+    when(bucketService.doesBucketExist(TEST_BUCKET_NAME)).thenReturn(true);
+    when(objectService.verifyObjectExists(TEST_BUCKET_NAME, key))
+        .thenAnswer(invocation -> {
+          requestThread.set(ThreadInfo.current());
+          return s3ObjectMetadata(key, dataPath);
+        });
+    doAnswer(invocation -> {
+      bodyThread.set(ThreadInfo.current());
+      return invocation.callRealMethod();
+    }).when(storeMetrics).dataRead(anyLong());
+
+    var response = restTemplate.getForEntity("/test-bucket/" + key, byte[].class);
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(response.getBody()).containsExactly(1, 2, 3);
+    var threadPool = ((JettyWebServer) context.getWebServer()).getServer().getThreadPool();
+    assertThat(((QueuedThreadPool) threadPool).getVirtualThreadsExecutor()).isNotNull();
+    assertThat(requestThread.get().virtual()).isTrue();
+    assertThat(requestThread.get().name()).startsWith("s3mock-");
+    //the StreamingResponseBody is written by the async executor, not the request thread.
+    assertThat(bodyThread.get().virtual()).isTrue();
+    assertThat(bodyThread.get().name()).startsWith("s3mock-async-");
+  }
+
+  @Test
+  void testFallbackToPlatformThreads() {
+    assumeFalse(VirtualThreads.areSupported(), "virtual threads are supported by this JVM");
+    var threadPool = ((JettyWebServer) context.getWebServer()).getServer().getThreadPool();
+    assertThat(((QueuedThreadPool) threadPool).getVirtualThreadsExecutor()).isNull();
+
+    var logger = (Logger) LoggerFactory.getLogger(S3MockConfiguration.class);
+    var appender = new ListAppender<ILoggingEvent>();
+    appender.start();
+    logger.addAppender(appender);
+    try {
+      var configuration = new S3MockConfiguration(properties);
+      var factory = (JettyServletWebServerFactory) configuration.webServerFactory(properties);
+      var configurer = new AsyncSupportConfigurer();
+      configuration.configureAsyncSupport(configurer);
+
+      assertThat(factory.getThreadPool()).isNull();
+      assertThat(ReflectionTestUtils.getField(configurer, "taskExecutor")).isNull();
+      assertThat(appender.list)
+          .filteredOn(event -> event.getLevel() == Level.WARN)
+          .extracting(ILoggingEvent::getFormattedMessage)
+          .singleElement(as(STRING))
+          .startsWith("Virtual threads were requested but are not supported");
+    } finally {
+      logger.detachAppender(appender);
+    }
+  }
+
+  /**
+   * The thread code ran on, {@link VirtualThreads} can only inspect the current thread on JDK 17.
+   */
+  private record ThreadInfo(boolean virtual, String name) {
+    static ThreadInfo current() {
+      return new ThreadInfo(VirtualThreads.isVirtualThread(), Thread.currentThread().getName());
+    }
+  }
+
+  private static S3ObjectMetadata s3ObjectMetadata(String key, Path dataPath) {
+    return new S3ObjectMetadata(UUID.randomUUID(), key, "3", "1234", "\"etag\"", null, 1L,
+        dataPath, null, null, null, null, null, null, null, null, null, StorageClass.STANDARD);
+  }
+}
@@ -22,6 +22,8 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import com.ctc.wstx.api.WstxOutputProperties;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.fasterxml.jackson.dataformat.xml.XmlMapper;
 import com.fasterxml.jackson.dataformat.xml.deser.FromXmlParser;
 import com.fasterxml.jackson.dataformat.xml.ser.ToXmlGenerator;
@@ -32,6 +34,8 @@ import java.util.Objects;
 import org.apache.commons.io.FileUtils;
 import org.junit.jupiter.api.TestInfo;
 import org.xmlunit.assertj3.XmlAssert;
+import org.xmlunit.diff.ComparisonType;
+import org.xmlunit.diff.DifferenceEvaluators;
 
 /**
  * Utility class to test serialization and deserialization.
@@ -79,6 +83,29 @@ class DtoTestUtil {
         .areIdentical();
   }
 
+  /**
+   * Asserts that the dedicated serializer of the iut writes the same elements in the same order
+   * as Jackson writes them from the annotations of the DTO, values are not compared.
+   * Keeps hand-written serializers in line with the DTO they write.
+   */
+  static void assertSameElementsAsAnnotations(Object iut) throws IOException {
+    var annotationMapper = MAPPER.copy();
+    annotationMapper.addMixIn(iut.getClass(), AnnotationSerialization.class);
+    XmlAssert.assertThat(MAPPER.writeValueAsString(iut))
+        .and(annotationMapper.writeValueAsString(iut))
+        .ignoreWhitespace()
+        .withDifferenceEvaluator(DifferenceEvaluators.chain(DifferenceEvaluators.Default,
+            DifferenceEvaluators.downgradeDifferencesToEqual(ComparisonType.TEXT_VALUE)))
+        .areIdentical();
+  }
+
+  /**
+   * Mixin that replaces a dedicated serializer with the one Jackson derives from the annotations.
+   */
+  @JsonSerialize(using = JsonSerializer.None.class)
+  private interface AnnotationSerialization {
+  }
+
   /**
    * Finds and reads the test file and returns its contents deserialized as T.
    */
@@ -16,6 +16,7 @@
 
 package com.adobe.testing.s3mock.dto;
 
+import static com.adobe.testing.s3mock.dto.DtoTestUtil.assertSameElementsAsAnnotations;
 import static com.adobe.testing.s3mock.dto.DtoTestUtil.serializeAndAssert;
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -35,6 +36,20 @@ class ListBucketResultV2Test {
             "nextContinuationToken", "startAfter", "url");
     assertThat(iut).isNotNull();
     serializeAndAssert(iut, testInfo);
+    assertSameElementsAsAnnotations(iut);
+  }
+
+  @Test
+  void testSerialization_urlEncoded(TestInfo testInfo) throws IOException {
+    var iut =
+        new ListBucketResultV2("bucketName", "prefix with spaces/", 1000, false,
+            List.of(new S3Object("prefix with spaces/key+1", "2009-10-12T17:50:30.000Z",
+                "\"fba9dede5f27731c9771645a39863328\"", "434234", StorageClass.STANDARD,
+                new Owner("10", "displayName"), null)),
+            List.of(new Prefix("prefix with spaces/a&b/")), null, "1", null,
+            "prefix with spaces/key", "url");
+    serializeAndAssert(iut, testInfo);
+    assertSameElementsAsAnnotations(iut);
   }
 
   private List<S3Object> createBucketContents(int count) {
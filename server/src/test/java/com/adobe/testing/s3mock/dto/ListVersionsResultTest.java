@@ -0,0 +1,45 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.dto;
+
+import static com.adobe.testing.s3mock.dto.DtoTestUtil.assertSameElementsAsAnnotations;
+import static com.adobe.testing.s3mock.dto.DtoTestUtil.serializeAndAssert;
+
+import java.io.IOException;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+
+class ListVersionsResultTest {
+
+  @Test
+  void testSerialization_urlEncoded(TestInfo testInfo) throws IOException {
+    var owner = new Owner("10", "displayName");
+    var iut =
+        new ListVersionsResult("bucketName", "prefix with spaces/", 2, true,
+            List.of(new Prefix("prefix with spaces/a&b/")), "/", "url",
+            "prefix with spaces/a+b", "versionIdMarker", "prefix with spaces/key+2",
+            "nextVersionIdMarker",
+            List.of(new ObjectVersion("prefix with spaces/key+1", "2009-10-12T17:50:30.000Z",
+                "\"fba9dede5f27731c9771645a39863328\"", "434234", StorageClass.STANDARD,
+                owner, ChecksumAlgorithm.SHA256, true, "versionId1")),
+            List.of(new DeleteMarkerEntry(true, "prefix with spaces/key+2",
+                "2009-10-12T17:50:30.000Z", owner, "versionId2")));
+    serializeAndAssert(iut, testInfo);
+    assertSameElementsAsAnnotations(iut);
+  }
+}
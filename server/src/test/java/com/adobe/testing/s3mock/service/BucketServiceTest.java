@@ -19,23 +19,32 @@ package com.adobe.testing.s3mock.service;
 import static com.adobe.testing.s3mock.S3Exception.BUCKET_ALREADY_OWNED_BY_YOU;
 import static com.adobe.testing.s3mock.S3Exception.BUCKET_NOT_EMPTY;
 import static com.adobe.testing.s3mock.S3Exception.INVALID_BUCKET_NAME;
+import static com.adobe.testing.s3mock.S3Exception.INVALID_CONTINUATION_TOKEN;
 import static com.adobe.testing.s3mock.S3Exception.INVALID_REQUEST_ENCODINGTYPE;
 import static com.adobe.testing.s3mock.S3Exception.INVALID_REQUEST_MAXKEYS;
+import static com.adobe.testing.s3mock.S3Exception.INVALID_REQUEST_MAX_BUCKETS;
 import static com.adobe.testing.s3mock.S3Exception.NOT_FOUND_BUCKET_OBJECT_LOCK;
 import static com.adobe.testing.s3mock.S3Exception.NO_SUCH_BUCKET;
-import static com.adobe.testing.s3mock.service.BucketService.collapseCommonPrefixes;
+import static com.adobe.testing.s3mock.service.BucketService.commonPrefix;
 import static java.util.Collections.singletonList;
 import static java.util.stream.Collectors.toList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.adobe.testing.s3mock.dto.Bucket;
 import com.adobe.testing.s3mock.dto.ListBucketResultV2;
+import com.adobe.testing.s3mock.dto.Prefix;
 import com.adobe.testing.s3mock.dto.S3Object;
+import com.adobe.testing.s3mock.store.BucketMetadata;
 import com.adobe.testing.s3mock.store.MultipartStore;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.TreeMap;
 import java.util.UUID;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -125,62 +134,152 @@ class BucketServiceTest extends ServiceTestBase {
   void testCommonPrefixesAndBucketContentFilter(final Param parameters) {
     var prefix = parameters.prefix;
     var delimiter = parameters.delimiter;
-    var bucketContents = givenBucketContents(prefix);
-    var commonPrefixes = collapseCommonPrefixes(prefix, delimiter, bucketContents);
+    givenBucketWithContents(TEST_BUCKET_NAME, null);
 
-    var filteredBucketContents =
-        BucketService.filterObjectsBy(bucketContents, commonPrefixes);
+    var result = iut.listObjectsV2(TEST_BUCKET_NAME, prefix, delimiter, null, null, 1000, null);
 
     var expectedPrefixes = parameters.expectedPrefixes;
     var expectedKeys = parameters.expectedKeys;
 
-    assertThat(commonPrefixes).hasSize(expectedPrefixes.length)
+    assertThat(result.commonPrefixes().stream().map(Prefix::prefix).collect(toList()))
         .as("Returned prefixes are correct")
         .containsExactlyInAnyOrderElementsOf(Arrays.asList(expectedPrefixes));
 
-    assertThat(filteredBucketContents.stream().map(S3Object::key).collect(toList()))
+    assertThat(result.contents().stream().map(S3Object::key).collect(toList()))
         .as("Returned keys are correct")
         .containsExactlyInAnyOrderElementsOf(Arrays.asList(expectedKeys));
   }
 
   @Test
   void testCommonPrefixesNoPrefixNoDelimiter() {
-    var prefix = "";
-    var delimiter = "";
-    var bucketContents = givenBucketContents();
-
-    var commonPrefixes = collapseCommonPrefixes(prefix, delimiter, bucketContents);
-    assertThat(commonPrefixes).isEmpty();
+    assertThat(commonPrefixes("", "")).isEmpty();
   }
 
   @Test
   void testCommonPrefixesPrefixNoDelimiter() {
-    String prefix = "prefix-a";
-    String delimiter = "";
-    List<S3Object> bucketContents = givenBucketContents();
-
-    List<String> commonPrefixes = collapseCommonPrefixes(prefix, delimiter, bucketContents);
-    assertThat(commonPrefixes).isEmpty();
+    assertThat(commonPrefixes("prefix-a", "")).isEmpty();
   }
 
   @Test
   void testCommonPrefixesNoPrefixDelimiter() {
-    var prefix = "";
-    var delimiter = "/";
-    var bucketContents = givenBucketContents();
-
-    var commonPrefixes = collapseCommonPrefixes(prefix, delimiter, bucketContents);
-    assertThat(commonPrefixes).hasSize(5).contains("3330/", "foo/", "c/", "b/", "33309/");
+    assertThat(commonPrefixes("", "/")).hasSize(5)
+        .contains("3330/", "foo/", "c/", "b/", "33309/");
   }
 
   @Test
   void testCommonPrefixesPrefixDelimiter() {
-    var prefix = "3330";
-    var delimiter = "/";
-    var bucketContents = givenBucketContents();
+    assertThat(commonPrefixes("3330", "/")).hasSize(2).contains("3330/", "33309/");
+  }
+
+  @Test
+  void testCommonPrefix() {
+    assertThat(commonPrefix("", "/", "a")).isNull();
+    assertThat(commonPrefix("", "/", "b/1/1")).isEqualTo("b/");
+    assertThat(commonPrefix("b/", "/", "b/1/1")).isEqualTo("b/1/");
+    assertThat(commonPrefix("b", null, "b/1/1")).isNull();
+  }
+
+  @Test
+  void testListObjectsV2_pagesInKeyOrder() {
+    givenBucketWithContents(TEST_BUCKET_NAME, null);
+    var keys = new ArrayList<String>();
+    var pages = 0;
+    String continuationToken = null;
+    do {
+      var result = iut.listObjectsV2(TEST_BUCKET_NAME, null, null, null, null, 3,
+          continuationToken);
+      assertThat(result.contents()).hasSizeLessThanOrEqualTo(3);
+      result.contents().forEach(s3Object -> keys.add(s3Object.key()));
+      continuationToken = result.nextContinuationToken();
+      pages++;
+    } while (continuationToken != null);
+
+    assertThat(pages).isEqualTo(5);
+    assertThat(keys).containsExactly(ALL_OBJECTS);
+  }
+
+  @Test
+  void testListObjectsV2_continuedByOtherInstance() {
+    givenBucketWithContents(TEST_BUCKET_NAME, null);
+    var first = iut.listObjectsV2(TEST_BUCKET_NAME, null, null, null, null, 13, null);
+
+    var second = new BucketService(bucketStore, objectStore)
+        .listObjectsV2(TEST_BUCKET_NAME, null, null, null, null, 13,
+            first.nextContinuationToken());
+
+    assertThat(second.contents().stream().map(S3Object::key)).containsExactly("foo/eor.txt");
+    assertThatThrownBy(() -> iut.listObjectsV2(TEST_BUCKET_NAME, null, null, null, null, 13,
+        "invalid")).isEqualTo(INVALID_CONTINUATION_TOKEN);
+  }
+
+  @Test
+  void testListObjectsV2_commonPrefixesCountTowardsMaxKeys() {
+    givenBucketWithContents(TEST_BUCKET_NAME, null);
+
+    var first = iut.listObjectsV2(TEST_BUCKET_NAME, null, "/", null, null, 3, null);
+    assertThat(first.isTruncated()).isTrue();
+    assertThat(first.commonPrefixes().stream().map(Prefix::prefix))
+        .containsExactly("3330/", "33309/");
+    assertThat(first.contents().stream().map(S3Object::key)).containsExactly("a");
+
+    var second = iut.listObjectsV2(TEST_BUCKET_NAME, null, "/", null, null, 3,
+        first.nextContinuationToken());
+    assertThat(second.contents().stream().map(S3Object::key)).containsExactly("b");
+    assertThat(second.commonPrefixes().stream().map(Prefix::prefix))
+        .containsExactly("b/", "c/");
+
+    var third = iut.listObjectsV2(TEST_BUCKET_NAME, null, "/", null, null, 3,
+        second.nextContinuationToken());
+    assertThat(third.contents().stream().map(S3Object::key))
+        .containsExactly("d:1", "d:1:1", "eor.txt");
+    assertThat(third.commonPrefixes()).isEmpty();
+
+    var fourth = iut.listObjectsV2(TEST_BUCKET_NAME, null, "/", null, null, 3,
+        third.nextContinuationToken());
+    assertThat(fourth.isTruncated()).isFalse();
+    assertThat(fourth.nextContinuationToken()).isNull();
+    assertThat(fourth.contents()).isEmpty();
+    assertThat(fourth.commonPrefixes().stream().map(Prefix::prefix)).containsExactly("foo/");
+  }
+
+  @Test
+  void testListObjectsV2_skipsCommonPrefixes() {
+    var keys = new ArrayList<String>();
+    for (var i = 0; i < 100; i++) {
+      keys.add("dir/" + i);
+    }
+    keys.add("dir/\uffff");
+    keys.add("dir\uffff");
+    keys.add("e");
+    givenBucketWithContents(TEST_BUCKET_NAME, null,
+        keys.stream().map(this::givenS3Object).toList());
 
-    var commonPrefixes = collapseCommonPrefixes(prefix, delimiter, bucketContents);
-    assertThat(commonPrefixes).hasSize(2).contains("3330/", "33309/");
+    var result = iut.listObjectsV2(TEST_BUCKET_NAME, null, "/", null, null, 1000, null);
+
+    assertThat(result.commonPrefixes().stream().map(Prefix::prefix)).containsExactly("dir/");
+    assertThat(result.contents().stream().map(S3Object::key))
+        .containsExactly("dir\uffff", "e");
+  }
+
+  @Test
+  void testListObjectsV1_markerIsCommonPrefix() {
+    givenBucketWithContents(TEST_BUCKET_NAME, null);
+
+    var result = iut.listObjectsV1(TEST_BUCKET_NAME, null, "/", "b/", null, 1000);
+
+    assertThat(result.contents().stream().map(S3Object::key))
+        .containsExactly("d:1", "d:1:1", "eor.txt");
+    assertThat(result.commonPrefixes().stream().map(Prefix::prefix))
+        .containsExactly("c/", "foo/");
+  }
+
+  private List<String> commonPrefixes(String prefix, String delimiter) {
+    givenBucketWithContents(TEST_BUCKET_NAME, null);
+    return iut.listObjectsV2(TEST_BUCKET_NAME, prefix, delimiter, null, null, 1000, null)
+        .commonPrefixes()
+        .stream()
+        .map(Prefix::prefix)
+        .toList();
   }
 
   @Test
@@ -266,6 +365,12 @@ class BucketServiceTest extends ServiceTestBase {
     iut.verifyBucketNameIsAllowed(bucketName);
   }
 
+  @Test
+  void testVerifyBucketNameIsAllowed_leadingDot() {
+    assertThatThrownBy(() -> iut.verifyBucketNameIsAllowed(".trash"))
+        .isEqualTo(INVALID_BUCKET_NAME);
+  }
+
   @Test
   void testVerifyBucketNameIsAllowed_failure() {
     var bucketName = "!!!bucketNameNotAllowed!!!";
@@ -304,6 +409,55 @@ class BucketServiceTest extends ServiceTestBase {
     assertThatThrownBy(() -> iut.verifyBucketIsEmpty(bucketName)).isEqualTo(BUCKET_NOT_EMPTY);
   }
 
+  @Test
+  void testListBuckets_pages() {
+    var buckets = new TreeMap<String, BucketMetadata>();
+    for (var name : List.of("a", "b", "c", "d", "e")) {
+      buckets.put(name, metadataFrom(name));
+    }
+    when(bucketStore.listBuckets(any(), anyInt())).thenAnswer(invocation -> {
+      String startAfter = invocation.getArgument(0);
+      int limit = invocation.getArgument(1);
+      var tail = startAfter == null ? buckets : buckets.tailMap(startAfter, false);
+      return tail.values().stream().limit(limit).toList();
+    });
+
+    var all = iut.listBuckets(null, null);
+    assertThat(all.buckets().buckets()).extracting(Bucket::name)
+        .containsExactly("a", "b", "c", "d", "e");
+    assertThat(all.continuationToken()).isNull();
+
+    var names = new ArrayList<String>();
+    var continuationToken = (String) null;
+    do {
+      var page = iut.listBuckets(2, continuationToken);
+      assertThat(page.buckets().buckets()).hasSizeLessThanOrEqualTo(2);
+      page.buckets().buckets().forEach(bucket -> names.add(bucket.name()));
+      continuationToken = page.continuationToken();
+    } while (continuationToken != null);
+    assertThat(names).containsExactly("a", "b", "c", "d", "e");
+
+    var exact = iut.listBuckets(5, null);
+    assertThat(exact.buckets().buckets()).hasSize(5);
+    assertThat(exact.continuationToken()).isNull();
+  }
+
+  @Test
+  void testListBuckets_invalidContinuationToken() {
+    assertThatThrownBy(() -> iut.listBuckets(2, "not-a-token"))
+        .isEqualTo(INVALID_CONTINUATION_TOKEN);
+  }
+
+  @Test
+  void testVerifyMaxBuckets() {
+    iut.verifyMaxBuckets(null);
+    iut.verifyMaxBuckets(1);
+    iut.verifyMaxBuckets(10_000);
+    assertThatThrownBy(() -> iut.verifyMaxBuckets(0)).isEqualTo(INVALID_REQUEST_MAX_BUCKETS);
+    assertThatThrownBy(() -> iut.verifyMaxBuckets(10_001))
+        .isEqualTo(INVALID_REQUEST_MAX_BUCKETS);
+  }
+
   @Test
   void testVerifyMaxKeys_success() {
     var keys = 10;
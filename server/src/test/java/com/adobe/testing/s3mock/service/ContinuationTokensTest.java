@@ -0,0 +1,80 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.service;
+
+import static com.adobe.testing.s3mock.S3Exception.INVALID_CONTINUATION_TOKEN;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Base64;
+import org.junit.jupiter.api.Test;
+
+class ContinuationTokensTest {
+  private static final String BUCKET_NAME = "bucket";
+  private static final String KEY = "prefix/kéy";
+
+  @Test
+  void testEncodeDecode() {
+    var iut = new ContinuationTokens(null);
+
+    var token = iut.encode(BUCKET_NAME, KEY);
+
+    assertThat(token).doesNotContain(KEY);
+    assertThat(iut.decode(BUCKET_NAME, token)).isEqualTo(KEY);
+    assertThat(new ContinuationTokens(null).decode(BUCKET_NAME, token)).isEqualTo(KEY);
+  }
+
+  @Test
+  void testEncodeDecode_signed() {
+    var iut = new ContinuationTokens("secret");
+
+    var token = iut.encode(BUCKET_NAME, KEY);
+
+    assertThat(new ContinuationTokens("secret").decode(BUCKET_NAME, token)).isEqualTo(KEY);
+    assertThatThrownBy(() -> iut.decode("other-bucket", token))
+        .isEqualTo(INVALID_CONTINUATION_TOKEN);
+    assertThatThrownBy(() -> new ContinuationTokens("other").decode(BUCKET_NAME, token))
+        .isEqualTo(INVALID_CONTINUATION_TOKEN);
+  }
+
+  @Test
+  void testDecode_forged() {
+    var iut = new ContinuationTokens("secret");
+    var forged = new ContinuationTokens(null).encode(BUCKET_NAME, KEY);
+    var tampered = Base64.getUrlDecoder().decode(iut.encode(BUCKET_NAME, KEY));
+    tampered[tampered.length - 1]++;
+
+    assertThatThrownBy(() -> iut.decode(BUCKET_NAME, forged))
+        .isEqualTo(INVALID_CONTINUATION_TOKEN);
+    assertThatThrownBy(() -> iut.decode(BUCKET_NAME,
+        Base64.getUrlEncoder().withoutPadding().encodeToString(tampered)))
+        .isEqualTo(INVALID_CONTINUATION_TOKEN);
+  }
+
+  @Test
+  void testDecode_malformed() {
+    var iut = new ContinuationTokens(null);
+
+    assertThatThrownBy(() -> iut.decode(BUCKET_NAME, "not base64!"))
+        .isEqualTo(INVALID_CONTINUATION_TOKEN);
+    assertThatThrownBy(() -> iut.decode(BUCKET_NAME, ""))
+        .isEqualTo(INVALID_CONTINUATION_TOKEN);
+    //unknown version
+    assertThatThrownBy(() -> iut.decode(BUCKET_NAME, "AgBrZXk"))
+        .isEqualTo(INVALID_CONTINUATION_TOKEN);
+  }
+}
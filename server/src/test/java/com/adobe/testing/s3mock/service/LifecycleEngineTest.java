@@ -0,0 +1,220 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.adobe.testing.s3mock.dto.AbortIncompleteMultipartUpload;
+import com.adobe.testing.s3mock.dto.BucketLifecycleConfiguration;
+import com.adobe.testing.s3mock.dto.LifecycleExpiration;
+import com.adobe.testing.s3mock.dto.LifecycleRule;
+import com.adobe.testing.s3mock.dto.LifecycleRuleAndOperator;
+import com.adobe.testing.s3mock.dto.LifecycleRuleFilter;
+import com.adobe.testing.s3mock.dto.MultipartUpload;
+import com.adobe.testing.s3mock.dto.StorageClass;
+import com.adobe.testing.s3mock.dto.Tag;
+import com.adobe.testing.s3mock.store.BucketMetadata;
+import com.adobe.testing.s3mock.store.MultipartStore;
+import com.adobe.testing.s3mock.store.ObjectListing;
+import com.adobe.testing.s3mock.store.S3ObjectMetadata;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+@SpringBootTest(classes = {ServiceConfiguration.class},
+    webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@MockBean({BucketService.class})
+class LifecycleEngineTest extends ServiceTestBase {
+  private static final String BUCKET_NAME = "bucket";
+  private static final Instant CREATED = Instant.parse("2014-01-15T10:30:00Z");
+
+  @MockBean
+  private MultipartStore multipartStore;
+  @MockBean
+  private ObjectService objectService;
+  @MockBean
+  private MultipartService multipartService;
+
+  private final TestClock clock = new TestClock();
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private LifecycleEngine iut;
+
+  @BeforeEach
+  void setUp() {
+    clock.now = CREATED;
+    iut = new LifecycleEngine(bucketStore, objectStore, multipartStore, objectService,
+        multipartService, registry, clock, Duration.ZERO, 0);
+  }
+
+  @Test
+  void testDueAfterDays() {
+    assertThat(Instant.ofEpochMilli(LifecycleEngine.dueAfterDays(CREATED.toEpochMilli(), 3)))
+        .isEqualTo(Instant.parse("2014-01-19T00:00:00Z"));
+    assertThat(Instant.ofEpochMilli(LifecycleEngine.dueAfterDays(
+        Instant.parse("2014-01-15T00:00:00Z").toEpochMilli(), 1)))
+        .isEqualTo(Instant.parse("2014-01-16T00:00:00Z"));
+  }
+
+  @Test
+  void testExpiresMatchingObjectsWhenDue() {
+    var tag = new Tag("expire", "true");
+    var filter = new LifecycleRuleFilter(null, null, null, null,
+        new LifecycleRuleAndOperator(null, null, "logs/", List.of(tag)));
+    var bucket = givenBucketWithLifecycleRules(
+        rule(filter, new LifecycleExpiration(null, 3, null), null, LifecycleRule.Status.ENABLED),
+        rule(null, new LifecycleExpiration(null, 1, null), null, LifecycleRule.Status.DISABLED));
+    givenObject(bucket, "logs/expired", List.of(tag));
+    givenObject(bucket, "logs/untagged", null);
+    givenObject(bucket, "data/retained", List.of(tag));
+
+    iut.run();
+    //only keys matching the prefix of an enabled rule are scheduled
+    assertThat(iut.pending()).isEqualTo(2);
+    verify(objectService, never()).deleteObject(anyString(), anyString());
+
+    clock.now = Instant.parse("2014-01-19T00:00:00Z");
+    iut.run();
+
+    verify(objectService).deleteObject(BUCKET_NAME, "logs/expired");
+    verify(objectService, never()).deleteObject(BUCKET_NAME, "logs/untagged");
+    verify(objectService, never()).deleteObject(BUCKET_NAME, "data/retained");
+    assertThat(iut.pending()).isZero();
+  }
+
+  @Test
+  void testReschedulesOverwrittenObjects() {
+    var bucket = givenBucketWithLifecycleRules(
+        rule(null, new LifecycleExpiration(null, 1, null), null, LifecycleRule.Status.ENABLED));
+    iut.run();
+
+    iut.objectWritten(bucket, givenObject(bucket, "key", null));
+    clock.now = CREATED.plus(Duration.ofHours(12));
+    var overwritten = givenObject(bucket, "key", null);
+    iut.objectWritten(bucket, overwritten);
+    assertThat(iut.pending()).isEqualTo(1);
+
+    clock.now = Instant.parse("2014-01-16T00:00:00Z");
+    iut.run();
+    verify(objectService, never()).deleteObject(anyString(), anyString());
+    assertThat(iut.pending()).isEqualTo(1);
+
+    clock.now = Instant.ofEpochMilli(LifecycleEngine.dueAfterDays(overwritten.lastModified(), 1));
+    when(objectService.deleteObject(BUCKET_NAME, "key")).thenReturn(true);
+    iut.run();
+    verify(objectService).deleteObject(BUCKET_NAME, "key");
+    assertThat(registry.counter(LifecycleEngine.OBJECTS_EXPIRED).count()).isEqualTo(1);
+  }
+
+  @Test
+  void testAbortsIncompleteMultipartUploads() {
+    givenBucketWithLifecycleRules(rule(new LifecycleRuleFilter(null, null, "uploads/", null, null),
+        null, new AbortIncompleteMultipartUpload(7), LifecycleRule.Status.ENABLED));
+    var upload = new MultipartUpload("uploads/key", "uploadId", null, null,
+        StorageClass.STANDARD, Date.from(CREATED));
+    when(multipartStore.listMultipartUploads(BUCKET_NAME, "uploads/")).thenReturn(List.of(upload));
+    when(multipartStore.listMultipartUploads(BUCKET_NAME, "uploads/key"))
+        .thenReturn(List.of(upload));
+
+    iut.run();
+    clock.now = Instant.parse("2014-01-22T23:59:59Z");
+    iut.run();
+    verify(multipartService, never()).abortMultipartUpload(anyString(), anyString(), any());
+
+    clock.now = Instant.parse("2014-01-23T00:00:00Z");
+    iut.run();
+    verify(multipartService).abortMultipartUpload(BUCKET_NAME, "uploads/key", "uploadId");
+    assertThat(registry.counter(LifecycleEngine.UPLOADS_ABORTED).count()).isEqualTo(1);
+    assertThat(iut.pending()).isZero();
+  }
+
+  @Test
+  void testSchedulesOnlyTargetsRulesApplyTo() {
+    var bucket = givenBucketWithLifecycleRules(rule(null, new LifecycleExpiration(null, 1, null),
+        new AbortIncompleteMultipartUpload(1), LifecycleRule.Status.ENABLED));
+    iut.run();
+
+    iut.objectWritten(bucket, givenObject(bucket, "object", null));
+    assertThat(iut.pending()).isEqualTo(1);
+    iut.uploadInitiated(BUCKET_NAME, new MultipartUpload("upload", "uploadId", null, null,
+        StorageClass.STANDARD, Date.from(CREATED)));
+    assertThat(iut.pending()).isEqualTo(2);
+
+    clock.now = Instant.parse("2014-01-17T00:00:00Z");
+    when(multipartStore.listMultipartUploads(BUCKET_NAME, "upload")).thenReturn(List.of());
+    iut.run();
+    verify(objectService).deleteObject(BUCKET_NAME, "object");
+    verify(multipartService, never()).abortMultipartUpload(anyString(), anyString(), any());
+    verify(multipartStore, never()).listMultipartUploads(BUCKET_NAME, "object");
+    assertThat(iut.pending()).isZero();
+  }
+
+  private BucketMetadata givenBucketWithLifecycleRules(LifecycleRule... rules) {
+    var bucket = givenBucket(BUCKET_NAME)
+        .withBucketLifecycleConfiguration(new BucketLifecycleConfiguration(List.of(rules)));
+    when(bucketStore.getBucketMetadata(BUCKET_NAME)).thenReturn(bucket);
+    when(bucketStore.listBuckets()).thenReturn(List.of(bucket));
+    return bucket;
+  }
+
+  private S3ObjectMetadata givenObject(BucketMetadata bucket, String key, List<Tag> tags) {
+    var id = bucket.addKey(key);
+    var object = new S3ObjectMetadata(id, key, "1024", clock.now.toString(), "\"etag\"", null,
+        clock.millis(), null, null, tags, null, null, null, null, null, null, null,
+        StorageClass.STANDARD);
+    when(objectStore.getS3ObjectMetadata(bucket, id)).thenReturn(object);
+    when(objectStore.getObjectListing(bucket, id)).thenReturn(ObjectListing.from(object));
+    return object;
+  }
+
+  private static LifecycleRule rule(LifecycleRuleFilter filter, LifecycleExpiration expiration,
+      AbortIncompleteMultipartUpload abort, LifecycleRule.Status status) {
+    return new LifecycleRule(abort, expiration, filter, "id", null, null, status, null);
+  }
+
+  private static final class TestClock extends Clock {
+    private Instant now;
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+  }
+}
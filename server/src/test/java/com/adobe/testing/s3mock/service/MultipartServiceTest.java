@@ -20,17 +20,22 @@ import static com.adobe.testing.s3mock.S3Exception.ENTITY_TOO_SMALL;
 import static com.adobe.testing.s3mock.S3Exception.INVALID_PART;
 import static com.adobe.testing.s3mock.S3Exception.INVALID_PART_NUMBER;
 import static com.adobe.testing.s3mock.S3Exception.INVALID_PART_ORDER;
+import static com.adobe.testing.s3mock.S3Exception.INVALID_REQUEST_MAX_UPLOADS;
 import static com.adobe.testing.s3mock.S3Exception.NO_SUCH_UPLOAD_MULTIPART;
 import static com.adobe.testing.s3mock.service.MultipartService.MINIMUM_PART_SIZE;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.when;
 
 import com.adobe.testing.s3mock.dto.CompletedPart;
+import com.adobe.testing.s3mock.dto.MultipartUpload;
 import com.adobe.testing.s3mock.dto.Part;
+import com.adobe.testing.s3mock.dto.StorageClass;
 import com.adobe.testing.s3mock.store.MultipartStore;
 import com.adobe.testing.s3mock.store.ObjectStore;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 import java.util.UUID;
 import org.junit.jupiter.api.Test;
@@ -179,6 +184,46 @@ class MultipartServiceTest extends ServiceTestBase {
     ).isEqualTo(NO_SUCH_UPLOAD_MULTIPART);
   }
 
+  @Test
+  void testListMultipartUploads_truncated() {
+    var bucketName = "bucket";
+    var uploads = List.of(
+        new MultipartUpload("a", "1", null, null, StorageClass.STANDARD, new Date()),
+        new MultipartUpload("a", "2", null, null, StorageClass.STANDARD, new Date()),
+        new MultipartUpload("b", "3", null, null, StorageClass.STANDARD, new Date()));
+    when(multipartStore.listMultipartUploads(bucketName, null, "0", null, 3)).thenReturn(uploads);
+
+    var result = iut.listMultipartUploads(bucketName, null, "0", null, 2);
+
+    assertThat(result.multipartUploads()).containsExactly(uploads.get(0), uploads.get(1));
+    assertThat(result.isTruncated()).isTrue();
+    assertThat(result.maxUploads()).isEqualTo(2);
+    assertThat(result.keyMarker()).isEqualTo("0");
+    assertThat(result.nextKeyMarker()).isEqualTo("a");
+    assertThat(result.nextUploadIdMarker()).isEqualTo("2");
+  }
+
+  @Test
+  void testListMultipartUploads_capsMaxUploads() {
+    var bucketName = "bucket";
+    when(multipartStore.listMultipartUploads(bucketName, null, null, null, 1001))
+        .thenReturn(Collections.emptyList());
+
+    var result = iut.listMultipartUploads(bucketName, null, null, null, 5000);
+
+    assertThat(result.multipartUploads()).isEmpty();
+    assertThat(result.isTruncated()).isFalse();
+    assertThat(result.maxUploads()).isEqualTo(1000);
+    assertThat(result.nextKeyMarker()).isNull();
+  }
+
+  @Test
+  void testVerifyMaxUploads_failure() {
+    assertThatThrownBy(() ->
+        iut.verifyMaxUploads(-1)
+    ).isEqualTo(INVALID_REQUEST_MAX_UPLOADS);
+  }
+
   @Test
   void testVerifyMultipartUploadExists_success() {
     var uploadId = "uploadId";
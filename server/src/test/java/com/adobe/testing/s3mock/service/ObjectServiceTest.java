@@ -30,6 +30,8 @@ import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.adobe.testing.s3mock.dto.Delete;
@@ -38,10 +40,16 @@ import com.adobe.testing.s3mock.dto.Retention;
 import com.adobe.testing.s3mock.dto.S3ObjectIdentifier;
 import com.adobe.testing.s3mock.store.BucketMetadata;
 import com.adobe.testing.s3mock.store.MultipartStore;
+import com.adobe.testing.s3mock.store.ObjectStore.DeletedObjects;
+import com.adobe.testing.s3mock.util.SpooledInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -66,12 +74,59 @@ class ObjectServiceTest extends ServiceTestBase {
     var delete = new Delete(false, Arrays.asList(givenS3ObjectIdentifier(key),
         givenS3ObjectIdentifier(key2)));
 
-    when(objectStore.deleteObject(any(BucketMetadata.class), any(UUID.class)))
-        .thenReturn(true);
-    when(bucketStore.removeFromBucket(key, bucketName)).thenReturn(true);
-    when(bucketStore.removeFromBucket(key2, bucketName)).thenReturn(true);
+    var bucketMetadata = bucketStore.getBucketMetadata(bucketName);
+    when(objectStore.deleteObjects(any(BucketMetadata.class), anyList()))
+        .thenReturn(new DeletedObjects(
+            List.of(bucketMetadata.getID(key), bucketMetadata.getID(key2)), Map.of()));
+    var deleted = iut.deleteObjects(bucketName, delete);
+    assertThat(deleted.deletedObjects()).hasSize(2);
+    //all keys are removed from the bucket at once
+    verify(bucketStore).removeFromBucket(List.of(key, key2), bucketName);
+  }
+
+  @Test
+  void testDeleteObjects_withoutMetadata() {
+    var bucketName = "bucket";
+    var key = "key";
+    var key2 = "key2";
+    givenBucketWithContents(bucketName, "", Arrays.asList(givenS3Object(key),
+        givenS3Object(key2)));
+    var deletedId = bucketStore.getBucketMetadata(bucketName).getID(key);
+    var delete = new Delete(false, Arrays.asList(givenS3ObjectIdentifier(key),
+        givenS3ObjectIdentifier(key2)));
+
+    //key2 has no object metadata, e.g. because its multipart upload is in progress
+    when(objectStore.deleteObjects(any(BucketMetadata.class), anyList()))
+        .thenReturn(new DeletedObjects(List.of(deletedId), Map.of()));
     var deleted = iut.deleteObjects(bucketName, delete);
+
+    //S3 reports keys that do not exist as deleted, but the upload's key is kept
     assertThat(deleted.deletedObjects()).hasSize(2);
+    verify(bucketStore).removeFromBucket(List.of(key), bucketName);
+  }
+
+  @Test
+  void testDeleteObjects_quiet() {
+    var bucketName = "bucket";
+    var key = "key";
+    var key2 = "key2";
+    givenBucketWithContents(bucketName, "", Arrays.asList(givenS3Object(key),
+        givenS3Object(key2)));
+    var bucketMetadata = bucketStore.getBucketMetadata(bucketName);
+    var failedId = bucketMetadata.getID(key2);
+    var delete = new Delete(true, Arrays.asList(givenS3ObjectIdentifier(key),
+        givenS3ObjectIdentifier(key2), givenS3ObjectIdentifier("missing")));
+
+    when(objectStore.deleteObjects(any(BucketMetadata.class), anyList()))
+        .thenReturn(new DeletedObjects(List.of(bucketMetadata.getID(key)),
+            Map.of(failedId, new IllegalStateException("failed"))));
+    var deleted = iut.deleteObjects(bucketName, delete);
+
+    //only errors are reported in quiet mode, keys that could not be deleted are kept
+    assertThat(deleted.deletedObjects()).isEmpty();
+    assertThat(deleted.errors()).extracting(com.adobe.testing.s3mock.dto.Error::key)
+        .containsExactly(key2);
+    verify(bucketStore).removeFromBucket(List.of(key), bucketName);
   }
 
   S3ObjectIdentifier givenS3ObjectIdentifier(String key) {
@@ -122,6 +177,19 @@ class ObjectServiceTest extends ServiceTestBase {
     ).isEqualTo(BAD_REQUEST_MD5);
   }
 
+  @Test
+  void testVerifyMd5_spooled() throws IOException {
+    var path = new File(TEST_FILE_PATH).toPath();
+    var md5 = base64Digest(Files.newInputStream(path));
+    var spooled = new SpooledStream(path);
+
+    //the spool file is checked in place, the stream is handed on unread
+    assertThat(iut.verifyMd5(spooled, md5, null)).isSameAs(spooled);
+    assertThatThrownBy(() ->
+        iut.verifyMd5(spooled, "wrong-md5", null)
+    ).isEqualTo(BAD_REQUEST_MD5);
+  }
+
   @Test
   void testVerifyMd5Void_success() throws IOException {
     var sourceFile = new File(TEST_FILE_PATH);
@@ -227,4 +295,22 @@ class ObjectServiceTest extends ServiceTestBase {
     givenBucket(bucketName);
     assertThatThrownBy(() -> iut.verifyObjectExists(bucketName, key)).isEqualTo(NO_SUCH_KEY);
   }
+
+  private static final class SpooledStream extends InputStream implements SpooledInputStream {
+    private final Path spoolFile;
+
+    private SpooledStream(Path spoolFile) {
+      this.spoolFile = spoolFile;
+    }
+
+    @Override
+    public Path spoolFile() {
+      return spoolFile;
+    }
+
+    @Override
+    public int read() {
+      throw new IllegalStateException("Spooled stream was read.");
+    }
+  }
 }
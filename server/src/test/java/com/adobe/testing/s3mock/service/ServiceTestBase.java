@@ -16,6 +16,8 @@
 
 package com.adobe.testing.s3mock.service;
 
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 
 import com.adobe.testing.s3mock.dto.ChecksumAlgorithm;
@@ -25,12 +27,15 @@ import com.adobe.testing.s3mock.dto.S3Object;
 import com.adobe.testing.s3mock.dto.StorageClass;
 import com.adobe.testing.s3mock.store.BucketMetadata;
 import com.adobe.testing.s3mock.store.BucketStore;
+import com.adobe.testing.s3mock.store.ObjectListing;
 import com.adobe.testing.s3mock.store.ObjectStore;
 import com.adobe.testing.s3mock.store.S3ObjectMetadata;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -61,12 +66,15 @@ abstract class ServiceTestBase {
     var bucketMetadata = givenBucket(name);
     var s3Objects = givenBucketContents(prefix);
     var ids = new ArrayList<UUID>();
+    var objectListings = new HashMap<UUID, ObjectListing>();
     for (var s3Object : s3Objects) {
       var id = bucketMetadata.addKey(s3Object.key());
       ids.add(id);
       when(objectStore.getS3ObjectMetadata(bucketMetadata, id))
           .thenReturn(s3ObjectMetadata(id, s3Object.key()));
+      objectListings.put(id, ObjectListing.from(s3ObjectMetadata(id, s3Object.key())));
     }
+    givenObjectListings(bucketMetadata, objectListings);
     when(bucketStore.lookupKeysInBucket(prefix, name)).thenReturn(ids);
     return s3Objects;
   }
@@ -74,16 +82,31 @@ abstract class ServiceTestBase {
   List<S3Object> givenBucketWithContents(String name, String prefix, List<S3Object> s3Objects) {
     var bucketMetadata = givenBucket(name);
     var ids = new ArrayList<UUID>();
+    var objectListings = new HashMap<UUID, ObjectListing>();
     for (var s3Object : s3Objects) {
       var id = bucketMetadata.addKey(s3Object.key());
       ids.add(id);
       when(objectStore.getS3ObjectMetadata(bucketMetadata, id))
           .thenReturn(s3ObjectMetadata(id, s3Object.key()));
+      objectListings.put(id, ObjectListing.from(s3ObjectMetadata(id, s3Object.key())));
     }
+    givenObjectListings(bucketMetadata, objectListings);
     when(bucketStore.lookupKeysInBucket(prefix, name)).thenReturn(ids);
     return s3Objects;
   }
 
+  private void givenObjectListings(BucketMetadata bucketMetadata,
+      Map<UUID, ObjectListing> objectListings) {
+    when(objectStore.getObjectListings(eq(bucketMetadata), anyList())).thenAnswer(invocation -> {
+      List<UUID> ids = invocation.getArgument(1);
+      var result = new HashMap<UUID, ObjectListing>();
+      ids.stream()
+          .filter(objectListings::containsKey)
+          .forEach(id -> result.put(id, objectListings.get(id)));
+      return result;
+    });
+  }
+
   List<S3Object> givenBucketContents() {
     return givenBucketContents(null);
   }
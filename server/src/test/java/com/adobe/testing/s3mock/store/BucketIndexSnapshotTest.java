@@ -0,0 +1,133 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.store;
+
+import static com.adobe.testing.s3mock.store.StoreConfiguration.S3_OBJECT_DATE_FORMAT;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+import com.adobe.testing.s3mock.dto.ChecksumAlgorithm;
+import com.adobe.testing.s3mock.dto.Owner;
+import com.adobe.testing.s3mock.dto.StorageClass;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BucketIndexSnapshotTest {
+  private static final String BUCKET_NAME = "bucket";
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  @Test
+  void testWriteAndRead(@TempDir Path root) throws IOException {
+    var bucketStore = bucketStore(root);
+    bucketStore.createBucket(BUCKET_NAME, false);
+    final var id = bucketStore.addToBucket("a/key", BUCKET_NAME);
+    var metaFile = backdate(root);
+    bucketStore.writeSnapshot();
+
+    var entries = new BucketIndexSnapshot(root, OBJECT_MAPPER, KeyIndex.Type.SKIP_LIST)
+        .read();
+
+    assertThat(entries).containsOnlyKeys(BUCKET_NAME);
+    var entry = entries.get(BUCKET_NAME);
+    assertThat(entry.fileSize()).isEqualTo(Files.size(metaFile));
+    assertThat(entry.fileModified()).isEqualTo(Files.getLastModifiedTime(metaFile).toMillis());
+    assertThat(entry.bucketMetadata().name()).isEqualTo(BUCKET_NAME);
+    assertThat(entry.bucketMetadata().objects()).containsEntry("a/key", id);
+  }
+
+  @Test
+  void testWriteAndRead_listings(@TempDir Path root) throws IOException {
+    var bucketStore = bucketStore(root);
+    var bucket = bucketStore.createBucket(BUCKET_NAME, false);
+    final var listed = bucketStore.addToBucket("listed", BUCKET_NAME);
+    bucketStore.addToBucket("unlisted", BUCKET_NAME);
+    var objectListing = new ObjectListing("42", "2024-01-01T00:00:00.000Z", "etag",
+        StorageClass.GLACIER, Owner.DEFAULT_OWNER, ChecksumAlgorithm.SHA256);
+    bucket.listings().put(listed, objectListing);
+    var metaFile = backdate(root);
+    bucketStore.writeSnapshot();
+    assertThat(Files.readString(metaFile)).doesNotContain("listings");
+
+    var restored = new BucketIndexSnapshot(root, OBJECT_MAPPER, KeyIndex.Type.SKIP_LIST)
+        .read().get(BUCKET_NAME);
+
+    assertThat(restored.bucketMetadata().listings()).containsOnly(entry(listed, objectListing));
+  }
+
+  @Test
+  void testLoadBuckets_restoresUnchangedBuckets(@TempDir Path root) throws IOException {
+    var bucketStore = bucketStore(root);
+    bucketStore.createBucket(BUCKET_NAME, false);
+    final var id = bucketStore.addToBucket("key", BUCKET_NAME);
+    var metaFile = backdate(root);
+    bucketStore.writeSnapshot();
+    //same size and modification time, but not readable: the bucket must come from the snapshot
+    var modified = Files.getLastModifiedTime(metaFile);
+    Files.writeString(metaFile, " ".repeat((int) Files.size(metaFile)));
+    Files.setLastModifiedTime(metaFile, modified);
+
+    var restarted = bucketStore(root);
+    restarted.loadBuckets(List.of(BUCKET_NAME));
+
+    assertThat(restarted.getBucketMetadata(BUCKET_NAME).getID("key")).isEqualTo(id);
+  }
+
+  @Test
+  void testLoadBuckets_readsChangedBuckets(@TempDir Path root) throws IOException {
+    var bucketStore = bucketStore(root);
+    bucketStore.createBucket(BUCKET_NAME, false);
+    bucketStore.addToBucket("key", BUCKET_NAME);
+    backdate(root);
+    bucketStore.writeSnapshot();
+    var id = bucketStore.addToBucket("other", BUCKET_NAME);
+
+    var restarted = bucketStore(root);
+    restarted.loadBuckets(List.of(BUCKET_NAME));
+
+    assertThat(restarted.getBucketMetadata(BUCKET_NAME).getID("other")).isEqualTo(id);
+  }
+
+  @Test
+  void testRead_withoutSnapshot(@TempDir Path root) throws IOException {
+    assertThat(new BucketIndexSnapshot(root, OBJECT_MAPPER, KeyIndex.Type.SKIP_LIST).read())
+        .isEmpty();
+  }
+
+  private static BucketStore bucketStore(Path root) {
+    return new BucketStore(root.toFile(), false, S3_OBJECT_DATE_FORMAT, OBJECT_MAPPER,
+        StoreMetrics.noop());
+  }
+
+  /**
+   * Files modified just before a snapshot are never restored from it, see
+   * {@link BucketStore#writeSnapshot()}.
+   */
+  private static Path backdate(Path root) throws IOException {
+    var metaFile = root.resolve(BUCKET_NAME).resolve(BucketStore.BUCKET_META_FILE);
+    Files.setLastModifiedTime(metaFile,
+        FileTime.from(Instant.now().minus(1, ChronoUnit.MINUTES).truncatedTo(ChronoUnit.SECONDS)));
+    return metaFile;
+  }
+}
@@ -18,6 +18,7 @@ package com.adobe.testing.s3mock.store;
 
 import static com.adobe.testing.s3mock.dto.ObjectLockEnabled.ENABLED;
 import static com.adobe.testing.s3mock.dto.StorageClass.GLACIER;
+import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -25,6 +26,7 @@ import com.adobe.testing.s3mock.dto.BucketLifecycleConfiguration;
 import com.adobe.testing.s3mock.dto.LifecycleRule;
 import com.adobe.testing.s3mock.dto.LifecycleRuleFilter;
 import com.adobe.testing.s3mock.dto.Transition;
+import java.util.List;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -83,6 +85,21 @@ class BucketStoreTest extends StoreTestBase {
     assertThat(buckets).as("FileStore should hold three Buckets").hasSize(3);
   }
 
+  @Test
+  void testListBucketsPage() {
+    bucketStore.createBucket("bucket-c", false);
+    bucketStore.createBucket("bucket-a", false);
+    bucketStore.createBucket("bucket-b", false);
+
+    assertThat(bucketStore.listBuckets()).extracting(BucketMetadata::name)
+        .containsExactly("bucket-a", "bucket-b", "bucket-c");
+    assertThat(bucketStore.listBuckets(null, 2)).extracting(BucketMetadata::name)
+        .containsExactly("bucket-a", "bucket-b");
+    assertThat(bucketStore.listBuckets("bucket-a", 2)).extracting(BucketMetadata::name)
+        .containsExactly("bucket-b", "bucket-c");
+    assertThat(bucketStore.listBuckets("bucket-c", 2)).isEmpty();
+  }
+
   @Test
   void testCreateAndGetBucket() {
     bucketStore.createBucket(TEST_BUCKET_NAME, false);
@@ -123,6 +140,34 @@ class BucketStoreTest extends StoreTestBase {
     assertThat(bucket.bucketLifecycleConfiguration()).isEqualTo(configuration);
   }
 
+  @Test
+  void testStoreBucketLifecycleConfigurationRetainsKeys() {
+    bucketStore.createBucket(TEST_BUCKET_NAME, false);
+    var id = bucketStore.addToBucket("key", TEST_BUCKET_NAME);
+
+    var bucket = bucketStore.getBucketMetadata(TEST_BUCKET_NAME);
+    bucketStore.storeBucketLifecycleConfiguration(bucket,
+        new BucketLifecycleConfiguration(emptyList()));
+    bucket = bucketStore.getBucketMetadata(TEST_BUCKET_NAME);
+
+    assertThat(bucket.getID("key")).isEqualTo(id);
+    bucketStore.removeFromBucket("key", TEST_BUCKET_NAME);
+  }
+
+  @Test
+  void testRemoveKeysFromBucket() {
+    bucketStore.createBucket(TEST_BUCKET_NAME, false);
+    bucketStore.addToBucket("a", TEST_BUCKET_NAME);
+    bucketStore.addToBucket("b", TEST_BUCKET_NAME);
+    bucketStore.addToBucket("c", TEST_BUCKET_NAME);
+
+    var removed = bucketStore.removeFromBucket(List.of("a", "c", "missing"), TEST_BUCKET_NAME);
+
+    assertThat(removed).containsExactly("a", "c");
+    assertThat(bucketStore.getBucketMetadata(TEST_BUCKET_NAME).objects()).containsOnlyKeys("b");
+    bucketStore.removeFromBucket("b", TEST_BUCKET_NAME);
+  }
+
   @Test
   void testCreateAndDeleteBucket() {
     bucketStore.createBucket(TEST_BUCKET_NAME, false);
@@ -0,0 +1,129 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.store;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.UUID;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+class KeyIndexTest {
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  @ParameterizedTest
+  @EnumSource(KeyIndex.Type.class)
+  void testMatchesSortedMap(KeyIndex.Type type) {
+    var random = new Random(42);
+    var iut = type.create();
+    var expected = new TreeMap<String, UUID>();
+    //enough writes to merge the compact index several times
+    for (var i = 0; i < 20_000; i++) {
+      var key = "prefix/" + random.nextInt(5_000) + "/key";
+      if (random.nextInt(4) == 0) {
+        assertThat(iut.remove(key)).isEqualTo(expected.remove(key));
+      } else {
+        var id = UUID.randomUUID();
+        assertThat(iut.put(key, id)).isEqualTo(expected.put(key, id));
+      }
+    }
+
+    assertThat(iut).hasSize(expected.size());
+    assertThat(new ArrayList<>(iut.entrySet())).containsExactlyElementsOf(expected.entrySet());
+    for (var i = 0; i < 1_000; i++) {
+      var key = "prefix/" + random.nextInt(5_000);
+      assertThat(iut.get(key + "/key")).isEqualTo(expected.get(key + "/key"));
+      assertThat(iut.ceilingEntry(key)).isEqualTo(expected.ceilingEntry(key));
+      assertThat(iut.higherEntry(key + "/key")).isEqualTo(expected.higherEntry(key + "/key"));
+    }
+  }
+
+  @ParameterizedTest
+  @EnumSource(KeyIndex.Type.class)
+  void testSortsLikeStrings(KeyIndex.Type type) {
+    //U+E000 to U+FFFF sort after supplementary code points as Strings, but not as UTF-8
+    var keys = new ArrayList<>(List.of("a", "ab"));
+    for (var codePoint : List.of(0xE000, 0x1F600, 0xFFFD, 0xE9, 0x7FFF)) {
+      keys.add("a" + Character.toString(codePoint));
+    }
+    var builder = type.builder();
+    keys.forEach(key -> builder.put(key, UUID.randomUUID()));
+    var iut = builder.build();
+    var expected = new TreeMap<String, UUID>(iut);
+
+    assertThat(List.copyOf(iut.keySet())).containsExactlyElementsOf(expected.keySet());
+    for (var key : keys) {
+      assertThat(iut.get(key)).isNotNull();
+      assertThat(iut.higherEntry(key)).isEqualTo(expected.higherEntry(key));
+    }
+  }
+
+  @ParameterizedTest
+  @EnumSource(KeyIndex.Type.class)
+  void testRange(KeyIndex.Type type) {
+    var iut = type.copyOf(Map.of("a", UUID.randomUUID(), "b/1", UUID.randomUUID(),
+        "b/2", UUID.randomUUID(), "b/3", UUID.randomUUID(), "c", UUID.randomUUID()));
+
+    assertThat(iut.range("b/", null).ids())
+        .containsExactly(iut.get("b/1"), iut.get("b/2"), iut.get("b/3"));
+    assertThat(iut.range("b/", "b/1").ids()).containsExactly(iut.get("b/2"), iut.get("b/3"));
+    assertThat(iut.range(null, "b/3").ids()).containsExactly(iut.get("c"));
+    assertThat(iut.range("b/", "b/3").firstEntry()).isNull();
+    assertThat(iut.range("b", "c").firstEntry()).isNull();
+  }
+
+  @ParameterizedTest
+  @EnumSource(KeyIndex.Type.class)
+  void testCount(KeyIndex.Type type) {
+    var iut = type.copyOf(Map.of("a", UUID.randomUUID(), "b/1", UUID.randomUUID(),
+        "b/2", UUID.randomUUID(), "b/20", UUID.randomUUID(), "ba", UUID.randomUUID()));
+
+    assertThat(iut.count(null)).isEqualTo(5);
+    assertThat(iut.count("b")).isEqualTo(4);
+    assertThat(iut.count("b/")).isEqualTo(3);
+    assertThat(iut.count("b/2")).isEqualTo(2);
+    assertThat(iut.count("b/20")).isEqualTo(1);
+    assertThat(iut.count("b/200")).isZero();
+    assertThat(iut.count("c")).isZero();
+
+    iut.remove("b/2");
+    assertThat(iut.count("b/2")).isEqualTo(1);
+    assertThat(iut.count("b/")).isEqualTo(2);
+  }
+
+  @ParameterizedTest
+  @EnumSource(KeyIndex.Type.class)
+  void testReadsBucketMetadataIntoIndexType(KeyIndex.Type type) throws Exception {
+    var bucketMetadata = new BucketMetadata("bucket", "date", null, null, Path.of("bucket"),
+        Map.of("b", UUID.randomUUID(), "a", UUID.randomUUID()));
+    var json = OBJECT_MAPPER.writeValueAsString(bucketMetadata);
+
+    BucketMetadata read = OBJECT_MAPPER.readerFor(BucketMetadata.class)
+        .withAttribute(KeyIndex.Type.class, type)
+        .readValue(json);
+
+    assertThat(read.objects()).isEqualTo(bucketMetadata.objects());
+    assertThat(read.objects().getClass()).isEqualTo(type.create().getClass());
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.store;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class KeyLocksTest {
+
+  @Test
+  void testLock_uncontended() {
+    var registry = new SimpleMeterRegistry();
+    var metrics = new StoreMetrics(registry);
+    var iut = new KeyLocks<String>("bucket", metrics);
+    iut.create("key");
+
+    try (var outer = iut.lock("key"); var reentrant = iut.lock("key")) {
+      assertThat(metrics.contendedKeys(10)).isEmpty();
+    }
+
+    var timer = registry.find(StoreMetrics.LOCK_WAIT).tag("store", "bucket").timer();
+    assertThat(timer).isNotNull();
+    assertThat(timer.count()).isEqualTo(1);
+    assertThat(metrics.contendedKeys(10)).isEmpty();
+  }
+
+  @Test
+  void testLock_createOnDemand() {
+    var iut = new KeyLocks<String>("object", StoreMetrics.noop(), true);
+
+    try (var lock = iut.lock("unregistered")) {
+      assertThat(lock).isNotNull();
+    }
+    assertThatThrownBy(() -> new KeyLocks<String>("bucket", StoreMetrics.noop())
+        .lock("unregistered")).isInstanceOf(NullPointerException.class);
+  }
+
+  @Test
+  void testLock_contended() throws Exception {
+    var registry = new SimpleMeterRegistry();
+    var metrics = new StoreMetrics(registry);
+    var iut = new KeyLocks<String>("object", metrics);
+    iut.create("contended");
+    iut.create("other");
+    var locked = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+    var executor = Executors.newSingleThreadExecutor();
+    try {
+      final var holder = executor.submit(() -> {
+        try (var lock = iut.lock("contended")) {
+          locked.countDown();
+          release.await();
+        }
+        return null;
+      });
+      assertThat(locked.await(10, TimeUnit.SECONDS)).isTrue();
+
+      var waiter = new Thread(() -> {
+        try (var lock = iut.lock("contended")) {
+          //nothing to do
+        }
+      });
+      waiter.start();
+      while (waiter.getState() != Thread.State.WAITING) {
+        Thread.sleep(1);
+      }
+      Thread.sleep(20);
+      release.countDown();
+      waiter.join();
+      holder.get();
+    } finally {
+      executor.shutdownNow();
+    }
+    try (var lock = iut.lock("other")) {
+      //uncontended
+    }
+
+    var contendedKeys = metrics.contendedKeys(10);
+    assertThat(contendedKeys).hasSize(1);
+    var contendedKey = contendedKeys.get(0);
+    assertThat(contendedKey.store()).isEqualTo("object");
+    assertThat(contendedKey.key()).isEqualTo("contended");
+    assertThat(contendedKey.waits()).isEqualTo(1);
+    assertThat(contendedKey.maxWait().toMillis()).isGreaterThanOrEqualTo(20);
+    assertThat(registry.find(StoreMetrics.LOCK_WAIT).timer().count()).isEqualTo(3);
+  }
+
+  @Test
+  void testRemove_whileWaiting() throws Exception {
+    var iut = new KeyLocks<String>("object", StoreMetrics.noop(), true);
+    var waiterLocked = new CountDownLatch(1);
+    var waiterRelease = new CountDownLatch(1);
+    var waiter = new Thread(() -> {
+      try (var lock = iut.lock("removed")) {
+        waiterLocked.countDown();
+        waiterRelease.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    try (var lock = iut.lock("removed")) {
+      waiter.start();
+      while (waiter.getState() != Thread.State.WAITING) {
+        Thread.sleep(1);
+      }
+      iut.remove("removed");
+    }
+    assertThat(waiterLocked.await(10, TimeUnit.SECONDS)).isTrue();
+
+    //the waiter retried with a new lock, which must exclude new callers as well
+    var executor = Executors.newSingleThreadExecutor();
+    try {
+      var other = executor.submit(() -> {
+        try (var lock = iut.lock("removed")) {
+          return waiter.isAlive();
+        }
+      });
+      Thread.sleep(50);
+      assertThat(other.isDone()).isFalse();
+      waiterRelease.countDown();
+      waiter.join();
+      assertThat(other.get(10, TimeUnit.SECONDS)).isFalse();
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void testRemove_notHeld() {
+    var iut = new KeyLocks<String>("bucket", StoreMetrics.noop());
+    iut.create("key");
+
+    assertThatThrownBy(() -> iut.remove("key")).isInstanceOf(IllegalStateException.class);
+  }
+}
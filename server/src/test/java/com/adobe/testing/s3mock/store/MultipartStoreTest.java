@@ -28,13 +28,17 @@ import static org.springframework.http.HttpHeaders.CONTENT_ENCODING;
 import static org.springframework.http.MediaType.APPLICATION_OCTET_STREAM;
 
 import com.adobe.testing.s3mock.dto.CompletedPart;
+import com.adobe.testing.s3mock.dto.MultipartUpload;
 import com.adobe.testing.s3mock.dto.Owner;
 import com.adobe.testing.s3mock.dto.Part;
 import com.adobe.testing.s3mock.dto.StorageClass;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
@@ -73,6 +77,8 @@ class MultipartStoreTest extends StoreTestBase {
   private ObjectStore objectStore;
   @Autowired
   private File rootFolder;
+  @Autowired
+  private ObjectMapper objectMapper;
 
   @BeforeEach
   void beforeEach() {
@@ -139,6 +145,31 @@ class MultipartStoreTest extends StoreTestBase {
     multipartStore.abortMultipartUpload(metadataFrom(TEST_BUCKET_NAME), id, uploadId);
   }
 
+  @Test
+  void shouldFinishUploadAfterDeletingItsKey() {
+    var fileName = "PartFile";
+    var uploadId = "12345";
+    var id = managedId();
+    multipartStore.prepareMultipartUpload(metadataFrom(TEST_BUCKET_NAME), fileName, id,
+        DEFAULT_CONTENT_TYPE, storeHeaders(), uploadId, TEST_OWNER, TEST_OWNER, NO_USER_METADATA,
+        emptyMap(), StorageClass.STANDARD, null, null);
+    multipartStore
+        .putPart(metadataFrom(TEST_BUCKET_NAME), id, uploadId, "1",
+            new ByteArrayInputStream("Part1".getBytes()), false, emptyMap());
+
+    //the object has no metadata before the upload is completed, its parts must be kept
+    var deletedObjects = objectStore.deleteObjects(metadataFrom(TEST_BUCKET_NAME), List.of(id));
+    assertThat(deletedObjects.deleted()).isEmpty();
+    assertThat(deletedObjects.failures()).isEmpty();
+
+    var etag =
+        multipartStore.completeMultipartUpload(metadataFrom(TEST_BUCKET_NAME), fileName, id,
+            uploadId, getParts(1), emptyMap());
+
+    assertThat(etag).isEqualTo(DigestUtils.md5Hex(DigestUtils.md5("Part1")) + "-1");
+    assertThat(objectStore.getS3ObjectMetadata(metadataFrom(TEST_BUCKET_NAME), id)).isNotNull();
+  }
+
   @Test
   void shouldFinishUpload() {
     var fileName = "PartFile";
@@ -335,6 +366,45 @@ class MultipartStoreTest extends StoreTestBase {
     assertThat(multipartStore.listMultipartUploads(ALL_BUCKETS, NO_PREFIX)).isEmpty();
   }
 
+  @Test
+  void listsMultipartUploadsInKeyOrderWithMarkers() {
+    var bucketName = "bucket-paged";
+    var uploads = new ArrayList<String[]>();
+    for (var key : List.of("c", "a/2", "b", "a/1", "a/1")) {
+      var id = managedId();
+      var uploadId = UUID.randomUUID().toString();
+      multipartStore.prepareMultipartUpload(metadataFrom(bucketName), key, id,
+          DEFAULT_CONTENT_TYPE, storeHeaders(), uploadId, TEST_OWNER, TEST_OWNER,
+          NO_USER_METADATA, emptyMap(), StorageClass.STANDARD, null, null);
+      uploads.add(new String[] {key, uploadId, id.toString()});
+    }
+
+    var all = multipartStore.listMultipartUploads(bucketName, NO_PREFIX);
+    assertThat(all).extracting(MultipartUpload::key)
+        .containsExactly("a/1", "a/1", "a/2", "b", "c");
+    assertThat(all.get(0).uploadId()).isLessThan(all.get(1).uploadId());
+
+    var first = all.get(0);
+    assertThat(multipartStore.listMultipartUploads(bucketName, NO_PREFIX, first.key(),
+        first.uploadId(), 2)).containsExactly(all.get(1), all.get(2));
+    assertThat(multipartStore.listMultipartUploads(bucketName, NO_PREFIX, "a/1", null, 10))
+        .containsExactly(all.get(2), all.get(3), all.get(4));
+    assertThat(multipartStore.listMultipartUploads(bucketName, "a/", null, null, 10))
+        .containsExactly(all.get(0), all.get(1), all.get(2));
+    assertThat(multipartStore.listMultipartUploads(bucketName, "a/", "a/1", null, 10))
+        .containsExactly(all.get(2));
+    assertThat(multipartStore.listMultipartUploads(bucketName, "b", "a", null, 10))
+        .containsExactly(all.get(3));
+    assertThat(multipartStore.getMultipartUpload(first.uploadId())).isEqualTo(first);
+
+    for (var upload : uploads) {
+      multipartStore.abortMultipartUpload(metadataFrom(bucketName), UUID.fromString(upload[2]),
+          upload[1]);
+    }
+    assertThat(multipartStore.listMultipartUploads(bucketName, NO_PREFIX)).isEmpty();
+    assertThat(multipartStore.listMultipartUploads(ALL_BUCKETS, NO_PREFIX)).isEmpty();
+  }
+
   @Test
   void abortMultipartUpload() {
     assertThat(multipartStore.listMultipartUploads(ALL_BUCKETS, NO_PREFIX)).isEmpty();
@@ -464,6 +534,47 @@ class MultipartStoreTest extends StoreTestBase {
         .toList().toArray(new String[] {}));
   }
 
+  @Test
+  void recoversMultipartUploadsFromManifest() throws IOException {
+    var fileName = "PartFile";
+    var uploadId = UUID.randomUUID().toString();
+    var id = managedId();
+    var bucketMetadata = metadataFrom(TEST_BUCKET_NAME);
+    var retainingStore = new MultipartStore(true, objectStore, StoreMetrics.noop(), objectMapper);
+    final var initiatedUpload = retainingStore.prepareMultipartUpload(bucketMetadata, fileName, id,
+        DEFAULT_CONTENT_TYPE, storeHeaders(), uploadId, TEST_OWNER, TEST_OWNER, NO_USER_METADATA,
+        emptyMap(), StorageClass.STANDARD, null, null);
+    retainingStore.putPart(bucketMetadata, id, uploadId, "1",
+        new ByteArrayInputStream("Part1".getBytes()), false, emptyMap());
+    retainingStore.putPart(bucketMetadata, id, uploadId, "2",
+        new ByteArrayInputStream("Part2".getBytes()), false, emptyMap());
+    // a part and a manifest line that were not written completely before the restart
+    var partsFolder = bucketMetadata.path().resolve(id.toString()).resolve(uploadId);
+    Files.writeString(partsFolder.resolve("3.part"), "Pa");
+    var manifestFile = bucketMetadata.path().resolve(MultipartUploadManifest.FOLDER_NAME)
+        .resolve(uploadId + ".manifest");
+    Files.writeString(manifestFile, "{\"partNumber\":3,", StandardOpenOption.APPEND);
+
+    var recoveredStore = new MultipartStore(true, objectStore, StoreMetrics.noop(), objectMapper);
+    recoveredStore.loadMultipartUploads(bucketMetadata);
+
+    assertThat(recoveredStore.getMultipartUpload(uploadId)).isEqualTo(initiatedUpload);
+    assertThat(recoveredStore.listMultipartUploads(TEST_BUCKET_NAME, NO_PREFIX))
+        .containsExactly(initiatedUpload);
+    assertThat(recoveredStore.getMultipartUploadParts(bucketMetadata, id, uploadId))
+        .extracting(Part::partNumber).containsExactly(1, 2);
+
+    recoveredStore.putPart(bucketMetadata, id, uploadId, "3",
+        new ByteArrayInputStream("Part3".getBytes()), false, emptyMap());
+    recoveredStore.completeMultipartUpload(bucketMetadata, fileName, id, uploadId, getParts(3),
+        emptyMap());
+
+    assertThat(objectStore.getS3ObjectMetadata(bucketMetadata, id).dataPath())
+        .hasContent("Part1Part2Part3");
+    assertThat(manifestFile).doesNotExist();
+    assertThat(partsFolder).doesNotExist();
+  }
+
   private Map<String, String> encryptionHeaders() {
     Map<String, String> headers = new HashMap<>();
     headers.put(X_AMZ_SERVER_SIDE_ENCRYPTION, TEST_ENC_TYPE);
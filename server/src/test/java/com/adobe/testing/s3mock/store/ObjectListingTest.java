@@ -0,0 +1,63 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.store;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.adobe.testing.s3mock.dto.ChecksumAlgorithm;
+import com.adobe.testing.s3mock.dto.Owner;
+import com.adobe.testing.s3mock.dto.StorageClass;
+import org.junit.jupiter.api.Test;
+
+class ObjectListingTest {
+
+  @Test
+  void testCompactAttributes() {
+    var owner = new Owner(Owner.DEFAULT_OWNER.id(), Owner.DEFAULT_OWNER.displayName());
+    var iut = new ObjectListing("1048576", "2024-01-01T10:30:00.123Z",
+        "\"0123456789abcdef0123456789abcdef\"", StorageClass.STANDARD, owner,
+        ChecksumAlgorithm.SHA256);
+
+    assertThat(iut.size()).isEqualTo("1048576");
+    assertThat(iut.modificationDate()).isEqualTo("2024-01-01T10:30:00.123Z");
+    assertThat(iut.etag()).isEqualTo("\"0123456789abcdef0123456789abcdef\"");
+    assertThat(iut.storageClass()).isEqualTo(StorageClass.STANDARD);
+    assertThat(iut.owner()).isSameAs(Owner.DEFAULT_OWNER);
+    assertThat(iut.checksumAlgorithm()).isEqualTo(ChecksumAlgorithm.SHA256);
+    assertThat(iut).isEqualTo(new ObjectListing("1048576", "2024-01-01T10:30:00.123Z",
+        "\"0123456789abcdef0123456789abcdef\"", StorageClass.STANDARD, Owner.DEFAULT_OWNER,
+        ChecksumAlgorithm.SHA256));
+  }
+
+  @Test
+  void testAttributesKeptAsGiven() {
+    var owner = new Owner("id", "name");
+    var iut = new ObjectListing("007", "2024-01-01T10:30:00Z",
+        "\"0123456789abcdef0123456789abcdef-2\"", null, owner, null);
+
+    assertThat(iut.size()).isEqualTo("007");
+    assertThat(iut.modificationDate()).isEqualTo("2024-01-01T10:30:00Z");
+    assertThat(iut.etag()).isEqualTo("\"0123456789abcdef0123456789abcdef-2\"");
+    assertThat(iut.owner()).isSameAs(owner);
+
+    var unparsed = new ObjectListing("size", "lastModified", "etag", null, null, null);
+    assertThat(unparsed.size()).isEqualTo("size");
+    assertThat(unparsed.modificationDate()).isEqualTo("lastModified");
+    assertThat(unparsed.etag()).isEqualTo("etag");
+    assertThat(unparsed).isNotEqualTo(iut);
+  }
+}
@@ -38,10 +38,13 @@ import com.adobe.testing.s3mock.dto.Owner;
 import com.adobe.testing.s3mock.dto.Retention;
 import com.adobe.testing.s3mock.dto.StorageClass;
 import com.adobe.testing.s3mock.dto.Tag;
+import com.adobe.testing.s3mock.util.SpooledInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -54,6 +57,7 @@ import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.api.parallel.Execution;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -115,6 +119,25 @@ class ObjectStoreTest extends StoreTestBase {
         .isEqualTo(contentOf(returnedObject.dataPath().toFile(), UTF_8));
   }
 
+  @Test
+  void testStoreObject_spooled(@TempDir Path tempDir) throws Exception {
+    var sourceFile = new File(TEST_FILE_PATH);
+    var id = managedId();
+    var spoolFile = Files.copy(sourceFile.toPath(), tempDir.resolve("spool"));
+
+    var returnedObject =
+        objectStore.storeS3ObjectMetadata(metadataFrom(TEST_BUCKET_NAME), id, sourceFile.getName(),
+            null, storeHeaders(), new SpooledStream(spoolFile), false, emptyMap(), emptyMap(),
+            null, emptyList(), null, null, Owner.DEFAULT_OWNER, StorageClass.STANDARD);
+
+    //the spool file is moved into place instead of being copied
+    assertThat(spoolFile).doesNotExist();
+    assertThat(returnedObject.etag())
+        .isEqualTo("\"" + hexDigest(Files.newInputStream(sourceFile.toPath())) + "\"");
+    assertThat(contentOf(sourceFile, UTF_8))
+        .isEqualTo(contentOf(returnedObject.dataPath().toFile(), UTF_8));
+  }
+
   @Test
   void testStoreAndGetObject() throws Exception {
     var sourceFile = new File(TEST_FILE_PATH);
@@ -143,6 +166,29 @@ class ObjectStoreTest extends StoreTestBase {
         .isEqualTo(contentOf(returnedObject.dataPath().toFile(), UTF_8));
   }
 
+  @Test
+  void testStoreAndGetObjectListing() throws Exception {
+    var sourceFile = new File(TEST_FILE_PATH);
+    var id = managedId();
+    var bucket = metadataFrom(TEST_BUCKET_NAME);
+
+    var stored = objectStore.storeS3ObjectMetadata(bucket, id, sourceFile.getName(), TEXT_PLAIN,
+        storeHeaders(), Files.newInputStream(sourceFile.toPath()), false,
+        emptyMap(), emptyMap(), null, emptyList(), null, null, Owner.DEFAULT_OWNER,
+        StorageClass.DEEP_ARCHIVE);
+
+    assertThat(bucket.listings()).containsEntry(id, ObjectListing.from(stored));
+    //read from the metadata file if not kept with the bucket
+    var objectListing = objectStore.getObjectListing(metadataFrom(TEST_BUCKET_NAME), id);
+    assertThat(objectListing).isEqualTo(ObjectListing.from(stored));
+    assertThat(objectListing.size()).isEqualTo(Long.toString(sourceFile.length()));
+    assertThat(objectListing.storageClass()).isEqualTo(StorageClass.DEEP_ARCHIVE);
+
+    objectStore.deleteObject(bucket, id);
+    assertThat(bucket.listings()).doesNotContainKey(id);
+    assertThat(objectStore.getObjectListing(bucket, id)).isNull();
+  }
+
   @Test
   void testStoreObjectEncrypted() {
     var sourceFile = new File(TEST_FILE_PATH);
@@ -391,6 +437,28 @@ class ObjectStoreTest extends StoreTestBase {
     assertThat(s3ObjectMetadata).isNull();
   }
 
+  @Test
+  void testStoreAndDeleteObjects() throws Exception {
+    var sourceFile = new File(TEST_FILE_PATH);
+    var ids = List.of(managedId(), managedId(), managedId());
+    for (var id : ids) {
+      objectStore
+          .storeS3ObjectMetadata(metadataFrom(TEST_BUCKET_NAME), id, sourceFile.getName(),
+              TEXT_PLAIN, storeHeaders(), Files.newInputStream(sourceFile.toPath()), false,
+              NO_USER_METADATA, emptyMap(), null, emptyList(), null, null, Owner.DEFAULT_OWNER,
+              StorageClass.STANDARD);
+    }
+    //objects without metadata are skipped
+    var deletedObjects = objectStore.deleteObjects(metadataFrom(TEST_BUCKET_NAME),
+        List.of(ids.get(0), ids.get(1), ids.get(2), UUID.randomUUID()));
+
+    assertThat(deletedObjects.deleted()).containsExactlyElementsOf(ids);
+    assertThat(deletedObjects.failures()).isEmpty();
+    for (var id : ids) {
+      assertThat(objectStore.getS3ObjectMetadata(metadataFrom(TEST_BUCKET_NAME), id)).isNull();
+    }
+  }
+
   @Test
   void testStoreAndRetrieveAcl() throws IOException {
     var owner = new Owner("75aa57f09aa0c8caeab4f8c24e99d10f8e7faeebf76c078efc7c6caea54ba06a",
@@ -459,4 +527,25 @@ class ObjectStoreTest extends StoreTestBase {
   static void afterAll() {
     assertThat(idCache).isEmpty();
   }
+
+  /**
+   * A stream that must not be read, its spool file is expected to be moved.
+   */
+  private static final class SpooledStream extends InputStream implements SpooledInputStream {
+    private final Path spoolFile;
+
+    private SpooledStream(Path spoolFile) {
+      this.spoolFile = spoolFile;
+    }
+
+    @Override
+    public Path spoolFile() {
+      return spoolFile;
+    }
+
+    @Override
+    public int read() {
+      throw new IllegalStateException("Spooled stream was read.");
+    }
+  }
 }
@@ -0,0 +1,69 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.store;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class ParallelIoTest {
+
+  @Test
+  void testMap() {
+    var items = IntStream.range(0, 100).boxed().toList();
+    var threads = ConcurrentHashMap.<String>newKeySet();
+    try (var iut = new ParallelIo(4)) {
+      var results = iut.map(items, item -> {
+        threads.add(Thread.currentThread().getName());
+        return item * 2;
+      });
+
+      assertThat(results).containsExactlyElementsOf(items.stream().map(i -> i * 2).toList());
+      assertThat(threads).hasSizeLessThanOrEqualTo(4);
+    }
+  }
+
+  @Test
+  void testMap_sequential() {
+    var threads = ConcurrentHashMap.<String>newKeySet();
+    var results = ParallelIo.sequential().map(List.of("a", "b"), item -> {
+      threads.add(Thread.currentThread().getName());
+      return item.toUpperCase();
+    });
+
+    assertThat(results).containsExactly("A", "B");
+    assertThat(threads).isEqualTo(Set.of(Thread.currentThread().getName()));
+  }
+
+  @Test
+  void testMap_failure() {
+    var items = IntStream.range(0, 10).boxed().toList();
+    try (var iut = new ParallelIo(3)) {
+      assertThatThrownBy(() -> iut.map(items, item -> {
+        if (item == 9) {
+          throw new IllegalStateException("failed");
+        }
+        return item;
+      })).isInstanceOf(IllegalStateException.class).hasMessage("failed");
+    }
+  }
+}
@@ -23,6 +23,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
@@ -39,9 +40,11 @@ class StoreConfigurationTest {
   void bucketCreation_noExistingBuckets(@TempDir Path tempDir) throws IOException {
     var initialBucketName = "initialBucketName";
 
-    var properties = new StoreProperties(false, null, Set.of(), List.of(initialBucketName));
+    var properties = new StoreProperties(false, null, Set.of(), List.of(initialBucketName),
+        false, Duration.ZERO, 0, KeyIndex.Type.SKIP_LIST, 0);
     var iut = new StoreConfiguration();
-    var bucketStore = iut.bucketStore(properties, tempDir.toFile(), List.of(), OBJECT_MAPPER);
+    var bucketStore = iut.bucketStore(properties, tempDir.toFile(), List.of(), OBJECT_MAPPER,
+        StoreMetrics.noop(), Trash.immediate(StoreMetrics.noop()));
     assertThat(bucketStore.getBucketMetadata(initialBucketName).name())
         .isEqualTo(initialBucketName);
 
@@ -71,10 +74,12 @@ class StoreConfigurationTest {
 
     var initialBucketName = "initialBucketName";
 
-    var properties = new StoreProperties(false, null, Set.of(), List.of(initialBucketName));
+    var properties = new StoreProperties(false, null, Set.of(), List.of(initialBucketName),
+        false, Duration.ZERO, 0, KeyIndex.Type.SKIP_LIST, 0);
     var iut = new StoreConfiguration();
     var bucketStore =
-        iut.bucketStore(properties, tempDir.toFile(), List.of(existingBucketName), OBJECT_MAPPER);
+        iut.bucketStore(properties, tempDir.toFile(), List.of(existingBucketName), OBJECT_MAPPER,
+            StoreMetrics.noop(), Trash.immediate(StoreMetrics.noop()));
 
     assertThat(bucketStore.getBucketMetadata(initialBucketName).name())
         .isEqualTo(initialBucketName);
@@ -0,0 +1,92 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.store;
+
+import static com.adobe.testing.s3mock.store.StoreConfiguration.S3_OBJECT_DATE_FORMAT;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.adobe.testing.s3mock.dto.Owner;
+import com.adobe.testing.s3mock.dto.StorageClass;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class StoreVerifierTest {
+  private static final String BUCKET_NAME = "bucket";
+
+  @Test
+  void testVerify(@TempDir Path root) throws IOException {
+    var objectMapper = new ObjectMapper();
+    var bucketStore = new BucketStore(root.toFile(), false, S3_OBJECT_DATE_FORMAT, objectMapper,
+        StoreMetrics.noop());
+    var objectStore = new ObjectStore(false, S3_OBJECT_DATE_FORMAT, objectMapper,
+        StoreMetrics.noop());
+    var bucket = bucketStore.createBucket(BUCKET_NAME, false);
+
+    var stored = bucketStore.addToBucket("stored", BUCKET_NAME);
+    objectStore.storeS3ObjectMetadata(bucket, stored, "stored", "text/plain", emptyMap(),
+        new ByteArrayInputStream(new byte[] {1, 2, 3}), false, emptyMap(), emptyMap(), null,
+        emptyList(), null, null, Owner.DEFAULT_OWNER, StorageClass.STANDARD);
+    bucketStore.addToBucket("missing", BUCKET_NAME);
+    var unreadable = bucketStore.addToBucket("unreadable", BUCKET_NAME);
+    var unreadableFolder = Files.createDirectories(bucket.path().resolve(unreadable.toString()));
+    Files.writeString(unreadableFolder.resolve("objectMetadata.json"), "{");
+    Files.createDirectories(bucket.path().resolve(UUID.randomUUID().toString()));
+
+    var summary = new StoreVerifier(bucketStore, objectStore, 2).verify(List.of(BUCKET_NAME));
+
+    assertThat(summary.buckets()).isEqualTo(1);
+    assertThat(summary.objects()).isEqualTo(3);
+    assertThat(summary.verified()).isEqualTo(1);
+    assertThat(summary.missingMetadata()).isEqualTo(1);
+    assertThat(summary.unreadableMetadata()).isEqualTo(1);
+    assertThat(summary.orphanFolders()).isEqualTo(1);
+    assertThat(summary.inconsistencies()).isEqualTo(3);
+  }
+
+  @Test
+  void testVerify_inProgressUpload(@TempDir Path root) {
+    var objectMapper = new ObjectMapper();
+    var bucketStore = new BucketStore(root.toFile(), false, S3_OBJECT_DATE_FORMAT, objectMapper,
+        StoreMetrics.noop());
+    var objectStore = new ObjectStore(false, S3_OBJECT_DATE_FORMAT, objectMapper,
+        StoreMetrics.noop());
+    var multipartStore = new MultipartStore(false, objectStore, StoreMetrics.noop(),
+        objectMapper);
+    var bucket = bucketStore.createBucket(BUCKET_NAME, false);
+    var id = bucketStore.addToBucket("upload", BUCKET_NAME);
+    multipartStore.prepareMultipartUpload(bucket, "upload", id, "text/plain", emptyMap(),
+        UUID.randomUUID().toString(), Owner.DEFAULT_OWNER, Owner.DEFAULT_OWNER, emptyMap(),
+        emptyMap(), StorageClass.STANDARD, null, null);
+
+    var summary = new StoreVerifier(bucketStore, objectStore, 2).verify(List.of(BUCKET_NAME));
+
+    assertThat(summary.objects()).isEqualTo(1);
+    assertThat(summary.uploads()).isEqualTo(1);
+    assertThat(summary.missingMetadata()).isZero();
+    assertThat(summary.orphanFolders()).isZero();
+    assertThat(summary.inconsistencies()).isZero();
+  }
+}
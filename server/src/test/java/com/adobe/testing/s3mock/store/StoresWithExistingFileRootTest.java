@@ -21,7 +21,6 @@ import static java.util.Collections.emptyList;
 import static java.util.Collections.emptyMap;
 import static org.apache.http.HttpHeaders.CONTENT_ENCODING;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
-import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 
 import com.adobe.testing.s3mock.dto.Owner;
 import com.adobe.testing.s3mock.dto.StorageClass;
@@ -59,12 +58,12 @@ class StoresWithExistingFileRootTest extends StoreTestBase {
   @Test
   void testBucketStoreWithExistingRoot() {
     bucketStore.createBucket(TEST_BUCKET_NAME, false);
-    var bucket = bucketStore.getBucketMetadata(TEST_BUCKET_NAME);
 
-    assertThatThrownBy(() ->
-        testBucketStore.getBucketMetadata(TEST_BUCKET_NAME)
-    ).isInstanceOf(NullPointerException.class);
+    //buckets are only known after loading them
+    assertThat(testBucketStore.getBucketMetadata(TEST_BUCKET_NAME)).isNull();
+    assertThat(testBucketStore.doesBucketExist(TEST_BUCKET_NAME)).isFalse();
 
+    var bucket = bucketStore.getBucketMetadata(TEST_BUCKET_NAME);
     testBucketStore.loadBuckets(Collections.singletonList(TEST_BUCKET_NAME));
     var reloadedBucket = testBucketStore.getBucketMetadata(TEST_BUCKET_NAME);
     assertThat(reloadedBucket.creationDate()).isEqualTo(bucket.creationDate());
@@ -86,12 +85,7 @@ class StoresWithExistingFileRootTest extends StoreTestBase {
 
     var object = objectStore.getS3ObjectMetadata(bucketMetadata, id);
 
-    assertThatThrownBy(() ->
-        testObjectStore.getS3ObjectMetadata(bucketMetadata, id)
-    ).isInstanceOf(NullPointerException.class);
-
-    testObjectStore.loadObjects(bucketMetadata, Collections.singletonList(object.id()));
-
+    //objects are loaded on first access, without registering them first
     var reloadedObject = testObjectStore.getS3ObjectMetadata(bucketMetadata, id);
     assertThat(reloadedObject.modificationDate()).isEqualTo(object.modificationDate());
     assertThat(reloadedObject.etag()).isEqualTo(object.etag());
@@ -103,13 +97,13 @@ class StoresWithExistingFileRootTest extends StoreTestBase {
     BucketStore testBucketStore(StoreProperties properties, File rootFolder,
         ObjectMapper objectMapper) {
       return new BucketStore(rootFolder, properties.retainFilesOnExit(),
-          S3_OBJECT_DATE_FORMAT, objectMapper);
+          S3_OBJECT_DATE_FORMAT, objectMapper, StoreMetrics.noop());
     }
 
     @Bean
     ObjectStore testObjectStore(StoreProperties properties, ObjectMapper objectMapper) {
       return new ObjectStore(properties.retainFilesOnExit(),
-          S3_OBJECT_DATE_FORMAT, objectMapper);
+          S3_OBJECT_DATE_FORMAT, objectMapper, StoreMetrics.noop());
     }
 
     @Bean
@@ -0,0 +1,111 @@
+/*
+ *  Copyright 2017-2024 Adobe.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.adobe.testing.s3mock.store;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TrashTest {
+
+  @Test
+  void testDeleteMovesFolderToTrashAndReclaimsIt(@TempDir Path root) throws Exception {
+    var folder = givenFolder(root.resolve("bucket").resolve("object"), 10);
+
+    try (var iut = new Trash(root, true, StoreMetrics.noop(), 0)) {
+      iut.delete(folder, "object");
+
+      assertThat(folder).doesNotExist();
+      awaitEmpty(root.resolve(Trash.FOLDER));
+    }
+    assertThat(root.resolve("bucket")).isEmptyDirectory();
+  }
+
+  @Test
+  void testReclaimsFoldersLeftInTrash(@TempDir Path root) throws Exception {
+    givenFolder(root.resolve(Trash.FOLDER).resolve("left-over"), 3);
+
+    try (var iut = new Trash(root, true, StoreMetrics.noop(), 0)) {
+      awaitEmpty(root.resolve(Trash.FOLDER));
+    }
+  }
+
+  @Test
+  void testCloseEmptiesTrashIfFilesAreNotRetained(@TempDir Path root) throws Exception {
+    var folder = givenFolder(root.resolve("bucket"), 100);
+
+    //one file per second, the folder is still in the trash when closing
+    var iut = new Trash(root, false, StoreMetrics.noop(), 1);
+    iut.delete(folder, "bucket");
+    iut.close();
+
+    assertThat(folder).doesNotExist();
+    assertThat(root.resolve(Trash.FOLDER)).doesNotExist();
+  }
+
+  @Test
+  void testDeletesInPlaceIfFolderCannotBeMoved(@TempDir Path root) throws Exception {
+    var folder = givenFolder(root.resolve("bucket").resolve("object"), 3);
+
+    try (var iut = new Trash(root, true, StoreMetrics.noop(), 0)) {
+      //moving into the trash fails with "Not a directory"
+      Files.delete(root.resolve(Trash.FOLDER));
+      Files.writeString(root.resolve(Trash.FOLDER), "not a folder");
+
+      iut.delete(folder, "object");
+
+      assertThat(folder).doesNotExist();
+    }
+  }
+
+  @Test
+  void testImmediateDeletesOnCallingThread(@TempDir Path root) throws Exception {
+    var folder = givenFolder(root.resolve("bucket"), 3);
+
+    Trash.immediate(StoreMetrics.noop()).delete(folder, "bucket");
+
+    assertThat(folder).doesNotExist();
+    assertThat(root.resolve(Trash.FOLDER)).doesNotExist();
+  }
+
+  private static Path givenFolder(Path folder, int files) throws IOException {
+    Files.createDirectories(folder.resolve("sub"));
+    for (var i = 0; i < files; i++) {
+      Files.writeString(folder.resolve("sub").resolve(i + ".part"), "part " + i);
+    }
+    return folder;
+  }
+
+  private static void awaitEmpty(Path folder) throws Exception {
+    var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (!isEmpty(folder) && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    assertThat(folder).isEmptyDirectory();
+  }
+
+  private static boolean isEmpty(Path folder) throws IOException {
+    try (var files = Files.list(folder)) {
+      return files.findAny().isEmpty();
+    }
+  }
+}